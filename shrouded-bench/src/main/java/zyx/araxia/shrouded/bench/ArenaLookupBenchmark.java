@@ -0,0 +1,87 @@
+package zyx.araxia.shrouded.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.plugin.MockPlugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zyx.araxia.shrouded.lobby.Arena;
+import zyx.araxia.shrouded.lobby.ArenaManager;
+
+/**
+ * {@link Arena#contains} and {@link ArenaManager#getArenaContaining}, run
+ * by movement and ability listeners. Arenas are laid out side by side along
+ * the X axis; lookups hit the last one or miss them all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArenaLookupBenchmark {
+
+    @Param({ "1", "10", "100" })
+    public int arenas;
+
+    private ArenaManager arenaManager;
+    private Arena lastArena;
+    private Location insideLast;
+    private Location outsideAll;
+
+    @Setup
+    public void setUp() {
+        ServerMock server = MockBukkit.mock();
+        MockPlugin plugin = MockBukkit.createMockPlugin();
+        World world = server.addSimpleWorld("arenas");
+        arenaManager = new ArenaManager(plugin);
+
+        for (int i = 0; i < arenas; i++) {
+            int x = i * 128;
+            arenaManager.registerArena("arena-" + i, world.getName(), x, 0, 0, x + 100, 128, 100, 16);
+        }
+        lastArena = arenaManager.getArena("arena-" + (arenas - 1));
+        insideLast = new Location(world, (arenas - 1) * 128 + 50.5, 64, 50.5);
+        outsideAll = new Location(world, -50.5, 64, -50.5);
+    }
+
+    @TearDown
+    public void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Benchmark
+    public boolean containsHit() {
+        return lastArena.contains(insideLast);
+    }
+
+    @Benchmark
+    public boolean containsMiss() {
+        return lastArena.contains(outsideAll);
+    }
+
+    @Benchmark
+    public Arena arenaContainingHit() {
+        return arenaManager.getArenaContaining(insideLast);
+    }
+
+    @Benchmark
+    public Arena arenaContainingMiss() {
+        return arenaManager.getArenaContaining(outsideAll);
+    }
+}
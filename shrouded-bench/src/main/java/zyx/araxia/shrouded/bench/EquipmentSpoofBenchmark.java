@@ -0,0 +1,67 @@
+package zyx.araxia.shrouded.bench;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zyx.araxia.shrouded.listener.EquipmentSpoofTargets;
+import zyx.araxia.shrouded.listener.ShroudedEquipmentSpoofer;
+
+/**
+ * The filter {@link ShroudedEquipmentSpoofer} runs on every outgoing
+ * equipment packet, on Netty threads. Most packets are for players who are
+ * not spoofed and must be let through as cheaply as possible. Blanking the
+ * packet itself needs the server's packet classes and is not covered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EquipmentSpoofBenchmark {
+
+    /** Concurrent matches, each with one spoofed Shrouded. */
+    @Param({ "1", "16", "128" })
+    public int spoofedPlayers;
+
+    private final EquipmentSpoofTargets targets = new EquipmentSpoofTargets();
+    private final UUID viewer = UUID.randomUUID();
+    private UUID shrouded;
+    private int shroudedEntityId;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < spoofedPlayers; i++) {
+            shrouded = UUID.randomUUID();
+            shroudedEntityId = 1_000 + i;
+            targets.add(shrouded, shroudedEntityId);
+        }
+    }
+
+    @Benchmark
+    public boolean unspoofedEntity() {
+        return targets.hidesFrom(42, viewer);
+    }
+
+    @Benchmark
+    public boolean spoofedToOtherViewer() {
+        return targets.hidesFrom(shroudedEntityId, viewer);
+    }
+
+    @Benchmark
+    public boolean spoofedToSelf() {
+        return targets.hidesFrom(shroudedEntityId, shrouded);
+    }
+}
@@ -0,0 +1,106 @@
+package zyx.araxia.shrouded.bench;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.entity.Player;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.plugin.MockPlugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zyx.araxia.shrouded.lobby.LobbyManager;
+import zyx.araxia.shrouded.lobby.LobbySession;
+
+/**
+ * {@link LobbyManager} player membership and sign lookups, which scan every
+ * lobby. Each lobby has one join sign, one leave sign and one player, so
+ * no countdown starts; the benchmarks look up the last lobby (worst case)
+ * and a location or player that matches none.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LobbyLookupBenchmark {
+
+    private static final String WORLD = "lobbies";
+
+    @Param({ "10", "100", "1000" })
+    public int lobbies;
+
+    private LobbyManager lobbyManager;
+    private Player lastPlayer;
+    private UUID lastPlayerId;
+    private final UUID stranger = UUID.randomUUID();
+    private int lastX;
+
+    @Setup
+    public void setUp() {
+        ServerMock server = MockBukkit.mock();
+        MockPlugin plugin = MockBukkit.createMockPlugin();
+        lobbyManager = new LobbyManager(plugin);
+
+        for (int i = 0; i < lobbies; i++) {
+            String name = "lobby-" + i;
+            int x = i * 32;
+            lobbyManager.registerLobby(name, WORLD, x, 60, 0, x + 16, 80, 16, 16);
+            lobbyManager.registerSign(name, WORLD, x, 64, 0);
+            lobbyManager.registerLeaveSign(name, WORLD, x, 64, 1);
+
+            Player player = server.addPlayer();
+            lobbyManager.getSession(name).add(player);
+            lastPlayer = player;
+            lastX = x;
+        }
+        lastPlayerId = lastPlayer.getUniqueId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Benchmark
+    public LobbySession joinSignHit() {
+        return lobbyManager.getSessionBySign(WORLD, lastX, 64, 0);
+    }
+
+    @Benchmark
+    public LobbySession joinSignMiss() {
+        return lobbyManager.getSessionBySign(WORLD, -1, 64, 0);
+    }
+
+    @Benchmark
+    public LobbySession leaveSignHit() {
+        return lobbyManager.getSessionByLeaveSign(WORLD, lastX, 64, 1);
+    }
+
+    @Benchmark
+    public LobbySession sessionForPlayerHit() {
+        return lobbyManager.getSessionForPlayer(lastPlayerId);
+    }
+
+    @Benchmark
+    public LobbySession sessionForPlayerMiss() {
+        return lobbyManager.getSessionForPlayer(stranger);
+    }
+
+    @Benchmark
+    public boolean isPlayerInSession() {
+        return lobbyManager.isPlayerInSession(lastPlayer);
+    }
+}
@@ -0,0 +1,56 @@
+package zyx.araxia.shrouded.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Location;
+import org.bukkit.util.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zyx.araxia.shrouded.projectile.ProjectilePhysics;
+
+/**
+ * One tick of projectile flight as the bomb projectiles run it: drag,
+ * gravity and speed clamp, the ray direction for the block trace, and the
+ * move. The ray trace and entity search themselves need a world.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectileStepBenchmark {
+
+    // Defaults from config.yml (survivor.bomb-*)
+    private static final double DRAG = 0.99;
+    private static final double GRAVITY = 0.06;
+    private static final double MAX_SPEED = 2.0;
+
+    private Location position;
+    private Vector velocity;
+
+    @Setup
+    public void setUp() {
+        position = new Location(null, 0, 64, 0);
+        velocity = new Vector(0.8, 0.4, 0.6);
+    }
+
+    @Benchmark
+    public Location step() {
+        // Relaunch every call so the flight never settles into a fixed point.
+        velocity.setX(0.8).setY(0.4).setZ(0.6);
+        ProjectilePhysics.applyDragAndGravity(velocity, DRAG, GRAVITY, MAX_SPEED);
+        Vector rayDirection = velocity.clone().normalize();
+        position.add(velocity);
+        return rayDirection.getX() > 1 ? null : position;
+    }
+}
@@ -0,0 +1,73 @@
+package zyx.araxia.shrouded.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.kyori.adventure.text.Component;
+import zyx.araxia.shrouded.item.ShroudedItems;
+
+/**
+ * {@link ShroudedItems#isShroudedItem}, which every item-use listener runs
+ * on every interact event before it knows whether the item is its own.
+ * Covers a plugin item, a named vanilla item and a plain stack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShroudedItemCheckBenchmark {
+
+    private ItemStack shroudedItem;
+    private ItemStack namedItem;
+    private ItemStack plainItem;
+
+    @Setup
+    public void setUp() {
+        MockBukkit.mock();
+        shroudedItem = ShroudedItems.createClassSelector();
+
+        namedItem = new ItemStack(Material.DIAMOND_SWORD);
+        ItemMeta meta = namedItem.getItemMeta();
+        meta.displayName(Component.text("Sword"));
+        namedItem.setItemMeta(meta);
+
+        plainItem = new ItemStack(Material.STONE, 16);
+    }
+
+    @TearDown
+    public void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Benchmark
+    public boolean shroudedItem() {
+        return ShroudedItems.isShroudedItem(shroudedItem);
+    }
+
+    @Benchmark
+    public boolean namedVanillaItem() {
+        return ShroudedItems.isShroudedItem(namedItem);
+    }
+
+    @Benchmark
+    public boolean plainVanillaItem() {
+        return ShroudedItems.isShroudedItem(plainItem);
+    }
+}
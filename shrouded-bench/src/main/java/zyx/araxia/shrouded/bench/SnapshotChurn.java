@@ -0,0 +1,185 @@
+package zyx.araxia.shrouded.bench;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import zyx.araxia.shrouded.lobby.PlayerSnapshot;
+import zyx.araxia.shrouded.lobby.SnapshotFormat;
+
+/**
+ * Join/leave churn against the snapshot directory: several threads at once
+ * each play a crowd of players who keep joining (encode, write, optionally
+ * fsync) and leaving (read, decode, delete) lobbies. Prints bytes on disk
+ * and p50/p99/p999 latency of both operations for every format and fixture.
+ *
+ * <p>
+ * Run with {@code mvn -B verify -Pbench} or
+ * {@code java -cp target/benchmarks.jar zyx.araxia.shrouded.bench.SnapshotChurn}.
+ * Settings are system properties:
+ * <ul>
+ * <li>{@code churn.threads} – concurrent writers (default 8)</li>
+ * <li>{@code churn.players} – players per thread (default 50)</li>
+ * <li>{@code churn.seconds} – how long each run lasts (default 10)</li>
+ * <li>{@code churn.fsync} – force each write to disk (default true)</li>
+ * <li>{@code snapshot.dir} – where to write; use the server's disk (default a
+ * temp directory)</li>
+ * <li>{@code snapshot.fixtures} – see {@link SnapshotFixtures}</li>
+ * </ul>
+ */
+public final class SnapshotChurn {
+
+    private SnapshotChurn() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("churn.threads", 8);
+        int players = Integer.getInteger("churn.players", 50);
+        int seconds = Integer.getInteger("churn.seconds", 10);
+        boolean fsync = Boolean.parseBoolean(System.getProperty("churn.fsync", "true"));
+        String base = System.getProperty("snapshot.dir");
+
+        System.out.printf("%d threads x %d players, %ds per run, fsync %s%n",
+                threads, players, seconds, fsync ? "on" : "off");
+        System.out.printf("%-8s %-16s %10s %10s %10s %10s %10s %10s %10s %10s%n",
+                "format", "fixture", "bytes", "ops/s",
+                "join p50", "join p99", "join p999", "leave p50", "leave p99", "leave p999");
+
+        Map<String, PlayerSnapshot> fixtures = SnapshotFixtures.all();
+        for (SnapshotFormat format : SnapshotFormat.ALL) {
+            for (Map.Entry<String, PlayerSnapshot> fixture : fixtures.entrySet()) {
+                Path dir = base != null ? Files.createTempDirectory(Path.of(base), "churn")
+                        : Files.createTempDirectory("churn");
+                try {
+                    run(format, fixture.getKey(), fixture.getValue(), dir, threads, players, seconds, fsync);
+                } finally {
+                    try (var files = Files.list(dir)) {
+                        for (Path file : (Iterable<Path>) files::iterator)
+                            Files.deleteIfExists(file);
+                    }
+                    Files.deleteIfExists(dir);
+                }
+            }
+        }
+    }
+
+    private static void run(SnapshotFormat format, String fixtureName, PlayerSnapshot fixture,
+            Path dir, int threads, int players, int seconds, boolean fsync) throws Exception {
+        long bytes = format.encode(fixture).length;
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Latencies[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            results.add(pool.submit(() -> churn(format, fixture, dir, thread, players, deadline, fsync)));
+        }
+        pool.shutdown();
+
+        Latencies joins = new Latencies();
+        Latencies leaves = new Latencies();
+        for (Future<Latencies[]> result : results) {
+            Latencies[] perThread = result.get();
+            joins.addAll(perThread[0]);
+            leaves.addAll(perThread[1]);
+        }
+        joins.sort();
+        leaves.sort();
+
+        System.out.printf("%-8s %-16s %10d %10d %10s %10s %10s %10s %10s %10s%n",
+                format.name(), fixtureName, bytes, (joins.size() + leaves.size()) / seconds,
+                micros(joins.percentile(0.50)), micros(joins.percentile(0.99)),
+                micros(joins.percentile(0.999)), micros(leaves.percentile(0.50)),
+                micros(leaves.percentile(0.99)), micros(leaves.percentile(0.999)));
+    }
+
+    /**
+     * One thread's share of the churn. Each thread owns its players' files,
+     * just as a player's snapshot is only ever touched by their own join and
+     * leave.
+     */
+    private static Latencies[] churn(SnapshotFormat format, PlayerSnapshot fixture, Path dir,
+            int thread, int players, long deadline, boolean fsync) throws IOException {
+        Path[] files = new Path[players];
+        boolean[] inLobby = new boolean[players];
+        for (int i = 0; i < players; i++)
+            files[i] = dir.resolve(thread + "-" + i + ".json");
+
+        Latencies joins = new Latencies();
+        Latencies leaves = new Latencies();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            int player = random.nextInt(players);
+            long start = System.nanoTime();
+            if (!inLobby[player]) {
+                write(files[player], format.encode(fixture), fsync);
+                joins.add(System.nanoTime() - start);
+            } else {
+                format.decode(Files.readAllBytes(files[player]));
+                Files.delete(files[player]);
+                leaves.add(System.nanoTime() - start);
+            }
+            inLobby[player] = !inLobby[player];
+        }
+        return new Latencies[] { joins, leaves };
+    }
+
+    private static void write(Path file, byte[] data, boolean fsync) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            if (fsync)
+                channel.force(true);
+        }
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1fus", nanos / 1_000.0);
+    }
+
+    /** Growable list of nanosecond latencies. */
+    private static final class Latencies {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long nanos) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = nanos;
+        }
+
+        void addAll(Latencies other) {
+            for (int i = 0; i < other.size; i++)
+                add(other.values[i]);
+        }
+
+        int size() {
+            return size;
+        }
+
+        void sort() {
+            Arrays.sort(values, 0, size);
+        }
+
+        /** Nearest-rank percentile; call {@link #sort()} first. */
+        long percentile(double p) {
+            if (size == 0)
+                return 0;
+            int rank = (int) Math.ceil(p * size) - 1;
+            return values[Math.max(0, Math.min(rank, size - 1))];
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package zyx.araxia.shrouded.bench;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import zyx.araxia.shrouded.lobby.PlayerSnapshot;
+import zyx.araxia.shrouded.lobby.SnapshotFormat;
+
+/**
+ * Player snapshots to benchmark with, from an empty inventory up to one
+ * full of shulker boxes and written books.
+ *
+ * <p>
+ * The synthetic fixtures stand each item in for random bytes of about the
+ * size {@code ItemStack.serializeAsBytes()} produces for it. That output is
+ * compressed NBT, so random bytes encode and compress much like the real
+ * thing, and no server is needed to make them. For exact numbers, point
+ * {@code -Dsnapshot.fixtures} at a copy of a server's
+ * {@code plugins/TheShrouded/playerData} directory. Every snapshot file in
+ * it is added as a fixture named after the file.
+ */
+final class SnapshotFixtures {
+
+    /** Approximate serialised size of one item, in bytes. */
+    private static final int PLAIN_STACK = 40;
+    private static final int ENCHANTED_GEAR = 220;
+    private static final int WRITTEN_BOOK = 6_000;
+    /** Shulker box holding 27 pieces of enchanted gear. */
+    private static final int GEAR_SHULKER = 27 * 180;
+    /** Shulker box holding 27 written books. */
+    private static final int BOOK_SHULKER = 27 * WRITTEN_BOOK;
+
+    enum Size {
+        /** Nothing but the clothes on their back. */
+        EMPTY,
+        /** A few stacks of blocks and food, enchanted armour and sword. */
+        TYPICAL,
+        /** Every slot taken, two thirds of it enchanted gear. */
+        FULL,
+        /** Shulker boxes and written books: the worst case for snapshot size. */
+        NBT_HEAVY
+    }
+
+    private SnapshotFixtures() {
+    }
+
+    /** The synthetic fixture for {@code size}. Always the same for the same size. */
+    static PlayerSnapshot synthetic(Size size) {
+        Random random = new Random(size.ordinal());
+        String[] inventory = new String[36];
+        String[] equipment = new String[6]; // helmet, chest, legs, boots, main hand, off hand
+
+        switch (size) {
+            case EMPTY -> {
+            }
+            case TYPICAL -> {
+                for (int i = 0; i < 12; i++)
+                    inventory[i] = item(random, PLAIN_STACK);
+                inventory[0] = item(random, ENCHANTED_GEAR);
+                for (int i = 0; i < 4; i++)
+                    equipment[i] = item(random, ENCHANTED_GEAR);
+                equipment[4] = inventory[0];
+            }
+            case FULL -> {
+                for (int i = 0; i < 36; i++)
+                    inventory[i] = item(random, i % 3 == 2 ? PLAIN_STACK : ENCHANTED_GEAR);
+                for (int i = 0; i < 4; i++)
+                    equipment[i] = item(random, ENCHANTED_GEAR);
+                equipment[4] = inventory[0];
+                equipment[5] = item(random, ENCHANTED_GEAR);
+            }
+            case NBT_HEAVY -> {
+                for (int i = 0; i < 36; i++) {
+                    int bytes;
+                    if (i < 9)
+                        bytes = GEAR_SHULKER;
+                    else if (i < 18)
+                        bytes = WRITTEN_BOOK;
+                    else if (i < 20)
+                        bytes = BOOK_SHULKER;
+                    else
+                        bytes = i % 2 == 0 ? ENCHANTED_GEAR : PLAIN_STACK;
+                    inventory[i] = item(random, bytes);
+                }
+                for (int i = 0; i < 4; i++)
+                    equipment[i] = item(random, ENCHANTED_GEAR);
+                equipment[4] = inventory[0];
+                equipment[5] = item(random, GEAR_SHULKER);
+            }
+        }
+
+        return PlayerSnapshot.fromEncoded("world", 120.5, 64, -33.5, 90f, 10f,
+                inventory, equipment[0], equipment[1], equipment[2], equipment[3],
+                equipment[4], equipment[5], 30, 0.5f);
+    }
+
+    /**
+     * Every fixture: the synthetic ones by {@link Size} name, then any real
+     * snapshot files from {@code -Dsnapshot.fixtures}.
+     */
+    static Map<String, PlayerSnapshot> all() throws IOException {
+        Map<String, PlayerSnapshot> fixtures = new LinkedHashMap<>();
+        for (Size size : Size.values())
+            fixtures.put(size.name(), synthetic(size));
+
+        String dir = System.getProperty("snapshot.fixtures");
+        if (dir != null && !dir.isBlank()) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(Path.of(dir), "*.json")) {
+                for (Path file : files) {
+                    fixtures.put(file.getFileName().toString(),
+                            SnapshotFormat.CURRENT.decode(Files.readAllBytes(file)));
+                }
+            }
+        }
+        return fixtures;
+    }
+
+    private static String item(Random random, int bytes) {
+        byte[] data = new byte[bytes];
+        random.nextBytes(data);
+        return Base64.getEncoder().encodeToString(data);
+    }
+}
@@ -0,0 +1,62 @@
+package zyx.araxia.shrouded.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zyx.araxia.shrouded.lobby.PlayerSnapshot;
+import zyx.araxia.shrouded.lobby.SnapshotFormat;
+
+/**
+ * Encoding and decoding a {@link PlayerSnapshot} in each
+ * {@link SnapshotFormat}, for each {@link SnapshotFixtures.Size}. Add a new
+ * format's {@link SnapshotFormat#name()} to {@link #format} to compare it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotFormatBenchmark {
+
+    @Param({ "json" })
+    public String format;
+
+    @Param({ "EMPTY", "TYPICAL", "FULL", "NBT_HEAVY" })
+    public String fixture;
+
+    private SnapshotFormat snapshotFormat;
+    private PlayerSnapshot snapshot;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        snapshotFormat = SnapshotFormat.ALL.stream()
+                .filter(f -> f.name().equals(format))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown snapshot format " + format));
+        snapshot = SnapshotFixtures.synthetic(SnapshotFixtures.Size.valueOf(fixture));
+        encoded = snapshotFormat.encode(snapshot);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return snapshotFormat.encode(snapshot);
+    }
+
+    @Benchmark
+    public PlayerSnapshot decode() {
+        return snapshotFormat.decode(encoded);
+    }
+}
@@ -0,0 +1,92 @@
+package zyx.araxia.shrouded.bench;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zyx.araxia.shrouded.lobby.SnapshotFormat;
+
+/**
+ * Writing an encoded snapshot to disk, with and without forcing it to
+ * stable storage. Sampled, so the report carries latency percentiles
+ * rather than a mean. Run on the disk the server's plugin folder lives
+ * on: {@code -Dsnapshot.dir=/path/on/that/disk}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotFsyncBenchmark {
+
+    @Param({ "json" })
+    public String format;
+
+    @Param({ "TYPICAL", "NBT_HEAVY" })
+    public String fixture;
+
+    private Path dir;
+    private Path file;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        SnapshotFormat snapshotFormat = SnapshotFormat.ALL.stream()
+                .filter(f -> f.name().equals(format))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown snapshot format " + format));
+        encoded = snapshotFormat.encode(SnapshotFixtures.synthetic(SnapshotFixtures.Size.valueOf(fixture)));
+
+        String base = System.getProperty("snapshot.dir");
+        dir = base != null ? Files.createTempDirectory(Path.of(base), "snapshots")
+                : Files.createTempDirectory("snapshots");
+        file = dir.resolve("player.json");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(dir);
+    }
+
+    /** What {@code LobbyManager} does today: write and close. */
+    @Benchmark
+    public void write() throws IOException {
+        writeFile(false);
+    }
+
+    /** Write, then wait until the data is on stable storage. */
+    @Benchmark
+    public void writeAndFsync() throws IOException {
+        writeFile(true);
+    }
+
+    private void writeFile(boolean fsync) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(encoded);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            if (fsync)
+                channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package zyx.araxia.shrouded.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import zyx.araxia.shrouded.listener.ShroudedToxicCloudListener;
+
+/**
+ * Point generation for the toxic cloud's sphere of particles, run every
+ * tick the cloud is alive for each of its two particle layers. Spawning the
+ * particles needs a world and is not covered.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SphereParticlesBenchmark {
+
+    /** Primary-layer particles per tick at hitbox sizes 1 and 3 (config.yml defaults). */
+    @Param({ "20", "60" })
+    public int count;
+
+    private Location center;
+
+    @Setup
+    public void setUp() {
+        center = new Location(null, 0.5, 64, 0.5);
+    }
+
+    @Benchmark
+    public void spherePoints(Blackhole blackhole) {
+        for (int i = 0; i < count; i++)
+            blackhole.consume(ShroudedToxicCloudListener.randomSpherePoint(center, 3.0));
+    }
+}
@@ -0,0 +1,8 @@
+package zyx.araxia.shrouded.core;
+
+/** A delayed task handed out by a {@link GameScheduler}. */
+public interface Cancellable {
+
+    /** Stops the task from running. Safe to call more than once. */
+    void cancel();
+}
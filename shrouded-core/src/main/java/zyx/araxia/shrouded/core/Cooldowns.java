@@ -0,0 +1,56 @@
+package zyx.araxia.shrouded.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key ability cooldowns, measured in milliseconds of a clock that can be
+ * swapped out for simulation.
+ *
+ * @param <K> the key, normally a player UUID
+ */
+public final class Cooldowns<K> {
+
+    private final Map<K, Long> expiry = new HashMap<>();
+    private final LongSupplier clock;
+
+    public Cooldowns() {
+        this(System::currentTimeMillis);
+    }
+
+    public Cooldowns(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    public boolean isReady(K key) {
+        return remainingMillis(key) == 0;
+    }
+
+    public long remainingMillis(K key) {
+        return Math.max(0, expiry.getOrDefault(key, 0L) - clock.getAsLong());
+    }
+
+    /** Remaining time rounded up to whole seconds, for display. */
+    public long remainingSeconds(K key) {
+        return (remainingMillis(key) + 999) / 1000;
+    }
+
+    /** Puts {@code key} on cooldown for {@code millis} from now. */
+    public void start(K key, long millis) {
+        startFrom(key, clock.getAsLong(), millis);
+    }
+
+    /** Puts {@code key} on cooldown for {@code millis} from {@code startMillis}. */
+    public void startFrom(K key, long startMillis, long millis) {
+        expiry.put(key, startMillis + millis);
+    }
+
+    public void clear(K key) {
+        expiry.remove(key);
+    }
+}
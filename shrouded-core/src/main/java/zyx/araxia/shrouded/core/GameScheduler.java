@@ -0,0 +1,13 @@
+package zyx.araxia.shrouded.core;
+
+/**
+ * Runs game logic later on whatever thread owns the game state. The Paper
+ * plugin backs this with its {@code TaskScheduler}; anything else (a
+ * simulation, a test harness) can drive it from its own clock.
+ */
+@FunctionalInterface
+public interface GameScheduler {
+
+    /** Runs {@code task} once after {@code delayTicks} game ticks (20 per second). */
+    Cancellable schedule(Runnable task, long delayTicks);
+}
@@ -0,0 +1,142 @@
+package zyx.araxia.shrouded.core;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The lobby's pre-match state machine: {@link State#WAITING} until at least
+ * two players are waiting, then {@link State#COUNTDOWN} until the countdown
+ * runs out, at which point the {@link Host} forms its matches.
+ *
+ * <p>
+ * A countdown that runs out less than 15 seconds after the most recent join
+ * is pushed back by 5 seconds at a time, so late joiners get to pick a class.
+ */
+public final class LobbyCountdown {
+
+    public enum State {
+        /** Fewer than two players waiting, or waiting for the countdown to be restarted. */
+        WAITING,
+        /** The countdown to the next round is running. */
+        COUNTDOWN
+    }
+
+    /** The lobby the countdown belongs to. */
+    public interface Host {
+
+        /** Players waiting in the lobby, i.e. not in a match. */
+        int waitingPlayers();
+
+        /** The most recent join among the waiting players, or {@code null} if nobody is waiting. */
+        Instant latestJoin();
+
+        void stateChanged(State from, State to);
+
+        /** The countdown was pushed back because someone joined recently. */
+        default void countdownDeferred() {
+        }
+
+        /** The countdown ran out; form matches from the waiting players. */
+        void countdownFinished();
+    }
+
+    /** Fewest waiting players that start (or keep) a countdown. */
+    public static final int MIN_PLAYERS = 2;
+
+    /** How recently someone must have joined for the countdown to be pushed back. */
+    public static final Duration RECENT_JOIN = Duration.ofSeconds(15);
+
+    /** How far a countdown is pushed back for a recent join: 5 seconds. */
+    public static final long DEFER_TICKS = 100L;
+
+    private final GameScheduler scheduler;
+    private final Host host;
+    private final Clock clock;
+
+    private State state = State.WAITING;
+    private Cancellable task;
+    private boolean autoStart = true;
+
+    public LobbyCountdown(GameScheduler scheduler, Host host) {
+        this(scheduler, host, Clock.systemUTC());
+    }
+
+    public LobbyCountdown(GameScheduler scheduler, Host host, Clock clock) {
+        this.scheduler = scheduler;
+        this.host = host;
+        this.clock = clock;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isRunning() {
+        return task != null;
+    }
+
+    /**
+     * Whether waiting players start a countdown on their own. When off, the
+     * countdown only ever runs down, never up.
+     */
+    public void setAutoStart(boolean autoStart) {
+        this.autoStart = autoStart;
+    }
+
+    /**
+     * Starts a countdown of {@code delayTicks} if auto-start is on, enough
+     * players are waiting and none is running yet.
+     *
+     * @return {@code true} if a countdown was started.
+     */
+    public boolean startIfReady(long delayTicks) {
+        if (!autoStart || task != null || host.waitingPlayers() < MIN_PLAYERS)
+            return false;
+        setState(State.COUNTDOWN);
+        task = scheduler.schedule(this::fire, delayTicks);
+        return true;
+    }
+
+    /**
+     * Cancels the running countdown if fewer than {@link #MIN_PLAYERS} are
+     * still waiting.
+     *
+     * @return {@code true} if a countdown was cancelled.
+     */
+    public boolean cancelIfTooFew() {
+        if (task == null || host.waitingPlayers() >= MIN_PLAYERS)
+            return false;
+        cancel();
+        return true;
+    }
+
+    /** Cancels any running countdown and returns to {@link State#WAITING}. */
+    public void cancel() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        setState(State.WAITING);
+    }
+
+    private void fire() {
+        Instant latest = host.latestJoin();
+        if (latest != null
+                && Duration.between(latest, clock.instant()).compareTo(RECENT_JOIN) < 0) {
+            host.countdownDeferred();
+            task = scheduler.schedule(this::fire, DEFER_TICKS);
+            return;
+        }
+
+        task = null;
+        setState(State.WAITING);
+        host.countdownFinished();
+    }
+
+    private void setState(State next) {
+        State previous = state;
+        state = next;
+        host.stateChanged(previous, next);
+    }
+}
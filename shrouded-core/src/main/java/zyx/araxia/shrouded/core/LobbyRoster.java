@@ -0,0 +1,154 @@
+package zyx.araxia.shrouded.core;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Who is in a lobby, when they joined and which match each is playing in.
+ * Players not in a match are waiting for the next countdown; this is what
+ * a {@link LobbyCountdown.Host} reports, and {@link #form} splits them into
+ * matches with {@link MatchFormation}.
+ *
+ * @param <M> the lobby's match type
+ */
+public final class LobbyRoster<M> {
+
+    private final Map<UUID, Instant> joinTimes = new HashMap<>();
+
+    /** The match each player is playing in. Absent while waiting. */
+    private final Map<UUID, M> matchOf = new HashMap<>();
+
+    /** Matches formed from this lobby that have not yet handed their roster back. */
+    private final List<M> matches = new ArrayList<>();
+
+    /** Adds {@code player} to the players waiting in the lobby. */
+    public void join(UUID player, Instant joinedAt) {
+        joinTimes.put(player, joinedAt);
+    }
+
+    /**
+     * Removes {@code player} from the lobby.
+     *
+     * @return the match they were playing in, or {@code null} if they were
+     *         waiting (or not here at all).
+     */
+    public M leave(UUID player) {
+        joinTimes.remove(player);
+        return matchOf.remove(player);
+    }
+
+    public boolean contains(UUID player) {
+        return joinTimes.containsKey(player);
+    }
+
+    /** Every player in the lobby, whether waiting or in a match. */
+    public int size() {
+        return joinTimes.size();
+    }
+
+    /** Players waiting in the lobby, i.e. not in a match. */
+    public int waitingCount() {
+        return joinTimes.size() - matchOf.size();
+    }
+
+    /** When {@code player} joined, or {@code null} if they are not here. */
+    public Instant joinTime(UUID player) {
+        return joinTimes.get(player);
+    }
+
+    /** The most recent join among the waiting players, or {@code null} if nobody is waiting. */
+    public Instant latestJoin() {
+        Instant latest = null;
+        for (Map.Entry<UUID, Instant> entry : joinTimes.entrySet()) {
+            if (matchOf.containsKey(entry.getKey()))
+                continue;
+            if (latest == null || entry.getValue().isAfter(latest))
+                latest = entry.getValue();
+        }
+        return latest;
+    }
+
+    /** The match {@code player} is in, or {@code null} if they are waiting. */
+    public M matchOf(UUID player) {
+        return matchOf.get(player);
+    }
+
+    public List<M> matches() {
+        return Collections.unmodifiableList(matches);
+    }
+
+    /** The players waiting in the lobby, longest-waiting first. */
+    public List<UUID> waiting() {
+        List<UUID> waiting = new ArrayList<>();
+        for (UUID player : joinTimes.keySet()) {
+            if (!matchOf.containsKey(player))
+                waiting.add(player);
+        }
+        waiting.sort(Comparator.comparing(joinTimes::get));
+        return waiting;
+    }
+
+    /**
+     * Splits the waiting players into rosters with
+     * {@link MatchFormation#split}, creates a match for each with
+     * {@code newMatch} and registers it. The matches are returned in order
+     * but not started, so a match that hands its roster straight back does
+     * not disturb the others being formed.
+     */
+    public List<M> form(int maxPerMatch, int minPlayers, Function<List<UUID>, M> newMatch) {
+        List<M> formed = new ArrayList<>();
+        for (List<UUID> roster : MatchFormation.split(waiting(), maxPerMatch, minPlayers))
+            formed.add(add(roster, newMatch));
+        return formed;
+    }
+
+    /**
+     * Creates a match for {@code roster} with {@code newMatch} and registers
+     * it. Players who are not waiting in the lobby are left out; returns
+     * {@code null} (and creates nothing) if that leaves nobody.
+     */
+    public M add(Collection<UUID> roster, Function<List<UUID>, M> newMatch) {
+        List<UUID> waiting = new ArrayList<>();
+        for (UUID player : roster) {
+            if (joinTimes.containsKey(player) && !matchOf.containsKey(player))
+                waiting.add(player);
+        }
+        if (waiting.isEmpty())
+            return null;
+
+        M match = newMatch.apply(waiting);
+        matches.add(match);
+        for (UUID player : waiting)
+            matchOf.put(player, match);
+        return match;
+    }
+
+    /**
+     * Hands {@code match}'s roster back to the lobby, where they wait for
+     * the next countdown.
+     *
+     * @return {@code false} if the match was already finished (or never
+     *         registered).
+     */
+    public boolean finish(M match) {
+        if (!matches.remove(match))
+            return false;
+        matchOf.values().removeIf(m -> m == match);
+        return true;
+    }
+
+    /** Removes every player and forgets every match. */
+    public void clear() {
+        joinTimes.clear();
+        matchOf.clear();
+        matches.clear();
+    }
+}
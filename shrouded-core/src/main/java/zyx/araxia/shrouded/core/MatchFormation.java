@@ -0,0 +1,34 @@
+package zyx.araxia.shrouded.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Splits the players waiting in a lobby into match rosters. */
+public final class MatchFormation {
+
+    private MatchFormation() {
+    }
+
+    /**
+     * Splits {@code waiting} into as few rosters of at most
+     * {@code maxPerMatch} as possible, with sizes as even as possible and none
+     * smaller than {@code minPlayers}. Players are dealt round-robin in the
+     * given order, so put the longest-waiting first. Players who fit in no
+     * roster (too few for another of {@code minPlayers}, with the others
+     * full) are left out to keep waiting.
+     */
+    public static <P> List<List<P>> split(List<P> waiting, int maxPerMatch, int minPlayers) {
+        int max = Math.max(maxPerMatch, 2);
+        int count = Math.min((waiting.size() + max - 1) / max,
+                waiting.size() / Math.max(minPlayers, 1));
+        int placed = Math.min(waiting.size(), count * max);
+
+        // Deal players round-robin so roster sizes differ by at most one.
+        List<List<P>> rosters = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            rosters.add(new ArrayList<>());
+        for (int i = 0; i < placed; i++)
+            rosters.get(i % count).add(waiting.get(i));
+        return rosters;
+    }
+}
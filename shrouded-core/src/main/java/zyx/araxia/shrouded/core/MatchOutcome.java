@@ -0,0 +1,39 @@
+package zyx.araxia.shrouded.core;
+
+import java.util.function.BooleanSupplier;
+
+/** How a round ended, and which side that means won. */
+public enum MatchOutcome {
+    /** The Shrouded player was killed; mercenaries win. */
+    SHROUDED_KILLED,
+    /** Every mercenary was killed; the Shrouded wins. */
+    ALL_MERCENARIES_KILLED,
+    /** The round timer reached zero; mercenaries win. */
+    TIME_EXPIRED;
+
+    public enum Side {
+        SHROUDED,
+        MERCENARIES
+    }
+
+    public Side winner() {
+        return this == ALL_MERCENARIES_KILLED ? Side.SHROUDED : Side.MERCENARIES;
+    }
+
+    /**
+     * Decides whether a death ends the round.
+     *
+     * @param dead             the side of the player who died, or {@code null} if
+     *                         they had no class
+     * @param mercenaryAlive   whether any other mercenary is still alive; only
+     *                         asked when a mercenary died
+     * @return how the round ended, or {@code null} if it goes on
+     */
+    public static MatchOutcome afterDeath(Side dead, BooleanSupplier mercenaryAlive) {
+        if (dead == Side.SHROUDED)
+            return SHROUDED_KILLED;
+        if (dead == null || mercenaryAlive.getAsBoolean())
+            return null;
+        return ALL_MERCENARIES_KILLED;
+    }
+}
@@ -0,0 +1,53 @@
+package zyx.araxia.shrouded.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Hands out roles at the start of a round: a random regular class for every
+ * player who did not pick one, then the hidden role to one player chosen at
+ * random.
+ *
+ * @param <C> the class type, e.g. the plugin's {@code PlayerClass}
+ */
+public final class RoleAssigner<C> {
+
+    private final List<C> regularClasses;
+    private final Random random;
+
+    public RoleAssigner(List<C> regularClasses, Random random) {
+        if (regularClasses.isEmpty())
+            throw new IllegalArgumentException("At least one regular class is required");
+        this.regularClasses = List.copyOf(regularClasses);
+        this.random = random;
+    }
+
+    /**
+     * Picks a random regular class for each player in {@code roster} whose
+     * {@code chosen} class is {@code null}.
+     *
+     * @return the classes picked, by player, in roster order
+     */
+    public Map<UUID, C> fillMissing(Collection<UUID> roster, Function<UUID, C> chosen) {
+        Map<UUID, C> assigned = new LinkedHashMap<>();
+        for (UUID uuid : roster) {
+            if (chosen.apply(uuid) == null)
+                assigned.put(uuid, regularClasses.get(random.nextInt(regularClasses.size())));
+        }
+        return assigned;
+    }
+
+    /** Picks the player who takes the hidden role, or {@code null} for an empty roster. */
+    public UUID pickHidden(Collection<UUID> roster) {
+        if (roster.isEmpty())
+            return null;
+        List<UUID> uuids = new ArrayList<>(roster);
+        return uuids.get(random.nextInt(uuids.size()));
+    }
+}
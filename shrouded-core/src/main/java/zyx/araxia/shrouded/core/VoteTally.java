@@ -0,0 +1,94 @@
+package zyx.araxia.shrouded.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * One vote per player among a fixed set of candidates. The winner is drawn
+ * at random, weighted by vote count: every candidate gets a guaranteed base
+ * weight of 1 plus one additional weight per vote cast for it.
+ *
+ * @param <A> the kind of thing being voted on
+ */
+public final class VoteTally<A> {
+
+    private final List<A> candidates = new ArrayList<>();
+    private final Map<UUID, A> votes = new HashMap<>();
+
+    /** Starts a fresh vote among {@code candidates}, discarding any earlier votes. */
+    public void open(Collection<? extends A> candidates) {
+        this.candidates.clear();
+        this.candidates.addAll(candidates);
+        votes.clear();
+    }
+
+    public List<A> getCandidates() {
+        return List.copyOf(candidates);
+    }
+
+    /** Records (or changes) {@code voter}'s vote. Votes for non-candidates are ignored. */
+    public boolean record(UUID voter, A choice) {
+        if (!candidates.contains(choice))
+            return false;
+        votes.put(voter, choice);
+        return true;
+    }
+
+    public void remove(UUID voter) {
+        votes.remove(voter);
+    }
+
+    /** Number of players who have voted. */
+    public int size() {
+        return votes.size();
+    }
+
+    /**
+     * Whether all {@code voters} eligible players have voted, in which case
+     * the vote can be resolved without waiting for its timeout.
+     */
+    public boolean isComplete(int voters) {
+        return votes.size() >= voters;
+    }
+
+    public void clear() {
+        candidates.clear();
+        votes.clear();
+    }
+
+    /** Votes cast per candidate, in candidate order. */
+    public Map<A, Integer> counts() {
+        Map<A, Integer> counts = new LinkedHashMap<>();
+        for (A candidate : candidates)
+            counts.put(candidate, 0);
+        for (A voted : votes.values())
+            counts.merge(voted, 1, Integer::sum);
+        return counts;
+    }
+
+    /**
+     * Draws the winner. Returns {@code null} only if there are no candidates.
+     */
+    public A resolve(Random random) {
+        Map<A, Integer> counts = counts();
+        int total = 0;
+        for (int count : counts.values())
+            total += 1 + count;
+        if (total == 0)
+            return null;
+
+        int pick = random.nextInt(total);
+        for (Map.Entry<A, Integer> entry : counts.entrySet()) {
+            pick -= 1 + entry.getValue();
+            if (pick < 0)
+                return entry.getKey();
+        }
+        throw new IllegalStateException("unreachable");
+    }
+}
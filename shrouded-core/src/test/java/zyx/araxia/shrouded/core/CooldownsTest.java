@@ -0,0 +1,57 @@
+package zyx.araxia.shrouded.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class CooldownsTest {
+
+    private final AtomicLong clock = new AtomicLong(10_000);
+    private final Cooldowns<String> cooldowns = new Cooldowns<>(clock::get);
+
+    @Test
+    void readyUntilStarted() {
+        assertTrue(cooldowns.isReady("alice"));
+        assertEquals(0, cooldowns.remainingMillis("alice"));
+    }
+
+    @Test
+    void expiresAfterItsDuration() {
+        cooldowns.start("alice", 1_500);
+        assertFalse(cooldowns.isReady("alice"));
+        assertEquals(1_500, cooldowns.remainingMillis("alice"));
+
+        clock.addAndGet(1_499);
+        assertFalse(cooldowns.isReady("alice"));
+        clock.addAndGet(1);
+        assertTrue(cooldowns.isReady("alice"));
+        assertTrue(cooldowns.isReady("bob"));
+    }
+
+    @Test
+    void roundsRemainingSecondsUp() {
+        cooldowns.start("alice", 1_001);
+        assertEquals(2, cooldowns.remainingSeconds("alice"));
+        clock.addAndGet(1);
+        assertEquals(1, cooldowns.remainingSeconds("alice"));
+        clock.addAndGet(1_000);
+        assertEquals(0, cooldowns.remainingSeconds("alice"));
+    }
+
+    @Test
+    void startFromCountsFromTheGivenTime() {
+        cooldowns.startFrom("alice", clock.get() - 400, 1_000);
+        assertEquals(600, cooldowns.remainingMillis("alice"));
+    }
+
+    @Test
+    void clearMakesItReadyAgain() {
+        cooldowns.start("alice", 5_000);
+        cooldowns.clear("alice");
+        assertTrue(cooldowns.isReady("alice"));
+    }
+}
@@ -0,0 +1,167 @@
+package zyx.araxia.shrouded.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import zyx.araxia.shrouded.core.LobbyCountdown.State;
+
+class LobbyCountdownTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    /** Runs tasks when {@link #advance} passes their tick. */
+    private static final class ManualScheduler implements GameScheduler {
+        private final List<long[]> due = new ArrayList<>();
+        private final List<Runnable> tasks = new ArrayList<>();
+        private long tick = 0;
+
+        @Override
+        public Cancellable schedule(Runnable task, long delayTicks) {
+            long[] at = { tick + delayTicks };
+            due.add(at);
+            tasks.add(task);
+            return () -> at[0] = -1;
+        }
+
+        void advance(long ticks) {
+            long until = tick + ticks;
+            while (tick < until) {
+                tick++;
+                for (int i = 0; i < tasks.size(); i++) {
+                    if (due.get(i)[0] == tick)
+                        tasks.get(i).run();
+                }
+            }
+        }
+    }
+
+    private static final class FakeHost implements LobbyCountdown.Host {
+        int waiting = 0;
+        Instant latestJoin = null;
+        int deferred = 0;
+        int finished = 0;
+        final List<State> states = new ArrayList<>();
+
+        @Override
+        public int waitingPlayers() {
+            return waiting;
+        }
+
+        @Override
+        public Instant latestJoin() {
+            return latestJoin;
+        }
+
+        @Override
+        public void stateChanged(State from, State to) {
+            states.add(to);
+        }
+
+        @Override
+        public void countdownDeferred() {
+            deferred++;
+        }
+
+        @Override
+        public void countdownFinished() {
+            finished++;
+        }
+    }
+
+    private ManualScheduler scheduler;
+    private FakeHost host;
+    private LobbyCountdown countdown;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new ManualScheduler();
+        host = new FakeHost();
+        countdown = new LobbyCountdown(scheduler, host, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void needsTwoPlayersToStart() {
+        host.waiting = 1;
+        assertFalse(countdown.startIfReady(200));
+        assertEquals(State.WAITING, countdown.getState());
+
+        host.waiting = 2;
+        assertTrue(countdown.startIfReady(200));
+        assertEquals(State.COUNTDOWN, countdown.getState());
+        assertFalse(countdown.startIfReady(200), "a second countdown must not start");
+    }
+
+    @Test
+    void doesNotStartWithAutoStartOff() {
+        host.waiting = 4;
+        countdown.setAutoStart(false);
+        assertFalse(countdown.startIfReady(200));
+        assertFalse(countdown.isRunning());
+    }
+
+    @Test
+    void finishesAfterTheDelay() {
+        host.waiting = 2;
+        countdown.startIfReady(200);
+
+        scheduler.advance(199);
+        assertEquals(0, host.finished);
+        scheduler.advance(1);
+        assertEquals(1, host.finished);
+        assertEquals(State.WAITING, countdown.getState());
+        assertFalse(countdown.isRunning());
+        assertEquals(List.of(State.COUNTDOWN, State.WAITING), host.states);
+    }
+
+    @Test
+    void recentJoinPushesTheCountdownBack() {
+        host.waiting = 2;
+        host.latestJoin = NOW.minusSeconds(5);
+        countdown.startIfReady(20);
+
+        scheduler.advance(20);
+        assertEquals(1, host.deferred);
+        assertEquals(0, host.finished);
+        assertTrue(countdown.isRunning());
+
+        host.latestJoin = NOW.minus(LobbyCountdown.RECENT_JOIN);
+        scheduler.advance(LobbyCountdown.DEFER_TICKS);
+        assertEquals(1, host.deferred);
+        assertEquals(1, host.finished);
+    }
+
+    @Test
+    void cancelsWhenTooFewRemain() {
+        host.waiting = 2;
+        countdown.startIfReady(200);
+        assertFalse(countdown.cancelIfTooFew());
+
+        host.waiting = 1;
+        assertTrue(countdown.cancelIfTooFew());
+        assertEquals(State.WAITING, countdown.getState());
+
+        scheduler.advance(200);
+        assertEquals(0, host.finished, "a cancelled countdown must not fire");
+    }
+
+    @Test
+    void staleJoinDoesNotDefer() {
+        host.waiting = 2;
+        host.latestJoin = NOW.minus(Duration.ofMinutes(1));
+        countdown.startIfReady(20);
+        scheduler.advance(20);
+        assertEquals(0, host.deferred);
+        assertEquals(1, host.finished);
+    }
+}
@@ -0,0 +1,82 @@
+package zyx.araxia.shrouded.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class LobbyRosterTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    private static UUID player(int i) {
+        return new UUID(0, i);
+    }
+
+    /** A roster with players 1..{@code count}, player {@code i} joining {@code i} seconds in. */
+    private static LobbyRoster<List<UUID>> joined(int count) {
+        LobbyRoster<List<UUID>> roster = new LobbyRoster<>();
+        for (int i = count; i >= 1; i--)
+            roster.join(player(i), T0.plusSeconds(i));
+        return roster;
+    }
+
+    @Test
+    void listsWaitingPlayersLongestWaitingFirst() {
+        assertEquals(List.of(player(1), player(2), player(3)), joined(3).waiting());
+    }
+
+    @Test
+    void formsMatchesFromWaitingPlayersOnly() {
+        LobbyRoster<List<UUID>> roster = joined(5);
+        List<List<UUID>> formed = roster.form(3, 2, List::copyOf);
+
+        assertEquals(List.of(List.of(player(1), player(3), player(5)), List.of(player(2), player(4))),
+                formed);
+        assertEquals(0, roster.waitingCount());
+        assertNull(roster.latestJoin());
+        assertSame(formed.get(1), roster.matchOf(player(4)));
+        assertEquals(List.of(), roster.form(3, 2, List::copyOf));
+    }
+
+    @Test
+    void addSkipsPlayersWhoAreNotWaiting() {
+        LobbyRoster<List<UUID>> roster = joined(3);
+        roster.add(List.of(player(1), player(2)), List::copyOf);
+
+        List<UUID> second = roster.add(List.of(player(2), player(3), player(9)), List::copyOf);
+        assertEquals(List.of(player(3)), second);
+        assertNull(roster.add(List.of(player(1)), List::copyOf));
+        assertEquals(2, roster.matches().size());
+    }
+
+    @Test
+    void finishingAMatchReturnsItsRosterToTheLobby() {
+        LobbyRoster<List<UUID>> roster = joined(3);
+        List<UUID> match = roster.add(List.of(player(1), player(3)), List::copyOf);
+        assertEquals(T0.plusSeconds(2), roster.latestJoin());
+
+        assertTrue(roster.finish(match));
+        assertFalse(roster.finish(match));
+        assertEquals(3, roster.waitingCount());
+        assertEquals(T0.plusSeconds(3), roster.latestJoin());
+    }
+
+    @Test
+    void leavingReportsTheMatchThePlayerWasIn() {
+        LobbyRoster<List<UUID>> roster = joined(2);
+        List<UUID> match = roster.add(List.of(player(1)), List::copyOf);
+
+        assertSame(match, roster.leave(player(1)));
+        assertNull(roster.leave(player(2)));
+        assertEquals(0, roster.size());
+        assertFalse(roster.contains(player(1)));
+    }
+}
@@ -0,0 +1,60 @@
+package zyx.araxia.shrouded.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class MatchFormationTest {
+
+    private static List<Integer> players(int count) {
+        return IntStream.range(0, count).boxed().toList();
+    }
+
+    private static List<Integer> sizes(List<List<Integer>> rosters) {
+        return rosters.stream().map(List::size).toList();
+    }
+
+    @Test
+    void formsNothingBelowTheMinimum() {
+        assertEquals(List.of(), MatchFormation.split(players(4), 8, 5));
+        assertEquals(List.of(), MatchFormation.split(List.<Integer>of(), 8, 2));
+    }
+
+    @Test
+    void putsEveryoneInOneRosterWhenTheyFit() {
+        assertEquals(List.of(players(8)), MatchFormation.split(players(8), 8, 2));
+    }
+
+    @Test
+    void neverExceedsTheMaximumAndLeavesTheOverflowWaiting() {
+        List<List<Integer>> rosters = MatchFormation.split(players(9), 8, 5);
+
+        assertEquals(List.of(8), sizes(rosters));
+        // The longest-waiting players are the ones placed.
+        assertEquals(players(8), rosters.get(0).stream().sorted().toList());
+    }
+
+    @Test
+    void splitsEvenlyWhenEnoughForTwoRosters() {
+        assertEquals(List.of(5, 5), sizes(MatchFormation.split(players(10), 8, 5)));
+        assertEquals(List.of(9, 8), sizes(MatchFormation.split(players(17), 10, 2)));
+    }
+
+    @Test
+    void dealsRoundRobinInWaitingOrder() {
+        assertEquals(List.of(List.of(0, 2, 4), List.of(1, 3)), MatchFormation.split(players(5), 3, 2));
+    }
+
+    @Test
+    void everyRosterIsWithinBounds() {
+        for (int waiting = 0; waiting <= 40; waiting++) {
+            for (List<Integer> roster : MatchFormation.split(players(waiting), 8, 5)) {
+                assertTrue(roster.size() >= 5 && roster.size() <= 8, waiting + " waiting: " + roster.size());
+            }
+        }
+    }
+}
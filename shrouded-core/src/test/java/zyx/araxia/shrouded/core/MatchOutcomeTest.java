@@ -0,0 +1,36 @@
+package zyx.araxia.shrouded.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import zyx.araxia.shrouded.core.MatchOutcome.Side;
+
+class MatchOutcomeTest {
+
+    @Test
+    void onlyKillingEveryMercenaryWinsForTheShrouded() {
+        assertEquals(Side.MERCENARIES, MatchOutcome.SHROUDED_KILLED.winner());
+        assertEquals(Side.SHROUDED, MatchOutcome.ALL_MERCENARIES_KILLED.winner());
+        assertEquals(Side.MERCENARIES, MatchOutcome.TIME_EXPIRED.winner());
+    }
+
+    @Test
+    void shroudedDeathEndsTheRound() {
+        assertEquals(MatchOutcome.SHROUDED_KILLED, MatchOutcome.afterDeath(Side.SHROUDED, () -> {
+            throw new AssertionError("survivors need not be checked");
+        }));
+    }
+
+    @Test
+    void mercenaryDeathEndsTheRoundOnlyIfNoneAreLeft() {
+        assertNull(MatchOutcome.afterDeath(Side.MERCENARIES, () -> true));
+        assertEquals(MatchOutcome.ALL_MERCENARIES_KILLED, MatchOutcome.afterDeath(Side.MERCENARIES, () -> false));
+    }
+
+    @Test
+    void deathWithoutAClassNeverEndsTheRound() {
+        assertNull(MatchOutcome.afterDeath(null, () -> false));
+    }
+}
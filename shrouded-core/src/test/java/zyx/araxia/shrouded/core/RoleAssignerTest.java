@@ -0,0 +1,52 @@
+package zyx.araxia.shrouded.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class RoleAssignerTest {
+
+    private static final UUID ALICE = new UUID(0, 1);
+    private static final UUID BOB = new UUID(0, 2);
+    private static final UUID CAROL = new UUID(0, 3);
+
+    @Test
+    void requiresARegularClass() {
+        assertThrows(IllegalArgumentException.class, () -> new RoleAssigner<String>(List.of(), new Random()));
+    }
+
+    @Test
+    void fillsOnlyPlayersWithoutAClassInRosterOrder() {
+        RoleAssigner<String> assigner = new RoleAssigner<>(List.of("medic", "scout"), new Random(7));
+        Map<UUID, String> chosen = Map.of(BOB, "scout");
+
+        Map<UUID, String> assigned = assigner.fillMissing(List.of(CAROL, BOB, ALICE), chosen::get);
+
+        assertEquals(List.of(CAROL, ALICE), List.copyOf(assigned.keySet()));
+        for (String playerClass : assigned.values())
+            assertTrue(List.of("medic", "scout").contains(playerClass));
+    }
+
+    @Test
+    void picksNobodyFromAnEmptyRoster() {
+        RoleAssigner<String> assigner = new RoleAssigner<>(List.of("medic"), new Random());
+        assertNull(assigner.pickHidden(List.of()));
+    }
+
+    @Test
+    void picksTheHiddenPlayerFromTheRoster() {
+        List<UUID> roster = List.of(ALICE, BOB, CAROL);
+        for (int seed = 0; seed < 20; seed++) {
+            RoleAssigner<String> assigner = new RoleAssigner<>(List.of("medic"), new Random(seed));
+            assertTrue(roster.contains(assigner.pickHidden(roster)));
+        }
+    }
+}
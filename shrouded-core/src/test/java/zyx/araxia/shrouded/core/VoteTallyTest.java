@@ -0,0 +1,102 @@
+package zyx.araxia.shrouded.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class VoteTallyTest {
+
+    private static final UUID ALICE = new UUID(0, 1);
+    private static final UUID BOB = new UUID(0, 2);
+    private static final UUID CAROL = new UUID(0, 3);
+
+    /** A {@link Random} whose {@code nextInt(bound)} always returns {@code value}. */
+    private static Random fixed(int value) {
+        return new Random() {
+            @Override
+            public int nextInt(int bound) {
+                return value;
+            }
+        };
+    }
+
+    @Test
+    void ignoresVotesForNonCandidates() {
+        VoteTally<String> tally = new VoteTally<>();
+        tally.open(List.of("crypt", "forest"));
+        assertFalse(tally.record(ALICE, "castle"));
+        assertEquals(0, tally.size());
+    }
+
+    @Test
+    void countsOneVotePerPlayerInCandidateOrder() {
+        VoteTally<String> tally = new VoteTally<>();
+        tally.open(List.of("crypt", "forest", "castle"));
+        assertTrue(tally.record(ALICE, "forest"));
+        tally.record(BOB, "forest");
+        tally.record(ALICE, "castle");
+
+        assertEquals(2, tally.size());
+        assertEquals(List.of("crypt", "forest", "castle"), List.copyOf(tally.counts().keySet()));
+        assertEquals(Map.of("crypt", 0, "forest", 1, "castle", 1), tally.counts());
+    }
+
+    @Test
+    void isCompleteOnceEveryVoterHasVoted() {
+        VoteTally<String> tally = new VoteTally<>();
+        tally.open(List.of("crypt", "forest"));
+        tally.record(ALICE, "crypt");
+        tally.record(ALICE, "forest");
+        assertFalse(tally.isComplete(2));
+        tally.record(BOB, "crypt");
+        assertTrue(tally.isComplete(2));
+    }
+
+    @Test
+    void openDiscardsEarlierVotes() {
+        VoteTally<String> tally = new VoteTally<>();
+        tally.open(List.of("crypt"));
+        tally.record(ALICE, "crypt");
+        tally.open(List.of("crypt", "forest"));
+        assertEquals(0, tally.size());
+        assertEquals(List.of("crypt", "forest"), tally.getCandidates());
+    }
+
+    @Test
+    void removedVotesNoLongerCount() {
+        VoteTally<String> tally = new VoteTally<>();
+        tally.open(List.of("crypt"));
+        tally.record(ALICE, "crypt");
+        tally.remove(ALICE);
+        assertEquals(Map.of("crypt", 0), tally.counts());
+    }
+
+    @Test
+    void resolvesToNullWithoutCandidates() {
+        VoteTally<String> tally = new VoteTally<>();
+        tally.open(List.of());
+        assertNull(tally.resolve(new Random(1)));
+    }
+
+    @Test
+    void weighsEachCandidateOnePlusItsVotes() {
+        VoteTally<String> tally = new VoteTally<>();
+        tally.open(List.of("crypt", "forest"));
+        tally.record(ALICE, "crypt");
+        tally.record(BOB, "crypt");
+        tally.record(CAROL, "crypt");
+
+        // Weights: crypt 1 + 3 = 4, forest 1 + 0 = 1.
+        for (int pick = 0; pick < 4; pick++)
+            assertEquals("crypt", tally.resolve(fixed(pick)));
+        assertEquals("forest", tally.resolve(fixed(4)));
+    }
+}
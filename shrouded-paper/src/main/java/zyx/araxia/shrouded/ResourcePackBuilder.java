@@ -0,0 +1,218 @@
+package zyx.araxia.shrouded;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Builds {@code resourcepack.zip} in the plugin data folder from the
+ * {@code resourcepack/} source tree bundled inside the plugin JAR.
+ *
+ * <h3>Determinism</h3>
+ * Entries are written in sorted order with a fixed timestamp, JSON files are
+ * minified through Gson, and PNGs are stored uncompressed (they are already
+ * deflated). Building the same sources twice therefore produces a
+ * byte-identical zip with the same SHA-1, so clients never re-download a pack
+ * that did not actually change.
+ *
+ * <h3>Fast path</h3>
+ * Before building, a fingerprint is computed from each bundled entry's name,
+ * size and CRC as recorded in the JAR's central directory — no entry bodies
+ * are read. If it matches the fingerprint stored next to the zip from the
+ * previous build, the build is skipped entirely.
+ */
+public class ResourcePackBuilder {
+
+    private static final String SOURCE_PREFIX = "resourcepack/";
+    private static final String PACK_FILENAME = "resourcepack.zip";
+    private static final String FINGERPRINT_FILENAME = "resourcepack.zip.source-sha1";
+
+    /**
+     * Bumped whenever the build output format changes (minification rules,
+     * compression choices) so existing packs are rebuilt even if the sources
+     * are unchanged.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /** Timestamp stamped on every entry so the zip bytes do not depend on build time. */
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final File pluginJar;
+    private final File dataFolder;
+    private final Logger logger;
+    private final Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+
+    public ResourcePackBuilder(File pluginJar, File dataFolder, Logger logger) {
+        this.pluginJar = pluginJar;
+        this.dataFolder = dataFolder;
+        this.logger = logger;
+    }
+
+    /**
+     * Rebuilds {@code resourcepack.zip} if the bundled sources differ from the
+     * ones it was last built from, otherwise does nothing. A zip without a
+     * fingerprint file was not built here and is never overwritten.
+     *
+     * @return {@code true} if a new zip was written
+     */
+    public boolean buildIfChanged() {
+        File packFile = new File(dataFolder, PACK_FILENAME);
+        File fingerprintFile = new File(dataFolder, FINGERPRINT_FILENAME);
+
+        try (JarFile jar = new JarFile(pluginJar)) {
+            List<JarEntry> sources = listSources(jar);
+            if (sources.isEmpty()) {
+                logger.log(Level.WARNING,
+                        "[TheShrouded] No bundled resource pack sources found in {0} — skipping pack build.",
+                        pluginJar.getName());
+                return false;
+            }
+
+            // A pack with no fingerprint next to it was not built by us;
+            // it is most likely one the operator made by hand, so leave it.
+            if (packFile.exists() && !fingerprintFile.exists()) {
+                logger.log(Level.INFO,
+                        "[TheShrouded] Keeping existing {0}, which was not built from the bundled sources. "
+                                + "Delete it to build one from them instead.",
+                        PACK_FILENAME);
+                return false;
+            }
+
+            String fingerprint = fingerprint(sources);
+            if (packFile.exists()
+                    && fingerprint.equals(Files.readString(fingerprintFile.toPath(),
+                            StandardCharsets.UTF_8).trim())) {
+                logger.log(Level.FINE,
+                        "[TheShrouded] Resource pack sources unchanged (fingerprint {0}) — reusing {1}.",
+                        new Object[] { fingerprint, PACK_FILENAME });
+                return false;
+            }
+
+            dataFolder.mkdirs();
+            File tmp = new File(dataFolder, PACK_FILENAME + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp.toPath());
+                    ZipOutputStream zip = new ZipOutputStream(out)) {
+                for (JarEntry source : sources) {
+                    writeEntry(jar, source, zip);
+                }
+            }
+
+            // Move into place atomically so the pack server's file watcher
+            // never observes a half-written zip.
+            Files.move(tmp.toPath(), packFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.writeString(fingerprintFile.toPath(), fingerprint, StandardCharsets.UTF_8);
+
+            logger.log(Level.INFO,
+                    "[TheShrouded] Built {0} from {1} bundled file(s) ({2} bytes).",
+                    new Object[] { PACK_FILENAME, sources.size(), packFile.length() });
+            return true;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            logger.log(Level.WARNING,
+                    "[TheShrouded] Failed to build resource pack from bundled sources: {0}",
+                    e.getMessage());
+            return false;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /** Returns every file entry under {@code resourcepack/}, sorted by name. */
+    private static List<JarEntry> listSources(JarFile jar) {
+        List<JarEntry> sources = new ArrayList<>();
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            if (!entry.isDirectory() && entry.getName().startsWith(SOURCE_PREFIX)
+                    && entry.getName().length() > SOURCE_PREFIX.length()) {
+                sources.add(entry);
+            }
+        }
+        sources.sort(Comparator.comparing(JarEntry::getName));
+        return sources;
+    }
+
+    /**
+     * Hashes the format version and each entry's name, size and CRC. These
+     * come from the JAR's central directory, so this is a metadata-only pass.
+     */
+    private static String fingerprint(List<JarEntry> sources) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        digest.update(("v" + FORMAT_VERSION + "\n").getBytes(StandardCharsets.UTF_8));
+        for (JarEntry entry : sources) {
+            String line = entry.getName() + '\0' + entry.getSize() + '\0' + entry.getCrc() + '\n';
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void writeEntry(JarFile jar, JarEntry source, ZipOutputStream zip) throws IOException {
+        String name = source.getName().substring(SOURCE_PREFIX.length());
+        byte[] data;
+        try (InputStream in = jar.getInputStream(source)) {
+            data = in.readAllBytes();
+        }
+        if (name.endsWith(".json") || name.endsWith(".mcmeta")) {
+            data = minifyJson(name, data);
+        }
+
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTimeLocal(ENTRY_TIME);
+        if (name.endsWith(".png")) {
+            // PNG data is already deflate-compressed; storing avoids wasting
+            // CPU on a second pass that saves nothing.
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(data.length);
+            entry.setCompressedSize(data.length);
+            entry.setCrc(crc.getValue());
+        }
+        zip.putNextEntry(entry);
+        zip.write(data);
+        zip.closeEntry();
+    }
+
+    /**
+     * Re-serialises JSON without whitespace. Files that fail to parse are
+     * copied verbatim (with a warning) so a typo never blocks the whole pack.
+     */
+    private byte[] minifyJson(String name, byte[] data) {
+        try {
+            JsonElement tree = JsonParser.parseString(new String(data, StandardCharsets.UTF_8));
+            return gson.toJson(tree).getBytes(StandardCharsets.UTF_8);
+        } catch (JsonParseException e) {
+            logger.log(Level.WARNING,
+                    "[TheShrouded] Resource pack file {0} is not valid JSON — copying it unminified: {1}",
+                    new Object[] { name, e.getMessage() });
+            return data;
+        }
+    }
+}
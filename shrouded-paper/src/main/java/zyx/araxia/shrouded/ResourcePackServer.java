@@ -0,0 +1,486 @@
+package zyx.araxia.shrouded;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import zyx.araxia.shrouded.metrics.FlightEvents;
+import zyx.araxia.shrouded.metrics.PluginMetrics;
+
+/**
+ * Hosts the plugin resource pack over a minimal built-in HTTP server so the
+ * pack can be served without external infrastructure.
+ *
+ * <h3>Setup</h3>
+ * <ol>
+ * <li>By default {@link ResourcePackBuilder} writes
+ * {@code plugins/TheShrouded/resourcepack.zip} from the pack bundled in the
+ * plugin JAR. To serve a custom pack instead, set
+ * {@code resource-pack.build-from-bundled} to {@code false} and drop your own
+ * {@code resourcepack.zip} (with {@code pack.mcmeta} at the root) into the
+ * plugin's data folder.</li>
+ * <li>Set {@code resource-pack.port} and {@code resource-pack.server-ip}
+ * in {@code config.yml}.</li>
+ * </ol>
+ *
+ * <h3>Arena overlays</h3>
+ * Any {@code overlays/<arena>.zip} in the data folder is served alongside the
+ * base pack at {@code /overlays/<arena>.zip}. Overlays are layered on top of
+ * the base pack when a match starts in that arena (see
+ * {@code ResourcePackSendListener}), so arena-only assets are never pushed to
+ * players who do not play there.
+ *
+ * <h3>Hot reload</h3>
+ * When {@link #watchForChanges(Consumer)} is called the data folder is
+ * watched for writes to {@code resourcepack.zip}. A changed file is re-read
+ * and re-hashed in a single streaming pass, then swapped in atomically:
+ * downloads that are already in flight keep streaming the version they
+ * started with, new downloads receive the new version.
+ *
+ * <p>
+ * Call {@link #start()} in {@code onEnable} and {@link #stop()} in
+ * {@code onDisable}.
+ */
+public class ResourcePackServer {
+
+    private static final String PACK_FILENAME = "resourcepack.zip";
+    private static final String OVERLAY_FOLDER = "overlays";
+
+    /**
+     * Quiet period after the last file-system event before the pack is
+     * re-read. Copying a large zip produces a burst of modify events; waiting
+     * for the burst to end avoids hashing a half-written file.
+     */
+    private static final long RELOAD_DEBOUNCE_MILLIS = 1000L;
+
+    /** Immutable pairing of pack bytes with their SHA-1, swapped as a unit. */
+    private record PackVersion(byte[] bytes, String sha1Hex) {
+    }
+
+    /** Size and modification time an overlay had when it was last read. */
+    private record FileStamp(long size, long lastModified) {
+        static FileStamp of(File file) {
+            return new FileStamp(file.length(), file.lastModified());
+        }
+    }
+
+    private final File packFile;
+    private final File overlayFolder;
+    private final int port;
+    private final Logger logger;
+
+    private final AtomicReference<PackVersion> current = new AtomicReference<>();
+
+    /** Arena name → overlay pack. Entries are replaced whole on reload. */
+    private final Map<String, PackVersion> overlays = new ConcurrentHashMap<>();
+
+    /** Arena name → stamp of the file its current overlay was read from. */
+    private final Map<String, FileStamp> overlayStamps = new ConcurrentHashMap<>();
+
+    private HttpServer httpServer;
+    private WatchService watchService;
+    private Thread watchThread;
+
+    public ResourcePackServer(File dataFolder, int port, Logger logger) {
+        this.packFile = new File(dataFolder, PACK_FILENAME);
+        this.overlayFolder = new File(dataFolder, OVERLAY_FOLDER);
+        this.port = port;
+        this.logger = logger;
+    }
+
+    // -------------------------------------------------------------------------
+    // Lifecycle
+    // -------------------------------------------------------------------------
+
+    /**
+     * Reads {@code resourcepack.zip}, computes its SHA-1, and starts the HTTP
+     * server. If the file is missing a warning is logged and the server still
+     * starts; the pack becomes available as soon as it is dropped in, provided
+     * {@link #watchForChanges(Consumer)} is active.
+     */
+    public void start() {
+        if (packFile.exists()) {
+            try {
+                current.set(readPack(packFile));
+            } catch (IOException | NoSuchAlgorithmException e) {
+                logger.log(Level.SEVERE, "[TheShrouded] Failed to read resource pack.", e);
+            }
+        } else {
+            logger.log(Level.WARNING,
+                    "[TheShrouded] {0} not found — the resource pack will not be sent until "
+                            + "a resourcepack.zip is placed in the plugin data folder.",
+                    packFile.getPath());
+        }
+
+        loadOverlays();
+
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+            httpServer.createContext("/" + PACK_FILENAME, exchange -> {
+                // Capture the version once so a concurrent swap can never mix
+                // the old length with the new body.
+                PackVersion pack = current.get();
+                if (pack == null) {
+                    exchange.sendResponseHeaders(503, -1);
+                    exchange.close();
+                    return;
+                }
+                FlightEvents.PackDownload flight = FlightEvents.beginPackDownload();
+                exchange.getResponseHeaders().add("Content-Type", "application/zip");
+                exchange.getResponseHeaders().add("ETag", "\"" + pack.sha1Hex() + "\"");
+                exchange.sendResponseHeaders(200, pack.bytes().length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(pack.bytes());
+                }
+                PluginMetrics.recordPackDownload("base");
+                FlightEvents.packDownload(flight, "base", null, pack.bytes().length);
+            });
+            httpServer.createContext("/" + OVERLAY_FOLDER + "/", exchange -> {
+                String path = exchange.getRequestURI().getPath();
+                String file = path.substring(path.lastIndexOf('/') + 1);
+                PackVersion pack = file.endsWith(".zip")
+                        ? overlays.get(file.substring(0, file.length() - 4))
+                        : null;
+                if (pack == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    exchange.close();
+                    return;
+                }
+                FlightEvents.PackDownload flight = FlightEvents.beginPackDownload();
+                exchange.getResponseHeaders().add("Content-Type", "application/zip");
+                exchange.getResponseHeaders().add("ETag", "\"" + pack.sha1Hex() + "\"");
+                exchange.sendResponseHeaders(200, pack.bytes().length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(pack.bytes());
+                }
+                PluginMetrics.recordPackDownload("overlay");
+                FlightEvents.packDownload(flight, "overlay", file.substring(0, file.length() - 4),
+                        pack.bytes().length);
+            });
+            httpServer.setExecutor(null); // uses the default executor
+            httpServer.start();
+
+            logger.log(Level.INFO,
+                    "[TheShrouded] Resource pack server started on port {0} (SHA-1: {1}).",
+                    new Object[] { port, getSha1Hex() });
+        } catch (IOException e) {
+            httpServer = null;
+            logger.log(Level.SEVERE, "[TheShrouded] Failed to start resource pack server.", e);
+        }
+    }
+
+    /**
+     * Starts a daemon thread that watches the data folder and hot-swaps the
+     * served pack whenever {@code resourcepack.zip} is created or modified.
+     *
+     * @param onReload invoked on the watcher thread with the new SHA-1 after
+     *                 each successful swap; callers must hop to the main thread
+     *                 before touching Bukkit state
+     */
+    public void watchForChanges(Consumer<String> onReload) {
+        if (watchThread != null) {
+            return;
+        }
+        try {
+            Path folder = packFile.getParentFile().toPath();
+            watchService = FileSystems.getDefault().newWatchService();
+            folder.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            overlayFolder.mkdirs();
+            overlayFolder.toPath().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.log(Level.WARNING,
+                    "[TheShrouded] Could not watch the data folder for resource pack changes: {0}",
+                    e.getMessage());
+            return;
+        }
+
+        watchThread = new Thread(() -> watchLoop(onReload), "TheShrouded-PackWatcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /** Stops the HTTP server and the file watcher if they are running. */
+    public void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+                // Closing only fails if already closed
+            }
+            watchService = null;
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+            logger.log(Level.INFO, "[TheShrouded] Resource pack server stopped.");
+        }
+    }
+
+    /**
+     * Mounts an extra handler on the running HTTP server, so other endpoints
+     * (e.g. {@code /metrics}) can share the pack server's port.
+     *
+     * @return {@code false} if the server is not running
+     */
+    public boolean addContext(String path, HttpHandler handler) {
+        if (httpServer == null) {
+            return false;
+        }
+        httpServer.createContext(path, handler);
+        return true;
+    }
+
+    // -------------------------------------------------------------------------
+    // Accessors
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns {@code true} if the server is running and the pack is available.
+     */
+    public boolean isRunning() {
+        return httpServer != null && current.get() != null;
+    }
+
+    /**
+     * Returns the hex SHA-1 of the resource pack zip currently being served,
+     * or {@code null} if no pack has been loaded.
+     */
+    public String getSha1Hex() {
+        PackVersion pack = current.get();
+        return pack != null ? pack.sha1Hex() : null;
+    }
+
+    /**
+     * Builds the full URL to the resource pack zip using the given server IP.
+     *
+     * @param serverIp the external IP or hostname players can reach
+     * @return URL string, e.g. {@code http://123.45.67.89:8080/resourcepack.zip}
+     */
+    public String getUrl(String serverIp) {
+        return "http://" + serverIp + ":" + port + "/" + PACK_FILENAME;
+    }
+
+    /**
+     * Returns the hex SHA-1 of the overlay for {@code arenaName}, or
+     * {@code null} if that arena has no overlay.
+     */
+    public String getOverlaySha1Hex(String arenaName) {
+        PackVersion pack = overlays.get(arenaName);
+        return pack != null ? pack.sha1Hex() : null;
+    }
+
+    /**
+     * Builds the full URL to the overlay zip for {@code arenaName}.
+     *
+     * @param serverIp  the external IP or hostname players can reach
+     * @param arenaName the arena whose overlay to fetch
+     * @return URL string, e.g.
+     *         {@code http://123.45.67.89:8080/overlays/docks.zip}
+     */
+    public String getOverlayUrl(String serverIp, String arenaName) {
+        return "http://" + serverIp + ":" + port + "/" + OVERLAY_FOLDER + "/"
+                + URLEncoder.encode(arenaName, StandardCharsets.UTF_8).replace("+", "%20")
+                + ".zip";
+    }
+
+    // -------------------------------------------------------------------------
+    // Hot reload
+    // -------------------------------------------------------------------------
+
+    private void watchLoop(Consumer<String> onReload) {
+        WatchService service = watchService;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.take();
+                boolean overlaysTouched = drainOverlayEvents(key);
+                boolean touched = drainEvents(key);
+                key.reset();
+                if (!touched && !overlaysTouched) {
+                    continue;
+                }
+
+                // Debounce: keep draining until the folder has been quiet for
+                // the full window so we hash the finished file.
+                WatchKey next;
+                while ((next = service.poll(RELOAD_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    overlaysTouched |= drainOverlayEvents(next);
+                    touched |= drainEvents(next);
+                    next.reset();
+                }
+
+                if (overlaysTouched) {
+                    // Overlays are picked up by the next match in that arena;
+                    // nobody needs an immediate push.
+                    loadOverlays();
+                }
+                if (touched) {
+                    reload(onReload);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Normal shutdown path
+        }
+    }
+
+    /**
+     * Returns {@code true} if any event in {@code key} concerns the base pack
+     * file. Events from the overlay folder are ignored here.
+     */
+    private boolean drainEvents(WatchKey key) {
+        if (isOverlayKey(key)) {
+            return false;
+        }
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path path
+                    && path.getFileName().toString().equals(PACK_FILENAME)) {
+                touched = true;
+            }
+        }
+        return touched;
+    }
+
+    /** Returns {@code true} if {@code key} reported a change to any overlay zip. */
+    private boolean drainOverlayEvents(WatchKey key) {
+        if (!isOverlayKey(key)) {
+            return false;
+        }
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path path
+                    && path.getFileName().toString().endsWith(".zip")) {
+                touched = true;
+            }
+        }
+        return touched;
+    }
+
+    private boolean isOverlayKey(WatchKey key) {
+        return key.watchable() instanceof Path watched
+                && watched.equals(overlayFolder.toPath());
+    }
+
+    /**
+     * (Re)reads every {@code overlays/*.zip} whose size or modification time
+     * changed since it was last read. Unchanged overlays keep their existing
+     * entry without being re-read; removed files drop out of the map.
+     */
+    private void loadOverlays() {
+        File[] files = overlayFolder.listFiles((dir, name) -> name.endsWith(".zip"));
+        if (files == null) {
+            overlays.clear();
+            overlayStamps.clear();
+            return;
+        }
+
+        Map<String, PackVersion> loaded = new ConcurrentHashMap<>();
+        for (File file : files) {
+            String arenaName = file.getName().substring(0, file.getName().length() - 4);
+            FileStamp stamp = FileStamp.of(file);
+            PackVersion unchanged = overlays.get(arenaName);
+            if (unchanged != null && stamp.equals(overlayStamps.get(arenaName))) {
+                loaded.put(arenaName, unchanged);
+                continue;
+            }
+            try {
+                loaded.put(arenaName, readPack(file));
+                overlayStamps.put(arenaName, stamp);
+            } catch (IOException | NoSuchAlgorithmException e) {
+                logger.log(Level.WARNING,
+                        "[TheShrouded] Failed to read arena overlay {0}: {1}",
+                        new Object[] { file.getName(), e.getMessage() });
+                PackVersion previous = overlays.get(arenaName);
+                if (previous != null) {
+                    loaded.put(arenaName, previous);
+                }
+            }
+        }
+        overlays.keySet().retainAll(loaded.keySet());
+        overlayStamps.keySet().retainAll(loaded.keySet());
+        overlays.putAll(loaded);
+        if (!loaded.isEmpty()) {
+            logger.log(Level.INFO, "[TheShrouded] Loaded {0} arena overlay pack(s): {1}",
+                    new Object[] { loaded.size(), loaded.keySet() });
+        }
+    }
+
+    private void reload(Consumer<String> onReload) {
+        if (!packFile.exists()) {
+            return;
+        }
+        PackVersion next;
+        try {
+            next = readPack(packFile);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            logger.log(Level.WARNING,
+                    "[TheShrouded] Failed to reload resource pack — still serving the previous version: {0}",
+                    e.getMessage());
+            return;
+        }
+
+        PackVersion previous = current.getAndSet(next);
+        if (previous != null && previous.sha1Hex().equals(next.sha1Hex())) {
+            return; // touched but unchanged
+        }
+
+        logger.log(Level.INFO,
+                "[TheShrouded] Resource pack reloaded ({0} bytes, SHA-1: {1}).",
+                new Object[] { next.bytes().length, next.sha1Hex() });
+        if (onReload != null) {
+            onReload.accept(next.sha1Hex());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Reads {@code file} and computes its SHA-1 in a single streaming pass, so
+     * the digest never needs a second walk over the buffered bytes.
+     */
+    private static PackVersion readPack(File file) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+                (int) Math.min(Integer.MAX_VALUE - 8, Math.max(32, file.length())));
+        try (InputStream in = new DigestInputStream(new FileInputStream(file), digest)) {
+            in.transferTo(buffer);
+        }
+        return new PackVersion(buffer.toByteArray(), HexFormat.of().formatHex(digest.digest()));
+    }
+}
@@ -0,0 +1,675 @@
+package zyx.araxia.shrouded;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.ProtocolManager;
+
+import zyx.araxia.shrouded.commands.ArenaLobbyCommand;
+import zyx.araxia.shrouded.commands.ArenaRegisterCommand;
+import zyx.araxia.shrouded.commands.ArenaInstancedCommand;
+import zyx.araxia.shrouded.commands.ArenaSnapshotCommand;
+import zyx.araxia.shrouded.commands.ArenaSpawnCommand;
+import zyx.araxia.shrouded.commands.LeaveSignRegisterCommand;
+import zyx.araxia.shrouded.commands.LobbyCountdownCommand;
+import zyx.araxia.shrouded.commands.LobbyForceStartCommand;
+import zyx.araxia.shrouded.commands.LobbyLeaveCommand;
+import zyx.araxia.shrouded.commands.LobbyRegisterCommand;
+import zyx.araxia.shrouded.commands.LobbySpawnCommand;
+import zyx.araxia.shrouded.commands.MatchmakingQueueCommand;
+import zyx.araxia.shrouded.commands.PerfCommand;
+import zyx.araxia.shrouded.commands.ReloadConfigCommand;
+import zyx.araxia.shrouded.commands.SignRegisterCommand;
+import zyx.araxia.shrouded.journal.JournalWriter;
+import zyx.araxia.shrouded.listener.ArenaChangeListener;
+import zyx.araxia.shrouded.listener.ArenaVoteMenuListener;
+import zyx.araxia.shrouded.listener.ClassSelectMenuListener;
+import zyx.araxia.shrouded.listener.ClassSelectorItemListener;
+import zyx.araxia.shrouded.listener.MatchDamageListener;
+import zyx.araxia.shrouded.listener.PlayerJoinListener;
+import zyx.araxia.shrouded.listener.PlayerQuitListener;
+import zyx.araxia.shrouded.listener.ResourcePackSendListener;
+import zyx.araxia.shrouded.listener.ReturnToLobbyListener;
+import zyx.araxia.shrouded.listener.ShroudedEquipmentSpoofer;
+import zyx.araxia.shrouded.listener.ShroudedGlobalBlindListener;
+import zyx.araxia.shrouded.listener.ShroudedItemDropListener;
+import zyx.araxia.shrouded.listener.ShroudedLeapSpearListener;
+import zyx.araxia.shrouded.listener.ShroudedLeviBombListener;
+import zyx.araxia.shrouded.listener.ShroudedSwordStabListener;
+import zyx.araxia.shrouded.listener.ShroudedToxicCloudListener;
+import zyx.araxia.shrouded.listener.SignClickListener;
+import zyx.araxia.shrouded.listener.SurvivorBombListener;
+import zyx.araxia.shrouded.listener.PlayerRespawnListener;
+import zyx.araxia.shrouded.listener.ProfileCacheListener;
+import zyx.araxia.shrouded.listener.SurvivorDeathListener;
+import zyx.araxia.shrouded.listener.SurvivorHealthPotionListener;
+import zyx.araxia.shrouded.listener.SurvivorWebListener;
+import zyx.araxia.shrouded.listener.SurvivorWindChargeListener;
+import zyx.araxia.shrouded.load.LoadGovernor;
+import zyx.araxia.shrouded.lobby.ArenaManager;
+import zyx.araxia.shrouded.lobby.LobbyManager;
+import zyx.araxia.shrouded.metrics.MetricsDumper;
+import zyx.araxia.shrouded.metrics.MetricsServer;
+import zyx.araxia.shrouded.metrics.PluginMetrics;
+import zyx.araxia.shrouded.metrics.TimedListeners;
+import zyx.araxia.shrouded.orchestration.InProcessMessageBus;
+import zyx.araxia.shrouded.orchestration.LoopbackBroker;
+import zyx.araxia.shrouded.orchestration.LoopbackMessageBus;
+import zyx.araxia.shrouded.orchestration.MatchOrchestrator;
+import zyx.araxia.shrouded.orchestration.MessageBus;
+import zyx.araxia.shrouded.profile.ProfileStore;
+import zyx.araxia.shrouded.scheduler.TaskScheduler;
+import zyx.araxia.shrouded.scheduler.TimedTaskScheduler;
+
+public class TheShrouded extends JavaPlugin {
+
+        private LobbyManager lobbyManager;
+        private ArenaManager arenaManager;
+        private ResourcePackServer resourcePackServer;
+        private ResourcePackSendListener resourcePackSendListener;
+        private MetricsServer metricsServer;
+        private MetricsDumper metricsDumper;
+        private LoadGovernor loadGovernor;
+        private ProfileStore profileStore;
+        private JournalWriter journalWriter;
+        private ShroudedEquipmentSpoofer equipmentSpoofer;
+        private TaskScheduler taskScheduler;
+        private LoopbackBroker messageBroker;
+        private MatchOrchestrator orchestrator;
+        private boolean tickCosts;
+
+        @Override
+        public void onLoad() {
+                installDataPack();
+        }
+
+        @Override
+        public void onEnable() {
+                // Everything below schedules through this, so it must exist
+                // first. Picks the Folia backend when running on Folia.
+                // Also timed into /shrouded.perf unless metrics.tick-costs
+                // is off.
+                tickCosts = getConfig().getBoolean("metrics.tick-costs", true);
+                taskScheduler = tickCosts
+                                ? new TimedTaskScheduler(TaskScheduler.create(this))
+                                : TaskScheduler.create(this);
+
+                lobbyManager = new LobbyManager(this);
+                arenaManager = new ArenaManager(this);
+                lobbyManager.setArenaManager(arenaManager);
+
+                // Reset all arenas to their stored state. This clears any
+                // stale runtime flags (inUse, usingLobby) left over from a
+                // mid-session shutdown or hot-reload, and will also perform
+                // block-data restoration once that system is implemented.
+                arenaManager.resetAllArenas();
+
+                // Delete arena instance worlds left behind by a crash.
+                arenaManager.getInstanceManager().deleteStaleInstances();
+
+                // Load config defaults (writes config.yml to disk on first run)
+                saveDefaultConfig();
+
+                // Start resource pack HTTP server if enabled
+                if (getConfig().getBoolean("resource-pack.enabled", false)) {
+                        int port = getConfig().getInt("resource-pack.port",
+                                        8085);
+                        String ip = getConfig().getString(
+                                        "resource-pack.server-ip", "127.0.0.1");
+                        // Build resourcepack.zip from the bundled sources.
+                        // A no-op beyond one fingerprint check when the
+                        // sources have not changed since the last build.
+                        if (getConfig().getBoolean(
+                                        "resource-pack.build-from-bundled",
+                                        true)) {
+                                new ResourcePackBuilder(getFile(),
+                                                getDataFolder(), getLogger())
+                                                .buildIfChanged();
+                        }
+                        resourcePackServer = new ResourcePackServer(
+                                        getDataFolder(), port, getLogger());
+                        resourcePackServer.start();
+                        // "join" sends the pack on server join; "lobby"
+                        // defers it to the first lobby join and layers
+                        // arena overlays on at match start.
+                        ResourcePackSendListener.DeliveryMode deliveryMode = ResourcePackSendListener.DeliveryMode
+                                        .fromConfig(getConfig().getString(
+                                                        "resource-pack.delivery",
+                                                        "join"));
+                        ResourcePackSendListener packSendListener = new ResourcePackSendListener(
+                                        resourcePackServer, ip, deliveryMode);
+                        resourcePackSendListener = packSendListener;
+                        registerListener(packSendListener);
+
+                        // Hot-swap the served pack when resourcepack.zip
+                        // changes on disk, then push it to everyone online.
+                        // The watcher fires off-thread, so hop back to the
+                        // main thread before touching players.
+                        if (getConfig().getBoolean("resource-pack.hot-reload",
+                                        true)) {
+                                resourcePackServer.watchForChanges(
+                                                sha1 -> taskScheduler.runGlobal(
+                                                                packSendListener::resendToOnlinePlayers,
+                                                                0L));
+                        }
+                }
+
+                // Expose /metrics and /health if enabled. Shares the resource
+                // pack server's port when it is running and no separate port
+                // is configured; otherwise starts a server of its own.
+                if (getConfig().getBoolean("metrics.enabled", false)) {
+                        startMetrics();
+                }
+
+                // Append the latency histograms and counters to
+                // metrics/metrics.jsonl every interval, whether or not the
+                // HTTP endpoints are on.
+                if (getConfig().getBoolean("metrics.dump.enabled", true)) {
+                        metricsDumper = new MetricsDumper(
+                                        getDataFolder().toPath().resolve("metrics"),
+                                        getConfig().getLong(
+                                                        "metrics.dump.interval-seconds",
+                                                        60L),
+                                        getConfig().getLong(
+                                                        "metrics.dump.max-file-kb",
+                                                        10240L) * 1024L,
+                                        getConfig().getInt("metrics.dump.keep-files",
+                                                        5),
+                                        getLogger());
+                        metricsDumper.start();
+                }
+
+                // Thin out particles and projectile steps while the server
+                // is lagging.
+                if (getConfig().getBoolean("load-governor.enabled", true)) {
+                        loadGovernor = new LoadGovernor(taskScheduler,
+                                        getConfig().getConfigurationSection(
+                                                        "load-governor"),
+                                        getLogger());
+                        loadGovernor.start();
+                }
+
+                // Player stats, written in batches on their own thread. With
+                // profiles.enabled off they are only kept in memory.
+                profileStore = new ProfileStore(getDataFolder().toPath(),
+                                getConfig().getConfigurationSection("profiles"),
+                                getLogger());
+                if (getConfig().getBoolean("profiles.enabled", true)) {
+                        profileStore.start();
+                }
+
+                // One binary event journal per match under journal/, for
+                // recomputing stats and looking into incidents.
+                if (getConfig().getBoolean("journal.enabled", true)) {
+                        journalWriter = new JournalWriter(
+                                        getDataFolder().toPath().resolve("journal"),
+                                        getConfig().getConfigurationSection("journal"),
+                                        getLogger());
+                        journalWriter.start();
+                }
+
+                // Hand matches between lobby and match servers if enabled.
+                if (getConfig().getBoolean("orchestration.enabled", false)) {
+                        startOrchestration();
+                }
+
+                // Register commands
+                final String registerLobbyName = "shrouded.register.lobby";
+                final String registerSignName = "shrouded.register.sign";
+                final String registerArenaName = "shrouded.register.arena";
+                final String lobbyArenaName = "shrouded.lobby.arena";
+                final String lobbyCountdownName = "shrouded.lobby.countdown";
+                final String lobbyForceStartName = "shrouded.lobby.forcestart";
+                final String lobbyLeaveName = "shrouded.lobby.leave";
+                final String registerLeaveSignName = "shrouded.register.leavesign";
+                final String lobbySpawnName = "shrouded.lobby.spawn";
+                final String arenaSpawnName = "shrouded.arena.spawn";
+                final String arenaSnapshotName = "shrouded.arena.snapshot";
+                final String arenaInstancedName = "shrouded.arena.instanced";
+                final String reloadConfigName = "shrouded.reloadconfig";
+                final String queueName = "shrouded.queue";
+                final String perfName = "shrouded.perf";
+                PluginCommand lobbyRegisterCmd = getCommand(registerLobbyName);
+                PluginCommand signRegisterCmd = getCommand(registerSignName);
+                PluginCommand arenaRegisterCmd = getCommand(registerArenaName);
+                PluginCommand arenaLobbyCmd = getCommand(lobbyArenaName);
+                PluginCommand lobbyCountdownCmd = getCommand(
+                                lobbyCountdownName);
+                PluginCommand lobbyForceStartCmd = getCommand(
+                                lobbyForceStartName);
+                PluginCommand lobbyLeaveCmd = getCommand(lobbyLeaveName);
+                PluginCommand registerLeaveSignCmd = getCommand(
+                                registerLeaveSignName);
+                PluginCommand lobbySpawnCmd = getCommand(lobbySpawnName);
+                PluginCommand arenaSpawnCmd = getCommand(arenaSpawnName);
+                PluginCommand arenaSnapshotCmd = getCommand(arenaSnapshotName);
+                PluginCommand arenaInstancedCmd = getCommand(arenaInstancedName);
+                PluginCommand reloadConfigCmd = getCommand(reloadConfigName);
+                PluginCommand queueCmd = getCommand(queueName);
+                PluginCommand perfCmd = getCommand(perfName);
+                if (lobbyRegisterCmd != null)
+                        lobbyRegisterCmd.setExecutor(new LobbyRegisterCommand(
+                                        this, lobbyManager));
+                if (signRegisterCmd != null)
+                        signRegisterCmd.setExecutor(
+                                        new SignRegisterCommand(lobbyManager));
+                if (arenaRegisterCmd != null)
+                        arenaRegisterCmd.setExecutor(new ArenaRegisterCommand(
+                                        this, arenaManager));
+                if (arenaLobbyCmd != null)
+                        arenaLobbyCmd.setExecutor(new ArenaLobbyCommand(
+                                        lobbyManager, arenaManager));
+                if (lobbyCountdownCmd != null)
+                        lobbyCountdownCmd.setExecutor(new LobbyCountdownCommand(
+                                        lobbyManager));
+                if (lobbyForceStartCmd != null)
+                        lobbyForceStartCmd
+                                        .setExecutor(new LobbyForceStartCommand(
+                                                        lobbyManager));
+                if (lobbyLeaveCmd != null)
+                        lobbyLeaveCmd.setExecutor(
+                                        new LobbyLeaveCommand(lobbyManager));
+                if (registerLeaveSignCmd != null)
+                        registerLeaveSignCmd.setExecutor(
+                                        new LeaveSignRegisterCommand(
+                                                        lobbyManager));
+                if (lobbySpawnCmd != null)
+                        lobbySpawnCmd.setExecutor(
+                                        new LobbySpawnCommand(lobbyManager));
+                if (arenaSpawnCmd != null)
+                        arenaSpawnCmd.setExecutor(
+                                        new ArenaSpawnCommand(arenaManager));
+                if (arenaSnapshotCmd != null)
+                        arenaSnapshotCmd.setExecutor(
+                                        new ArenaSnapshotCommand(arenaManager));
+                if (arenaInstancedCmd != null)
+                        arenaInstancedCmd.setExecutor(
+                                        new ArenaInstancedCommand(arenaManager));
+                if (reloadConfigCmd != null)
+                        reloadConfigCmd.setExecutor(
+                                        new ReloadConfigCommand(this));
+                if (queueCmd != null)
+                        queueCmd.setExecutor(
+                                        new MatchmakingQueueCommand(lobbyManager,
+                                                        orchestrator));
+                if (perfCmd != null)
+                        perfCmd.setExecutor(new PerfCommand(this));
+
+                // Register ProtocolLib packet listener for equipment spoofing
+                ProtocolManager protocolManager = ProtocolLibrary
+                                .getProtocolManager();
+                equipmentSpoofer = new ShroudedEquipmentSpoofer(this);
+                protocolManager.addPacketListener(equipmentSpoofer);
+
+                // Register event listeners
+                // TODO: Add playerRespawnEvent to return players to lobby after
+                // death
+                // TODO: Eventually set up a post-death spectator mode instead
+                // of immediate lobby return
+                // TODO: Set up PlayerQuitListener to handle mid-match
+                // disconnects more gracefully (currently treated as deaths, but
+                // ideally the player would be put into spectator mode instead
+                // and allowed to rejoin the match if they reconnect within a
+                // certain time limit). If the final mercenary disconnects, the
+                // match should end immediately with the Shrouded as the winner.
+                // If the Shrouded disconnects, the match should end immediately
+                // with all Survivors as winners.
+                // TODO: Set up PlayerQuitLitener to end match immediately if
+                // the Shrouded disconnects, rather than treating them as a
+                // death and potentially allowing the Survivors to win by
+                // default if the Shrouded leaves mid-match. Handle early leaves
+                // as DC, handle late leaves as death.
+                registerListener(new SignClickListener(lobbyManager));
+                registerListener(new ClassSelectMenuListener(lobbyManager));
+                registerListener(new ClassSelectorItemListener(lobbyManager));
+                registerListener(new PlayerQuitListener(lobbyManager));
+                registerListener(new ShroudedItemDropListener());
+                registerListener(new SurvivorHealthPotionListener(getConfig()));
+                registerListener(new SurvivorBombListener(this));
+                registerListener(new SurvivorWebListener(this));
+                registerListener(new SurvivorWindChargeListener(this));
+                registerListener(new ArenaChangeListener(arenaManager));
+                registerListener(new ReturnToLobbyListener(lobbyManager,
+                                arenaManager));
+                registerListener(new ArenaVoteMenuListener());
+                registerListener(new ShroudedLeviBombListener(this));
+                registerListener(new ShroudedToxicCloudListener(this));
+                registerListener(new ShroudedGlobalBlindListener(this,
+                                arenaManager));
+                registerListener(new ShroudedLeapSpearListener(this));
+                registerListener(new ShroudedSwordStabListener(this,
+                                lobbyManager));
+                registerListener(new PlayerJoinListener(lobbyManager, this));
+                registerListener(new SurvivorDeathListener(lobbyManager));
+                registerListener(new PlayerRespawnListener(lobbyManager));
+                registerListener(new ProfileCacheListener(profileStore));
+                if (journalWriter != null) {
+                        registerListener(new MatchDamageListener());
+                }
+
+                // Players still online after a reload get no join event.
+                for (Player player : getServer().getOnlinePlayers()) {
+                        profileStore.load(player.getUniqueId());
+                }
+
+                // Scan the playerData directory for snapshot files left behind
+                // by a crash or hot-reload and restore any affected players
+                // that
+                // are already online. Deferred by one tick so all worlds are
+                // guaranteed to be fully loaded before any teleport is issued.
+                taskScheduler.runGlobal(
+                                () -> lobbyManager.recoverOrphanedSnapshots(),
+                                1L);
+
+                getLogger().info("TheShrouded has been enabled!");
+        }
+
+        @Override
+        public void onDisable() {
+                if (orchestrator != null) {
+                        orchestrator.stop();
+                }
+                if (messageBroker != null) {
+                        messageBroker.stop();
+                }
+                if (resourcePackServer != null) {
+                        resourcePackServer.stop();
+                }
+                if (metricsServer != null) {
+                        metricsServer.stop();
+                }
+                if (metricsDumper != null) {
+                        metricsDumper.stop();
+                }
+                if (loadGovernor != null) {
+                        loadGovernor.stop();
+                }
+
+                // Synchronously restore every online player that has a snapshot
+                // on disk. Must be done here (not via the scheduler) because no
+                // more ticks will run after onDisable returns.
+                if (lobbyManager != null) {
+                        lobbyManager.shutdownRestore();
+                }
+
+                // Unload and delete arena instance worlds now that nobody is
+                // left in them.
+                if (arenaManager != null) {
+                        arenaManager.getInstanceManager().discardAll();
+                        arenaManager.releaseSharedLeases();
+                }
+
+                if (journalWriter != null) {
+                        journalWriter.stop();
+                }
+
+                // Last, so stats from anything above are written too.
+                if (profileStore != null) {
+                        profileStore.stop();
+                }
+
+                getLogger().info("TheShrouded has been disabled!");
+        }
+
+        /**
+         * Registers {@code listener}'s event handlers, timed into
+         * {@code /shrouded.perf} when tick-cost accounting is on.
+         */
+        private void registerListener(Listener listener) {
+                if (tickCosts) {
+                        TimedListeners.register(listener, this);
+                } else {
+                        getServer().getPluginManager().registerEvents(listener,
+                                        this);
+                }
+        }
+
+        /**
+         * The plugin's logger, for {@code static final} fields. Falls back to
+         * a plain {@code TheShrouded} logger when the classes are loaded
+         * without the plugin, e.g. by the benchmarks.
+         */
+        public static Logger pluginLogger() {
+                try {
+                        return JavaPlugin.getPlugin(TheShrouded.class).getLogger();
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                        return Logger.getLogger("TheShrouded");
+                }
+        }
+
+        public LobbyManager getLobbyManager() {
+                return lobbyManager;
+        }
+
+        public ArenaManager getArenaManager() {
+                return arenaManager;
+        }
+
+        public TaskScheduler getTaskScheduler() {
+                return taskScheduler;
+        }
+
+        /**
+         * Returns the cross-server match orchestrator, or {@code null} if
+         * orchestration is disabled.
+         */
+        public MatchOrchestrator getOrchestrator() {
+                return orchestrator;
+        }
+
+        /** Returns the load governor, or {@code null} if it is disabled. */
+        public LoadGovernor getLoadGovernor() {
+                return loadGovernor;
+        }
+
+        /**
+         * Returns the player profile store. Never {@code null} once enabled;
+         * with {@code profiles.enabled} off it only keeps stats in memory.
+         */
+        public ProfileStore getProfileStore() {
+                return profileStore;
+        }
+
+        /** Returns the match journal writer, or {@code null} if it is disabled. */
+        public JournalWriter getJournalWriter() {
+                return journalWriter;
+        }
+
+        public ShroudedEquipmentSpoofer getEquipmentSpoofer() {
+                return equipmentSpoofer;
+        }
+
+        /**
+         * Returns the resource pack sender, or {@code null} if the resource
+         * pack server is disabled.
+         */
+        public ResourcePackSendListener getResourcePackSendListener() {
+                return resourcePackSendListener;
+        }
+
+        // -------------------------------------------------------------------------
+        // Metrics
+        // -------------------------------------------------------------------------
+
+        /**
+         * Mounts the {@code /metrics} and {@code /health} endpoints and starts
+         * the once-per-second main-thread heartbeat that {@code /health}
+         * checks.
+         */
+        private void startMetrics() {
+                metricsServer = new MetricsServer(
+                                getConfig().getDouble(
+                                                "metrics.health-max-stall-seconds",
+                                                10.0),
+                                getLogger());
+
+                int port = getConfig().getInt("metrics.port", 0);
+                boolean shared = resourcePackServer != null
+                                && (port == 0 || port == getConfig().getInt(
+                                                "resource-pack.port", 8085))
+                                && resourcePackServer.addContext("/metrics",
+                                                metricsServer::handleMetrics)
+                                && resourcePackServer.addContext("/health",
+                                                metricsServer::handleHealth);
+                if (shared) {
+                        getLogger().info(
+                                        "[TheShrouded] Metrics endpoints mounted on the resource pack server.");
+                } else {
+                        metricsServer.start(port != 0 ? port : 8086);
+                }
+
+                PluginMetrics.heartbeat();
+                taskScheduler.runGlobalTimer(
+                                task -> PluginMetrics.heartbeat(), 20L, 20L);
+        }
+
+        // -------------------------------------------------------------------------
+        // Orchestration
+        // -------------------------------------------------------------------------
+
+        /**
+         * Connects to the configured message bus (hosting the loopback
+         * broker first if this server is meant to) and starts the match
+         * orchestrator in this server's role.
+         */
+        private void startOrchestration() {
+                String nodeId = getConfig().getString("orchestration.node-id",
+                                "");
+                if (nodeId.isBlank()) {
+                        nodeId = "node-" + getServer().getPort();
+                }
+                String serverName = getConfig().getString(
+                                "orchestration.server-name", "");
+                if (serverName.isBlank()) {
+                        serverName = nodeId;
+                }
+
+                MessageBus bus;
+                if ("in-process".equalsIgnoreCase(
+                                getConfig().getString("orchestration.bus",
+                                                "loopback"))) {
+                        bus = new InProcessMessageBus(getLogger());
+                } else {
+                        int port = getConfig().getInt(
+                                        "orchestration.loopback.port", 25590);
+                        String secret = getConfig().getString(
+                                        "orchestration.loopback.secret", "");
+                        if (secret.isBlank()) {
+                                getLogger().log(Level.SEVERE,
+                                                "[TheShrouded] orchestration.loopback.secret is not set — orchestration is disabled.");
+                                return;
+                        }
+                        if (getConfig().getBoolean(
+                                        "orchestration.loopback.host-broker",
+                                        false)) {
+                                messageBroker = new LoopbackBroker(port,
+                                                secret, getLogger());
+                                try {
+                                        messageBroker.start();
+                                } catch (IOException e) {
+                                        getLogger().log(Level.SEVERE,
+                                                        "[TheShrouded] Could not start the loopback message broker on port "
+                                                                        + port + ".",
+                                                        e);
+                                        messageBroker = null;
+                                }
+                        }
+                        bus = new LoopbackMessageBus(port, secret,
+                                        getLogger());
+                }
+
+                orchestrator = new MatchOrchestrator(this, bus,
+                                MatchOrchestrator.Role.fromConfig(getConfig()
+                                                .getString("orchestration.role",
+                                                                "lobby")),
+                                nodeId, serverName);
+                registerListener(orchestrator);
+                orchestrator.start();
+        }
+
+        // -------------------------------------------------------------------------
+        // Data pack installation
+        // -------------------------------------------------------------------------
+
+        /**
+         * Installs the bundled {@code shrouded-effects} data pack into the
+         * primary world's {@code datapacks/} folder so the custom
+         * {@code shrouded:potion_cooldown} mob effect is registered by the time
+         * {@link #onEnable()} runs.
+         * <p>
+         * Files are always overwritten so the pack definition stays in sync
+         * with the plugin version.
+         */
+        private void installDataPack() {
+                // Resolve the primary world name from server.properties
+                // (default:
+                // "world")
+                String levelName = "world";
+                File serverProps = new File("server.properties");
+                if (serverProps.exists()) {
+                        try (FileInputStream in = new FileInputStream(
+                                        serverProps)) {
+                                Properties props = new Properties();
+                                props.load(in);
+                                levelName = props.getProperty("level-name",
+                                                "world");
+                        } catch (IOException e) {
+                                getLogger().warning(
+                                                "[TheShrouded] Could not read server.properties — "
+                                                                + "using default world name 'world' for data pack installation.");
+                        }
+                }
+
+                File packRoot = new File(
+                                levelName + "/datapacks/shrouded-effects");
+                File mobEffectDir = new File(packRoot,
+                                "data/shrouded/mob_effect");
+                mobEffectDir.mkdirs();
+
+                extractResource("datapack/pack.mcmeta",
+                                new File(packRoot, "pack.mcmeta"));
+                extractResource("datapack/data/shrouded/mob_effect/potion_cooldown.json",
+                                new File(mobEffectDir, "potion_cooldown.json"));
+        }
+
+        /**
+         * Copies a classpath resource to {@code dest}, always overwriting.
+         *
+         * @param resourcePath path inside the plugin JAR (relative to resources
+         *                     root)
+         * @param dest         target file on disk
+         */
+        private void extractResource(String resourcePath, File dest) {
+                try (InputStream in = getClass().getClassLoader()
+                                .getResourceAsStream(resourcePath);
+                                FileOutputStream out = new FileOutputStream(
+                                                dest)) {
+                        if (in == null) {
+                                getLogger().log(Level.WARNING,
+                                                "[TheShrouded] Missing bundled resource: {0}",
+                                                resourcePath);
+                                return;
+                        }
+                        in.transferTo(out);
+                } catch (IOException e) {
+                        getLogger().log(Level.WARNING,
+                                        "[TheShrouded] Failed to extract {0}: {1}",
+                                        new Object[] {
+                                                        resourcePath,
+                                                        e.getMessage()
+                                        });
+                }
+        }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package zyx.araxia.shrouded.commands;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+
+import zyx.araxia.shrouded.lobby.ArenaManager;
+
+/**
+ * Switches a registered arena between shared and instanced play.
+ *
+ * <p>Usage: {@code /shrouded.arena.instanced <arena_name> <true|false>}
+ *
+ * <p>An instanced arena's world is treated as a template: every match gets
+ * its own copy of it, so any number of lobbies (up to
+ * {@code game.max-arena-instances}) can play the arena at once and nothing
+ * needs restoring afterwards. Keep the template world unloaded where
+ * possible.
+ */
+public class ArenaInstancedCommand implements CommandExecutor {
+
+    private final ArenaManager arenaManager;
+
+    public ArenaInstancedCommand(ArenaManager arenaManager) {
+        this.arenaManager = arenaManager;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length != 2
+                || !(args[1].equalsIgnoreCase("true") || args[1].equalsIgnoreCase("false"))) {
+            sender.sendMessage("Usage: /shrouded.arena.instanced <arena_name> <true|false>");
+            return true;
+        }
+
+        String arenaName = args[0];
+        if (!arenaManager.arenaExists(arenaName)) {
+            sender.sendMessage("Arena '" + arenaName + "' not found.");
+            return true;
+        }
+
+        boolean instanced = Boolean.parseBoolean(args[1]);
+        if (!arenaManager.setInstanced(arenaName, instanced)) {
+            sender.sendMessage("Failed to save arena '" + arenaName + "'.");
+            return true;
+        }
+        sender.sendMessage("Arena '" + arenaName + "' is now "
+                + (instanced ? "instanced (one copy per match)." : "shared."));
+        return true;
+    }
+}
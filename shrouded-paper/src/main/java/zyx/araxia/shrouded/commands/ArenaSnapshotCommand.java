@@ -0,0 +1,53 @@
+package zyx.araxia.shrouded.commands;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+
+import zyx.araxia.shrouded.lobby.ArenaManager;
+
+/**
+ * Saves the current blocks of a registered arena as its restore point.
+ *
+ * <p>Usage: {@code /shrouded.arena.snapshot <arena_name>}
+ *
+ * <p>After every match the arena is restored to this snapshot, so build the
+ * arena first and run this once it is finished. Re-run it after editing the
+ * arena or changing its bounds. The capture runs in the background; the
+ * sender is told when it has been written.
+ */
+public class ArenaSnapshotCommand implements CommandExecutor {
+
+    private final ArenaManager arenaManager;
+
+    public ArenaSnapshotCommand(ArenaManager arenaManager) {
+        this.arenaManager = arenaManager;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length != 1) {
+            sender.sendMessage("Usage: /shrouded.arena.snapshot <arena_name>");
+            return true;
+        }
+
+        String arenaName = args[0];
+        if (!arenaManager.arenaExists(arenaName)) {
+            sender.sendMessage("Arena '" + arenaName + "' not found.");
+            return true;
+        }
+
+        sender.sendMessage("Capturing blocks for arena '" + arenaName + "'...");
+        arenaManager.captureBlockSnapshot(arenaName).whenComplete((snapshot, error) -> {
+            if (error != null) {
+                sender.sendMessage("Failed to snapshot arena '" + arenaName + "': "
+                        + error.getMessage());
+                return;
+            }
+            sender.sendMessage("Saved snapshot for arena '" + arenaName + "' ("
+                    + snapshot.getVolume() + " blocks, "
+                    + snapshot.getPaletteSize() + " distinct states).");
+        });
+        return true;
+    }
+}
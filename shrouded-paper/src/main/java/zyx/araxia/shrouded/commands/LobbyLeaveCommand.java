@@ -10,7 +10,8 @@ import org.bukkit.entity.Player;
 import zyx.araxia.shrouded.lobby.LobbyManager;
 
 /**
- * Removes the executing player from whatever lobby they are currently in.
+ * Removes the executing player from whatever lobby they are currently in, or
+ * from the matchmaking queue if they are waiting in it.
  *
  * Usage: /shrouded.lobby.leave
  */
@@ -31,6 +32,8 @@ public class LobbyLeaveCommand implements CommandExecutor {
 
         if (lobbyManager.removePlayerFromSession(player)) {
             player.sendMessage(Component.text("You left the lobby.", NamedTextColor.YELLOW));
+        } else if (lobbyManager.getMatchmakingQueue().dequeue(player.getUniqueId())) {
+            player.sendMessage(Component.text("You left the matchmaking queue.", NamedTextColor.YELLOW));
         } else {
             player.sendMessage(Component.text("You are not in a lobby.", NamedTextColor.RED));
         }
@@ -0,0 +1,79 @@
+package zyx.araxia.shrouded.commands;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import zyx.araxia.shrouded.lobby.LobbyManager;
+import zyx.araxia.shrouded.lobby.MatchmakingQueue;
+import zyx.araxia.shrouded.orchestration.MatchOrchestrator;
+
+/**
+ * Joins or leaves the server-wide matchmaking queue, or shows its statistics.
+ *
+ * Usage: /shrouded.queue [join|leave|stats]
+ */
+public class MatchmakingQueueCommand implements CommandExecutor {
+
+    private final LobbyManager lobbyManager;
+    private final MatchOrchestrator orchestrator;
+
+    /** @param orchestrator shown in {@code stats}; {@code null} if orchestration is disabled */
+    public MatchmakingQueueCommand(LobbyManager lobbyManager, MatchOrchestrator orchestrator) {
+        this.lobbyManager = lobbyManager;
+        this.orchestrator = orchestrator;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        String action = args.length > 0 ? args[0].toLowerCase() : "join";
+        MatchmakingQueue queue = lobbyManager.getMatchmakingQueue();
+
+        if (action.equals("stats")) {
+            if (!sender.hasPermission("shrouded.admin")) {
+                sender.sendMessage(Component.text("You don't have permission to view queue statistics.",
+                        NamedTextColor.RED));
+                return true;
+            }
+            sender.sendMessage(Component.text("Matchmaking: " + queue.getStats(), NamedTextColor.YELLOW));
+            if (orchestrator != null) {
+                sender.sendMessage(Component.text("Orchestration: " + orchestrator.getStats(),
+                        NamedTextColor.YELLOW));
+            }
+            return true;
+        }
+
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage("This command can only be used by players.");
+            return true;
+        }
+
+        switch (action) {
+            case "join" -> {
+                if (lobbyManager.isPlayerInSession(player)) {
+                    player.sendMessage(Component.text("You are already in a lobby.", NamedTextColor.YELLOW));
+                } else if (!queue.enqueue(player)) {
+                    player.sendMessage(Component.text("You are already in the matchmaking queue.",
+                            NamedTextColor.YELLOW));
+                } else {
+                    player.sendMessage(Component.text("You joined the matchmaking queue ("
+                            + queue.size() + " waiting).", NamedTextColor.GREEN));
+                }
+            }
+            case "leave" -> {
+                if (queue.dequeue(player.getUniqueId())) {
+                    player.sendMessage(Component.text("You left the matchmaking queue.", NamedTextColor.YELLOW));
+                } else {
+                    player.sendMessage(Component.text("You are not in the matchmaking queue.", NamedTextColor.RED));
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,100 @@
+package zyx.araxia.shrouded.commands;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.load.LoadGovernor;
+import zyx.araxia.shrouded.metrics.CostHistogram;
+import zyx.araxia.shrouded.metrics.TickCosts;
+
+/**
+ * Shows which event handlers and tasks cost the most tick time, resets the
+ * numbers, or dumps them to {@code plugins/TheShrouded/perf/}.
+ *
+ * Usage: /shrouded.perf [1m|5m|15m [count] | reset | dump]
+ */
+public class PerfCommand implements CommandExecutor {
+
+    private static final int DEFAULT_COUNT = 10;
+    private static final DateTimeFormatter DUMP_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final TheShrouded plugin;
+
+    public PerfCommand(TheShrouded plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        String action = args.length > 0 ? args[0].toLowerCase() : "5m";
+
+        if (action.equals("reset")) {
+            TickCosts.reset();
+            sender.sendMessage(Component.text("Tick cost data reset.", NamedTextColor.GREEN));
+            return true;
+        }
+
+        if (action.equals("dump")) {
+            Path file = plugin.getDataFolder().toPath().resolve("perf")
+                    .resolve("tick-costs-" + LocalDateTime.now().format(DUMP_NAME) + ".tsv");
+            plugin.getTaskScheduler().runAsync(() -> {
+                Component reply;
+                try {
+                    TickCosts.dump(file);
+                    reply = Component.text("Tick costs written to " + file + ".", NamedTextColor.GREEN);
+                } catch (IOException e) {
+                    reply = Component.text("Could not write " + file + ": " + e.getMessage(),
+                            NamedTextColor.RED);
+                }
+                Component message = reply;
+                plugin.getTaskScheduler().runGlobal(() -> sender.sendMessage(message), 0L);
+            });
+            return true;
+        }
+
+        TickCosts.Window window = TickCosts.Window.fromLabel(action);
+        if (window == null)
+            return false;
+        int count = DEFAULT_COUNT;
+        if (args.length > 1) {
+            try {
+                count = Math.max(1, Integer.parseInt(args[1]));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        LoadGovernor governor = plugin.getLoadGovernor();
+        if (governor != null) {
+            sender.sendMessage(Component.text(String.format("Effect quality %s (average tick %.1f ms).",
+                    LoadGovernor.quality(), governor.lastMspt()), NamedTextColor.YELLOW));
+        }
+
+        double ticks = TickCosts.ticksIn(window);
+        List<CostHistogram.Summary> top = TickCosts.top(window, count);
+        sender.sendMessage(Component.text(String.format("Top tick consumers, last %s (%.0f ticks):",
+                window.label(), ticks), NamedTextColor.YELLOW));
+        if (top.isEmpty()) {
+            sender.sendMessage(Component.text("  Nothing recorded yet.", NamedTextColor.GRAY));
+            return true;
+        }
+        for (CostHistogram.Summary s : top) {
+            double msPerTick = s.totalNanos() / ticks / 1_000_000.0;
+            sender.sendMessage(Component.text(String.format(
+                    "  %7.3f ms/tick (%4.1f%%)  p99 %.2f ms  max %.2f ms  %d calls  %s",
+                    msPerTick, msPerTick / 50.0 * 100.0, s.p99Nanos() / 1_000_000.0,
+                    s.maxNanos() / 1_000_000.0, s.count(), s.name()), NamedTextColor.WHITE));
+        }
+        return true;
+    }
+}
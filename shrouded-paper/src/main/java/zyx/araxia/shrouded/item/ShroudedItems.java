@@ -18,7 +18,6 @@ import net.kyori.adventure.text.format.TextDecoration;
 // Logger imports for debugging
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.bukkit.plugin.java.JavaPlugin;
 import zyx.araxia.shrouded.TheShrouded;
 
 /**
@@ -63,8 +62,7 @@ import zyx.araxia.shrouded.TheShrouded;
  */
 public final class ShroudedItems {
 
-    private static final Logger LOGGER = JavaPlugin.getPlugin(TheShrouded.class)
-            .getLogger();
+    private static final Logger LOGGER = TheShrouded.pluginLogger();
 
     // -------------------------------------------------------------------------
     // NBT keys (namespace "shrouded" is owned by this plugin)
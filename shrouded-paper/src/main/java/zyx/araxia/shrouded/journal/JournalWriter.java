@@ -0,0 +1,313 @@
+package zyx.araxia.shrouded.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import zyx.araxia.shrouded.metrics.MetricsRegistry;
+
+/**
+ * Writes each {@link MatchJournal} to its own segment file in
+ * {@code plugins/TheShrouded/journal/}, named after the time the match
+ * opened and its name. A daemon thread drains every open journal each
+ * {@code journal.drain-interval-ms}; files are only created and written on
+ * that thread. Once a match's journal is closed and drained its segment is
+ * closed, and the oldest segments are deleted until the folder is under
+ * {@code journal.max-total-mb}.
+ *
+ * <p>
+ * Segment layout (big-endian):
+ *
+ * <pre>
+ * int    magic 'SHJ1'
+ * short  version (1)
+ * long   start, epoch milliseconds
+ * int    start, server tick
+ * str    match name
+ * byte   participant count, then 16 bytes (most, least significant) per UUID
+ * byte   table count, then per table: short entries, then str per entry
+ *        (phases, classes, abilities, damage causes, outcomes)
+ * long   one event per 8 bytes until the end of the file
+ * </pre>
+ *
+ * where {@code str} is a short byte length followed by UTF-8. See
+ * {@link MatchJournal} for the event layout.
+ */
+public class JournalWriter {
+
+    private static final int MAGIC = 0x53484A31; // "SHJ1"
+    private static final short VERSION = 1;
+    private static final String EXTENSION = ".shj";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneId.systemDefault());
+
+    private static final MetricsRegistry.Counter SEGMENTS = MetricsRegistry.counter("journal_segments");
+    private static final MetricsRegistry.Counter WRITE_FAILURES = MetricsRegistry.counter("journal_write_failures");
+
+    private final Path directory;
+    private final long maxTotalBytes;
+    private final int ringCapacity;
+    private final long drainIntervalMillis;
+    private final Logger logger;
+
+    /** Open journals → their segment, {@code null} until the writer thread creates it. */
+    private final Map<MatchJournal, Segment> open = new ConcurrentHashMap<>();
+
+    /** Writer thread only. */
+    private final long[] events = new long[4096];
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(4096 * Long.BYTES);
+
+    private Thread thread;
+
+    /**
+     * Set by {@link #stop()}. The writer is woken with an unpark rather than
+     * an interrupt: an interrupt during {@code FileChannel.write} closes the
+     * channel and loses the segment's tail.
+     */
+    private volatile boolean stopping;
+
+    private static final class Segment {
+        final Path file;
+        FileChannel channel;
+        boolean failed;
+
+        Segment(Path file) {
+            this.file = file;
+        }
+    }
+
+    public JournalWriter(Path directory, ConfigurationSection config, Logger logger) {
+        this.directory = directory;
+        this.maxTotalBytes = Math.max(1L, config != null ? config.getLong("max-total-mb", 256L) : 256L) * 1024L
+                * 1024L;
+        this.ringCapacity = config != null ? config.getInt("ring-capacity", 4096) : 4096;
+        this.drainIntervalMillis = Math.max(10L, config != null ? config.getLong("drain-interval-ms", 100L) : 100L);
+        this.logger = logger;
+    }
+
+    public void start() {
+        stopping = false;
+        thread = new Thread(this::run, "TheShrouded-journal");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stops the thread, then writes and closes every open segment. */
+    public void stop() {
+        if (thread == null)
+            return;
+        stopping = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+        for (MatchJournal journal : open.keySet())
+            journal.close();
+        drainAll();
+    }
+
+    /**
+     * Opens a journal for a match. Cheap and free of I/O; the segment file
+     * is created by the writer thread on its next pass.
+     */
+    public MatchJournal open(String matchName, Collection<UUID> roster) {
+        MatchJournal journal = new MatchJournal(matchName, roster, ringCapacity);
+        String base = FILE_TIME.format(Instant.ofEpochMilli(journal.getStartMillis())) + "-"
+                + matchName.replaceAll("[^A-Za-z0-9_-]", "-");
+        open.put(journal, new Segment(directory.resolve(base + EXTENSION)));
+        return journal;
+    }
+
+    /**
+     * Closes {@code journal} to new lookups. Events it still holds are
+     * written and its segment closed on the writer's next pass.
+     */
+    public void close(MatchJournal journal) {
+        journal.close();
+    }
+
+    private void run() {
+        while (!stopping) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(drainIntervalMillis));
+            if (!stopping)
+                drainAll();
+        }
+    }
+
+    private synchronized void drainAll() {
+        boolean closedAny = false;
+        for (Map.Entry<MatchJournal, Segment> e : open.entrySet()) {
+            MatchJournal journal = e.getKey();
+            Segment segment = e.getValue();
+            // Read before draining: a journal seen as closed here gets no
+            // further events from the match.
+            boolean closed = journal.isClosed();
+            drain(journal, segment);
+            if (closed && journal.isDrained()) {
+                closeSegment(segment);
+                open.remove(journal);
+                closedAny = true;
+            }
+        }
+        if (closedAny)
+            enforceLimit();
+    }
+
+    private void drain(MatchJournal journal, Segment segment) {
+        int n;
+        while ((n = journal.drain(events)) > 0) {
+            if (segment.failed)
+                continue;
+            try {
+                if (segment.channel == null)
+                    segment.channel = create(journal, segment.file);
+                buffer.clear();
+                for (int i = 0; i < n; i++)
+                    buffer.putLong(events[i]);
+                buffer.flip();
+                while (buffer.hasRemaining())
+                    segment.channel.write(buffer);
+            } catch (IOException ex) {
+                segment.failed = true;
+                WRITE_FAILURES.increment();
+                logger.log(Level.WARNING, "[TheShrouded] Could not write match journal ''{0}'': {1}",
+                        new Object[] { segment.file.getFileName(), ex.getMessage() });
+                closeSegment(segment);
+            }
+        }
+    }
+
+    private FileChannel create(MatchJournal journal, Path file) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = header(journal);
+        while (header.hasRemaining())
+            channel.write(header);
+        SEGMENTS.increment();
+        return channel;
+    }
+
+    private static ByteBuffer header(MatchJournal journal) {
+        List<UUID> participants = journal.getParticipants();
+        List<List<String>> tables = MatchJournal.codeTables();
+        List<byte[]> strings = new ArrayList<>();
+        strings.add(journal.getMatchName().getBytes(StandardCharsets.UTF_8));
+        for (List<String> table : tables) {
+            for (String entry : table)
+                strings.add(entry.getBytes(StandardCharsets.UTF_8));
+        }
+
+        int size = Integer.BYTES + Short.BYTES + Long.BYTES + Integer.BYTES
+                + 1 + participants.size() * 16
+                + 1 + tables.size() * Short.BYTES;
+        for (byte[] s : strings)
+            size += Short.BYTES + s.length;
+
+        ByteBuffer header = ByteBuffer.allocate(size);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putLong(journal.getStartMillis());
+        header.putInt(journal.getStartTick());
+        int next = 0;
+        putString(header, strings.get(next++));
+        int count = Math.min(participants.size(), MatchJournal.NONE);
+        header.put((byte) count);
+        for (int i = 0; i < count; i++) {
+            header.putLong(participants.get(i).getMostSignificantBits());
+            header.putLong(participants.get(i).getLeastSignificantBits());
+        }
+        header.put((byte) tables.size());
+        for (List<String> table : tables) {
+            header.putShort((short) table.size());
+            for (int i = 0; i < table.size(); i++)
+                putString(header, strings.get(next++));
+        }
+        return header.flip();
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void closeSegment(Segment segment) {
+        if (segment.channel == null)
+            return;
+        try {
+            segment.channel.force(false);
+            segment.channel.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "[TheShrouded] Could not close match journal ''{0}'': {1}",
+                    new Object[] { segment.file.getFileName(), e.getMessage() });
+        }
+        segment.channel = null;
+    }
+
+    /** Deletes the oldest closed segments until the folder fits in {@code journal.max-total-mb}. */
+    private void enforceLimit() {
+        Set<Path> inUse = new HashSet<>();
+        for (Segment segment : open.values())
+            inUse.add(segment.file);
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(EXTENSION))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            return;
+        }
+
+        long total = 0L;
+        List<Long> sizes = new ArrayList<>(files.size());
+        for (Path file : files) {
+            long size;
+            try {
+                size = Files.size(file);
+            } catch (IOException e) {
+                size = 0L;
+            }
+            sizes.add(size);
+            total += size;
+        }
+
+        for (int i = 0; i < files.size() && total > maxTotalBytes; i++) {
+            Path file = files.get(i);
+            if (inUse.contains(file))
+                continue;
+            try {
+                Files.deleteIfExists(file);
+                total -= sizes.get(i);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "[TheShrouded] Could not delete old match journal ''{0}'': {1}",
+                        new Object[] { file.getFileName(), e.getMessage() });
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package zyx.araxia.shrouded.journal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
+
+import zyx.araxia.shrouded.core.MatchOutcome;
+import zyx.araxia.shrouded.game.PlayerClass;
+import zyx.araxia.shrouded.lobby.LobbySession.Phase;
+import zyx.araxia.shrouded.metrics.MetricsRegistry;
+
+/**
+ * The event journal of one match: phase changes, class assignments,
+ * ability casts, damage, deaths, departures and the outcome, each packed
+ * into one {@code long} and written to a ring buffer. {@link JournalWriter}
+ * drains the buffer on its own thread into the match's segment file.
+ *
+ * <p>
+ * Recording an event claims a slot with one compare-and-set and fills it
+ * with one release write; nothing blocks and nothing is allocated. If the
+ * writer falls a whole buffer behind, new events are dropped and counted in
+ * {@code journal_dropped}.
+ *
+ * <p>
+ * Event layout, most significant bit first:
+ *
+ * <pre>
+ *  4 bits  type     (TYPE_* below; never 0)
+ * 24 bits  tick     server ticks since the segment's start tick
+ *  8 bits  actor    participant index, 255 for none
+ *  8 bits  target   participant index, 255 for none
+ *  8 bits  code     index into the matching table in the segment header
+ * 12 bits  value    damage in tenths of a health point, otherwise 0
+ * </pre>
+ *
+ * Participant indexes are the roster's order when the journal was opened.
+ */
+public class MatchJournal {
+
+    public static final int TYPE_PHASE = 1;
+    public static final int TYPE_CLASS = 2;
+    public static final int TYPE_ABILITY = 3;
+    public static final int TYPE_DAMAGE = 4;
+    public static final int TYPE_DEATH = 5;
+    public static final int TYPE_LEAVE = 6;
+    public static final int TYPE_END = 7;
+
+    /** Participant index or code meaning "none"; also the code for the phase after a match ends. */
+    public static final int NONE = 255;
+
+    /**
+     * Ability names as passed to {@code PluginMetrics.recordAbilityCast}.
+     * Append only: the position is the code written to disk.
+     */
+    static final List<String> ABILITIES = List.of(
+            "shrouded_global_blind",
+            "shrouded_leap_spear",
+            "shrouded_levi_bomb",
+            "shrouded_sword_stab",
+            "shrouded_toxic_cloud",
+            "survivor_bomb",
+            "survivor_health_potion",
+            "survivor_web",
+            "survivor_wind_charge");
+
+    private static final Map<String, Integer> ABILITY_CODES = new HashMap<>();
+    static {
+        for (int i = 0; i < ABILITIES.size(); i++)
+            ABILITY_CODES.put(ABILITIES.get(i), i);
+    }
+
+    private static final MetricsRegistry.Counter DROPPED = MetricsRegistry.counter("journal_dropped");
+
+    /** Player → the journal of the match they are in, for event sources outside the match. */
+    private static final Map<UUID, MatchJournal> BY_PLAYER = new ConcurrentHashMap<>();
+
+    private final String matchName;
+    private final long startMillis = System.currentTimeMillis();
+    private final int startTick = Bukkit.getCurrentTick();
+    private final List<UUID> participants;
+    private final Map<UUID, Integer> indexes = new HashMap<>();
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    /** Next slot to drain. Written by the draining thread only. */
+    private volatile long tail = 0L;
+
+    private volatile boolean closed = false;
+
+    MatchJournal(String matchName, Collection<UUID> roster, int capacity) {
+        this.matchName = matchName;
+        this.participants = List.copyOf(roster);
+        for (int i = 0; i < participants.size(); i++)
+            indexes.put(participants.get(i), Math.min(i, NONE));
+        int size = Integer.highestOneBit(Math.max(64, capacity) - 1) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (UUID uuid : participants)
+            BY_PLAYER.put(uuid, this);
+    }
+
+    /** Returns the open journal of the match {@code uuid} is playing in, or {@code null}. */
+    public static MatchJournal of(UUID uuid) {
+        return BY_PLAYER.get(uuid);
+    }
+
+    /** Journals a cast of {@code ability} if {@code caster} is in a journaled match. */
+    public static void abilityCast(UUID caster, String ability) {
+        MatchJournal journal = BY_PLAYER.get(caster);
+        if (journal != null) {
+            journal.append(TYPE_ABILITY, journal.index(caster), NONE,
+                    ABILITY_CODES.getOrDefault(ability, NONE), 0);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Events
+    // -------------------------------------------------------------------------
+
+    public void phase(Phase next) {
+        append(TYPE_PHASE, NONE, NONE, next != null ? next.ordinal() : NONE, 0);
+    }
+
+    public void classAssigned(UUID uuid, PlayerClass playerClass) {
+        append(TYPE_CLASS, index(uuid), NONE, playerClass != null ? playerClass.ordinal() : NONE, 0);
+    }
+
+    /** @param damager the player who dealt the damage, or {@code null} */
+    public void damage(UUID victim, UUID damager, DamageCause cause, double amount) {
+        append(TYPE_DAMAGE, damager != null ? index(damager) : NONE, index(victim),
+                Math.min(cause.ordinal(), NONE), (int) Math.min(0xFFF, Math.round(amount * 10.0)));
+    }
+
+    /** @param killer the player credited with the kill, or {@code null} */
+    public void death(UUID dead, UUID killer) {
+        append(TYPE_DEATH, killer != null ? index(killer) : NONE, index(dead), NONE, 0);
+    }
+
+    public void left(UUID uuid) {
+        append(TYPE_LEAVE, NONE, index(uuid), NONE, 0);
+    }
+
+    public void ended(MatchOutcome outcome) {
+        append(TYPE_END, NONE, NONE, outcome.ordinal(), 0);
+    }
+
+    private int index(UUID uuid) {
+        Integer index = indexes.get(uuid);
+        return index != null ? index : NONE;
+    }
+
+    private void append(int type, int actor, int target, int code, int value) {
+        int tick = Math.min(Bukkit.getCurrentTick() - startTick, 0xFFFFFF);
+        long event = ((long) type << 60)
+                | ((long) Math.max(0, tick) << 36)
+                | ((long) (actor & 0xFF) << 28)
+                | ((long) (target & 0xFF) << 20)
+                | ((long) (code & 0xFF) << 12)
+                | (value & 0xFFF);
+
+        long claimed;
+        do {
+            claimed = head.get();
+            if (claimed - tail > mask) {
+                DROPPED.increment();
+                return;
+            }
+        } while (!head.compareAndSet(claimed, claimed + 1));
+        slots.setRelease((int) (claimed & mask), event);
+    }
+
+    // -------------------------------------------------------------------------
+    // Draining (writer thread)
+    // -------------------------------------------------------------------------
+
+    /**
+     * Copies up to {@code out.length} published events into {@code out} and
+     * frees their slots. Stops at the first slot that has been claimed but
+     * not yet written.
+     *
+     * @return the number of events copied
+     */
+    int drain(long[] out) {
+        long t = tail;
+        int n = 0;
+        while (n < out.length) {
+            int slot = (int) (t & mask);
+            long event = slots.getAcquire(slot);
+            if (event == 0L)
+                break;
+            out[n++] = event;
+            slots.setRelease(slot, 0L);
+            t++;
+        }
+        tail = t;
+        return n;
+    }
+
+    /** Whether every event appended so far has been drained. */
+    boolean isDrained() {
+        return tail == head.get();
+    }
+
+    /** Stops other classes finding this journal through {@link #of}. Events can still be appended. */
+    void close() {
+        closed = true;
+        for (UUID uuid : participants)
+            BY_PLAYER.remove(uuid, this);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    String getMatchName() {
+        return matchName;
+    }
+
+    long getStartMillis() {
+        return startMillis;
+    }
+
+    int getStartTick() {
+        return startTick;
+    }
+
+    List<UUID> getParticipants() {
+        return participants;
+    }
+
+    /** Code tables written to the segment header, in {@code TYPE_*} order where they apply. */
+    static List<List<String>> codeTables() {
+        List<List<String>> tables = new ArrayList<>();
+        tables.add(names(Phase.values()));
+        tables.add(names(PlayerClass.values()));
+        tables.add(ABILITIES);
+        tables.add(names(DamageCause.values()));
+        tables.add(names(MatchOutcome.values()));
+        return tables;
+    }
+
+    private static List<String> names(Enum<?>[] values) {
+        return Arrays.stream(values).map(Enum::name).toList();
+    }
+}
@@ -0,0 +1,31 @@
+package zyx.araxia.shrouded.listener;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.journal.MatchJournal;
+import zyx.araxia.shrouded.metrics.FlightEvents;
+import zyx.araxia.shrouded.metrics.PluginMetrics;
+
+/**
+ * Records a successful ability use everywhere it is tracked: the cast
+ * counter, the flight recorder, the match journal and the caster's profile.
+ */
+final class AbilityCasts {
+
+    private AbilityCasts() {
+    }
+
+    /**
+     * @param ability the ability's metric name (e.g. {@code "survivor_bomb"});
+     *                new names must also be appended to the match journal's
+     *                ability table
+     */
+    static void recordAbilityCast(Player player, String ability) {
+        PluginMetrics.recordAbilityCast(ability);
+        FlightEvents.abilityCast(ability, player);
+        MatchJournal.abilityCast(player.getUniqueId(), ability);
+        JavaPlugin.getPlugin(TheShrouded.class).getProfileStore().recordAbility(player.getUniqueId(), ability);
+    }
+}
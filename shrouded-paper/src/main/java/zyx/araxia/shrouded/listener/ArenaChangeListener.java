@@ -0,0 +1,241 @@
+package zyx.araxia.shrouded.listener;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFertilizeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.block.BlockMultiPlaceEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.block.SpongeAbsorbEvent;
+import org.bukkit.event.block.TNTPrimeEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+
+import zyx.araxia.shrouded.lobby.ArenaManager;
+
+/**
+ * Feeds every vanilla block change inside an arena into the
+ * {@link ArenaManager} change journal, so the post-match reset knows exactly
+ * which blocks to put back: players breaking, placing, emptying and filling
+ * buckets, priming TNT and using bone meal, as well as explosions, fire,
+ * fluids, growth, sponges, pistons and entities.
+ *
+ * <p>
+ * All handlers run at {@link EventPriority#MONITOR} and ignore cancelled
+ * events, so only changes that actually happen are recorded. Most events fire
+ * before the block changes and record its current state; place events fire
+ * after, and record the replaced state the event carries instead.
+ *
+ * <p>
+ * Removing a block can take others with it without any event: the top half
+ * of a door or bed, torches, signs and buttons on it, plants on top of it,
+ * and whole stacks of sugar cane, cactus or hanging vines. So wherever a
+ * block is removed its six neighbours are recorded too, plus any stack of
+ * the same block running up or down from it. Recording a position that then
+ * does not change is harmless; it is just rewritten with its own state.
+ * Plugin-made changes (e.g. {@link SurvivorWebListener}) call
+ * {@link ArenaManager#recordChange(Block)} themselves.
+ */
+public class ArenaChangeListener implements Listener {
+
+    private final ArenaManager arenaManager;
+
+    /** How far a same-block stack is followed from a removed block. */
+    private static final int MAX_STACK = 64;
+
+    private static final BlockFace[] NEIGHBOURS = {
+            BlockFace.UP, BlockFace.DOWN, BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST
+    };
+
+    public ArenaChangeListener(ArenaManager arenaManager) {
+        this.arenaManager = arenaManager;
+    }
+
+    /**
+     * Records {@code block}, which is about to be removed, and every block
+     * that physics may remove along with it.
+     */
+    private void recordRemoval(Block block) {
+        arenaManager.recordChange(block);
+        for (BlockFace face : NEIGHBOURS) {
+            Block neighbour = block.getRelative(face);
+            arenaManager.recordChange(neighbour);
+            if (face == BlockFace.UP || face == BlockFace.DOWN)
+                recordStack(neighbour, face);
+        }
+    }
+
+    /** Records the run of blocks of {@code start}'s type beyond it in {@code direction}. */
+    private void recordStack(Block start, BlockFace direction) {
+        Material type = start.getType();
+        if (type.isAir())
+            return;
+        Block next = start.getRelative(direction);
+        for (int i = 0; i < MAX_STACK && next.getType() == type; i++) {
+            arenaManager.recordChange(next);
+            next = next.getRelative(direction);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        recordRemoval(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        if (event instanceof BlockMultiPlaceEvent multi) {
+            for (BlockState replaced : multi.getReplacedBlockStates()) {
+                arenaManager.recordChange(replaced.getBlock(), replaced.getBlockData());
+            }
+            return;
+        }
+        BlockState replaced = event.getBlockReplacedState();
+        arenaManager.recordChange(event.getBlock(), replaced.getBlockData());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        // The fluid goes into the clicked block if it can be waterlogged,
+        // otherwise next to it; record both.
+        arenaManager.recordChange(event.getBlock());
+        arenaManager.recordChange(event.getBlockClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketFill(PlayerBucketFillEvent event) {
+        recordRemoval(event.getBlock());
+        arenaManager.recordChange(event.getBlockClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTntPrime(TNTPrimeEvent event) {
+        recordRemoval(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent event) {
+        arenaManager.recordChange(event.getLocation().getBlock());
+        for (BlockState grown : event.getBlocks()) {
+            arenaManager.recordChange(grown.getBlock());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFertilize(BlockFertilizeEvent event) {
+        arenaManager.recordChange(event.getBlock());
+        for (BlockState grown : event.getBlocks()) {
+            arenaManager.recordChange(grown.getBlock());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSpongeAbsorb(SpongeAbsorbEvent event) {
+        // The sponge turns wet; every absorbed fluid block is removed.
+        arenaManager.recordChange(event.getBlock());
+        for (BlockState absorbed : event.getBlocks()) {
+            recordRemoval(absorbed.getBlock());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            recordRemoval(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        recordRemoval(event.getBlock());
+        for (Block block : event.blockList()) {
+            recordRemoval(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        recordRemoval(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        recordRemoval(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockIgnite(BlockIgniteEvent event) {
+        // The fire block is placed at the ignited position.
+        arenaManager.recordChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockSpread(BlockSpreadEvent event) {
+        arenaManager.recordChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        recordRemoval(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        arenaManager.recordChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFluidFlow(BlockFromToEvent event) {
+        // Washing away a torch or crop can drop what sat on it.
+        recordRemoval(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        recordRemoval(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        BlockFace direction = event.getDirection();
+        arenaManager.recordChange(event.getBlock().getRelative(direction)); // piston head
+        for (Block block : event.getBlocks()) {
+            recordRemoval(block);
+            arenaManager.recordChange(block.getRelative(direction));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        // Which way getDirection() points on retraction has varied between
+        // versions; recording both neighbours along the axis covers the
+        // piston head and every moved block's destination either way.
+        // Recording an unchanged position is harmless.
+        BlockFace direction = event.getDirection();
+        arenaManager.recordChange(event.getBlock().getRelative(direction));
+        arenaManager.recordChange(event.getBlock().getRelative(direction.getOppositeFace()));
+        for (Block block : event.getBlocks()) {
+            recordRemoval(block);
+            arenaManager.recordChange(block.getRelative(direction));
+            arenaManager.recordChange(block.getRelative(direction.getOppositeFace()));
+        }
+    }
+}
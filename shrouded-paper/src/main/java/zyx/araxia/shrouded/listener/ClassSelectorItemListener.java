@@ -9,7 +9,6 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.EquipmentSlot;
-import org.bukkit.plugin.java.JavaPlugin;
 
 import zyx.araxia.shrouded.TheShrouded;
 import zyx.araxia.shrouded.item.ShroudedItems;
@@ -27,7 +26,7 @@ import zyx.araxia.shrouded.menu.ClassSelectMenu;
  */
 public class ClassSelectorItemListener implements Listener {
 
-    private static final Logger LOGGER = JavaPlugin.getPlugin(TheShrouded.class).getLogger();
+    private static final Logger LOGGER = TheShrouded.pluginLogger();
     private final LobbyManager lobbyManager;
 
     public ClassSelectorItemListener(LobbyManager lobbyManager) {
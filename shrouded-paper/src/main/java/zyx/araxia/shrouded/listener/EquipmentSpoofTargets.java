@@ -0,0 +1,51 @@
+package zyx.araxia.shrouded.listener;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The players whose equipment {@link ShroudedEquipmentSpoofer} hides, and
+ * the per-packet check for whether a given viewer should have it hidden.
+ * Safe to read from Netty threads while the main thread updates it.
+ */
+public final class EquipmentSpoofTargets {
+
+    /** UUIDs of players whose equipment should be hidden from others. */
+    private final Set<UUID> spoofed = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /**
+     * Maps Minecraft entity ID → player UUID so we can look up the tracked
+     * player from the raw integer in the packet without iterating every online
+     * player on every packet send.
+     */
+    private final Map<Integer, UUID> entityIdMap = new ConcurrentHashMap<>();
+
+    public void add(UUID player, int entityId) {
+        spoofed.add(player);
+        entityIdMap.put(entityId, player);
+    }
+
+    public void remove(UUID player, int entityId) {
+        spoofed.remove(player);
+        entityIdMap.remove(entityId);
+    }
+
+    public boolean contains(UUID player) {
+        return spoofed.contains(player);
+    }
+
+    /**
+     * Returns {@code true} if an equipment packet for {@code entityId} sent
+     * to {@code viewer} must be blanked: the entity is a spoofed player and
+     * the viewer is somebody else. The shrouded player themselves should
+     * still see their own equipment.
+     */
+    public boolean hidesFrom(int entityId, UUID viewer) {
+        UUID shroudedId = entityIdMap.get(entityId);
+        return shroudedId != null && spoofed.contains(shroudedId)
+                && !viewer.equals(shroudedId);
+    }
+}
@@ -0,0 +1,41 @@
+package zyx.araxia.shrouded.listener;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+
+import zyx.araxia.shrouded.journal.MatchJournal;
+
+/**
+ * Writes damage taken by players in a journaled match to the
+ * {@link MatchJournal}, crediting the attacking player where there is one
+ * (including the shooter of a projectile).
+ */
+public class MatchDamageListener implements Listener {
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityDamage(EntityDamageEvent event) {
+        if (!(event.getEntity() instanceof Player victim))
+            return;
+        MatchJournal journal = MatchJournal.of(victim.getUniqueId());
+        if (journal == null)
+            return;
+
+        Player damager = null;
+        if (event instanceof EntityDamageByEntityEvent byEntity) {
+            Entity source = byEntity.getDamager();
+            if (source instanceof Projectile projectile && projectile.getShooter() instanceof Player shooter)
+                damager = shooter;
+            else if (source instanceof Player player)
+                damager = player;
+        }
+
+        journal.damage(victim.getUniqueId(), damager != null ? damager.getUniqueId() : null,
+                event.getCause(), event.getFinalDamage());
+    }
+}
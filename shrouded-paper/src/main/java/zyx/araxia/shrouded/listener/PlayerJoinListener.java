@@ -4,8 +4,8 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
 
+import zyx.araxia.shrouded.TheShrouded;
 import zyx.araxia.shrouded.lobby.LobbyManager;
 
 /**
@@ -39,13 +39,10 @@ public class PlayerJoinListener implements Listener {
     public void onPlayerJoin(PlayerJoinEvent event) {
         // Defer by one tick to ensure the player is fully loaded into the world
         // before any teleport or inventory manipulation is attempted.
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (event.getPlayer().isOnline()) {
-                    lobbyManager.tryRestoreOrphanedSnapshot(event.getPlayer());
-                }
+        ((TheShrouded) plugin).getTaskScheduler().runFor(event.getPlayer(), () -> {
+            if (event.getPlayer().isOnline()) {
+                lobbyManager.tryRestoreOrphanedSnapshot(event.getPlayer());
             }
-        }.runTaskLater(plugin, 1L);
+        }, 1L);
     }
 }
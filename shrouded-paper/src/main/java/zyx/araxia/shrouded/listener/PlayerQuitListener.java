@@ -7,7 +7,8 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import zyx.araxia.shrouded.lobby.LobbyManager;
 
 /**
- * Removes a player from their lobby session when they disconnect.
+ * Removes a player from the matchmaking queue and their lobby session when
+ * they disconnect.
  */
 public class PlayerQuitListener implements Listener {
 
@@ -19,6 +20,7 @@ public class PlayerQuitListener implements Listener {
 
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
+        lobbyManager.getMatchmakingQueue().dequeue(event.getPlayer().getUniqueId());
         lobbyManager.removePlayerFromSession(event.getPlayer());
     }
 }
@@ -0,0 +1,31 @@
+package zyx.araxia.shrouded.listener;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import zyx.araxia.shrouded.profile.ProfileStore;
+
+/**
+ * Keeps a {@link zyx.araxia.shrouded.profile.PlayerProfile} cached for each
+ * online player: loaded in the background on join and dropped on quit.
+ */
+public class ProfileCacheListener implements Listener {
+
+    private final ProfileStore profileStore;
+
+    public ProfileCacheListener(ProfileStore profileStore) {
+        this.profileStore = profileStore;
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        profileStore.load(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        profileStore.evict(event.getPlayer().getUniqueId());
+    }
+}
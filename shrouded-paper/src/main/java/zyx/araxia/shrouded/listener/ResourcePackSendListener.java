@@ -0,0 +1,283 @@
+package zyx.araxia.shrouded.listener;
+
+import net.kyori.adventure.resource.ResourcePackInfo;
+import net.kyori.adventure.resource.ResourcePackRequest;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerResourcePackStatusEvent;
+
+import zyx.araxia.shrouded.ResourcePackServer;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sends the plugin resource pack to players, using the URL and SHA-1 hash
+ * provided by {@link ResourcePackServer}.
+ *
+ * <h3>Delivery modes</h3>
+ * <ul>
+ * <li>{@link DeliveryMode#JOIN} — the base pack is sent to every player on
+ * {@link PlayerJoinEvent}.</li>
+ * <li>{@link DeliveryMode#LOBBY} — nothing is sent on join. The base pack is
+ * sent the first time a player enters a lobby ({@link #onLobbyJoin}), and an
+ * arena's overlay pack is layered on top only when a match starts there
+ * ({@link #onMatchStart}), so hub players never download minigame assets.</li>
+ * </ul>
+ *
+ * <p>
+ * Every pack the client reports as
+ * {@link PlayerResourcePackStatusEvent.Status#SUCCESSFULLY_LOADED loaded} is
+ * remembered per player by id and hash; later requests for the same version
+ * are skipped. Pack ids are derived from the URL, so a hot-reloaded pack
+ * replaces the old one on the client rather than stacking a second copy.
+ */
+public class ResourcePackSendListener implements Listener {
+
+    /** When the base pack is first offered to a player. */
+    public enum DeliveryMode {
+        /** Send on server join (legacy behaviour). */
+        JOIN,
+        /** Send on first lobby join; arena overlays on match start. */
+        LOBBY;
+
+        /** Parses a config value, falling back to {@link #JOIN}. */
+        public static DeliveryMode fromConfig(String value) {
+            if (value == null)
+                return JOIN;
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return JOIN;
+            }
+        }
+    }
+
+    private final ResourcePackServer packServer;
+    private final String serverIp;
+    private final DeliveryMode mode;
+
+    /** Player UUID → (pack id → hash the client confirmed as loaded). */
+    private final Map<UUID, Map<UUID, String>> loadedPacks = new HashMap<>();
+
+    /** Player UUID → (pack id → hash sent but not yet confirmed). */
+    private final Map<UUID, Map<UUID, String>> pendingPacks = new HashMap<>();
+
+    public ResourcePackSendListener(ResourcePackServer packServer, String serverIp,
+            DeliveryMode mode) {
+        this.packServer = packServer;
+        this.serverIp = serverIp;
+        this.mode = mode;
+    }
+
+    public DeliveryMode getMode() {
+        return mode;
+    }
+
+    // -------------------------------------------------------------------------
+    // Events
+    // -------------------------------------------------------------------------
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        if (mode == DeliveryMode.JOIN) {
+            sendPack(event.getPlayer());
+        }
+    }
+
+    @EventHandler
+    public void onPackStatus(PlayerResourcePackStatusEvent event) {
+        UUID playerId = event.getPlayer().getUniqueId();
+        UUID packId = event.getID();
+        Map<UUID, String> pending = pendingPacks.get(playerId);
+        String hash = pending != null ? pending.get(packId) : null;
+
+        switch (event.getStatus()) {
+            case SUCCESSFULLY_LOADED -> {
+                if (hash != null) {
+                    pending.remove(packId);
+                    loadedPacks.computeIfAbsent(playerId, k -> new HashMap<>())
+                            .put(packId, hash);
+                }
+            }
+            case ACCEPTED, DOWNLOADED -> {
+                // Intermediate states — wait for the final outcome.
+            }
+            default -> {
+                // Declined, failed, or discarded: forget it so the next
+                // lobby join or match start offers it again.
+                if (pending != null)
+                    pending.remove(packId);
+                Map<UUID, String> loaded = loadedPacks.get(playerId);
+                if (loaded != null)
+                    loaded.remove(packId);
+            }
+        }
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        // Server-pushed packs are dropped by the client on disconnect.
+        loadedPacks.remove(event.getPlayer().getUniqueId());
+        pendingPacks.remove(event.getPlayer().getUniqueId());
+    }
+
+    // -------------------------------------------------------------------------
+    // Delivery hooks
+    // -------------------------------------------------------------------------
+
+    /**
+     * Called when {@code player} enters a lobby. In {@link DeliveryMode#LOBBY}
+     * mode this sends the base pack unless the client already has the current
+     * version.
+     */
+    public void onLobbyJoin(Player player) {
+        if (mode == DeliveryMode.LOBBY) {
+            sendPack(player);
+        }
+    }
+
+    /**
+     * Called for each participant when a match starts in {@code arenaName}.
+     * In {@link DeliveryMode#LOBBY} mode this sends, in a single multi-pack
+     * request, whichever of the base pack and the arena's overlay the client
+     * does not already have.
+     */
+    public void onMatchStart(Player player, String arenaName) {
+        if (mode != DeliveryMode.LOBBY || !packServer.isRunning())
+            return;
+
+        List<ResourcePackInfo> packs = new ArrayList<>(2);
+        ResourcePackInfo base = basePackInfo();
+        if (needs(player, base))
+            packs.add(base);
+
+        String overlayHash = packServer.getOverlaySha1Hex(arenaName);
+        if (overlayHash != null) {
+            ResourcePackInfo overlay = packInfo(
+                    packServer.getOverlayUrl(serverIp, arenaName), overlayHash);
+            if (needs(player, overlay))
+                packs.add(overlay);
+        }
+
+        send(player, packs);
+    }
+
+    /**
+     * Called when {@code player} comes back to the lobby from a match, or
+     * leaves the lobby altogether. Unloads every arena overlay the client has
+     * (or was sent), so the next arena's overlay is not stacked on top of
+     * this one's. The base pack stays.
+     */
+    public void onMatchEnd(Player player) {
+        UUID playerId = player.getUniqueId();
+        UUID baseId = packServer.isRunning() ? basePackInfo().id() : null;
+        List<UUID> overlays = new ArrayList<>();
+        collectOverlays(loadedPacks.get(playerId), baseId, overlays);
+        collectOverlays(pendingPacks.get(playerId), baseId, overlays);
+        if (overlays.isEmpty())
+            return;
+        player.removeResourcePacks(overlays);
+    }
+
+    /** Moves every pack id other than {@code baseId} out of {@code packs} into {@code into}. */
+    private static void collectOverlays(Map<UUID, String> packs, UUID baseId, List<UUID> into) {
+        if (packs == null)
+            return;
+        packs.keySet().removeIf(id -> {
+            if (id.equals(baseId))
+                return false;
+            into.add(id);
+            return true;
+        });
+    }
+
+    /**
+     * Re-sends the base pack after a hot reload. In {@link DeliveryMode#JOIN}
+     * mode every online player gets it; in {@link DeliveryMode#LOBBY} mode
+     * only players who were already given a version of it. Must be called on
+     * the main thread.
+     */
+    public void resendToOnlinePlayers() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (mode == DeliveryMode.LOBBY && !hasBeenOffered(player))
+                continue;
+            sendPack(player);
+        }
+    }
+
+    /**
+     * Sends the currently served base pack to {@code player}, unless the
+     * client already reported loading this exact version. No-op if the pack
+     * server has nothing to serve.
+     */
+    public void sendPack(Player player) {
+        if (!packServer.isRunning())
+            return;
+
+        ResourcePackInfo info = basePackInfo();
+        if (needs(player, info))
+            send(player, List.of(info));
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private ResourcePackInfo basePackInfo() {
+        return packInfo(packServer.getUrl(serverIp), packServer.getSha1Hex());
+    }
+
+    private static ResourcePackInfo packInfo(String url, String hash) {
+        return ResourcePackInfo.resourcePackInfo()
+                .id(UUID.nameUUIDFromBytes(url.getBytes()))
+                .uri(URI.create(url))
+                .hash(hash)
+                .build();
+    }
+
+    /**
+     * Returns {@code false} if the client has loaded, or is currently loading,
+     * exactly this pack version.
+     */
+    private boolean needs(Player player, ResourcePackInfo info) {
+        UUID playerId = player.getUniqueId();
+        Map<UUID, String> loaded = loadedPacks.get(playerId);
+        if (loaded != null && info.hash().equals(loaded.get(info.id())))
+            return false;
+        Map<UUID, String> pending = pendingPacks.get(playerId);
+        return pending == null || !info.hash().equals(pending.get(info.id()));
+    }
+
+    private boolean hasBeenOffered(Player player) {
+        UUID baseId = basePackInfo().id();
+        Map<UUID, String> loaded = loadedPacks.get(player.getUniqueId());
+        Map<UUID, String> pending = pendingPacks.get(player.getUniqueId());
+        return (loaded != null && loaded.containsKey(baseId))
+                || (pending != null && pending.containsKey(baseId));
+    }
+
+    private void send(Player player, List<ResourcePackInfo> packs) {
+        if (packs.isEmpty())
+            return;
+
+        Map<UUID, String> pending = pendingPacks.computeIfAbsent(
+                player.getUniqueId(), k -> new HashMap<>());
+        for (ResourcePackInfo info : packs)
+            pending.put(info.id(), info.hash());
+
+        player.sendResourcePacks(
+                ResourcePackRequest.resourcePackRequest()
+                        .packs(packs)
+                        .required(true)
+                        .build());
+    }
+}
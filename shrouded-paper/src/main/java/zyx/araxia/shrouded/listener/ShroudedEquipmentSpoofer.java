@@ -13,12 +13,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.Plugin;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -43,15 +38,7 @@ import java.util.stream.Collectors;
  */
 public class ShroudedEquipmentSpoofer extends PacketAdapter {
 
-    /** UUIDs of players whose equipment should be hidden from others. */
-    private final Set<UUID> spoofed = Collections.newSetFromMap(new ConcurrentHashMap<>());
-
-    /**
-     * Maps Minecraft entity ID → player UUID so we can look up the tracked
-     * player from the raw integer in the packet without iterating every online
-     * player on every packet send.
-     */
-    private final Map<Integer, UUID> entityIdMap = new ConcurrentHashMap<>();
+    private final EquipmentSpoofTargets targets = new EquipmentSpoofTargets();
 
     public ShroudedEquipmentSpoofer(Plugin plugin) {
         super(plugin, ListenerPriority.NORMAL, PacketType.Play.Server.ENTITY_EQUIPMENT);
@@ -64,13 +51,7 @@ public class ShroudedEquipmentSpoofer extends PacketAdapter {
 
         PacketContainer packet = event.getPacket();
         int entityId = packet.getIntegers().read(0);
-
-        UUID shroudedId = entityIdMap.get(entityId);
-        if (shroudedId == null || !spoofed.contains(shroudedId))
-            return;
-
-        // The shrouded player themselves should still see their own equipment
-        if (event.getPlayer().getUniqueId().equals(shroudedId))
+        if (!targets.hidesFrom(entityId, event.getPlayer().getUniqueId()))
             return;
 
         // Clone the packet and zero out all equipment entries
@@ -96,8 +77,7 @@ public class ShroudedEquipmentSpoofer extends PacketAdapter {
      * @param player the shrouded player entering the arena
      */
     public void startSpoofing(Player player) {
-        spoofed.add(player.getUniqueId());
-        entityIdMap.put(player.getEntityId(), player.getUniqueId());
+        targets.add(player.getUniqueId(), player.getEntityId());
     }
 
     /**
@@ -107,8 +87,7 @@ public class ShroudedEquipmentSpoofer extends PacketAdapter {
      * @param player the shrouded player
      */
     public void stopSpoofing(Player player) {
-        spoofed.remove(player.getUniqueId());
-        entityIdMap.remove(player.getEntityId());
+        targets.remove(player.getUniqueId(), player.getEntityId());
     }
 
     /**
@@ -116,6 +95,6 @@ public class ShroudedEquipmentSpoofer extends PacketAdapter {
      * hidden from other players.
      */
     public boolean isSpoofing(Player player) {
-        return spoofed.contains(player.getUniqueId());
+        return targets.contains(player.getUniqueId());
     }
 }
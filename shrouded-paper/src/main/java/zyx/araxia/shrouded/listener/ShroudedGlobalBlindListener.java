@@ -1,9 +1,7 @@
 package zyx.araxia.shrouded.listener;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.Material;
@@ -22,8 +20,10 @@ import org.bukkit.potion.PotionEffectType;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
+import zyx.araxia.shrouded.core.Cooldowns;
 import zyx.araxia.shrouded.item.ShroudedClassItems;
 import zyx.araxia.shrouded.item.ShroudedItems;
+import zyx.araxia.shrouded.load.LoadGovernor;
 import zyx.araxia.shrouded.lobby.Arena;
 import zyx.araxia.shrouded.lobby.ArenaManager;
 
@@ -53,7 +53,7 @@ public class ShroudedGlobalBlindListener implements Listener {
     private final ArenaManager arenaManager;
 
     /** Tracks when each player's lights-out cooldown expires (epoch ms). */
-    private final Map<UUID, Long> cooldownExpiry = new HashMap<>();
+    private final Cooldowns<UUID> cooldowns = new Cooldowns<>();
 
     public ShroudedGlobalBlindListener(JavaPlugin plugin,
             ArenaManager arenaManager) {
@@ -87,11 +87,8 @@ public class ShroudedGlobalBlindListener implements Listener {
         event.setCancelled(true);
 
         Player caster = event.getPlayer();
-        long now = System.currentTimeMillis();
-        long expiry = cooldownExpiry.getOrDefault(caster.getUniqueId(), 0L);
-
-        if (now < expiry) {
-            long remaining = (expiry - now + 999L) / 1000L;
+        if (!cooldowns.isReady(caster.getUniqueId())) {
+            long remaining = cooldowns.remainingSeconds(caster.getUniqueId());
             caster.sendActionBar(Component.text(
                     "Lights Out on cooldown: " + remaining + "s remaining",
                     NamedTextColor.RED));
@@ -137,33 +134,36 @@ public class ShroudedGlobalBlindListener implements Listener {
         for (Player p : caster.getWorld().getPlayers()) {
             if (p.getUniqueId().equals(caster.getUniqueId()))
                 continue;
-            if (arena.contains(p.getLocation()))
+            if (arenaManager.getArenaContaining(p.getLocation()) == arena)
                 targets.add(p);
         }
 
         // -----------------------------------------------------------------
         // Apply blindness and per-player particles
         // -----------------------------------------------------------------
+        LoadGovernor.Quality quality = LoadGovernor.quality();
         PotionEffect blindEffect = new PotionEffect(
                 PotionEffectType.BLINDNESS, durationTicks, 0, true, true, true);
 
         for (Player target : targets) {
             target.addPotionEffect(blindEffect);
-            spawnPlayerParticles(target, blindedParticle, 30);
+            spawnPlayerParticles(target, blindedParticle, quality.particles(30));
         }
 
         // -----------------------------------------------------------------
         // Caster particles (visual feedback at the use location)
         // -----------------------------------------------------------------
-        spawnPlayerParticles(caster, casterParticle, 20);
+        if (quality.cosmeticParticles())
+            spawnPlayerParticles(caster, casterParticle, 20);
 
         // -----------------------------------------------------------------
         // Apply cooldown
         // -----------------------------------------------------------------
         long cooldownMillis = (long) (cooldownSeconds * 1000.0);
         int cooldownTicks = (int) (cooldownSeconds * 20.0);
-        cooldownExpiry.put(caster.getUniqueId(), now + cooldownMillis);
+        cooldowns.start(caster.getUniqueId(), cooldownMillis);
         caster.setCooldown(Material.SCULK, cooldownTicks);
+        AbilityCasts.recordAbilityCast(caster, "shrouded_global_blind");
     }
 
     // -------------------------------------------------------------------------
@@ -103,6 +103,7 @@ public class ShroudedLeapSpearListener implements Listener {
 		// Apply item cooldown — also shows the vanilla cooldown overlay on the bow
 		int cooldownTicks = (int) (cooldownSeconds * 20);
 		player.setCooldown(Material.BOW, cooldownTicks);
+		AbilityCasts.recordAbilityCast(player, "shrouded_leap_spear");
 
 		logger.log(Level.FINE,
 				"[LeapSpear] {0} leaped — charge={1}%, speed={2}.",
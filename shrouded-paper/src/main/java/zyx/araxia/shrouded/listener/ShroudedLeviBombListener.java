@@ -1,7 +1,5 @@
 package zyx.araxia.shrouded.listener;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.Material;
@@ -17,6 +15,8 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.core.Cooldowns;
 import zyx.araxia.shrouded.item.ShroudedClassItems;
 import zyx.araxia.shrouded.item.ShroudedItems;
 import zyx.araxia.shrouded.projectile.LeviBombProjectile;
@@ -39,7 +39,7 @@ public class ShroudedLeviBombListener implements Listener {
 	 * Tracks when each player's levi bomb cooldown expires (epoch
 	 * milliseconds).
 	 */
-	private final Map<UUID, Long> cooldownExpiry = new HashMap<>();
+	private final Cooldowns<UUID> cooldowns = new Cooldowns<>();
 
 	public ShroudedLeviBombListener(JavaPlugin plugin) {
 		this.plugin = plugin;
@@ -68,11 +68,8 @@ public class ShroudedLeviBombListener implements Listener {
 		event.setCancelled(true);
 
 		Player player = event.getPlayer();
-		long now = System.currentTimeMillis();
-		long expiry = cooldownExpiry.getOrDefault(player.getUniqueId(), 0L);
-
-		if (now < expiry) {
-			long remaining = (expiry - now + 999) / 1000;
+		if (!cooldowns.isReady(player.getUniqueId())) {
+			long remaining = cooldowns.remainingSeconds(player.getUniqueId());
 			player.sendActionBar(Component.text(
 					"Levitation Bomb on cooldown: " + remaining + "s remaining",
 					NamedTextColor.RED));
@@ -101,9 +98,10 @@ public class ShroudedLeviBombListener implements Listener {
 		double throwVelocity = plugin.getConfig()
 				.getDouble("shrouded-class.levi-bomb-throw-velocity", 1.0);
 
+		AbilityCasts.recordAbilityCast(player, "shrouded_levi_bomb");
 		new LeviBombProjectile(player, explosionRadius, levitationDurationTicks,
 				drag, gravity, maxSpeed, hitboxRadius, maxLifetimeTicks,
-				throwVelocity).runTaskTimer(plugin, 0L, 1L);
+				throwVelocity).launch(((TheShrouded) plugin).getTaskScheduler());
 
 		double cooldownSeconds = plugin.getConfig()
 				.getDouble("shrouded-class.levi-bomb-cooldown-seconds", 120.0);
@@ -113,7 +111,7 @@ public class ShroudedLeviBombListener implements Listener {
 		if (item.getAmount() > 1) {
 			item.setAmount(item.getAmount() - 1);
 		} else {
-			cooldownExpiry.put(player.getUniqueId(), now + cooldownMillis);
+			cooldowns.start(player.getUniqueId(), cooldownMillis);
 			player.setCooldown(Material.CHORUS_FLOWER, cooldownTicks);
 		}
 	}
@@ -1,7 +1,5 @@
 package zyx.araxia.shrouded.listener;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.Color;
@@ -19,13 +17,16 @@ import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
-import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.Vector;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.core.Cooldowns;
 import zyx.araxia.shrouded.item.ShroudedClassItems;
 import zyx.araxia.shrouded.item.ShroudedItems;
+import zyx.araxia.shrouded.load.LoadGovernor;
+import zyx.araxia.shrouded.scheduler.TaskScheduler;
 
 /**
  * Handles right-click use of the
@@ -57,7 +58,7 @@ public class ShroudedToxicCloudListener implements Listener {
      * Tracks when each player's toxic-cloud cooldown expires (epoch
      * milliseconds).
      */
-    private final Map<UUID, Long> cooldownExpiry = new HashMap<>();
+    private final Cooldowns<UUID> cooldowns = new Cooldowns<>();
 
     public ShroudedToxicCloudListener(JavaPlugin plugin) {
         this.plugin = plugin;
@@ -89,11 +90,8 @@ public class ShroudedToxicCloudListener implements Listener {
         event.setCancelled(true);
 
         Player player = event.getPlayer();
-        long now = System.currentTimeMillis();
-        long expiry = cooldownExpiry.getOrDefault(player.getUniqueId(), 0L);
-
-        if (now < expiry) {
-            long remaining = (expiry - now + 999L) / 1000L;
+        if (!cooldowns.isReady(player.getUniqueId())) {
+            long remaining = cooldowns.remainingSeconds(player.getUniqueId());
             player.sendActionBar(Component.text(
                     "Toxic Cloud on cooldown: " + remaining + "s remaining",
                     NamedTextColor.RED));
@@ -191,6 +189,7 @@ public class ShroudedToxicCloudListener implements Listener {
         // -----------------------------------------------------------------
         // Schedule each cloud
         // -----------------------------------------------------------------
+        TaskScheduler scheduler = ((TheShrouded) plugin).getTaskScheduler();
         for (int i = 0; i < 3; i++) {
             final Location cloudCenter = origin.clone().add(dir.clone().multiply(ranges[i]));
             final double cloudRadius = radii[i];
@@ -201,41 +200,44 @@ public class ShroudedToxicCloudListener implements Listener {
             final int poisonTicks = poisonDurationTicks;
             final long dotTicks = dotIntervalTicks;
 
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                final long[] elapsed = { 0L };
-                final BukkitTask[] ref = { null };
-
-                ref[0] = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
-                    if (elapsed[0] >= maxTicks) {
-                        ref[0].cancel();
-                        return;
-                    }
-
-                    // Render – scatter particles across the sphere shell
-                    spawnSphereParticles(cloudCenter, cloudRadius,
-                            primaryParticle, pCount, primaryColor, useForce);
+            // Each cloud ticks in the region around its own centre.
+            final long[] elapsed = { 0L };
+            scheduler.runAtTimer(cloudCenter, TaskScheduler.namedTimer("toxic cloud", task -> {
+                if (elapsed[0] >= maxTicks) {
+                    task.cancel();
+                    return;
+                }
+
+                // Render – scatter particles across the sphere shell. Under
+                // load, fewer and less often, and the secondary accent
+                // particles not at all; the damage check below is unaffected.
+                LoadGovernor.Quality quality = LoadGovernor.quality();
+                if (elapsed[0] % quality.cloudRenderInterval() == 0L) {
                     spawnSphereParticles(cloudCenter, cloudRadius,
-                            secondaryParticle, sCount, secondaryColor, useForce);
-
-                    // Damage & poison check on the configured interval
-                    if (elapsed[0] % dotTicks == 0L) {
-                        for (Player p : cloudCenter.getWorld().getPlayers()) {
-                            if (p.getUniqueId().equals(shooterUUID))
-                                continue;
-                            // Check player body centre against the cloud centre
-                            Location bodyCentre = p.getLocation().add(0.0, 1.0, 0.0);
-                            if (bodyCentre.distance(cloudCenter) <= cloudRadius) {
-                                p.addPotionEffect(new PotionEffect(
-                                        PotionEffectType.POISON,
-                                        poisonTicks, 0, true, true, true));
-                                p.damage(dotDamage);
-                            }
+                            primaryParticle, quality.particles(pCount), primaryColor, useForce);
+                    if (quality.cosmeticParticles())
+                        spawnSphereParticles(cloudCenter, cloudRadius,
+                                secondaryParticle, sCount, secondaryColor, useForce);
+                }
+
+                // Damage & poison check on the configured interval
+                if (elapsed[0] % dotTicks == 0L) {
+                    for (Player p : cloudCenter.getWorld().getPlayers()) {
+                        if (p.getUniqueId().equals(shooterUUID))
+                            continue;
+                        // Check player body centre against the cloud centre
+                        Location bodyCentre = p.getLocation().add(0.0, 1.0, 0.0);
+                        if (bodyCentre.distance(cloudCenter) <= cloudRadius) {
+                            p.addPotionEffect(new PotionEffect(
+                                    PotionEffectType.POISON,
+                                    poisonTicks, 0, true, true, true));
+                            p.damage(dotDamage);
                         }
                     }
+                }
 
-                    elapsed[0]++;
-                }, 0L, 1L);
-            }, spawnDelays[i]);
+                elapsed[0]++;
+            }), spawnDelays[i], 1L);
         }
 
         // -----------------------------------------------------------------
@@ -243,8 +245,9 @@ public class ShroudedToxicCloudListener implements Listener {
         // -----------------------------------------------------------------
         long cooldownMillis = (long) (cooldownSeconds * 1000.0);
         int cooldownTicksInt = (int) (cooldownSeconds * 20.0);
-        cooldownExpiry.put(player.getUniqueId(), now + cooldownMillis);
+        cooldowns.start(player.getUniqueId(), cooldownMillis);
         player.setCooldown(Material.WEATHERED_COPPER_LANTERN, cooldownTicksInt);
+        AbilityCasts.recordAbilityCast(player, "shrouded_toxic_cloud");
     }
 
     // -------------------------------------------------------------------------
@@ -263,14 +266,7 @@ public class ShroudedToxicCloudListener implements Listener {
     private static void spawnSphereParticles(Location center, double radius,
             Particle particle, int count, Color color, boolean force) {
         for (int i = 0; i < count; i++) {
-            // Uniform spherical distribution (Marsaglia / trigonometric method)
-            double theta = Math.random() * 2.0 * Math.PI;
-            double phi = Math.acos(2.0 * Math.random() - 1.0);
-            double sinPhi = Math.sin(phi);
-            double x = radius * sinPhi * Math.cos(theta);
-            double y = radius * sinPhi * Math.sin(theta);
-            double z = radius * Math.cos(phi);
-            Location loc = center.clone().add(x, y, z);
+            Location loc = randomSpherePoint(center, radius);
 
             if (particle == Particle.ENTITY_EFFECT) {
                 center.getWorld().spawnParticle(particle, loc, 1, 0, 0, 0, 0, color, force);
@@ -280,6 +276,20 @@ public class ShroudedToxicCloudListener implements Listener {
         }
     }
 
+    /**
+     * Returns a random point on the shell of the sphere of {@code radius}
+     * around {@code center}, uniformly distributed (trigonometric method).
+     */
+    public static Location randomSpherePoint(Location center, double radius) {
+        double theta = Math.random() * 2.0 * Math.PI;
+        double phi = Math.acos(2.0 * Math.random() - 1.0);
+        double sinPhi = Math.sin(phi);
+        double x = radius * sinPhi * Math.cos(theta);
+        double y = radius * sinPhi * Math.sin(theta);
+        double z = radius * Math.cos(phi);
+        return center.clone().add(x, y, z);
+    }
+
     /** Parses a {@link Particle} by name, returning {@code fallback} on error. */
     private static Particle parseParticle(String name, Particle fallback) {
         try {
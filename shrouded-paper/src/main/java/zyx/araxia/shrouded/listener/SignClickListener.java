@@ -13,6 +13,7 @@ import org.bukkit.plugin.java.JavaPlugin;
 import zyx.araxia.shrouded.lobby.LobbyManager;
 import zyx.araxia.shrouded.lobby.LobbyManager.JoinSessionResult;
 import zyx.araxia.shrouded.lobby.LobbySession;
+import zyx.araxia.shrouded.lobby.MatchmakingQueue;
 import zyx.araxia.shrouded.TheShrouded;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -20,7 +21,7 @@ import java.util.logging.Logger;
 public class SignClickListener implements Listener {
 
         private final LobbyManager lobbyManager;
-        private static final Logger LOGGER = JavaPlugin.getPlugin(TheShrouded.class).getLogger();
+        private static final Logger LOGGER = TheShrouded.pluginLogger();
 
         public SignClickListener(LobbyManager lobbyManager) {
                 this.lobbyManager = lobbyManager;
@@ -68,6 +69,14 @@ public class SignClickListener implements Listener {
 
                 LOGGER.log(Level.FINE, "[TheShrouded] Player {0} ({1}) clicked join sign for lobby {2}",
                                 new Object[] { player.getName(), player.getUniqueId(), session.getLobby().getName() });
+
+                // With matchmaking on, every join sign feeds the global queue
+                // and the matcher picks the lobby.
+                if (JavaPlugin.getPlugin(TheShrouded.class).getConfig().getBoolean("matchmaking.enabled", false)) {
+                        joinQueue(player);
+                        return;
+                }
+
                 JoinSessionResult result = lobbyManager.addPlayerToSession(player, session);
                 switch (result) {
                         case SUCCESS -> player.sendMessage(Component.text(
@@ -100,4 +109,19 @@ public class SignClickListener implements Listener {
                                         NamedTextColor.RED));
                 }
         }
+
+        private void joinQueue(Player player) {
+                if (lobbyManager.isPlayerInSession(player)) {
+                        player.sendMessage(Component.text("You are already in a lobby.", NamedTextColor.YELLOW));
+                        return;
+                }
+                MatchmakingQueue queue = lobbyManager.getMatchmakingQueue();
+                if (!queue.enqueue(player)) {
+                        player.sendMessage(Component.text("You are already in the matchmaking queue.",
+                                        NamedTextColor.YELLOW));
+                        return;
+                }
+                player.sendMessage(Component.text("You joined the matchmaking queue (" + queue.size()
+                                + " waiting). Use /shrouded.queue leave to leave it.", NamedTextColor.GREEN));
+        }
 }
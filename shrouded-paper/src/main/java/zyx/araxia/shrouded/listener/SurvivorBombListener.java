@@ -1,7 +1,5 @@
 package zyx.araxia.shrouded.listener;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.Material;
@@ -17,6 +15,8 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.core.Cooldowns;
 import zyx.araxia.shrouded.item.ShroudedItems;
 import zyx.araxia.shrouded.item.SurvivorClassItems;
 import zyx.araxia.shrouded.projectile.SurvivorBombProjectile;
@@ -34,7 +34,7 @@ public class SurvivorBombListener implements Listener {
 	private final JavaPlugin plugin;
 
 	/** Tracks when each player's bomb cooldown expires (epoch milliseconds). */
-	private final Map<UUID, Long> cooldownExpiry = new HashMap<>();
+	private final Cooldowns<UUID> cooldowns = new Cooldowns<>();
 
 	/**
 	 * @param plugin           plugin instance used to schedule the projectile
@@ -76,11 +76,8 @@ public class SurvivorBombListener implements Listener {
 		event.setCancelled(true);
 
 		Player player = event.getPlayer();
-		long now = System.currentTimeMillis();
-		long expiry = cooldownExpiry.getOrDefault(player.getUniqueId(), 0L);
-
-		if (now < expiry) {
-			long remaining = (expiry - now + 999) / 1000;
+		if (!cooldowns.isReady(player.getUniqueId())) {
+			long remaining = cooldowns.remainingSeconds(player.getUniqueId());
 			player.sendActionBar(Component.text(
 					"Impact Bomb on cooldown: " + remaining + "s remaining",
 					NamedTextColor.RED));
@@ -98,10 +95,11 @@ public class SurvivorBombListener implements Listener {
 				.getDouble("survivor.bomb-hitbox-radius", 0.125);
 		int maxLifetimeTicks = plugin.getConfig()
 				.getInt("survivor.bomb-max-lifetime-ticks", 60);
+		AbilityCasts.recordAbilityCast(player, "survivor_bomb");
 		// Launch the physics projectile (runs every tick)
 		new SurvivorBombProjectile(player, explosionRadius, explosionDamage,
 				drag, gravity, maxSpeed, hitboxRadius, maxLifetimeTicks)
-						.runTaskTimer(plugin, 0L, 1L);
+						.launch(((TheShrouded) plugin).getTaskScheduler());
 		
 		double cooldownSeconds = plugin.getConfig().getDouble("survivor.bomb-cooldown-seconds", 60.0);
 		int cooldownTicks = (int) (cooldownSeconds * 20);
@@ -110,7 +108,7 @@ public class SurvivorBombListener implements Listener {
 		if (item.getAmount() > 1) {
 			item.setAmount(item.getAmount() - 1);
 		} else {
-			cooldownExpiry.put(player.getUniqueId(), now + cooldownMillis);
+			cooldowns.start(player.getUniqueId(), cooldownMillis);
 			player.setCooldown(Material.PITCHER_POD, cooldownTicks);
 		}
 
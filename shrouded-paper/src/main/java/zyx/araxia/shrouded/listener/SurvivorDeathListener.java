@@ -1,5 +1,6 @@
 package zyx.araxia.shrouded.listener;
 
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
@@ -32,11 +33,13 @@ public class SurvivorDeathListener implements Listener {
             return;
 
         // Suppress drops so session-managed kit items don’t scatter around the arena.
-        if (session.isMatchActive()) {
+        if (session.isInActiveMatch(event.getEntity().getUniqueId())) {
             event.getDrops().clear();
             event.setDroppedExp(0);
         }
 
-        session.onPlayerDied(event.getEntity().getUniqueId());
+        Player killer = event.getEntity().getKiller();
+        session.onPlayerDied(event.getEntity().getUniqueId(),
+                killer != null ? killer.getUniqueId() : null);
     }
 }
@@ -1,7 +1,5 @@
 package zyx.araxia.shrouded.listener;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.NamespacedKey;
@@ -20,6 +18,7 @@ import org.bukkit.configuration.file.FileConfiguration;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
+import zyx.araxia.shrouded.core.Cooldowns;
 import zyx.araxia.shrouded.item.ShroudedItems;
 import zyx.araxia.shrouded.item.SurvivorClassItems;
 
@@ -39,7 +38,7 @@ public class SurvivorHealthPotionListener implements Listener {
     private final int cooldownTicks;
 
     /** Tracks when each player's cooldown expires (epoch milliseconds). */
-    private final Map<UUID, Long> cooldownExpiry = new HashMap<>();
+    private final Cooldowns<UUID> cooldowns = new Cooldowns<>();
 
     public SurvivorHealthPotionListener(FileConfiguration fileConfig) {
         this.fileConfig = fileConfig;
@@ -69,12 +68,9 @@ public class SurvivorHealthPotionListener implements Listener {
         event.setCancelled(true);
 
         Player player = event.getPlayer();
-        long now = System.currentTimeMillis();
-        long expiry = cooldownExpiry.getOrDefault(player.getUniqueId(), 0L);
-
         // Do nothing if already on cooldown; inform the player
-        if (now < expiry) {
-            long remaining = (expiry - now + 999) / 1000; // ceiling seconds
+        if (!cooldowns.isReady(player.getUniqueId())) {
+            long remaining = cooldowns.remainingSeconds(player.getUniqueId());
             player.sendActionBar(Component.text(
                     "Health Potion on cooldown: " + remaining + "s remaining",
                     NamedTextColor.RED));
@@ -85,8 +81,10 @@ public class SurvivorHealthPotionListener implements Listener {
         ThrownPotion thrown = player.launchProjectile(ThrownPotion.class);
         thrown.setItem(item);
 
+        AbilityCasts.recordAbilityCast(player, "survivor_health_potion");
+
         // Record expiry for this player's health-potion cooldown specifically
-        cooldownExpiry.put(player.getUniqueId(), now + cooldownMillis);
+        cooldowns.start(player.getUniqueId(), cooldownMillis);
 
         // Apply a custom "Health Potion Cooldown" indicator effect so the
         // player sees
@@ -1,7 +1,5 @@
 package zyx.araxia.shrouded.listener;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.Material;
@@ -18,6 +16,8 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.core.Cooldowns;
 import zyx.araxia.shrouded.item.ShroudedItems;
 import zyx.araxia.shrouded.item.SurvivorClassItems;
 
@@ -34,7 +34,7 @@ public class SurvivorWebListener implements Listener {
 	private final JavaPlugin plugin;
 
 	/** Tracks when each player's web cooldown expires (epoch milliseconds). */
-	private final Map<UUID, Long> cooldownExpiry = new HashMap<>();
+	private final Cooldowns<UUID> cooldowns = new Cooldowns<>();
 
 	public SurvivorWebListener(JavaPlugin plugin) {
 		this.plugin = plugin;
@@ -62,11 +62,8 @@ public class SurvivorWebListener implements Listener {
 		event.setCancelled(true);
 
 		Player player = event.getPlayer();
-		long now = System.currentTimeMillis();
-		long expiry = cooldownExpiry.getOrDefault(player.getUniqueId(), 0L);
-
-		if (now < expiry) {
-			long remaining = (expiry - now + 999) / 1000;
+		if (!cooldowns.isReady(player.getUniqueId())) {
+			long remaining = cooldowns.remainingSeconds(player.getUniqueId());
 			player.sendActionBar(Component.text(
 					"Survivor Web on cooldown: " + remaining + "s remaining",
 					NamedTextColor.RED));
@@ -86,7 +83,10 @@ public class SurvivorWebListener implements Listener {
 			return;
 		}
 
+		// Journal the original block so the post-match reset removes the web
+		((TheShrouded) plugin).getArenaManager().recordChange(targetBlock);
 		targetBlock.setType(Material.COBWEB);
+		AbilityCasts.recordAbilityCast(player, "survivor_web");
 
 		// Read cooldown from config at call time so reloads take effect
 		double cooldownSeconds = plugin.getConfig()
@@ -97,7 +97,7 @@ public class SurvivorWebListener implements Listener {
 		if (item.getAmount() > 1) {
 			item.setAmount(item.getAmount() - 1);
 		} else {
-			cooldownExpiry.put(player.getUniqueId(), now + cooldownMillis);
+			cooldowns.start(player.getUniqueId(), cooldownMillis);
 			player.setCooldown(Material.COBWEB, cooldownTicks);
 		}
 	}
@@ -1,7 +1,5 @@
 package zyx.araxia.shrouded.listener;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.Material;
@@ -19,6 +17,7 @@ import org.bukkit.util.Vector;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
+import zyx.araxia.shrouded.core.Cooldowns;
 import zyx.araxia.shrouded.item.ShroudedItems;
 import zyx.araxia.shrouded.item.SurvivorClassItems;
 
@@ -35,7 +34,7 @@ public class SurvivorWindChargeListener implements Listener {
     private final JavaPlugin plugin;
 
     /** Tracks when each player's wind-charge cooldown expires (epoch milliseconds). */
-    private final Map<UUID, Long> cooldownExpiry = new HashMap<>();
+    private final Cooldowns<UUID> cooldowns = new Cooldowns<>();
 
     public SurvivorWindChargeListener(JavaPlugin plugin) {
         this.plugin = plugin;
@@ -64,11 +63,8 @@ public class SurvivorWindChargeListener implements Listener {
         event.setCancelled(true);
 
         Player player = event.getPlayer();
-        long now = System.currentTimeMillis();
-        long expiry = cooldownExpiry.getOrDefault(player.getUniqueId(), 0L);
-
-        if (now < expiry) {
-            long remaining = (expiry - now + 999) / 1000;
+        if (!cooldowns.isReady(player.getUniqueId())) {
+            long remaining = cooldowns.remainingSeconds(player.getUniqueId());
             player.sendActionBar(Component.text(
                     "Survivor Wind Charge on cooldown: " + remaining + "s remaining",
                     NamedTextColor.RED));
@@ -92,10 +88,12 @@ public class SurvivorWindChargeListener implements Listener {
         int cooldownTicks = (int) (cooldownSeconds * 20);
         long cooldownMillis = (long) (cooldownSeconds * 1000);
 
+        AbilityCasts.recordAbilityCast(player, "survivor_wind_charge");
+
         if (item.getAmount() > 1) {
             item.setAmount(item.getAmount() - 1);
         } else {
-            cooldownExpiry.put(player.getUniqueId(), now + cooldownMillis);
+            cooldowns.start(player.getUniqueId(), cooldownMillis);
             player.setCooldown(Material.WIND_CHARGE, cooldownTicks);
         }
     }
@@ -0,0 +1,198 @@
+package zyx.araxia.shrouded.load;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+
+import zyx.araxia.shrouded.metrics.MetricsRegistry;
+import zyx.araxia.shrouded.scheduler.TaskHandle;
+import zyx.araxia.shrouded.scheduler.TaskScheduler;
+
+/**
+ * Lowers the cost of the plugin's visual effects while the server is
+ * lagging and restores them once it recovers.
+ *
+ * <p>
+ * Once a second the governor reads the server's average milliseconds per
+ * tick. After {@code degrade-after-seconds} samples in a row above
+ * {@code degrade-mspt} it drops one {@link Quality} level, and after
+ * {@code recover-after-seconds} in a row below {@code recover-mspt} it
+ * climbs one. Effects read {@link #quality()} as they render, so a change
+ * applies from the next tick. Only looks change: damage, poison and hit
+ * checks run the same at every level.
+ *
+ * <p>
+ * Paper reports its own average tick time. Where that is unsupported
+ * (Folia), the governor times a one-tick global task instead. That task can
+ * run no more than once per 50 ms tick, so what it measures is lag: how far
+ * the gap between runs exceeds 50 ms. In this mode {@code degrade-lag-ms}
+ * and {@code recover-lag-ms} take the place of the mspt thresholds.
+ */
+public class LoadGovernor {
+
+    /** How much of each effect to keep. */
+    public enum Quality {
+        /** Everything as configured. */
+        FULL(1.0, true, 1, 1),
+        /** Half the particles; cosmetic-only particles dropped. */
+        REDUCED(0.5, false, 1, 1),
+        /**
+         * A quarter of the particles, clouds drawn every other tick and
+         * projectiles stepped at half rate with swept collision.
+         */
+        MINIMAL(0.25, false, 2, 2);
+
+        private final double particleScale;
+        private final boolean cosmeticParticles;
+        private final int cloudRenderInterval;
+        private final int projectileSteps;
+
+        Quality(double particleScale, boolean cosmeticParticles, int cloudRenderInterval,
+                int projectileSteps) {
+            this.particleScale = particleScale;
+            this.cosmeticParticles = cosmeticParticles;
+            this.cloudRenderInterval = cloudRenderInterval;
+            this.projectileSteps = projectileSteps;
+        }
+
+        /** {@code count} scaled for this level; never rounds a non-zero count down to zero. */
+        public int particles(int count) {
+            if (count <= 0 || particleScale >= 1.0)
+                return count;
+            return Math.max(1, (int) Math.round(count * particleScale));
+        }
+
+        /** Whether to spawn particles that only decorate and carry no gameplay information. */
+        public boolean cosmeticParticles() {
+            return cosmeticParticles;
+        }
+
+        /** Draw toxic clouds on every {@code n}th tick. Their damage checks keep their own interval. */
+        public int cloudRenderInterval() {
+            return cloudRenderInterval;
+        }
+
+        /**
+         * Physics steps a projectile takes per run; it runs on one tick in
+         * this many, so its speed is unchanged.
+         */
+        public int projectileSteps() {
+            return projectileSteps;
+        }
+    }
+
+    /** Length of one tick at 20 TPS, in milliseconds. */
+    private static final double TICK_MS = 50.0;
+
+    private static final MetricsRegistry.Gauge QUALITY_GAUGE = MetricsRegistry.gauge("load_quality_level");
+
+    /** Read by effects on every tick; written by the sampling task only. */
+    private static volatile Quality current = Quality.FULL;
+
+    private final TaskScheduler scheduler;
+    private final Logger logger;
+    private final double degradeMspt;
+    private final double recoverMspt;
+    private final double degradeLagMs;
+    private final double recoverLagMs;
+    private final int degradeAfter;
+    private final int recoverAfter;
+
+    private volatile double lastMspt;
+    private int over;
+    private int under;
+
+    /** Fallback sampling: EWMA of how far a one-tick task's runs fall behind 50 ms, in ms. */
+    private boolean measureTicks;
+    private long lastTickNanos;
+    private double tickLagMs;
+
+    private TaskHandle sampleTask;
+    private TaskHandle tickTask;
+
+    public LoadGovernor(TaskScheduler scheduler, ConfigurationSection config, Logger logger) {
+        this.scheduler = scheduler;
+        this.logger = logger;
+        this.degradeMspt = config.getDouble("degrade-mspt", 45.0);
+        this.recoverMspt = Math.min(config.getDouble("recover-mspt", 35.0), degradeMspt);
+        this.degradeLagMs = config.getDouble("degrade-lag-ms", 5.0);
+        this.recoverLagMs = Math.min(config.getDouble("recover-lag-ms", 1.0), degradeLagMs);
+        this.degradeAfter = Math.max(1, config.getInt("degrade-after-seconds", 3));
+        this.recoverAfter = Math.max(1, config.getInt("recover-after-seconds", 15));
+    }
+
+    /** The quality effects should render at right now. */
+    public static Quality quality() {
+        return current;
+    }
+
+    /**
+     * The most recent average tick time sampled, in milliseconds. Without
+     * Paper's figure this is the average gap between ticks, never below 50.
+     */
+    public double lastMspt() {
+        return lastMspt;
+    }
+
+    public void start() {
+        try {
+            Bukkit.getServer().getAverageTickTime();
+        } catch (UnsupportedOperationException e) {
+            measureTicks = true;
+            lastTickNanos = System.nanoTime();
+            tickTask = scheduler.runGlobalTimer(TaskScheduler.namedTimer("load governor", t -> {
+                long now = System.nanoTime();
+                double lag = Math.max(0.0, (now - lastTickNanos) / 1e6 - TICK_MS);
+                tickLagMs = tickLagMs * 0.95 + lag * 0.05;
+                lastTickNanos = now;
+            }), 1L, 1L);
+        }
+        sampleTask = scheduler.runGlobalTimer(TaskScheduler.namedTimer("load governor", t -> sample()),
+                20L, 20L);
+    }
+
+    /** Stops sampling and puts effects back to full quality. */
+    public void stop() {
+        if (sampleTask != null)
+            sampleTask.cancel();
+        if (tickTask != null)
+            tickTask.cancel();
+        setQuality(Quality.FULL, 0.0);
+    }
+
+    private void sample() {
+        double mspt = measureTicks ? TICK_MS + tickLagMs : Bukkit.getServer().getAverageTickTime();
+        lastMspt = mspt;
+        double load = measureTicks ? tickLagMs : mspt;
+
+        if (load > (measureTicks ? degradeLagMs : degradeMspt)) {
+            under = 0;
+            if (++over >= degradeAfter && current.ordinal() < Quality.values().length - 1) {
+                over = 0;
+                setQuality(Quality.values()[current.ordinal() + 1], mspt);
+            }
+        } else if (load < (measureTicks ? recoverLagMs : recoverMspt)) {
+            over = 0;
+            if (++under >= recoverAfter && current.ordinal() > 0) {
+                under = 0;
+                setQuality(Quality.values()[current.ordinal() - 1], mspt);
+            }
+        } else {
+            over = 0;
+            under = 0;
+        }
+    }
+
+    private void setQuality(Quality next, double mspt) {
+        if (next == current)
+            return;
+        logger.log(Level.INFO, "[TheShrouded] Effect quality {0} -> {1} (average tick {2} ms).",
+                new Object[] {
+                        current, next, String.format("%.1f", mspt)
+                });
+        current = next;
+        QUALITY_GAUGE.set(next.ordinal());
+    }
+}
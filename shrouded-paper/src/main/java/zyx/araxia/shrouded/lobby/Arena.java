@@ -3,10 +3,14 @@ package zyx.araxia.shrouded.lobby;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 import org.bukkit.Location;
 import org.bukkit.World;
 
+import zyx.araxia.shrouded.metrics.FlightEvents;
+import zyx.araxia.shrouded.metrics.PluginMetrics;
+
 public class Arena {
 
     // -------------------------------------------------------------------------
@@ -57,9 +61,18 @@ public class Arena {
      */
     private List<SpawnPoint> shroudedSpawns;
 
+    /**
+     * When {@code true}, {@link #world} is a template: every match is played
+     * in a fresh copy of it (see {@link ArenaInstanceManager}), so any number
+     * of matches can use this arena at once. Absent in old JSON — treated as
+     * {@code false}.
+     */
+    private boolean instanced;
+
     // Runtime state — not persisted to JSON
     private transient boolean inUse = false;
     private transient String usingLobby = null;
+    private transient UUID leaseToken = null;
 
     public Arena(String name, String world, int x1, int y1, int z1, int x2,
             int y2, int z2, int maxPlayers) {
@@ -112,6 +125,14 @@ public class Arena {
         return maxPlayers;
     }
 
+    public boolean isInstanced() {
+        return instanced;
+    }
+
+    public void setInstanced(boolean instanced) {
+        this.instanced = instanced;
+    }
+
     // -------------------------------------------------------------------------
     // Runtime state
     // -------------------------------------------------------------------------
@@ -124,23 +145,54 @@ public class Arena {
         return usingLobby;
     }
 
+    /** Returns the token of the lease currently holding this arena, or {@code null}. */
+    public UUID getLeaseToken() {
+        return leaseToken;
+    }
+
     /**
-     * Marks this arena as in use by the given lobby.
+     * Marks this arena as in use by the given lobby under lease
+     * {@code token}. Only called by {@link ArenaAllocator}.
      *
      * @return false if the arena is already claimed by another lobby.
      */
-    public boolean claim(String lobbyName) {
+    boolean claim(String lobbyName, UUID token) {
         if (inUse)
             return false;
         inUse = true;
         usingLobby = lobbyName;
+        leaseToken = token;
+        PluginMetrics.arenaClaimed();
+        FlightEvents.arenaClaimed(name, lobbyName);
+        return true;
+    }
+
+    /**
+     * Releases the arena if it is held under lease {@code token}.
+     *
+     * @return false if the arena is not claimed, or is claimed under a
+     *         different lease (e.g. a stale lease released twice).
+     */
+    boolean release(UUID token) {
+        if (!inUse || !token.equals(leaseToken))
+            return false;
+        release();
         return true;
     }
 
-    /** Releases the arena, making it available for use again. */
+    /**
+     * Releases the arena regardless of who holds it, making it available for
+     * use again. Used by the startup reset; lobbies release through their
+     * {@link ArenaAllocator.Lease}.
+     */
     public void release() {
+        if (inUse) {
+            PluginMetrics.arenaReleased();
+            FlightEvents.arenaReleased(name, usingLobby);
+        }
         inUse = false;
         usingLobby = null;
+        leaseToken = null;
     }
 
     // -------------------------------------------------------------------------
@@ -202,14 +254,20 @@ public class Arena {
      * bounding box (inclusive on all faces). The world name must match.
      */
     public boolean contains(org.bukkit.Location location) {
-        if (location.getWorld() == null
-                || !location.getWorld().getName().equals(world)) {
+        if (location.getWorld() == null) {
             return false;
         }
-        int bx = location.getBlockX();
-        int by = location.getBlockY();
-        int bz = location.getBlockZ();
-        return bx >= Math.min(x1, x2) && bx <= Math.max(x1, x2)
+        return contains(location.getWorld().getName(), location.getBlockX(),
+                location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Returns {@code true} if block ({@code bx}, {@code by}, {@code bz}) in
+     * world {@code worldName} lies within this arena's bounding box.
+     */
+    public boolean contains(String worldName, int bx, int by, int bz) {
+        return worldName.equals(world)
+                && bx >= Math.min(x1, x2) && bx <= Math.max(x1, x2)
                 && by >= Math.min(y1, y2) && by <= Math.max(y1, y2)
                 && bz >= Math.min(z1, z2) && bz <= Math.max(z1, z2);
     }
@@ -0,0 +1,387 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.metrics.PluginMetrics;
+
+/**
+ * Hands arenas out to lobby sessions as {@link Lease leases} and queues
+ * sessions that find no arena free.
+ *
+ * <h3>Fairness</h3>
+ * Waiting sessions are served strictly in arrival order: whenever an arena
+ * is released, {@link #dispatch()} grants it to the oldest waiter whose arena
+ * pool contains it, before any new request can take it.
+ *
+ * <h3>Warm spares</h3>
+ * A session starting a vote would otherwise claim every free arena in its
+ * pool as a candidate. {@link #acquire} instead leaves
+ * {@code game.arena-warm-spares} free arenas unclaimed (while still granting
+ * at least one), so the next lobby to finish its countdown starts at once
+ * rather than joining the queue.
+ *
+ * <p>
+ * Instanced arenas never run out while {@link ArenaInstanceManager#hasCapacity()}
+ * holds; their leases do not claim the {@link Arena} but each reserves an
+ * instance slot, which {@link Lease#createInstance()} hands to the instance
+ * and {@link Lease#release()} gives back if it was never used.
+ *
+ * <h3>Shared leases</h3>
+ * With {@link SharedArenaLeases} configured, a shared arena is claimed here
+ * at once and its lease file taken off the main thread; grants are handed
+ * over only once that succeeds. An arena another server turned out to hold
+ * is released again, and a queued session that lost it goes back to its
+ * place in the queue.
+ *
+ * <p>
+ * Main thread only.
+ */
+public class ArenaAllocator {
+
+    private final JavaPlugin plugin;
+    private final ArenaManager arenaManager;
+    private final Random random = new Random();
+
+    /** Cross-server leases for shared arenas, or {@code null} if not configured. */
+    private SharedArenaLeases sharedLeases = null;
+
+    /** Sessions waiting for an arena, oldest first. */
+    private final LinkedList<Request> queue = new LinkedList<>();
+
+    // Queue statistics since startup, for getStats()
+    private long granted = 0;
+    private long waits = 0;
+    private long totalWaitNanos = 0;
+    private long maxWaitNanos = 0;
+
+    /**
+     * An arena held by one lobby session. Only the lease's holder can release
+     * the arena: {@link #release()} is a no-op once the lease has been
+     * released, so a stale reference cannot free an arena another session
+     * has since been granted.
+     */
+    public final class Lease {
+        private final Arena arena;
+        private final String owner;
+        private final UUID token = UUID.randomUUID();
+        private boolean released = false;
+        /** Whether this lease still holds the instance slot reserved for it. */
+        private boolean slotReserved;
+
+        private Lease(Arena arena, String owner) {
+            this.arena = arena;
+            this.owner = owner;
+        }
+
+        public Arena getArena() {
+            return arena;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public boolean isReleased() {
+            return released;
+        }
+
+        /**
+         * Clones this lease's instanced arena into a new instance, in the
+         * slot reserved when the lease was granted.
+         *
+         * @see ArenaInstanceManager#createInstance(Arena)
+         */
+        public CompletableFuture<ArenaInstance> createInstance() {
+            boolean reservedSlot = slotReserved;
+            slotReserved = false;
+            return arenaManager.getInstanceManager().createInstance(arena, reservedSlot);
+        }
+
+        /** Returns the arena to the allocator and serves the queue. */
+        public void release() {
+            if (released)
+                return;
+            released = true;
+            if (slotReserved) {
+                slotReserved = false;
+                arenaManager.getInstanceManager().unreserve();
+            }
+            if (!arena.isInstanced() && !arena.release(token)) {
+                plugin.getLogger().log(Level.WARNING,
+                        "[TheShrouded] Lobby ''{0}'' released arena ''{1}'' under a lease it no longer held.",
+                        new Object[] { owner, arena.getName() });
+            }
+            if (!arena.isInstanced() && sharedLeases != null)
+                sharedLeases.release(arena.getName(), token);
+            dispatch();
+        }
+    }
+
+    /** A session waiting in the queue. Cancel it if the session stops waiting. */
+    public final class Request {
+        private final String owner;
+        private final List<String> pool;
+        private final Consumer<Lease> onGranted;
+        private final long enqueuedAt = System.nanoTime();
+        private boolean cancelled = false;
+
+        private Request(String owner, List<String> pool, Consumer<Lease> onGranted) {
+            this.owner = owner;
+            this.pool = pool;
+            this.onGranted = onGranted;
+        }
+
+        /** One-based position in the queue, or 0 if no longer queued. */
+        public int getPosition() {
+            return queue.indexOf(this) + 1;
+        }
+
+        /** Leaves the queue. Has no effect once the request has been granted. */
+        public void cancel() {
+            cancelled = true;
+            if (queue.remove(this))
+                PluginMetrics.setArenaQueueLength(queue.size());
+        }
+    }
+
+    ArenaAllocator(JavaPlugin plugin, ArenaManager arenaManager) {
+        this.plugin = plugin;
+        this.arenaManager = arenaManager;
+    }
+
+    /**
+     * Also leases shared arenas through {@code sharedLeases}, so servers
+     * mounting the same lease directory never hand out the same arena.
+     * {@code null} keeps leases local to this server.
+     */
+    void setSharedLeases(SharedArenaLeases sharedLeases) {
+        this.sharedLeases = sharedLeases;
+    }
+
+    // -------------------------------------------------------------------------
+    // Public API
+    // -------------------------------------------------------------------------
+
+    /**
+     * Leases up to {@code max} free arenas from {@code pool} to {@code owner},
+     * in random order, leaving warm spares free. Waiting sessions are served
+     * first.
+     *
+     * @param onGranted receives the leases granted; empty if nothing is free
+     *                  (the caller should then {@link #enqueue}). Called at
+     *                  once unless a shared lease file has to be taken, then
+     *                  on a later tick.
+     */
+    public void acquire(String owner, List<String> pool, int max, Consumer<List<Lease>> onGranted) {
+        dispatch();
+
+        List<Arena> free = freeArenas(pool);
+        if (free.isEmpty()) {
+            onGranted.accept(List.of());
+            return;
+        }
+
+        // Instanced arenas are unlimited as far as spares are concerned.
+        long shared = free.stream().filter(a -> !a.isInstanced()).count();
+        int spares = Math.max(plugin.getConfig().getInt("game.arena-warm-spares", 1), 0);
+        Collections.shuffle(free, random);
+        int count = (int) Math.min(Math.max(max, 1), Math.max(1, free.size() - Math.min(spares, shared)));
+
+        List<Lease> leases = new ArrayList<>(count);
+        for (Arena arena : free) {
+            if (leases.size() >= count)
+                break;
+            Lease lease = grant(arena, owner);
+            if (lease != null)
+                leases.add(lease);
+        }
+        confirm(leases, onGranted);
+    }
+
+    /**
+     * Queues {@code owner} for the next arena from {@code pool} to be freed.
+     * {@code onGranted} is called on a later tick with a single lease; the
+     * receiver must release it if it no longer needs an arena.
+     */
+    public Request enqueue(String owner, List<String> pool, Consumer<Lease> onGranted) {
+        Request request = new Request(owner, List.copyOf(pool), onGranted);
+        queue.add(request);
+        PluginMetrics.setArenaQueueLength(queue.size());
+        plugin.getLogger().log(Level.FINE,
+                "[TheShrouded] Lobby ''{0}'' queued for an arena (position {1}).",
+                new Object[] { owner, queue.size() });
+        return request;
+    }
+
+    /**
+     * Grants free arenas to waiting sessions, oldest first. Called whenever
+     * a lease is released; callbacks run on a later tick so callers are
+     * never re-entered.
+     */
+    public void dispatch() {
+        Iterator<Request> it = queue.iterator();
+        while (it.hasNext()) {
+            Request request = it.next();
+            List<Arena> free = freeArenas(request.pool);
+            if (free.isEmpty())
+                continue;
+
+            Collections.shuffle(free, random);
+            Lease lease = null;
+            for (Arena arena : free) {
+                if ((lease = grant(arena, request.owner)) != null)
+                    break;
+            }
+            if (lease == null)
+                continue;
+
+            it.remove();
+            Lease granted = lease;
+            confirm(List.of(lease), confirmed -> {
+                if (confirmed.isEmpty())
+                    requeue(request);
+                else
+                    handOver(request, granted);
+            });
+        }
+        PluginMetrics.setArenaQueueLength(queue.size());
+    }
+
+    /**
+     * One-line summary of allocator activity since startup, e.g. for an admin
+     * command or log.
+     */
+    public String getStats() {
+        return String.format(
+                "leases=%d queued=%d waits=%d avg-wait=%.1fs max-wait=%.1fs",
+                granted, queue.size(), waits,
+                waits == 0 ? 0.0 : totalWaitNanos / (double) waits / 1e9,
+                maxWaitNanos / 1e9);
+    }
+
+    /**
+     * Returns the arenas in {@code pool} that could be leased right now,
+     * without leasing them. Instanced arenas are included while instance
+     * capacity remains.
+     */
+    public List<Arena> getFreeArenas(List<String> pool) {
+        return freeArenas(pool);
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /** Passes a queued session the lease {@link #dispatch()} confirmed for it. */
+    private void handOver(Request request, Lease lease) {
+        if (request.cancelled) {
+            lease.release();
+            return;
+        }
+        long waited = System.nanoTime() - request.enqueuedAt;
+        waits++;
+        totalWaitNanos += waited;
+        maxWaitNanos = Math.max(maxWaitNanos, waited);
+        PluginMetrics.recordArenaWait(waited);
+        plugin.getLogger().log(Level.FINE,
+                "[TheShrouded] Lobby ''{0}'' granted arena ''{1}'' after {2} ms in the queue.",
+                new Object[] { request.owner, lease.getArena().getName(), waited / 1_000_000 });
+        ((TheShrouded) plugin).getTaskScheduler().runGlobal(() -> request.onGranted.accept(lease), 0L);
+    }
+
+    /**
+     * Puts a session whose grant fell through back in its place in the
+     * queue and serves the queue again; the lease cache now knows who holds
+     * the arena it lost.
+     */
+    private void requeue(Request request) {
+        if (request.cancelled)
+            return;
+        ListIterator<Request> it = queue.listIterator();
+        while (it.hasNext()) {
+            if (it.next().enqueuedAt > request.enqueuedAt) {
+                it.previous();
+                break;
+            }
+        }
+        it.add(request);
+        dispatch();
+    }
+
+    /**
+     * Takes the shared lease file of every lease in {@code leases} that
+     * needs one, releases those another server holds, and passes the rest to
+     * {@code onConfirmed}: at once if no lease file is involved, otherwise
+     * on the main thread once all are written.
+     */
+    private void confirm(List<Lease> leases, Consumer<List<Lease>> onConfirmed) {
+        List<Lease> shared = sharedLeases == null ? List.of()
+                : leases.stream().filter(lease -> !lease.arena.isInstanced()).toList();
+        if (shared.isEmpty()) {
+            onConfirmed.accept(leases);
+            return;
+        }
+
+        Map<Lease, CompletableFuture<Boolean>> files = new HashMap<>();
+        for (Lease lease : shared)
+            files.put(lease, sharedLeases.acquire(lease.arena.getName(), lease.token));
+        CompletableFuture.allOf(files.values().toArray(CompletableFuture[]::new)).thenRun(() -> {
+            List<Lease> confirmed = new ArrayList<>(leases.size());
+            for (Lease lease : leases) {
+                CompletableFuture<Boolean> file = files.get(lease);
+                if (file == null || file.join())
+                    confirmed.add(lease);
+                else
+                    lease.release();
+            }
+            onConfirmed.accept(confirmed);
+        });
+    }
+
+    private List<Arena> freeArenas(List<String> pool) {
+        boolean instanceCapacity = arenaManager.getInstanceManager().hasCapacity();
+        List<Arena> free = new ArrayList<>();
+        for (String name : pool) {
+            Arena arena = arenaManager.getArena(name);
+            if (arena == null)
+                continue;
+            if (arena.isInstanced() ? instanceCapacity
+                    : !arena.isInUse() && (sharedLeases == null || !sharedLeases.isHeldElsewhere(name)))
+                free.add(arena);
+        }
+        return free;
+    }
+
+    /**
+     * Leases {@code arena} to {@code owner}, or returns {@code null} if no
+     * instance slot is left for an instanced arena. A shared arena's lease
+     * file is taken afterwards by {@link #confirm}.
+     */
+    private Lease grant(Arena arena, String owner) {
+        Lease lease = new Lease(arena, owner);
+        if (arena.isInstanced()) {
+            if (!arenaManager.getInstanceManager().reserve())
+                return null;
+            lease.slotReserved = true;
+        } else {
+            arena.claim(owner, lease.token);
+        }
+        granted++;
+        return lease;
+    }
+}
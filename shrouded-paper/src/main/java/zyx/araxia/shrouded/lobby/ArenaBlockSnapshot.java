@@ -0,0 +1,413 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.scheduler.TaskScheduler;
+
+/**
+ * Immutable copy of every block inside an arena's bounding box, stored as a
+ * palette of distinct block states plus a bit-packed array of palette
+ * indices.
+ *
+ * <h3>Layout</h3>
+ * Blocks are indexed x-fastest, then z, then y. Each index uses
+ * {@code ceil(log2(palette size))} bits (minimum 1) and entries never straddle
+ * a {@code long}, matching the layout vanilla uses for chunk sections. A
+ * typical arena has a few dozen distinct states, so one block costs 5–6 bits
+ * instead of a full block-state string.
+ *
+ * <h3>Capture</h3>
+ * {@link #capture} loads the covered chunks with
+ * {@link World#getChunkAtAsync(int, int)}, takes a {@link ChunkSnapshot} of
+ * each on the main thread (a cheap copy), then builds the palette and packed
+ * array on an async thread. Chunks are encoded one at a time straight into
+ * the packed array, which is widened as the palette grows, and each chunk's
+ * snapshot is dropped once it has been encoded.
+ *
+ * <p>
+ * Only block states are stored. Container contents, sign text and other
+ * tile-entity data are not part of the snapshot.
+ */
+public final class ArenaBlockSnapshot {
+
+    private static final int MAGIC = 0x53485242; // "SHRB"
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Largest region {@link #capture} accepts: 8M blocks, e.g. 256 x 128 x
+     * 256. The chunk snapshots alone take tens of megabytes at this size.
+     */
+    private static final long MAX_CAPTURE_VOLUME = 8L * 1024 * 1024;
+
+    /** Sanity limit when reading; also admits files captured under the old, larger cap. */
+    private static final long MAX_STORED_VOLUME = 64L * 1024 * 1024;
+
+    private final int minX, minY, minZ;
+    private final int sizeX, sizeY, sizeZ;
+    private final String[] palette;
+    private final int bitsPerEntry;
+    private final long[] data;
+
+    private ArenaBlockSnapshot(int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ,
+            String[] palette, int bitsPerEntry, long[] data) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.palette = palette;
+        this.bitsPerEntry = bitsPerEntry;
+        this.data = data;
+    }
+
+    // -------------------------------------------------------------------------
+    // Accessors
+    // -------------------------------------------------------------------------
+
+    public int getVolume() {
+        return sizeX * sizeY * sizeZ;
+    }
+
+    public int getPaletteSize() {
+        return palette.length;
+    }
+
+    /** Block-state string (as produced by {@link BlockData#getAsString()}) for a palette entry. */
+    public String getPaletteEntry(int paletteIndex) {
+        return palette[paletteIndex];
+    }
+
+    /** Palette index of the block at flat index {@code index}. */
+    public int getPaletteIndex(int index) {
+        int perLong = 64 / bitsPerEntry;
+        long word = data[index / perLong];
+        int shift = (index % perLong) * bitsPerEntry;
+        return (int) ((word >>> shift) & ((1L << bitsPerEntry) - 1));
+    }
+
+    public int getX(int index) {
+        return minX + index % sizeX;
+    }
+
+    public int getY(int index) {
+        return minY + index / (sizeX * sizeZ);
+    }
+
+    public int getZ(int index) {
+        return minZ + (index / sizeX) % sizeZ;
+    }
+
+    /** Returns {@code true} if {@code other} covers exactly the same region. */
+    public boolean sameBounds(ArenaBlockSnapshot other) {
+        return minX == other.minX && minY == other.minY && minZ == other.minZ
+                && sizeX == other.sizeX && sizeY == other.sizeY && sizeZ == other.sizeZ;
+    }
+
+    /**
+     * Returns the flat indices at which {@code current} differs from this
+     * snapshot, in ascending (bottom-up) order. Palettes are matched by
+     * state string, so the two snapshots need not share palette order.
+     *
+     * @throws IllegalArgumentException if the bounds differ
+     */
+    public int[] diff(ArenaBlockSnapshot current) {
+        if (!sameBounds(current)) {
+            throw new IllegalArgumentException("Snapshots cover different regions");
+        }
+
+        Map<String, Integer> ours = new HashMap<>();
+        for (int i = 0; i < palette.length; i++) {
+            ours.put(palette[i], i);
+        }
+        int[] translate = new int[current.palette.length];
+        for (int i = 0; i < translate.length; i++) {
+            translate[i] = ours.getOrDefault(current.palette[i], -1);
+        }
+
+        int[] changed = new int[64];
+        int count = 0;
+        int volume = getVolume();
+        for (int i = 0; i < volume; i++) {
+            if (translate[current.getPaletteIndex(i)] != getPaletteIndex(i)) {
+                if (count == changed.length) {
+                    changed = Arrays.copyOf(changed, count * 2);
+                }
+                changed[count++] = i;
+            }
+        }
+        return Arrays.copyOf(changed, count);
+    }
+
+    /**
+     * Returns a plan that writes this snapshot's state at each of
+     * {@code indices} (typically the result of {@link #diff}).
+     */
+    public ArenaRestore.Plan restorePlan(int[] indices) {
+        BlockData[] parsed = new BlockData[palette.length];
+        return new ArenaRestore.Plan() {
+            @Override
+            public int size() {
+                return indices.length;
+            }
+
+            @Override
+            public void apply(World world, int step) {
+                int index = indices[step];
+                int paletteIndex = getPaletteIndex(index);
+                // Parse each palette entry once, on first use.
+                BlockData data = parsed[paletteIndex];
+                if (data == null) {
+                    data = Bukkit.createBlockData(palette[paletteIndex]);
+                    parsed[paletteIndex] = data;
+                }
+                world.getBlockAt(getX(index), getY(index), getZ(index)).setBlockData(data, false);
+            }
+        };
+    }
+
+    // -------------------------------------------------------------------------
+    // Capture
+    // -------------------------------------------------------------------------
+
+    /**
+     * Captures the arena's region. Chunk loading and snapshotting happen on
+     * the main thread (the former asynchronously via Paper); palette building
+     * and packing run on a Bukkit async worker.
+     *
+     * @return a future completed with the snapshot, or exceptionally if the
+     *         world is not loaded or the region is too large
+     */
+    public static CompletableFuture<ArenaBlockSnapshot> capture(JavaPlugin plugin, World world,
+            Arena arena) {
+        int minX = Math.min(arena.getX1(), arena.getX2());
+        int maxX = Math.max(arena.getX1(), arena.getX2());
+        int minY = Math.max(Math.min(arena.getY1(), arena.getY2()), world.getMinHeight());
+        int maxY = Math.min(Math.max(arena.getY1(), arena.getY2()), world.getMaxHeight() - 1);
+        int minZ = Math.min(arena.getZ1(), arena.getZ2());
+        int maxZ = Math.max(arena.getZ1(), arena.getZ2());
+
+        long volume = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        if (maxY < minY || volume > MAX_CAPTURE_VOLUME) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "Arena '" + arena.getName() + "' spans " + volume + " blocks; the limit is "
+                            + MAX_CAPTURE_VOLUME));
+        }
+
+        int minCX = minX >> 4, maxCX = maxX >> 4;
+        int minCZ = minZ >> 4, maxCZ = maxZ >> 4;
+        int chunksX = maxCX - minCX + 1;
+
+        List<CompletableFuture<ChunkSnapshot>> loads = new ArrayList<>();
+        for (int cz = minCZ; cz <= maxCZ; cz++) {
+            for (int cx = minCX; cx <= maxCX; cx++) {
+                // getChunkAtAsync completes on the thread that owns the
+                // chunk, where taking the snapshot is safe.
+                loads.add(world.getChunkAtAsync(cx, cz)
+                        .thenApply(chunk -> chunk.getChunkSnapshot(false, false, false)));
+            }
+        }
+
+        TaskScheduler scheduler = ((TheShrouded) plugin).getTaskScheduler();
+        Executor async = task -> scheduler.runAsync(task);
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]))
+                .thenApplyAsync(ignored -> {
+                    ChunkSnapshot[] chunks = new ChunkSnapshot[loads.size()];
+                    for (int i = 0; i < chunks.length; i++) {
+                        chunks[i] = loads.get(i).join();
+                    }
+                    // build() drops each snapshot once encoded; don't keep
+                    // them reachable through the futures.
+                    loads.clear();
+                    return build(chunks, chunksX, minCX, minCZ,
+                            minX, minY, minZ, maxX, maxY, maxZ);
+                }, async);
+    }
+
+    private static ArenaBlockSnapshot build(ChunkSnapshot[] chunks, int chunksX, int minCX, int minCZ,
+            int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int sizeX = maxX - minX + 1;
+        int sizeY = maxY - minY + 1;
+        int sizeZ = maxZ - minZ + 1;
+
+        Map<BlockData, Integer> paletteIds = new HashMap<>();
+        List<BlockData> paletteList = new ArrayList<>();
+        Packer packer = new Packer(sizeX * sizeY * sizeZ);
+
+        for (int k = 0; k < chunks.length; k++) {
+            ChunkSnapshot chunk = chunks[k];
+            chunks[k] = null;
+            int cx = minCX + k % chunksX;
+            int cz = minCZ + k / chunksX;
+            int x0 = Math.max(minX, cx << 4), x1 = Math.min(maxX, (cx << 4) + 15);
+            int z0 = Math.max(minZ, cz << 4), z1 = Math.min(maxZ, (cz << 4) + 15);
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = z0; z <= z1; z++) {
+                    int row = ((y - minY) * sizeZ + (z - minZ)) * sizeX - minX;
+                    for (int x = x0; x <= x1; x++) {
+                        BlockData state = chunk.getBlockData(x & 15, y, z & 15);
+                        Integer id = paletteIds.get(state);
+                        if (id == null) {
+                            id = paletteList.size();
+                            paletteIds.put(state, id);
+                            paletteList.add(state);
+                        }
+                        packer.set(row + x, id);
+                    }
+                }
+            }
+        }
+
+        String[] palette = new String[paletteList.size()];
+        for (int p = 0; p < palette.length; p++) {
+            palette[p] = paletteList.get(p).getAsString();
+        }
+        return new ArenaBlockSnapshot(minX, minY, minZ, sizeX, sizeY, sizeZ,
+                palette, packer.bits, packer.data);
+    }
+
+    // -------------------------------------------------------------------------
+    // Persistence
+    // -------------------------------------------------------------------------
+
+    /**
+     * Writes the snapshot as gzip-compressed binary, via a temp file moved
+     * into place so a crash mid-write never leaves a truncated snapshot.
+     */
+    public void write(File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(tmp.toPath()))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(minX);
+            out.writeInt(minY);
+            out.writeInt(minZ);
+            out.writeInt(sizeX);
+            out.writeInt(sizeY);
+            out.writeInt(sizeZ);
+            out.writeInt(palette.length);
+            for (String state : palette) {
+                out.writeUTF(state);
+            }
+            out.writeByte(bitsPerEntry);
+            out.writeInt(data.length);
+            for (long word : data) {
+                out.writeLong(word);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Reads a snapshot written by {@link #write(File)}. */
+    public static ArenaBlockSnapshot read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an arena block snapshot: " + file.getName());
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported arena snapshot version " + version
+                        + " in " + file.getName());
+            }
+            int minX = in.readInt();
+            int minY = in.readInt();
+            int minZ = in.readInt();
+            int sizeX = in.readInt();
+            int sizeY = in.readInt();
+            int sizeZ = in.readInt();
+            String[] palette = new String[in.readInt()];
+            for (int i = 0; i < palette.length; i++) {
+                palette[i] = in.readUTF();
+            }
+            int bits = in.readUnsignedByte();
+            long[] data = new long[in.readInt()];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = in.readLong();
+            }
+
+            long volume = (long) sizeX * sizeY * sizeZ;
+            if (bits < 1 || bits > 32 || volume > MAX_STORED_VOLUME
+                    || data.length != longsFor((int) volume, bits)) {
+                throw new IOException("Corrupt arena snapshot: " + file.getName());
+            }
+            return new ArenaBlockSnapshot(minX, minY, minZ, sizeX, sizeY, sizeZ,
+                    palette, bits, data);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Packing helpers
+    // -------------------------------------------------------------------------
+
+    private static int bitsFor(int paletteSize) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+    }
+
+    private static int longsFor(int count, int bits) {
+        int perLong = 64 / bits;
+        return (count + perLong - 1) / perLong;
+    }
+
+    /**
+     * Packed array written one entry at a time, each exactly once. Starts at
+     * one bit per entry and is repacked one size wider whenever a palette
+     * index no longer fits, so it always ends at {@link #bitsFor} of the
+     * final palette size.
+     */
+    private static final class Packer {
+        private final int count;
+        int bits = 1;
+        long[] data;
+
+        Packer(int count) {
+            this.count = count;
+            this.data = new long[longsFor(count, bits)];
+        }
+
+        void set(int index, int value) {
+            if (value >>> bits != 0)
+                widen(bitsFor(value + 1));
+            int perLong = 64 / bits;
+            data[index / perLong] |= (long) value << ((index % perLong) * bits);
+        }
+
+        private void widen(int newBits) {
+            int oldPerLong = 64 / bits, newPerLong = 64 / newBits;
+            long oldMask = (1L << bits) - 1;
+            long[] wider = new long[longsFor(count, newBits)];
+            for (int i = 0; i < count; i++) {
+                long value = (data[i / oldPerLong] >>> ((i % oldPerLong) * bits)) & oldMask;
+                wider[i / newPerLong] |= value << ((i % newPerLong) * newBits);
+            }
+            data = wider;
+            bits = newBits;
+        }
+    }
+}
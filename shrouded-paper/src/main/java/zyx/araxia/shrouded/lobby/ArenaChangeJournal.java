@@ -0,0 +1,136 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+
+/**
+ * Records the original state of every block changed inside an arena during a
+ * match, so the reset only has to touch those blocks.
+ *
+ * <p>
+ * Each entry is a position packed into a {@code long} (26 bits x, 26 bits z,
+ * 12 bits y — the same layout as vanilla's {@code BlockPos.asLong}) and an
+ * index into a palette of original {@link BlockData}. Only the first change
+ * to a position is kept: that is the state the reset must put back, however
+ * many times the block changes afterwards.
+ *
+ * <p>
+ * Once {@code maxChanges} positions have been recorded the journal marks
+ * itself {@link #isOverflowed() overflowed} and stops growing; the reset then
+ * falls back to a full snapshot diff. All methods are main-thread only.
+ */
+public class ArenaChangeJournal {
+
+    private final Arena arena;
+    private final int maxChanges;
+
+    private long[] positions = new long[64];
+    private int[] states = new int[64];
+    private int size = 0;
+    private boolean overflowed = false;
+
+    /** Packed position → entry index; used to keep only the first change. */
+    private final Map<Long, Integer> seen = new HashMap<>();
+
+    private final List<BlockData> palette = new ArrayList<>();
+    private final Map<BlockData, Integer> paletteIds = new HashMap<>();
+
+    public ArenaChangeJournal(Arena arena, int maxChanges) {
+        this.arena = arena;
+        this.maxChanges = maxChanges;
+    }
+
+    public Arena getArena() {
+        return arena;
+    }
+
+    /** Number of distinct positions recorded. */
+    public int size() {
+        return size;
+    }
+
+    public boolean isOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * Records that the block at ({@code x}, {@code y}, {@code z}) is about to
+     * change from {@code original}. Later changes to the same position are
+     * ignored.
+     */
+    public void record(int x, int y, int z, BlockData original) {
+        long packed = pack(x, y, z);
+        if (seen.containsKey(packed))
+            return;
+        if (size >= maxChanges) {
+            overflowed = true;
+            return;
+        }
+
+        Integer stateId = paletteIds.get(original);
+        if (stateId == null) {
+            // BlockData is mutable; keep a private copy as the palette key.
+            BlockData copy = original.clone();
+            stateId = palette.size();
+            palette.add(copy);
+            paletteIds.put(copy, stateId);
+        }
+
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+            states = Arrays.copyOf(states, size * 2);
+        }
+        positions[size] = packed;
+        states[size] = stateId;
+        seen.put(packed, size);
+        size++;
+    }
+
+    /**
+     * Returns a plan that puts every recorded block back, newest change
+     * first. The plan reads this journal's arrays directly, so the journal
+     * must not be recorded into while it runs.
+     */
+    public ArenaRestore.Plan replayPlan() {
+        return new ArenaRestore.Plan() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void apply(World world, int step) {
+                int i = size - 1 - step;
+                long packed = positions[i];
+                world.getBlockAt(unpackX(packed), unpackY(packed), unpackZ(packed))
+                        .setBlockData(palette.get(states[i]), false);
+            }
+        };
+    }
+
+    // -------------------------------------------------------------------------
+    // Packing helpers
+    // -------------------------------------------------------------------------
+
+    static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+}
@@ -0,0 +1,144 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import zyx.araxia.shrouded.TheShrouded;
+
+/**
+ * Loads the chunks around an arena's spawn points asynchronously and holds a
+ * plugin chunk ticket on each one, so teleporting players into the arena
+ * does not stall the main thread on synchronous chunk loads.
+ *
+ * <p>
+ * Started by {@link LobbySession} when it claims its arena candidates, and
+ * {@link #release() released} once the arena either loses the vote or the
+ * match has moved in (players then keep the chunks loaded themselves).
+ * {@link #ready()} never completes exceptionally: a chunk that fails to load
+ * is simply loaded again, synchronously, by the teleport.
+ *
+ * <p>
+ * Tickets go through {@link ArenaManager#addChunkTicket}, which counts
+ * holders per chunk: two preloads sharing a chunk (overlapping arenas, or a
+ * preload replaced by a new one) each release only their own claim.
+ */
+public class ArenaChunkPreload {
+
+    private final ArenaManager arenaManager;
+    private final World world;
+
+    /** Chunk keys (see {@link #chunkKey}) of every chunk to preload. */
+    private final Set<Long> chunks;
+
+    /** Chunks that have been loaded and ticketed so far. */
+    private final List<Long> ticketed = new ArrayList<>();
+
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private int remaining;
+    private boolean released = false;
+
+    private ArenaChunkPreload(Plugin plugin, World world, Set<Long> chunks) {
+        this.arenaManager = ((TheShrouded) plugin).getArenaManager();
+        this.world = world;
+        this.chunks = chunks;
+        this.remaining = chunks.size();
+    }
+
+    /**
+     * Starts loading every chunk within {@code radius} chunks of each of
+     * {@code arena}'s player and Shrouded spawn points (or its centre, if it
+     * has none) in {@code world}. Must be called on the main thread.
+     */
+    public static ArenaChunkPreload start(Plugin plugin, Arena arena, World world, int radius) {
+        List<Location> spawns = new ArrayList<>();
+        for (Arena.SpawnPoint sp : arena.getPlayerSpawns())
+            spawns.add(sp.toLocation(world));
+        for (Arena.SpawnPoint sp : arena.getShroudedSpawns())
+            spawns.add(sp.toLocation(world));
+        if (spawns.isEmpty())
+            spawns.add(arena.getSpawnLocation(world));
+
+        Set<Long> chunks = new LinkedHashSet<>();
+        for (Location spawn : spawns) {
+            int cx = spawn.getBlockX() >> 4;
+            int cz = spawn.getBlockZ() >> 4;
+            for (int dx = -radius; dx <= radius; dx++) {
+                for (int dz = -radius; dz <= radius; dz++) {
+                    chunks.add(chunkKey(cx + dx, cz + dz));
+                }
+            }
+        }
+
+        ArenaChunkPreload preload = new ArenaChunkPreload(plugin, world, chunks);
+        preload.load();
+        return preload;
+    }
+
+    private void load() {
+        if (chunks.isEmpty()) {
+            ready.complete(null);
+            return;
+        }
+        for (long key : chunks) {
+            int x = chunkX(key);
+            int z = chunkZ(key);
+            // Paper completes getChunkAtAsync on the main thread.
+            world.getChunkAtAsync(x, z).whenComplete((chunk, error) -> {
+                if (error == null && !released) {
+                    arenaManager.addChunkTicket(world, x, z);
+                    ticketed.add(key);
+                }
+                if (--remaining == 0) {
+                    ready.complete(null);
+                }
+            });
+        }
+    }
+
+    /** Completes (on the main thread) once every chunk has been attempted. */
+    public CompletableFuture<Void> ready() {
+        return ready;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    /** Fraction of chunks loaded so far, from {@code 0.0} to {@code 1.0}. */
+    public double getProgress() {
+        return chunks.isEmpty() ? 1.0 : 1.0 - (double) remaining / chunks.size();
+    }
+
+    /**
+     * Removes every chunk ticket this preload added. Chunks still loading
+     * when this is called are not ticketed. Safe to call more than once.
+     */
+    public void release() {
+        if (released)
+            return;
+        released = true;
+        for (long key : ticketed) {
+            arenaManager.removeChunkTicket(world, chunkX(key), chunkZ(key));
+        }
+        ticketed.clear();
+    }
+
+    private static long chunkKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    private static int chunkX(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int chunkZ(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,29 @@
+package zyx.araxia.shrouded.lobby;
+
+import org.bukkit.World;
+
+/**
+ * A temporary world cloned from an {@link Arena#isInstanced() instanced}
+ * arena's template, hosting exactly one match. The copy is block-for-block,
+ * so the arena's bounds and spawn points apply unchanged — only the world
+ * differs, and every {@code Arena} spawn helper already takes the world as a
+ * parameter.
+ */
+public class ArenaInstance {
+
+    private final Arena arena;
+    private final World world;
+
+    ArenaInstance(Arena arena, World world) {
+        this.arena = arena;
+        this.world = world;
+    }
+
+    public Arena getArena() {
+        return arena;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+}
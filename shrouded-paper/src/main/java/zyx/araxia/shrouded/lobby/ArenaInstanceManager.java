@@ -0,0 +1,328 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+import org.bukkit.Bukkit;
+import org.bukkit.GameRule;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import net.kyori.adventure.util.TriState;
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.scheduler.TaskScheduler;
+
+/**
+ * Clones {@link Arena#isInstanced() instanced} arenas' template worlds into
+ * throwaway per-match worlds, so one map can host many concurrent matches.
+ *
+ * <h3>Lifecycle</h3>
+ * <ol>
+ * <li>{@link #createInstance} saves the template if it is loaded, copies its
+ * region, entity, POI and data files plus {@code level.dat} to a new world
+ * folder on an async thread, then loads that folder on the main thread with a
+ * {@link VoidChunkGenerator} and autosave disabled.</li>
+ * <li>The match is played in the instance world.</li>
+ * <li>{@link #discard} unloads the world without saving and deletes its
+ * folder off-thread.</li>
+ * </ol>
+ *
+ * <p>
+ * Templates are best kept unloaded: a loaded template is saved before every
+ * copy, which costs a main-thread save and risks copying a region file the
+ * server is still writing.
+ */
+public class ArenaInstanceManager {
+
+    /** Folder-name prefix of every instance world; used to find stale copies. */
+    static final String INSTANCE_PREFIX = "shrouded_instance_";
+
+    /** Top-level entries of a template world folder that are copied. */
+    private static final List<String> COPIED_ENTRIES = List.of(
+            "region", "entities", "poi", "data", "level.dat");
+
+    /** How often, and how many times, to retry unloading a world that still has players. */
+    private static final long UNLOAD_RETRY_TICKS = 100L;
+    private static final int UNLOAD_MAX_ATTEMPTS = 12;
+
+    private final JavaPlugin plugin;
+
+    /** Instance world name → instance. */
+    private final Map<String, ArenaInstance> instances = new HashMap<>();
+
+    /** Instances whose files are still being copied. */
+    private int pending = 0;
+    /**
+     * Slots held by instanced arena leases that have not created their
+     * instance yet, so two lobbies cannot both be granted the last one.
+     */
+    private int reserved = 0;
+    private int nextId = 1;
+
+    public ArenaInstanceManager(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    // -------------------------------------------------------------------------
+    // Public API
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns {@code true} if another instance may be created without
+     * exceeding {@code game.max-arena-instances}.
+     */
+    public boolean hasCapacity() {
+        return getRemainingCapacity() > 0;
+    }
+
+    /** Number of instances that may still be created before the limit is reached. */
+    public int getRemainingCapacity() {
+        return Math.max(plugin.getConfig().getInt("game.max-arena-instances", 8) - instances.size() - pending
+                - reserved, 0);
+    }
+
+    /**
+     * Holds one instance slot for an instanced arena lease until the lease
+     * creates its instance or gives the slot back with {@link #unreserve()}.
+     *
+     * @return {@code false} if no slot is left
+     */
+    boolean reserve() {
+        if (!hasCapacity())
+            return false;
+        reserved++;
+        return true;
+    }
+
+    /** Gives back a slot taken by {@link #reserve()} that no instance was created in. */
+    void unreserve() {
+        reserved = Math.max(reserved - 1, 0);
+    }
+
+    /** Returns the instance whose world is {@code world}, or {@code null}. */
+    public ArenaInstance getInstance(World world) {
+        return world != null ? instances.get(world.getName()) : null;
+    }
+
+    /**
+     * Clones {@code arena}'s template world into a new instance world.
+     *
+     * @return a future completed on the main thread with the loaded instance,
+     *         or exceptionally if the server is Folia (which cannot load
+     *         worlds at runtime), the instance limit is reached, the template
+     *         has no region files or the copy or load failed
+     */
+    public CompletableFuture<ArenaInstance> createInstance(Arena arena) {
+        return createInstance(arena, false);
+    }
+
+    /**
+     * {@link #createInstance(Arena)} in a slot taken earlier with
+     * {@link #reserve()} if {@code reservedSlot}; the slot then belongs to
+     * the instance, whether or not creating it succeeds.
+     */
+    CompletableFuture<ArenaInstance> createInstance(Arena arena, boolean reservedSlot) {
+        if (reservedSlot)
+            unreserve();
+        if (TaskScheduler.isFolia()) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Arena instances are not supported on Folia"));
+        }
+        if (!hasCapacity()) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Arena instance limit reached"));
+        }
+        File container = Bukkit.getWorldContainer();
+        File source = new File(container, arena.getWorld());
+        if (!new File(source, "region").isDirectory()) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Template world '" + arena.getWorld() + "' has no region folder"));
+        }
+
+        World template = Bukkit.getWorld(arena.getWorld());
+        if (template != null) {
+            template.save();
+        }
+
+        String name = INSTANCE_PREFIX + arena.getName().replaceAll("[^A-Za-z0-9_-]", "_")
+                + "_" + nextId++;
+        File target = new File(container, name);
+        long started = System.nanoTime();
+        pending++;
+
+        return CompletableFuture.runAsync(() -> copyTemplate(source.toPath(), target.toPath()),
+                asyncExecutor())
+                .thenApplyAsync(ignored -> {
+                    // Without keepSpawnLoaded(FALSE) the server would load the
+                    // template's spawn area synchronously before the gamerule
+                    // below could switch it off.
+                    World world = new WorldCreator(name)
+                            .generator(new VoidChunkGenerator())
+                            .keepSpawnLoaded(TriState.FALSE)
+                            .createWorld();
+                    if (world == null) {
+                        throw new IllegalStateException("Server refused to load world " + name);
+                    }
+                    world.setAutoSave(false);
+                    world.setGameRule(GameRule.SPAWN_CHUNK_RADIUS, 0);
+                    ArenaInstance instance = new ArenaInstance(arena, world);
+                    instances.put(name, instance);
+                    return instance;
+                }, mainExecutor())
+                .whenCompleteAsync((instance, error) -> {
+                    pending--;
+                    if (error != null) {
+                        plugin.getLogger().log(Level.WARNING,
+                                "[TheShrouded] Failed to create instance of arena ''{0}'': {1}",
+                                new Object[] { arena.getName(), error.getMessage() });
+                        deleteAsync(target);
+                        return;
+                    }
+                    plugin.getLogger().log(Level.FINE,
+                            "[TheShrouded] Created arena instance ''{0}'' in {1} ms.",
+                            new Object[] { name, (System.nanoTime() - started) / 1_000_000 });
+                }, mainExecutor());
+    }
+
+    /**
+     * Moves any living players out of {@code instance}, unloads its world
+     * without saving and deletes its folder. If the world cannot be unloaded
+     * yet (e.g. a player is still on the death screen) the unload is retried
+     * every few seconds.
+     */
+    public void discard(ArenaInstance instance) {
+        tryUnload(instance, 1);
+    }
+
+    /**
+     * Unloads and deletes every instance synchronously. Called from
+     * {@code onDisable}, after players have been restored to their saved
+     * locations.
+     */
+    public void discardAll() {
+        for (ArenaInstance instance : new ArrayList<>(instances.values())) {
+            World world = instance.getWorld();
+            Bukkit.unloadWorld(world, false);
+            instances.remove(world.getName());
+            deleteFolder(world.getWorldFolder().toPath());
+        }
+    }
+
+    /**
+     * Deletes instance folders left behind by a crash. Called once on
+     * startup, before any instance is created.
+     */
+    public void deleteStaleInstances() {
+        File[] stale = Bukkit.getWorldContainer().listFiles(
+                f -> f.isDirectory() && f.getName().startsWith(INSTANCE_PREFIX));
+        if (stale == null) {
+            return;
+        }
+        for (File folder : stale) {
+            if (Bukkit.getWorld(folder.getName()) == null) {
+                plugin.getLogger().log(Level.INFO,
+                        "[TheShrouded] Deleting stale arena instance ''{0}''.", folder.getName());
+                deleteAsync(folder);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private void tryUnload(ArenaInstance instance, int attempt) {
+        World world = instance.getWorld();
+        Location fallback = Bukkit.getWorlds().get(0).getSpawnLocation();
+        for (Player player : world.getPlayers()) {
+            if (!player.isDead()) {
+                player.teleport(fallback);
+            }
+        }
+
+        if (Bukkit.unloadWorld(world, false)) {
+            instances.remove(world.getName());
+            deleteAsync(world.getWorldFolder());
+            return;
+        }
+
+        if (attempt >= UNLOAD_MAX_ATTEMPTS) {
+            plugin.getLogger().log(Level.WARNING,
+                    "[TheShrouded] Could not unload arena instance ''{0}'' after {1} attempts; it will be deleted on the next restart.",
+                    new Object[] { world.getName(), attempt });
+            return;
+        }
+        scheduler().runGlobal(() -> tryUnload(instance, attempt + 1), UNLOAD_RETRY_TICKS);
+    }
+
+    private static void copyTemplate(Path source, Path target) {
+        try {
+            Files.createDirectories(target);
+            for (String entry : COPIED_ENTRIES) {
+                Path from = source.resolve(entry);
+                if (!Files.exists(from)) {
+                    continue;
+                }
+                try (Stream<Path> walk = Files.walk(from)) {
+                    for (Path path : (Iterable<Path>) walk::iterator) {
+                        Path to = target.resolve(source.relativize(path));
+                        if (Files.isDirectory(path)) {
+                            Files.createDirectories(to);
+                        } else {
+                            Files.copy(path, to, StandardCopyOption.REPLACE_EXISTING);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteAsync(File folder) {
+        scheduler().runAsync(() -> deleteFolder(folder.toPath()));
+    }
+
+    private void deleteFolder(Path folder) {
+        if (!Files.exists(folder)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(folder)) {
+            for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING,
+                    "[TheShrouded] Failed to delete arena instance folder ''{0}'': {1}",
+                    new Object[] { folder, e.getMessage() });
+        }
+    }
+
+    private TaskScheduler scheduler() {
+        return ((TheShrouded) plugin).getTaskScheduler();
+    }
+
+    private Executor asyncExecutor() {
+        return task -> scheduler().runAsync(task);
+    }
+
+    private Executor mainExecutor() {
+        return task -> scheduler().runGlobal(task, 0L);
+    }
+}
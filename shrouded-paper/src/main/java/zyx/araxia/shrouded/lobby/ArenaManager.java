@@ -0,0 +1,534 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.scheduler.TaskScheduler;
+
+public class ArenaManager {
+    // Arenas are restored after every match, so blocks built or broken
+    // mid-match never permanently alter the arena. Normally only the blocks
+    // recorded in the match's change journal are put back; the full block
+    // snapshot (arenas/<name>.blocks, taken with /shrouded.arena.snapshot)
+    // covers anything the journal missed, e.g. after a crash. The snapshot
+    // file can also be shared between servers.
+
+    private static final String ARENAS_FOLDER = "arenas";
+    private static final String BLOCKS_EXTENSION = ".blocks";
+
+    private final JavaPlugin plugin;
+    private final Gson gson;
+    private final Map<String, Arena> arenas = new HashMap<>();
+
+    /** Arena name → stored block snapshot, cached after first use. */
+    private final Map<String, ArenaBlockSnapshot> blockSnapshots = new HashMap<>();
+
+    /** Arena name → most recent restore (finished or not). */
+    private final Map<String, ArenaRestore> restores = new HashMap<>();
+
+    /** Arena name → change journal for the match currently being played there. */
+    private final Map<String, ArenaChangeJournal> journals = new HashMap<>();
+
+    /** Clones instanced arenas into per-match worlds. */
+    private final ArenaInstanceManager instanceManager;
+
+    /** Leases arenas to lobby sessions and queues those waiting for one. */
+    private final ArenaAllocator allocator;
+
+    /** Cross-server arena leases, or {@code null} unless a shared directory is configured. */
+    private final SharedArenaLeases sharedLeases;
+
+    /**
+     * World UID → chunk key → number of {@link ArenaChunkPreload}s holding
+     * that chunk. Plugin chunk tickets are per plugin, not per holder, so the
+     * ticket is only removed once the last preload lets go of it.
+     */
+    private final Map<UUID, Map<Long, Integer>> chunkTickets = new HashMap<>();
+
+    /** Pairing of a stored snapshot with the positions that differ from it. */
+    private record RestoreDiff(ArenaBlockSnapshot target, int[] changed) {
+    }
+
+    public ArenaManager(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.instanceManager = new ArenaInstanceManager(plugin);
+        this.allocator = new ArenaAllocator(plugin, this);
+        this.sharedLeases = SharedArenaLeases.fromConfig(plugin, () -> {
+            allocator.dispatch();
+            ((TheShrouded) plugin).getLobbyManager().getMatchmakingQueue().requestMatch();
+        });
+        if (sharedLeases != null) {
+            sharedLeases.start();
+            allocator.setSharedLeases(sharedLeases);
+        }
+        loadAll();
+    }
+
+    // -------------------------------------------------------------------------
+    // Public API
+    // -------------------------------------------------------------------------
+    public boolean arenaExists(String name) {
+        return arenas.containsKey(name);
+    }
+
+    public Arena getArena(String name) {
+        return arenas.get(name);
+    }
+
+    public Collection<Arena> getAllArenas() {
+        return Collections.unmodifiableCollection(arenas.values());
+    }
+
+    public ArenaInstanceManager getInstanceManager() {
+        return instanceManager;
+    }
+
+    public ArenaAllocator getAllocator() {
+        return allocator;
+    }
+
+    /**
+     * Gives up every cross-server arena lease this server holds. Called on
+     * shutdown; a no-op unless {@code arena-leases.shared-directory} is set.
+     */
+    public void releaseSharedLeases() {
+        if (sharedLeases != null) {
+            sharedLeases.stop();
+        }
+    }
+
+    /**
+     * Returns the first registered arena whose bounding box contains
+     * {@code location}, or {@code null} if the location is not inside any
+     * arena. Locations in an arena instance world are matched against that
+     * instance's arena.
+     */
+    public Arena getArenaContaining(org.bukkit.Location location) {
+        ArenaInstance instance = instanceManager.getInstance(location.getWorld());
+        if (instance != null) {
+            Arena arena = instance.getArena();
+            return arena.contains(arena.getWorld(), location.getBlockX(),
+                    location.getBlockY(), location.getBlockZ()) ? arena : null;
+        }
+        for (Arena arena : arenas.values()) {
+            if (arena.contains(location)) {
+                return arena;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resets every registered arena to its stored data state.
+     *
+     * <p>Called once at plugin startup to guarantee a clean slate regardless
+     * of whether the server was fully restarted or the plugin was hot-reloaded
+     * (where {@code transient} runtime fields such as {@code inUse} would
+     * otherwise retain stale values from the previous enable cycle).
+     *
+     * <p>This:
+     * <ul>
+     *   <li>Calls {@link Arena#release()} on every arena to clear any
+     *       {@code inUse} / {@code usingLobby} state left over from a
+     *       mid-session shutdown or reload.</li>
+     *   <li>Starts a {@link #restoreArena block restore} for every arena
+     *       that has a stored block snapshot, in case a match was cut short
+     *       before its post-match restore finished.</li>
+     * </ul>
+     */
+    public void resetAllArenas() {
+        int count = 0;
+        for (Arena arena : arenas.values()) {
+            if (arena.isInUse()) {
+                plugin.getLogger().log(Level.INFO,
+                        "[TheShrouded] Resetting arena ''{0}'' (was claimed by lobby ''{1}'').",
+                        new Object[] { arena.getName(), arena.getUsingLobby() });
+            }
+            arena.release();
+            restoreArena(arena);
+            count++;
+        }
+        plugin.getLogger().log(Level.INFO,
+                "[TheShrouded] Arena reset complete: {0} arena(s) restored to stored data state.",
+                count);
+    }
+
+    /**
+     * Adds a player-class spawn point to the named arena and persists the change.
+     *
+     * @return false if the arena does not exist or the file could not be written.
+     */
+    public boolean addPlayerSpawn(String arenaName, double x, double y, double z,
+            float yaw, float pitch) {
+        Arena arena = arenas.get(arenaName);
+        if (arena == null)
+            return false;
+        arena.addPlayerSpawn(new Arena.SpawnPoint(x, y, z, yaw, pitch));
+        return saveArena(arena);
+    }
+
+    /**
+     * Adds a Shrouded spawn point to the named arena and persists the change.
+     *
+     * @return false if the arena does not exist or the file could not be written.
+     */
+    public boolean addShroudedSpawn(String arenaName, double x, double y, double z,
+            float yaw, float pitch) {
+        Arena arena = arenas.get(arenaName);
+        if (arena == null)
+            return false;
+        arena.addShroudedSpawn(new Arena.SpawnPoint(x, y, z, yaw, pitch));
+        return saveArena(arena);
+    }
+
+    /**
+     * Marks the named arena as instanced (each match gets its own copy of the
+     * arena's world) or shared, and persists the change.
+     *
+     * @return false if the arena does not exist or the file could not be written.
+     */
+    public boolean setInstanced(String arenaName, boolean instanced) {
+        Arena arena = arenas.get(arenaName);
+        if (arena == null) {
+            return false;
+        }
+        arena.setInstanced(instanced);
+        return saveArena(arena);
+    }
+
+    /**
+     * Creates a new arena and writes it to arenas/<arena_name>.json in the
+     * plugin data folder. Overwrites any existing arena with the same name.
+     */
+    public boolean registerArena(String name, String world, int x1, int y1,
+            int z1, int x2, int y2, int z2, int maxPlayers) {
+        Arena arena = new Arena(name, world, x1, y1, z1, x2, y2, z2,
+                maxPlayers);
+        arenas.put(name, arena);
+        return saveArena(arena);
+    }
+
+    // -------------------------------------------------------------------------
+    // Block snapshots
+    // -------------------------------------------------------------------------
+
+    /**
+     * Captures the named arena's current blocks and writes them to
+     * {@code arenas/<name>.blocks}, replacing any previous snapshot.
+     *
+     * @return a future completed on the main thread with the new snapshot,
+     *         or exceptionally if the arena or its world does not exist or the
+     *         file could not be written
+     */
+    public CompletableFuture<ArenaBlockSnapshot> captureBlockSnapshot(String arenaName) {
+        Arena arena = arenas.get(arenaName);
+        if (arena == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Arena '" + arenaName + "' not found"));
+        }
+        World world = Bukkit.getWorld(arena.getWorld());
+        if (world == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "World '" + arena.getWorld() + "' is not loaded"));
+        }
+
+        File file = blockSnapshotFile(arena);
+        return ArenaBlockSnapshot.capture(plugin, world, arena)
+                .thenApplyAsync(snapshot -> {
+                    try {
+                        snapshot.write(file);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                    return snapshot;
+                }, asyncExecutor())
+                .whenCompleteAsync((snapshot, error) -> {
+                    if (error != null) {
+                        plugin.getLogger().log(Level.WARNING,
+                                "[TheShrouded] Failed to snapshot arena ''{0}'': {1}",
+                                new Object[] { arenaName, error.getMessage() });
+                        return;
+                    }
+                    blockSnapshots.put(arenaName, snapshot);
+                    plugin.getLogger().log(Level.INFO,
+                            "[TheShrouded] Saved block snapshot for arena ''{0}'': {1} blocks, {2} distinct states, {3} bytes on disk.",
+                            new Object[] { arenaName, snapshot.getVolume(),
+                                    snapshot.getPaletteSize(), file.length() });
+                }, mainExecutor());
+    }
+
+    /**
+     * Starts restoring {@code arena} to its pre-match state, or returns the
+     * restore already in progress. At most
+     * {@code game.arena-restore-blocks-per-tick} blocks are written per tick.
+     *
+     * <p>
+     * If a change journal was kept for the match, only the journalled blocks
+     * are put back, newest first, so the cost scales with the number of
+     * changes rather than the arena's volume. Otherwise (or if the journal
+     * overflowed) the current blocks are captured and diffed against the
+     * stored block snapshot off the main thread, and only the differences are
+     * written.
+     *
+     * @return the restore, or {@code null} if there is nothing to restore
+     *         from or the arena's world is not loaded
+     */
+    public ArenaRestore restoreArena(Arena arena) {
+        String arenaName = arena.getName();
+        ArenaRestore running = restores.get(arenaName);
+        if (running != null && !running.isDone()) {
+            return running;
+        }
+
+        ArenaChangeJournal journal = journals.remove(arenaName);
+        ArenaBlockSnapshot cached = blockSnapshots.get(arenaName);
+        File file = blockSnapshotFile(arena);
+        boolean hasSnapshot = cached != null || file.exists();
+        if (!hasSnapshot && journal == null) {
+            return null;
+        }
+        World world = Bukkit.getWorld(arena.getWorld());
+        if (world == null) {
+            plugin.getLogger().log(Level.WARNING,
+                    "[TheShrouded] Cannot restore arena ''{0}'': world ''{1}'' is not loaded.",
+                    new Object[] { arenaName, arena.getWorld() });
+            return null;
+        }
+
+        ArenaRestore restore = new ArenaRestore(arenaName);
+        restores.put(arenaName, restore);
+        long started = System.nanoTime();
+        int budget = plugin.getConfig()
+                .getInt("game.arena-restore-blocks-per-tick", 2048);
+
+        restore.future().thenAccept(written -> plugin.getLogger().log(Level.FINE,
+                "[TheShrouded] Restored arena ''{0}'': {1} block(s) rewritten in {2} ms.",
+                new Object[] { arenaName, written, (System.nanoTime() - started) / 1_000_000 }));
+
+        if (journal != null && (!journal.isOverflowed() || !hasSnapshot)) {
+            if (journal.isOverflowed()) {
+                plugin.getLogger().log(Level.WARNING,
+                        "[TheShrouded] Change journal for arena ''{0}'' overflowed and there is no block snapshot to fall back on; only the first {1} changed block(s) will be restored. Run /shrouded.arena.snapshot to fix this.",
+                        new Object[] { arenaName, journal.size() });
+            }
+            restore.begin(scheduler(), arena.getSpawnLocation(world), journal.replayPlan(), budget);
+            return restore;
+        }
+
+        CompletableFuture<ArenaBlockSnapshot> stored = cached != null
+                ? CompletableFuture.completedFuture(cached)
+                : CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return ArenaBlockSnapshot.read(file);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, asyncExecutor());
+
+        // Both inputs complete off the main thread, so the diff runs there too.
+        stored.thenCombine(ArenaBlockSnapshot.capture(plugin, world, arena),
+                (target, current) -> new RestoreDiff(target, target.diff(current)))
+                .whenCompleteAsync((diff, error) -> {
+                    if (error != null) {
+                        plugin.getLogger().log(Level.WARNING,
+                                "[TheShrouded] Failed to restore arena ''{0}'' (re-run /shrouded.arena.snapshot if its bounds changed): {1}",
+                                new Object[] { arenaName, error.getMessage() });
+                        restore.fail(error);
+                        return;
+                    }
+                    blockSnapshots.put(arenaName, diff.target());
+                    restore.begin(scheduler(), arena.getSpawnLocation(world),
+                            diff.target().restorePlan(diff.changed()), budget);
+                }, mainExecutor());
+        return restore;
+    }
+
+    /**
+     * Starts journalling block changes inside {@code arena}. Called when a
+     * match begins there; the journal is consumed by the next
+     * {@link #restoreArena} call.
+     */
+    public void startJournal(Arena arena) {
+        journals.put(arena.getName(), new ArenaChangeJournal(arena,
+                plugin.getConfig().getInt("game.arena-journal-max-changes", 65536)));
+    }
+
+    /**
+     * Records that {@code block} is about to change, if it lies inside an
+     * arena that is currently being journalled. Must be called before the
+     * block is modified.
+     */
+    public void recordChange(Block block) {
+        if (!journals.isEmpty()) {
+            recordChange(block, block.getBlockData());
+        }
+    }
+
+    /**
+     * Records that {@code block}, whose state before the change was
+     * {@code original}, has changed or is about to change. Use this form
+     * when the block has already been modified (e.g. in
+     * {@code BlockPlaceEvent}).
+     */
+    public void recordChange(Block block, BlockData original) {
+        if (journals.isEmpty()) {
+            return;
+        }
+        String worldName = block.getWorld().getName();
+        for (ArenaChangeJournal journal : journals.values()) {
+            if (journal.getArena().contains(worldName, block.getX(), block.getY(), block.getZ())) {
+                journal.record(block.getX(), block.getY(), block.getZ(), original);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the restore currently running for {@code arena}, or
+     * {@code null} if none is in progress.
+     */
+    public ArenaRestore getPendingRestore(Arena arena) {
+        ArenaRestore restore = restores.get(arena.getName());
+        return restore != null && !restore.isDone() ? restore : null;
+    }
+
+    /**
+     * Adds a plugin chunk ticket on chunk ({@code x}, {@code z}) of
+     * {@code world} on behalf of one holder. Main thread only.
+     */
+    public void addChunkTicket(World world, int x, int z) {
+        Map<Long, Integer> counts = chunkTickets.computeIfAbsent(world.getUID(), k -> new HashMap<>());
+        if (counts.merge(chunkKey(x, z), 1, Integer::sum) == 1) {
+            world.addPluginChunkTicket(x, z, plugin);
+        }
+    }
+
+    /**
+     * Drops one holder's claim on chunk ({@code x}, {@code z}) of
+     * {@code world}, removing the plugin chunk ticket once no holder is left.
+     * Main thread only.
+     */
+    public void removeChunkTicket(World world, int x, int z) {
+        Map<Long, Integer> counts = chunkTickets.get(world.getUID());
+        if (counts == null) {
+            return;
+        }
+        long key = chunkKey(x, z);
+        Integer held = counts.get(key);
+        if (held == null) {
+            return;
+        }
+        if (held > 1) {
+            counts.put(key, held - 1);
+            return;
+        }
+        counts.remove(key);
+        if (counts.isEmpty()) {
+            chunkTickets.remove(world.getUID());
+        }
+        world.removePluginChunkTicket(x, z, plugin);
+    }
+
+    private static long chunkKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    private TaskScheduler scheduler() {
+        return ((TheShrouded) plugin).getTaskScheduler();
+    }
+
+    private Executor asyncExecutor() {
+        return task -> scheduler().runAsync(task);
+    }
+
+    private Executor mainExecutor() {
+        return task -> scheduler().runGlobal(task, 0L);
+    }
+
+    private File blockSnapshotFile(Arena arena) {
+        return new File(arenasFolder(), arena.getName() + BLOCKS_EXTENSION);
+    }
+
+    // -------------------------------------------------------------------------
+    // File I/O
+    // -------------------------------------------------------------------------
+    /**
+     * Reads every .json file in the plugin's arenas/ subfolder on startup.
+     */
+    private void loadAll() {
+        File folder = arenasFolder();
+        if (!folder.exists()) {
+            folder.mkdirs();
+            return;
+        }
+
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            try (Reader reader = new FileReader(file, StandardCharsets.UTF_8)) {
+                Arena arena = gson.fromJson(reader, Arena.class);
+                if (arena != null) {
+                    arenas.put(arena.getName(), arena);
+                    plugin.getLogger().log(Level.INFO, "Loaded arena: {0}",
+                            arena.getName());
+                }
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING,
+                        "Failed to load arena file: {0} - {1}", new Object[] {
+                                file.getName(), e.getMessage()
+                        });
+            }
+        }
+    }
+
+    private boolean saveArena(Arena arena) {
+        File folder = arenasFolder();
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+
+        File file = new File(folder, arena.getName() + ".json");
+        try (Writer writer = new FileWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(arena, writer);
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING,
+                    "Failed to save arena ''{0}'': {1}", new Object[] {
+                            arena.getName(), e.getMessage()
+                    });
+            return false;
+        }
+    }
+
+    private File arenasFolder() {
+        return new File(plugin.getDataFolder(), ARENAS_FOLDER);
+    }
+}
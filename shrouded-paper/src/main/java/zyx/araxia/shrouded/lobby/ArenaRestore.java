@@ -0,0 +1,122 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import zyx.araxia.shrouded.scheduler.TaskHandle;
+import zyx.araxia.shrouded.scheduler.TaskScheduler;
+
+/**
+ * Puts an arena's blocks back to their pre-match state, a bounded number of
+ * blocks per tick.
+ *
+ * <p>
+ * The blocks to write are worked out up front as a {@link Plan}: either the
+ * replay of the match's {@link ArenaChangeJournal}, or a diff of a fresh
+ * capture against the stored {@link ArenaBlockSnapshot} (see
+ * {@link ArenaManager#restoreArena}). Each tick therefore only spends its
+ * budget on blocks that actually need writing. Writes skip physics so
+ * restored water, sand and redstone do not cascade. The writes run on the
+ * region that owns the arena's centre; on Folia the arena must therefore lie
+ * within one region.
+ *
+ * <p>
+ * Callers observe progress through {@link #getProgress()} and
+ * {@link #future()}; the future completes with the number of blocks written
+ * once the arena is fully restored.
+ */
+public class ArenaRestore {
+
+    /** An ordered list of block writes. {@link #apply} runs on the arena's region thread. */
+    public interface Plan {
+        int size();
+
+        /** Performs write number {@code step} ({@code 0 <= step < size()}). */
+        void apply(World world, int step);
+    }
+
+    private final String arenaName;
+    private final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+    private World world;
+    private volatile Plan plan;
+    private int blocksPerTick;
+
+    /** Next step of {@link #plan} to apply. Written on the arena's region thread only. */
+    private volatile int cursor = 0;
+
+    ArenaRestore(String arenaName) {
+        this.arenaName = arenaName;
+    }
+
+    /**
+     * Supplies the plan and starts applying it on the region owning
+     * {@code anchor}. Called once the plan is known.
+     */
+    void begin(TaskScheduler scheduler, Location anchor, Plan plan, int blocksPerTick) {
+        World world = anchor.getWorld();
+        this.world = world;
+        this.plan = plan;
+        this.blocksPerTick = Math.max(1, blocksPerTick);
+        if (plan.size() == 0) {
+            future.complete(0);
+            return;
+        }
+        scheduler.runAtTimer(anchor, TaskScheduler.namedTimer("arena restore", this::tick), 1L, 1L);
+    }
+
+    /** Completes the restore exceptionally, e.g. if capture or diffing failed. */
+    void fail(Throwable cause) {
+        future.completeExceptionally(cause);
+    }
+
+    // -------------------------------------------------------------------------
+    // Progress API
+    // -------------------------------------------------------------------------
+
+    public String getArenaName() {
+        return arenaName;
+    }
+
+    /** Future completed with the number of blocks written, once the arena is restored. */
+    public CompletableFuture<Integer> future() {
+        return future;
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * Fraction of the restore completed, from {@code 0.0} to {@code 1.0}.
+     * Stays at {@code 0.0} while the plan is still being computed.
+     */
+    public double getProgress() {
+        if (future.isDone())
+            return 1.0;
+        Plan pending = plan;
+        if (pending == null || pending.size() == 0)
+            return 0.0;
+        return (double) cursor / pending.size();
+    }
+
+    // -------------------------------------------------------------------------
+    // Task
+    // -------------------------------------------------------------------------
+
+    private void tick(TaskHandle task) {
+        int total = plan.size();
+        int end = Math.min(cursor + blocksPerTick, total);
+        for (int step = cursor; step < end; step++) {
+            plan.apply(world, step);
+        }
+        cursor = end;
+
+        if (end >= total) {
+            task.cancel();
+            future.complete(total);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * The original snapshot format: pretty-printed Gson JSON in UTF-8, with
+ * every item as a Base64 string of {@link org.bukkit.inventory.ItemStack#serializeAsBytes()}.
+ * Readable by hand.
+ */
+public final class JsonSnapshotFormat implements SnapshotFormat {
+
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public byte[] encode(PlayerSnapshot snapshot) {
+        return gson.toJson(snapshot).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public PlayerSnapshot decode(byte[] data) {
+        return gson.fromJson(new String(data, StandardCharsets.UTF_8), PlayerSnapshot.class);
+    }
+}
@@ -7,6 +7,8 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -17,7 +19,6 @@ import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -25,11 +26,18 @@ import com.google.gson.GsonBuilder;
 import zyx.araxia.shrouded.TheShrouded;
 import zyx.araxia.shrouded.game.PlayerClass;
 import zyx.araxia.shrouded.item.ShroudedItems;
+import zyx.araxia.shrouded.listener.ResourcePackSendListener;
 import zyx.araxia.shrouded.menu.ClassSelectMenu;
+import zyx.araxia.shrouded.metrics.FlightEvents;
+import zyx.araxia.shrouded.metrics.LogLinearHistogram;
+import zyx.araxia.shrouded.metrics.MetricsRegistry;
+import zyx.araxia.shrouded.metrics.PluginMetrics;
 
 public class LobbyManager {
 
-    private static final Logger LOGGER = JavaPlugin.getPlugin(TheShrouded.class).getLogger();
+    private static final Logger LOGGER = TheShrouded.pluginLogger();
+    private static final LogLinearHistogram JOIN_LATENCY = MetricsRegistry.histogram("join_latency");
+    private static final MetricsRegistry.Counter JOINS = MetricsRegistry.counter("lobby_joins");
 
     /**
      * Result codes returned by {@link #addPlayerToSession}.
@@ -71,10 +79,12 @@ public class LobbyManager {
     private final Map<String, Lobby> lobbies = new HashMap<>();
     private final Map<String, LobbySession> sessions = new HashMap<>();
     private ArenaManager arenaManager;
+    private final MatchmakingQueue matchmakingQueue;
 
     public LobbyManager(JavaPlugin plugin) {
         this.plugin = plugin;
         this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.matchmakingQueue = new MatchmakingQueue(plugin, this);
         loadAll();
     }
 
@@ -86,6 +96,25 @@ public class LobbyManager {
         this.arenaManager = arenaManager;
     }
 
+    public ArenaManager getArenaManager() {
+        return arenaManager;
+    }
+
+    /** The server-wide queue that join signs feed when matchmaking is enabled. */
+    public MatchmakingQueue getMatchmakingQueue() {
+        return matchmakingQueue;
+    }
+
+    /** Returns the session of the lobby called {@code lobbyName}, or {@code null}. */
+    public LobbySession getSession(String lobbyName) {
+        return sessions.get(lobbyName);
+    }
+
+    /** Every lobby's session, for the {@link MatchmakingQueue}. */
+    Collection<LobbySession> getSessions() {
+        return sessions.values();
+    }
+
     // -------------------------------------------------------------------------
     // Public API
     // -------------------------------------------------------------------------
@@ -200,6 +229,7 @@ public class LobbyManager {
      * silent overwrites of a previous saved state.
      */
     public JoinSessionResult addPlayerToSession(Player player, LobbySession session) {
+        long started = System.nanoTime();
         LOGGER.log(Level.FINE, "[TheShrouded] Adding player {0} ({1}) to session {2}",
                 new Object[] { player.getName(), player.getUniqueId(), session.getLobby().getName() });
 
@@ -221,6 +251,7 @@ public class LobbyManager {
         }
 
         session.add(player);
+        matchmakingQueue.dequeue(player.getUniqueId());
         // Give the player the class-selector item so they can re-open the menu
         // at any time during the lobby phase. The item carries plugin NBT tags
         // (shrouded:is_shrouded_item + shrouded:item_type) so it can be swept
@@ -228,9 +259,18 @@ public class LobbyManager {
         player.getInventory().addItem(ShroudedItems.createClassSelector());
         ClassSelectMenu.open(player);
 
+        // Send the base resource pack on first lobby entry (no-op unless
+        // delivery mode is "lobby")
+        ResourcePackSendListener packSender = ((TheShrouded) plugin).getResourcePackSendListener();
+        if (packSender != null) {
+            packSender.onLobbyJoin(player);
+        }
+
         LOGGER.log(Level.INFO, "[TheShrouded] Player {0} ({1}) joined lobby session {2}",
                 new Object[] { player.getName(), player.getUniqueId(), session.getLobby().getName() });
 
+        JOIN_LATENCY.recordSince(started);
+        JOINS.increment();
         return JoinSessionResult.SUCCESS;
     }
 
@@ -269,10 +309,14 @@ public class LobbyManager {
         }
 
         PlayerSnapshot snapshot = PlayerSnapshot.capture(player);
-        try (Writer writer = new FileWriter(playerFile, StandardCharsets.UTF_8)) {
+        long started = System.nanoTime();
+        FlightEvents.SnapshotIo flight = FlightEvents.beginSnapshotIo();
+        byte[] encoded;
+        try {
             LOGGER.log(Level.INFO, "[TheShrouded] Saving snapshot for player {0} ({1})",
                     new Object[] { player.getName(), player.getUniqueId() });
-            gson.toJson(snapshot, writer);
+            encoded = SnapshotFormat.CURRENT.encode(snapshot);
+            Files.write(playerFile.toPath(), encoded);
         } catch (IOException e) {
             LOGGER.log(
                     Level.WARNING,
@@ -280,6 +324,8 @@ public class LobbyManager {
                     new Object[] { player.getName(), e.getMessage() });
             return JoinSessionResult.PLAYER_FILE_ERROR;
         }
+        PluginMetrics.recordSnapshotIo("save", System.nanoTime() - started);
+        FlightEvents.snapshotIo(flight, "save", player, session.getLobby().getName(), encoded.length);
         return null;
     }
 
@@ -409,12 +455,88 @@ public class LobbyManager {
                 LOGGER.log(Level.INFO, "[TheShrouded] Player {0} ({1}) left lobby session {2}",
                         new Object[] { player.getName(), player.getUniqueId(), session.getLobby().getName() });
                 restorePlayerFromSnapshot(player);
+                ResourcePackSendListener packSender = ((TheShrouded) plugin).getResourcePackSendListener();
+                if (packSender != null) {
+                    packSender.onMatchEnd(player);
+                }
+                // The freed place may complete or top up a lobby for
+                // someone in the matchmaking queue.
+                matchmakingQueue.requestMatch();
                 return true;
             }
         }
         return false;
     }
 
+    // -------------------------------------------------------------------------
+    // Cross-server handoff
+    // -------------------------------------------------------------------------
+
+    /**
+     * Takes a player out of their session without restoring them, because
+     * they are about to be sent to another server for their match.
+     *
+     * <p>
+     * Their snapshot file stays here: the saved world and location only exist
+     * on this server. When they come back {@link #tryRestoreOrphanedSnapshot}
+     * restores it on login and only then deletes the file, so a match server
+     * that crashes or never receives them loses nothing.
+     *
+     * @return {@code false} (and nothing is changed) if the player is not in a
+     *         session or has no snapshot file to come back to
+     */
+    public boolean handOffPlayer(Player player) {
+        LobbySession session = getSessionForPlayer(player.getUniqueId());
+        if (session == null) {
+            return false;
+        }
+
+        File playerFile = getPlayerFile(player);
+        if (!playerFile.isFile()) {
+            LOGGER.log(Level.WARNING,
+                    "[TheShrouded] No snapshot file for {0} ({1}) — keeping them in lobby {2}.",
+                    new Object[] { player.getName(), player.getUniqueId(), session.getLobby().getName() });
+            return false;
+        }
+
+        session.remove(player.getUniqueId());
+        ShroudedItems.removeShroudedItems(player);
+        LOGGER.log(Level.INFO, "[TheShrouded] Player {0} ({1}) handed off from lobby session {2}",
+                new Object[] { player.getName(), player.getUniqueId(), session.getLobby().getName() });
+        return true;
+    }
+
+    /**
+     * The receiving end of {@link #handOffPlayer}: adds a player who has just
+     * arrived from another server to {@code session}, keeping the class they
+     * picked there. Their state is snapshotted here like any other join, and
+     * restored here before they are sent back; the snapshot from before their
+     * lobby stays on the server they came from.
+     */
+    public JoinSessionResult adoptTransferredPlayer(Player player, LobbySession session,
+            PlayerClass playerClass) {
+        JoinSessionResult validity = joinSessionValidity(session, player);
+        if (validity != null) {
+            return validity;
+        }
+
+        JoinSessionResult snapshotResult = savePlayerSnapshot(player, session);
+        if (snapshotResult != null) {
+            return snapshotResult;
+        }
+
+        if (!movePlayerToLobby(player, session)) {
+            return JoinSessionResult.UNKNOWN_ERROR;
+        }
+        session.add(player);
+        session.setClass(player.getUniqueId(), playerClass);
+        matchmakingQueue.dequeue(player.getUniqueId());
+
+        LOGGER.log(Level.INFO, "[TheShrouded] Transferred player {0} ({1}) joined lobby session {2}",
+                new Object[] { player.getName(), player.getUniqueId(), session.getLobby().getName() });
+        return JoinSessionResult.SUCCESS;
+    }
+
     /**
      * Reads the player's snapshot file, strips any remaining session items,
      * teleports them to their saved world/location, restores inventory and
@@ -439,8 +561,12 @@ public class LobbyManager {
         }
 
         PlayerSnapshot snapshot;
-        try (Reader reader = new FileReader(playerFile, StandardCharsets.UTF_8)) {
-            snapshot = gson.fromJson(reader, PlayerSnapshot.class);
+        long started = System.nanoTime();
+        FlightEvents.SnapshotIo flight = FlightEvents.beginSnapshotIo();
+        byte[] encoded;
+        try {
+            encoded = Files.readAllBytes(playerFile.toPath());
+            snapshot = SnapshotFormat.CURRENT.decode(encoded);
         } catch (IOException e) {
             LOGGER.log(Level.WARNING,
                     "[TheShrouded] Failed to read snapshot for {0} ({1}): {2} — sending to server spawn.",
@@ -448,6 +574,8 @@ public class LobbyManager {
             player.teleport(Bukkit.getWorlds().get(0).getSpawnLocation());
             return;
         }
+        PluginMetrics.recordSnapshotIo("load", System.nanoTime() - started);
+        FlightEvents.snapshotIo(flight, "load", player, null, encoded.length);
 
         if (snapshot == null) {
             LOGGER.log(Level.WARNING,
@@ -525,12 +653,8 @@ public class LobbyManager {
                 // Player is online (hot-reload scenario): restore after 1 tick
                 // so they are safely in the world before we move them.
                 final Player onlinePlayer = player;
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        restorePlayerFromSnapshot(onlinePlayer);
-                    }
-                }.runTaskLater(plugin, 1L);
+                ((TheShrouded) plugin).getTaskScheduler().runFor(onlinePlayer,
+                        () -> restorePlayerFromSnapshot(onlinePlayer), 1L);
                 restored++;
             } else {
                 // Player is offline — the file remains on disk and will be
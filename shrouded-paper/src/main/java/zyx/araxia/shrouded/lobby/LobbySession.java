@@ -0,0 +1,495 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.potion.PotionEffect;
+
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.core.LobbyCountdown;
+import zyx.araxia.shrouded.core.LobbyRoster;
+import zyx.araxia.shrouded.game.PlayerClass;
+import zyx.araxia.shrouded.item.ShroudedItems;
+import zyx.araxia.shrouded.listener.ResourcePackSendListener;
+import zyx.araxia.shrouded.metrics.FlightEvents;
+import zyx.araxia.shrouded.metrics.PluginMetrics;
+import zyx.araxia.shrouded.scheduler.TaskHandle;
+import zyx.araxia.shrouded.scheduler.TaskScheduler;
+
+/**
+ * Tracks the players currently inside a lobby and their chosen class. This is a
+ * runtime-only object — it is not persisted to JSON.
+ *
+ * <p>
+ * When the countdown ends the players waiting in the lobby are split into
+ * one or more {@link MatchInstance matches} of at most
+ * {@code game.match-max-players} each. Every match leases its own arena and
+ * runs its own vote and timers, so one lobby can host several matches at
+ * once; players who join meanwhile wait in the lobby for the next countdown.
+ */
+public class LobbySession {
+
+    /** Coarse lifecycle stage of a session or match, reported by {@code /metrics}. */
+    public enum Phase {
+        /** Session: fewer than two players waiting, or waiting for the countdown to be restarted. */
+        WAITING,
+        /** Session: countdown to the next round is running. */
+        COUNTDOWN,
+        /** Match: waiting in the {@link ArenaAllocator} queue for an arena to free up. */
+        QUEUED,
+        /** Match: players are voting on an arena. */
+        VOTING,
+        /** Match: the arena is being prepared and players moved in. */
+        STARTING,
+        /** Match: a round is in progress. */
+        IN_MATCH,
+        /** Match: the round has ended; players are about to be returned to the lobby. */
+        POST_MATCH
+    }
+
+    private final Lobby lobby;
+    private final JavaPlugin plugin;
+    private final ArenaManager arenaManager;
+
+    @SuppressWarnings("NonConstantLogger")
+    private final Logger logger;
+
+    // null value = player joined but hasn't picked a class yet
+    private final Map<UUID, PlayerClass> players = new HashMap<>();
+    private final String lobbyName;
+
+    private final LobbyCountdown countdown;
+
+    private Phase phase = null;
+    private long phaseStartedNanos = System.nanoTime();
+
+    /** Join times, and the match each player is in; absent while waiting in the lobby. */
+    private final LobbyRoster<MatchInstance> members = new LobbyRoster<>();
+
+    private int nextMatchNumber = 1;
+
+    /**
+     * Players who died during a round and must be redirected to the lobby
+     * spawn point when their
+     * {@link org.bukkit.event.player.PlayerRespawnEvent}
+     * fires, rather than respawning at the world default.
+     */
+    private final Set<UUID> pendingLobbyRespawn = new HashSet<>();
+
+    public LobbySession(Lobby lobby, JavaPlugin plugin,
+            ArenaManager arenaManager) {
+        this.lobby = lobby;
+        this.lobbyName = lobby.getName();
+        this.plugin = plugin;
+        this.arenaManager = arenaManager;
+        this.logger = plugin.getLogger();
+        this.countdown = new LobbyCountdown(this::schedule, new CountdownHost());
+        setPhase(Phase.WAITING);
+    }
+
+    public Lobby getLobby() {
+        return lobby;
+    }
+
+    /** {@link Phase#WAITING} or {@link Phase#COUNTDOWN}; see {@link MatchInstance#getPhase()} for matches. */
+    public Phase getPhase() {
+        return phase;
+    }
+
+    private void setPhase(Phase next) {
+        PluginMetrics.sessionPhaseChanged(phase, next);
+        long now = System.nanoTime();
+        FlightEvents.sessionPhase(lobby.getName(), null, null, phase, next, now - phaseStartedNanos);
+        phaseStartedNanos = now;
+        phase = next;
+    }
+
+    /**
+     * Whether waiting players start a countdown. Off for a match server's
+     * lobby, whose matches are started by the orchestrator instead.
+     */
+    public void setAutoStart(boolean autoStart) {
+        countdown.setAutoStart(autoStart);
+    }
+
+    public boolean isFull() {
+        return players.size() >= lobby.getMaxPlayers();
+    }
+
+    public boolean contains(UUID uuid) {
+        return players.containsKey(uuid);
+    }
+
+    /**
+     * Adds a player to the session. Starts the countdown if this is the second
+     * player waiting in the lobby.
+     *
+     * @return false if the lobby is already full.
+     */
+    public boolean add(Player player) {
+        if (isFull()) {
+            return false;
+        }
+        UUID uuid = player.getUniqueId();
+        players.put(uuid, null);
+        members.join(uuid, Instant.now());
+        PluginMetrics.setLobbyPlayers(lobbyName, players.size());
+        logger.log(Level.FINE,
+                "Player {0} joined lobby '{1}' (total players: {2}).",
+                new Object[] {
+                        player.getName(), lobbyName, players.size()
+                });
+
+        startCountdown();
+        return true;
+    }
+
+    /**
+     * Removes a player from the session, and from their match if they are in
+     * one. Cancels the countdown if fewer than 2 players are left waiting.
+     */
+    public void remove(UUID uuid) {
+        players.remove(uuid);
+        pendingLobbyRespawn.remove(uuid);
+        PluginMetrics.setLobbyPlayers(lobbyName, players.size());
+
+        MatchInstance match = members.leave(uuid);
+        if (match != null) {
+            match.removePlayer(uuid);
+        }
+
+        cancelCountdownIfTooFew();
+    }
+
+    private void cancelCountdownIfTooFew() {
+        if (countdown.cancelIfTooFew()) {
+            logger.log(Level.FINE,
+                    "Countdown for lobby '{0}' cancelled — not enough players.",
+                    this.lobbyName);
+        }
+    }
+
+    public void setClass(UUID uuid, PlayerClass playerClass) {
+        if (players.containsKey(uuid)) {
+            players.put(uuid, playerClass);
+        }
+    }
+
+    public PlayerClass getChosenClass(UUID uuid) {
+        return players.get(uuid);
+    }
+
+    /** Every player in the session, whether waiting in the lobby or in a match. */
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    /** Players waiting in the lobby, i.e. not in a match. */
+    public int getWaitingPlayerCount() {
+        return members.waitingCount();
+    }
+
+    public Map<UUID, PlayerClass> getPlayers() {
+        return Collections.unmodifiableMap(players);
+    }
+
+    /** Matches currently running (or preparing) from this lobby. */
+    public List<MatchInstance> getMatches() {
+        return members.matches();
+    }
+
+    /** Returns the match {@code uuid} is in, or {@code null} if they are waiting in the lobby. */
+    public MatchInstance getMatch(UUID uuid) {
+        return members.matchOf(uuid);
+    }
+
+    /**
+     * Returns the time at which the player joined this session, or null if they
+     * are not present.
+     */
+    public Instant getJoinTime(UUID uuid) {
+        return members.joinTime(uuid);
+    }
+
+    /**
+     * Returns how long the player has been in the lobby, or null if they are
+     * not present.
+     */
+    public Duration getTimeInLobby(UUID uuid) {
+        Instant joined = members.joinTime(uuid);
+        return (joined != null) ? Duration.between(joined, Instant.now())
+                : null;
+    }
+
+    /**
+     * Returns the most recent join time among the players waiting in the
+     * lobby, or null if nobody is waiting.
+     */
+    public Instant getLatestJoinTime() {
+        return members.latestJoin();
+    }
+
+    // -------------------------------------------------------------------------
+    // Countdown & match formation
+    // -------------------------------------------------------------------------
+    /**
+     * Starts the countdown if waiting players start one (see
+     * {@link #setAutoStart}), two or more are waiting and none is running.
+     */
+    private void startCountdown() {
+        long delayTicks = lobby.getStartCountdownSeconds() * 20L;
+        if (countdown.startIfReady(delayTicks)) {
+            logger.log(Level.FINE,
+                    "Scheduled countdown task for lobby '{0}' with delay of {1} ticks.",
+                    new Object[] {
+                            lobbyName, delayTicks
+                    });
+        }
+    }
+
+    /** Feeds the lobby's players to its {@link LobbyCountdown}. */
+    private final class CountdownHost implements LobbyCountdown.Host {
+
+        @Override
+        public int waitingPlayers() {
+            return getWaitingPlayerCount();
+        }
+
+        @Override
+        public Instant latestJoin() {
+            return getLatestJoinTime();
+        }
+
+        @Override
+        public void stateChanged(LobbyCountdown.State from, LobbyCountdown.State to) {
+            setPhase(to == LobbyCountdown.State.COUNTDOWN ? Phase.COUNTDOWN : Phase.WAITING);
+        }
+
+        @Override
+        public void countdownDeferred() {
+            logger.log(Level.FINE,
+                    "Recent join detected for lobby '{0}', rescheduling countdown by 5 seconds.",
+                    lobbyName);
+        }
+
+        @Override
+        public void countdownFinished() {
+            formMatches(2);
+        }
+    }
+
+    /**
+     * Cancels any pending countdown and immediately starts a match with every
+     * player waiting in the lobby (split as usual if there are more than
+     * {@code game.match-max-players}). Has no effect if nobody is waiting.
+     */
+    public void forceStart() {
+        countdown.cancel();
+        formMatches(1);
+    }
+
+    /**
+     * Splits the players waiting in the lobby, longest-waiting first, into
+     * as few matches of at most {@code game.match-max-players} as possible,
+     * with rosters as even as possible and none smaller than
+     * {@code minPlayers}, then starts each match.
+     */
+    private void formMatches(int minPlayers) {
+        if (lobby.getValidArenas().isEmpty()) {
+            logger.log(Level.WARNING,
+                    "Lobby '{0}' has no valid arenas configured — cannot start match.",
+                    lobbyName);
+            return;
+        }
+
+        int waiting = members.waitingCount();
+        List<MatchInstance> formed = members.form(
+                plugin.getConfig().getInt("game.match-max-players", 8), minPlayers,
+                roster -> new MatchInstance(this, plugin, arenaManager, nextMatchNumber++, roster));
+        if (formed.isEmpty())
+            return;
+
+        logger.log(Level.FINE,
+                "[TheShrouded] Lobby ''{0}'' formed {1} match(es) from {2} waiting player(s).",
+                new Object[] { lobbyName, formed.size(), waiting });
+
+        // Start them only once all are registered: a match that cannot
+        // start hands its roster straight back through matchFinished().
+        for (MatchInstance match : formed)
+            match.start();
+    }
+
+    /**
+     * Starts a match for {@code roster}, who must be waiting in this lobby,
+     * in the arena {@code lease} holds — used on a match server for a roster
+     * sent by a lobby server. {@code onFinished} runs once the match is over
+     * or called off, before its remaining roster rejoins the lobby.
+     */
+    public void startMatch(Collection<UUID> roster, ArenaAllocator.Lease lease,
+            Consumer<MatchInstance> onFinished) {
+        MatchInstance match = members.add(roster,
+                waiting -> new MatchInstance(this, plugin, arenaManager, nextMatchNumber++, waiting));
+        if (match == null) {
+            lease.release();
+            return;
+        }
+        cancelCountdownIfTooFew();
+        match.startWithLease(lease, onFinished);
+    }
+
+    /**
+     * Called by a match once it is over, or was called off before it
+     * started: its remaining roster rejoins the players waiting in the lobby.
+     */
+    void matchFinished(MatchInstance match) {
+        if (!members.finish(match))
+            return;
+
+        // Wait a fresh countdown before the next round.
+        startCountdown();
+    }
+
+    // -------------------------------------------------------------------------
+    // Match events routed by player
+    // -------------------------------------------------------------------------
+
+    /**
+     * Records an arena vote from {@code uuid} in whichever match they are
+     * voting in. Ignored if they are not in a match.
+     */
+    public void recordVote(UUID uuid, Arena arena) {
+        MatchInstance match = members.matchOf(uuid);
+        if (match != null)
+            match.recordVote(uuid, arena);
+    }
+
+    /**
+     * Called when a player in this session dies; forwarded to their match,
+     * which ends the round if that death decides it.
+     *
+     * @param killer the player credited with the kill, or {@code null}
+     */
+    public void onPlayerDied(UUID dead, UUID killer) {
+        MatchInstance match = members.matchOf(dead);
+        if (match != null)
+            match.onPlayerDied(dead, killer);
+    }
+
+    /**
+     * Returns {@code true} if {@code uuid} is playing in a round that is in
+     * progress.
+     */
+    public boolean isInActiveMatch(UUID uuid) {
+        MatchInstance match = members.matchOf(uuid);
+        return match != null && match.isActive();
+    }
+
+    /** Queues {@code uuid} to be sent to the lobby spawn when they respawn. */
+    void queueLobbyRespawn(UUID uuid) {
+        pendingLobbyRespawn.add(uuid);
+    }
+
+    /**
+     * Returns {@code true} and removes the player from the pending-respawn set
+     * if they were queued for a lobby respawn after dying mid-match,
+     * {@code false} otherwise.
+     *
+     * <p>
+     * Called by {@code PlayerRespawnListener} when the player's respawn
+     * event fires.
+     */
+    public boolean consumePendingRespawn(UUID uuid) {
+        return pendingLobbyRespawn.remove(uuid);
+    }
+
+    /**
+     * Returns the lobby's spawn {@link Location}, or {@code null} if the lobby
+     * world is not currently loaded.
+     */
+    public Location getLobbySpawnLocation() {
+        World world = Bukkit.getWorld(lobby.getWorld());
+        if (world == null) {
+            logger.log(Level.WARNING,
+                    "Lobby world ''{0}'' is not loaded — cannot provide respawn location.",
+                    lobby.getWorld());
+            return null;
+        }
+        return lobby.getSpawnLocation(world);
+    }
+
+    /**
+     * Applies the standard post-match lobby state to a player who is currently
+     * dead and will be redirected to the lobby on respawn. Called from
+     * {@code PlayerRespawnListener} immediately before the respawn location is
+     * set.
+     *
+     * <p>
+     * Intentionally omits {@link Player#closeInventory()} (no-op on a dead
+     * player) and the teleport (handled via
+     * {@link org.bukkit.event.player.PlayerRespawnEvent#setRespawnLocation}).
+     */
+    public void applyLobbyStateOnRespawn(Player player) {
+        player.getInventory().clear();
+        player.getInventory().setHelmet(null);
+        player.getInventory().setChestplate(null);
+        player.getInventory().setLeggings(null);
+        player.getInventory().setBoots(null);
+        player.getInventory().setItemInOffHand(null);
+
+        for (PotionEffect effect : player.getActivePotionEffects()) {
+            player.removePotionEffect(effect.getType());
+        }
+
+        ((TheShrouded) plugin).getEquipmentSpoofer().stopSpoofing(player);
+
+        players.put(player.getUniqueId(), null);
+
+        player.setHealth(player.getAttribute(org.bukkit.attribute.Attribute.MAX_HEALTH).getValue());
+        player.setFoodLevel(20);
+        player.setSaturation(20f);
+
+        player.getInventory().setItem(0, ShroudedItems.createClassSelector());
+
+        // Dead players skip the match's lobby-return step, so drop the
+        // arena overlay here.
+        ResourcePackSendListener packSender = ((TheShrouded) plugin).getResourcePackSendListener();
+        if (packSender != null)
+            packSender.onMatchEnd(player);
+    }
+
+    // -------------------------------------------------------------------------
+    // Scheduling
+    // -------------------------------------------------------------------------
+
+    private TaskScheduler scheduler() {
+        return ((TheShrouded) plugin).getTaskScheduler();
+    }
+
+    /**
+     * Runs {@code task} once after {@code delayTicks} in the lobby spawn's
+     * region, or on the global scheduler if the lobby world is not loaded.
+     */
+    private TaskHandle schedule(Runnable task, long delayTicks) {
+        World lobbyWorld = Bukkit.getWorld(lobby.getWorld());
+        Runnable named = TaskScheduler.named("lobby countdown", task);
+        return lobbyWorld != null
+                ? scheduler().runAt(lobby.getSpawnLocation(lobbyWorld), named, delayTicks)
+                : scheduler().runGlobal(named, delayTicks);
+    }
+}
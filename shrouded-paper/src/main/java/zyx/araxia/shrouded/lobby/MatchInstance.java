@@ -0,0 +1,1231 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Sound;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.title.Title;
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.core.MatchOutcome;
+import zyx.araxia.shrouded.core.RoleAssigner;
+import zyx.araxia.shrouded.core.VoteTally;
+import zyx.araxia.shrouded.game.PlayerClass;
+import zyx.araxia.shrouded.game.ShroudedClass;
+import zyx.araxia.shrouded.game.SurvivorClass;
+import zyx.araxia.shrouded.item.ShroudedItems;
+import zyx.araxia.shrouded.journal.JournalWriter;
+import zyx.araxia.shrouded.journal.MatchJournal;
+import zyx.araxia.shrouded.listener.ResourcePackSendListener;
+import zyx.araxia.shrouded.lobby.LobbySession.Phase;
+import zyx.araxia.shrouded.menu.ArenaVoteMenu;
+import zyx.araxia.shrouded.metrics.FlightEvents;
+import zyx.araxia.shrouded.metrics.LogLinearHistogram;
+import zyx.araxia.shrouded.metrics.MetricsRegistry;
+import zyx.araxia.shrouded.metrics.PluginMetrics;
+import zyx.araxia.shrouded.orchestration.MatchOrchestrator;
+import zyx.araxia.shrouded.profile.ProfileStore;
+import zyx.araxia.shrouded.scheduler.TaskHandle;
+import zyx.araxia.shrouded.scheduler.TaskScheduler;
+
+/**
+ * One match formed from a {@link LobbySession}'s players: its own roster,
+ * arena lease, vote, timers and (for instanced arenas) world. A lobby runs
+ * as many of these at once as it has players and free arenas for, and keeps
+ * accepting new players while they play.
+ *
+ * <p>
+ * Players' chosen classes stay in the owning session; the match only tracks
+ * which of the session's players are on its roster. When the match is over,
+ * or is called off before it starts, the session is told through
+ * {@link LobbySession#matchFinished} and the roster rejoins the lobby.
+ */
+public class MatchInstance {
+
+    private static final LogLinearHistogram VOTE_TO_ROUND = MetricsRegistry.histogram("vote_to_round");
+    private static final LogLinearHistogram MATCH_LENGTH = MetricsRegistry.histogram("match_length");
+    private static final MetricsRegistry.Counter MATCHES_PLAYED = MetricsRegistry.counter("matches_played");
+    private static final MetricsRegistry.Gauge MATCHES_RUNNING = MetricsRegistry.gauge("matches_running");
+
+    private final LobbySession session;
+    private final Lobby lobby;
+    private final JavaPlugin plugin;
+    private final ArenaManager arenaManager;
+    private final Random random = new Random();
+
+    @SuppressWarnings("NonConstantLogger")
+    private final Logger logger;
+
+    /** e.g. {@code "castle#2"}: the lobby name and this match's number. */
+    private final String name;
+
+    /** Players in this match, in the order they were assigned. */
+    private final Set<UUID> roster;
+
+    private TaskHandle roundTask = null;
+    private TaskHandle voteTask = null;
+    private TaskHandle postMatchTask = null;
+    private TaskHandle arenaWaitTask = null;
+
+    private Phase phase = null;
+    private long phaseStartedNanos = System.nanoTime();
+    /** When the arena vote opened, or 0 if no vote is waiting on a round. */
+    private long voteOpenedNanos = 0L;
+    private long roundStartedNanos = 0L;
+    private boolean finished = false;
+
+    /** Opened with the first phase change; {@code null} if journaling is off. */
+    private MatchJournal journal = null;
+
+    /** Run once when the match is over, before the roster is handed back; may be {@code null}. */
+    private Consumer<MatchInstance> onFinished = null;
+
+    /** Votes cast during the arena-vote phase (player UUID → chosen arena). */
+    private final VoteTally<Arena> votes = new VoteTally<>();
+
+    /** Arenas chosen for the upcoming vote (or the single auto-selected arena). */
+    private List<Arena> candidateArenas = new ArrayList<>();
+
+    /** Arena name → lease held on each candidate (and, later, the chosen arena). */
+    private final Map<String, ArenaAllocator.Lease> leases = new HashMap<>();
+
+    /** This match's place in the arena queue, or {@code null} if not queued. */
+    private ArenaAllocator.Request arenaRequest = null;
+
+    /**
+     * The arena currently hosting the round, or {@code null} when no round
+     * is in progress. Set by {@link #beginRoundTimer} and cleared by
+     * {@link #endMatch}.
+     */
+    private Arena activeArena = null;
+
+    /**
+     * The per-match world cloned for this match when the chosen arena is
+     * {@link Arena#isInstanced() instanced}, or {@code null}. Set once the
+     * instance is ready and discarded after the post-match delay.
+     */
+    private ArenaInstance activeInstance = null;
+
+    /**
+     * Arena name → chunk preload for each candidate arena, started when the
+     * candidates are claimed so their spawn chunks load during the vote.
+     */
+    private final Map<String, ArenaChunkPreload> preloads = new HashMap<>();
+
+    /**
+     * Set once the transition has waited (up to
+     * {@code game.arena-preload-timeout-seconds}) for the chosen arena's
+     * chunks, so a preload that timed out is not waited on again.
+     */
+    private boolean chunksAwaited = false;
+
+    MatchInstance(LobbySession session, JavaPlugin plugin, ArenaManager arenaManager,
+            int number, Collection<UUID> roster) {
+        this.session = session;
+        this.lobby = session.getLobby();
+        this.plugin = plugin;
+        this.arenaManager = arenaManager;
+        this.logger = plugin.getLogger();
+        this.name = lobby.getName() + "#" + number;
+        this.roster = new LinkedHashSet<>(roster);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LobbySession getSession() {
+        return session;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Moves to {@code next}. Re-entering the current phase (e.g. when
+     * {@link #doArenaTransition} resumes after waiting for the arena) is a
+     * no-op, so its time and metrics are not cut short.
+     */
+    private void setPhase(Phase next) {
+        if (next == phase)
+            return;
+        PluginMetrics.sessionPhaseChanged(phase, next);
+        long now = System.nanoTime();
+        FlightEvents.sessionPhase(session.getLobby().getName(), name,
+                activeArena != null ? activeArena.getName() : null, phase, next, now - phaseStartedNanos);
+        phaseStartedNanos = now;
+        recordPhaseMetrics(phase, next, now);
+        journalPhase(next);
+        phase = next;
+    }
+
+    private void journalPhase(Phase next) {
+        JournalWriter writer = ((TheShrouded) plugin).getJournalWriter();
+        if (writer == null)
+            return;
+        if (journal == null && next != null)
+            journal = writer.open(name, roster);
+        if (journal == null)
+            return;
+        journal.phase(next);
+        if (next == null)
+            writer.close(journal);
+    }
+
+    private void recordPhaseMetrics(Phase from, Phase to, long now) {
+        if (from == null && to != null)
+            MATCHES_RUNNING.add(1);
+        else if (from != null && to == null)
+            MATCHES_RUNNING.add(-1);
+
+        if (to == Phase.VOTING) {
+            voteOpenedNanos = now;
+        } else if (to == Phase.IN_MATCH) {
+            if (voteOpenedNanos != 0L)
+                VOTE_TO_ROUND.record(now - voteOpenedNanos);
+            voteOpenedNanos = 0L;
+            roundStartedNanos = now;
+        } else if (from == Phase.IN_MATCH) {
+            MATCH_LENGTH.record(now - roundStartedNanos);
+            MATCHES_PLAYED.increment();
+        }
+    }
+
+    public Set<UUID> getRoster() {
+        return Collections.unmodifiableSet(roster);
+    }
+
+    public boolean contains(UUID uuid) {
+        return roster.contains(uuid);
+    }
+
+    /**
+     * Returns {@code true} while a round is being played (i.e. the round
+     * timer is running and the arena is set).
+     */
+    public boolean isActive() {
+        return activeArena != null;
+    }
+
+    /** The arena the current round is played in, or {@code null} between rounds. */
+    public Arena getActiveArena() {
+        return activeArena;
+    }
+
+    // -------------------------------------------------------------------------
+    // Roster changes
+    // -------------------------------------------------------------------------
+
+    /**
+     * Takes a player who has left the lobby off the roster. A match still
+     * waiting for an arena is called off once fewer than two players remain,
+     * and one still preparing its arena once nobody remains.
+     */
+    void removePlayer(UUID uuid) {
+        if (!roster.remove(uuid))
+            return;
+        votes.remove(uuid);
+        if (journal != null)
+            journal.left(uuid);
+
+        if (roster.size() < 2 && arenaRequest != null) {
+            arenaRequest.cancel();
+            arenaRequest = null;
+            logger.log(Level.FINE,
+                    "Match ''{0}'' left the arena queue — not enough players.",
+                    name);
+            finish();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Arena selection
+    // -------------------------------------------------------------------------
+
+    /**
+     * Starts the match: on a lobby node it is first offered to a match
+     * server through the {@link MatchOrchestrator}, otherwise (or if no
+     * server takes it) it is played here via {@link #startHere()}.
+     */
+    void start() {
+        MatchOrchestrator orchestrator = ((TheShrouded) plugin).getOrchestrator();
+        if (orchestrator != null && orchestrator.offer(this)) {
+            setPhase(Phase.QUEUED);
+            return;
+        }
+        startHere();
+    }
+
+    /**
+     * Leases up to {@code game.arena-vote-candidates} free arenas from the
+     * lobby's configured arena pool through the {@link ArenaAllocator}. If
+     * none is free the match joins the allocator's queue and continues
+     * from {@link #onArenaGranted} once an arena is released.
+     */
+    public void startHere() {
+        if (finished || roster.isEmpty()) {
+            finish();
+            return;
+        }
+        List<String> validNames = lobby.getValidArenas();
+
+        // Lease up to the configured maximum number of candidates. If none
+        // is free, wait in the allocator's queue for the next one.
+        int maxCandidates = plugin.getConfig()
+                .getInt("game.arena-vote-candidates", 3);
+        ArenaAllocator allocator = arenaManager.getAllocator();
+        allocator.acquire(name, validNames, maxCandidates, granted -> {
+            // Shared arenas are granted a few ticks later; players may
+            // have left in the meantime.
+            if (finished || roster.isEmpty()) {
+                granted.forEach(ArenaAllocator.Lease::release);
+                finish();
+                return;
+            }
+            if (granted.isEmpty()) {
+                arenaRequest = allocator.enqueue(name, validNames, this::onArenaGranted);
+                setPhase(Phase.QUEUED);
+                broadcast(Component.text("All arenas are busy — you are number "
+                        + arenaRequest.getPosition() + " in the queue.", NamedTextColor.YELLOW));
+                return;
+            }
+            beginWithCandidates(granted);
+        });
+    }
+
+    /**
+     * Starts the match in an arena leased for it in advance, skipping the
+     * vote. {@code onFinished} runs when the match is over.
+     */
+    void startWithLease(ArenaAllocator.Lease lease, Consumer<MatchInstance> onFinished) {
+        this.onFinished = onFinished;
+        beginWithCandidates(List.of(lease));
+    }
+
+    /**
+     * Called by the {@link MatchOrchestrator} once the roster has been sent
+     * to another server. Anyone who could not be sent rejoins the lobby.
+     */
+    public void handedOff() {
+        finish();
+    }
+
+    /**
+     * Called by the {@link ArenaAllocator} once this match reaches the
+     * front of the queue and an arena has been freed for it.
+     */
+    private void onArenaGranted(ArenaAllocator.Lease lease) {
+        arenaRequest = null;
+        if (finished || roster.size() < 2) {
+            lease.release();
+            finish();
+            return;
+        }
+        beginWithCandidates(List.of(lease));
+    }
+
+    /**
+     * Takes the leased arenas as this round's candidates and either starts a
+     * vote (multiple candidates) or proceeds directly to arena transition
+     * (single candidate).
+     */
+    private void beginWithCandidates(List<ArenaAllocator.Lease> granted) {
+        candidateArenas = new ArrayList<>();
+        for (ArenaAllocator.Lease lease : granted) {
+            candidateArenas.add(lease.getArena());
+            leases.put(lease.getArena().getName(), lease);
+        }
+
+        // Start loading every shared candidate's spawn chunks now, so they
+        // are ready by the time the vote is over. Instances are preloaded
+        // once their world exists.
+        for (Arena arena : candidateArenas) {
+            World world = Bukkit.getWorld(arena.getWorld());
+            if (!arena.isInstanced() && world != null) {
+                startPreload(arena, world);
+            }
+        }
+
+        logger.log(Level.FINE,
+                "Match '{0}' selected {1} arena candidate(s): {2}.",
+                new Object[] {
+                        name, candidateArenas.size(),
+                        candidateArenas.stream().map(Arena::getName).toList()
+                });
+
+        if (candidateArenas.size() == 1) {
+            // Only one option — skip the vote and move straight to arena
+            // transition
+            doArenaTransition(candidateArenas.get(0));
+        } else {
+            // Multiple candidates — let players vote
+            beginArenaVote(candidateArenas);
+        }
+    }
+
+    /**
+     * Assigns a random {@link PlayerClass#regularClasses() regular class} to
+     * every player on the roster who has not yet chosen one (i.e. whose class
+     * is {@code null}), then the Shrouded role to exactly one player,
+     * overwriting whatever class they had chosen or were auto-assigned.
+     */
+    private void assignClasses() {
+        RoleAssigner<PlayerClass> roles = new RoleAssigner<>(
+                List.of(PlayerClass.regularClasses()), random);
+        roles.fillMissing(roster, session::getChosenClass).forEach((uuid, assigned) -> {
+            session.setClass(uuid, assigned);
+            logger.log(Level.FINE,
+                    "[TheShrouded] Player {0} had no class selected — auto-assigned {1}.",
+                    new Object[] { uuid, assigned });
+        });
+
+        UUID shroudedUUID = roles.pickHidden(roster);
+        session.setClass(shroudedUUID, PlayerClass.SHROUDED);
+        logger.log(Level.FINE,
+                "[TheShrouded] Player {0} was randomly assigned the Shrouded role for match ''{1}''.",
+                new Object[] { shroudedUUID, name });
+
+        if (journal != null) {
+            for (UUID uuid : roster)
+                journal.classAssigned(uuid, session.getChosenClass(uuid));
+        }
+    }
+
+    /**
+     * Called when exactly one arena was available (or the vote has concluded).
+     * Starts moving players into the arena to begin the round.
+     *
+     * @param arena the arena that will be used for this match.
+     */
+    private void doArenaTransition(Arena arena) {
+        setPhase(Phase.STARTING);
+        if (roster.isEmpty()) {
+            // Everyone left during the vote.
+            releasePreloads();
+            releaseLease(arena);
+            finish();
+            return;
+        }
+
+        if (arena.isInstanced()) {
+            // Hold players in the lobby while the arena's template world is
+            // cloned into this match's own instance.
+            if (activeInstance == null) {
+                ArenaAllocator.Lease lease = leases.get(arena.getName());
+                awaitArenaReady(arena, lease != null ? lease.createInstance()
+                        : arenaManager.getInstanceManager().createInstance(arena), () -> -1.0);
+                return;
+            }
+        } else {
+            // Hold players in the lobby until the post-match block restore
+            // from the arena's previous match has finished.
+            ArenaRestore restore = arenaManager.getPendingRestore(arena);
+            if (restore != null) {
+                awaitArenaReady(arena, restore.future(), restore::getProgress);
+                return;
+            }
+        }
+
+        logger.log(Level.FINE,
+                "[TheShrouded] Match ''{0}'' beginning transition to arena ''{1}''.",
+                new Object[] {
+                        name, arena.getName()
+                });
+
+        World world = activeInstance != null ? activeInstance.getWorld()
+                : Bukkit.getWorld(arena.getWorld());
+        if (world == null) {
+            logger.log(Level.WARNING,
+                    "Arena world ''{0}'' is not loaded — cannot start match.",
+                    arena.getWorld());
+            abortArenaTransition(arena);
+            return;
+        }
+
+        // Hold players in the lobby until the spawn chunks are loaded, so
+        // the teleports below don't load them synchronously. After the
+        // timeout the transition goes ahead regardless.
+        ArenaChunkPreload preload = preloads.get(arena.getName());
+        if (preload == null || preload.getWorld() != world) {
+            if (preload != null)
+                preload.release();
+            preload = startPreload(arena, world);
+        }
+        if (!preload.ready().isDone() && !chunksAwaited) {
+            chunksAwaited = true;
+            long timeoutSeconds = plugin.getConfig()
+                    .getLong("game.arena-preload-timeout-seconds", 10);
+            awaitArenaReady(arena,
+                    preload.ready().copy().completeOnTimeout(null, timeoutSeconds, TimeUnit.SECONDS),
+                    preload::getProgress);
+            return;
+        }
+        chunksAwaited = false;
+
+        // Journal every block changed from here on, so the post-match reset
+        // only has to put those blocks back. Instances are thrown away
+        // instead of reset.
+        if (activeInstance == null) {
+            arenaManager.startJournal(arena);
+        }
+
+        SurvivorClass survivorKit = new SurvivorClass(plugin);
+        ShroudedClass shroudedKit = new ShroudedClass(plugin);
+        int playerSpawnIndex = 0;
+        int shroudedSpawnIndex = 0;
+        ResourcePackSendListener packSender = ((TheShrouded) plugin).getResourcePackSendListener();
+
+        // Fill in missing classes and pick the Shrouded.
+        assignClasses();
+
+        // Move players in a few at a time: each player is prepared and sent
+        // on an async teleport, and kitted out once they have arrived.
+        TransitionPipeline pipeline = newPipeline("arena entry");
+        for (UUID uuid : roster) {
+            PlayerClass playerClass = session.getChosenClass(uuid);
+
+            // Pick a spawn from the role-appropriate list (round-robin)
+            Location spawnLocation;
+            if (playerClass == PlayerClass.SHROUDED) {
+                spawnLocation = arena.getShroudedSpawnAt(shroudedSpawnIndex++,
+                        world);
+            } else {
+                spawnLocation = arena.getPlayerSpawnAt(playerSpawnIndex++,
+                        world);
+            }
+
+            pipeline.then(() -> {
+                Player player = rosterPlayer(uuid);
+                if (player == null)
+                    return;
+                player.getInventory().clear();
+                player.getInventory().setHelmet(null);
+                player.getInventory().setChestplate(null);
+                player.getInventory().setLeggings(null);
+                player.getInventory().setBoots(null);
+                player.getInventory().setItemInOffHand(null);
+                player.addPotionEffect(new PotionEffect(PotionEffectType.BLINDNESS,
+                        20, 0, false, false));
+
+                // Teleport to arena spawn
+                player.setHealth(player.getAttribute(org.bukkit.attribute.Attribute.MAX_HEALTH).getValue());
+                player.setFoodLevel(20);
+                player.setSaturation(20f);
+                pipeline.after(player.teleportAsync(spawnLocation), () -> {
+                    Player arrived = rosterPlayer(uuid);
+                    if (arrived == null)
+                        return;
+
+                    // Layer this arena's resource pack overlay on top of the
+                    // base pack (no-op unless delivery mode is "lobby")
+                    if (packSender != null) {
+                        packSender.onMatchStart(arrived, arena.getName());
+                    }
+
+                    // Apply class kit
+                    if (playerClass == PlayerClass.SURVIVOR) {
+                        survivorKit.equip(arrived);
+                    }
+                    if (playerClass == PlayerClass.SHROUDED) {
+                        shroudedKit.equip(arrived);
+                    }
+
+                    // Announce round start with a title
+                    String roleText = playerClass != null ? playerClass.getDisplayName()
+                            : "Unknown";
+                    arrived.showTitle(Title.title(
+                            Component.text("Match Started!", NamedTextColor.GOLD),
+                            Component.text("You are the " + roleText,
+                                    NamedTextColor.YELLOW),
+                            Title.Times.times(Duration.ofMillis(300),
+                                    Duration.ofSeconds(3), Duration.ofMillis(500))));
+
+                    // Stinger sound effect
+                    arrived.playSound(arrived.getLocation(),
+                            Sound.ENTITY_ENDER_DRAGON_GROWL, 0.6f, 1.1f);
+                });
+            });
+        }
+
+        pipeline.start().future().thenRun(() -> {
+            // Players now hold the arena's chunks loaded themselves.
+            releasePreloads();
+
+            beginRoundTimer(arena);
+        });
+    }
+
+    /**
+     * Polls {@code ready} every half second, showing {@code progress} (a
+     * fraction from 0 to 1, or negative if unknown) on the action bar, and
+     * calls {@link #doArenaTransition} once it completes. A {@code ready}
+     * future that yields an {@link ArenaInstance} becomes this match's
+     * instance; if creating the instance failed the match is called off. If
+     * every player leaves in the meantime the arena is released instead.
+     */
+    private void awaitArenaReady(Arena arena, CompletableFuture<?> ready,
+            DoubleSupplier progress) {
+        logger.log(Level.FINE,
+                "[TheShrouded] Match ''{0}'' waiting for arena ''{1}'' to be ready.",
+                new Object[] {
+                        name, arena.getName()
+                });
+
+        arenaWaitTask = scheduleTimer("arena wait", task -> {
+            if (roster.isEmpty()) {
+                task.cancel();
+                arenaWaitTask = null;
+                releaseLease(arena);
+                releasePreloads();
+                ready.thenAccept(result -> {
+                    if (result instanceof ArenaInstance instance)
+                        arenaManager.getInstanceManager().discard(instance);
+                });
+                finish();
+                return;
+            }
+            if (ready.isDone()) {
+                task.cancel();
+                arenaWaitTask = null;
+                if (arena.isInstanced() && ready.isCompletedExceptionally()) {
+                    abortArenaTransition(arena);
+                    return;
+                }
+                if (ready.join() instanceof ArenaInstance instance)
+                    activeInstance = instance;
+                doArenaTransition(arena);
+                return;
+            }
+
+            double fraction = progress.getAsDouble();
+            Component bar = Component.text(fraction < 0 ? "Preparing arena..."
+                    : "Preparing arena... " + (int) (fraction * 100) + "%",
+                    NamedTextColor.GRAY);
+            for (UUID uuid : roster) {
+                Player player = Bukkit.getPlayer(uuid);
+                if (player != null && player.isOnline())
+                    player.sendActionBar(bar);
+            }
+        }, 0L, 10L);
+    }
+
+    /**
+     * Calls off a match whose arena could not be prepared, returning its
+     * players to the lobby to wait for a fresh countdown.
+     */
+    private void abortArenaTransition(Arena arena) {
+        logger.log(Level.WARNING,
+                "[TheShrouded] Match ''{0}'' could not prepare arena ''{1}'' — match cancelled.",
+                new Object[] {
+                        name, arena.getName()
+                });
+
+        broadcast(Component.text(
+                "The arena could not be prepared. The match has been cancelled.",
+                NamedTextColor.RED));
+
+        releasePreloads();
+        releaseLease(arena);
+        candidateArenas = new ArrayList<>();
+        finish();
+    }
+
+    // -------------------------------------------------------------------------
+    // Arena vote
+    // -------------------------------------------------------------------------
+
+    private void beginArenaVote(List<Arena> candidates) {
+        logger.log(Level.FINE,
+                "[TheShrouded] Match ''{0}'' starting arena vote with candidates: {1}.",
+                new Object[] {
+                        name,
+                        candidates.stream().map(Arena::getName).toList()
+                });
+
+        votes.open(candidates);
+        setPhase(Phase.VOTING);
+
+        // Open the vote menu for every online player in this match
+        for (UUID uuid : roster) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null && player.isOnline())
+                ArenaVoteMenu.open(player, session, candidates);
+        }
+
+        // Announce
+        Component voteMsg = Component
+                .text("Vote for an arena! You have "
+                        + plugin.getConfig()
+                                .getInt("game.arena-vote-timeout-seconds", 15)
+                        + " seconds.", NamedTextColor.AQUA);
+        for (UUID uuid : roster) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null && player.isOnline())
+                player.sendActionBar(voteMsg);
+        }
+
+        // Timeout task — resolve when time runs out
+        int timeoutSeconds = plugin.getConfig()
+                .getInt("game.arena-vote-timeout-seconds", 15);
+        voteTask = schedule("vote", () -> {
+            voteTask = null;
+            resolveVote(candidates);
+        }, timeoutSeconds * 20L);
+    }
+
+    /**
+     * Records a vote for {@code arena} from {@code uuid}. If every player on
+     * the roster has now voted the vote is resolved immediately.
+     *
+     * @param uuid  the voting player's UUID
+     * @param arena the arena they chose
+     */
+    void recordVote(UUID uuid, Arena arena) {
+        if (phase != Phase.VOTING || !roster.contains(uuid) || !candidateArenas.contains(arena))
+            return;
+        votes.record(uuid, arena);
+        logger.log(Level.FINE,
+                "[TheShrouded] Player {0} voted for arena ''{1}''.",
+                new Object[] {
+                        uuid, arena.getName()
+                });
+
+        // Early resolution if everyone has voted
+        if (votes.isComplete(roster.size())) {
+            if (voteTask != null) {
+                voteTask.cancel();
+                voteTask = null;
+            }
+            resolveVote(candidateArenas);
+        }
+    }
+
+    /**
+     * Tallies votes, picks an arena weighted by vote count (each arena gets a
+     * guaranteed base weight of 1 plus one additional weight per vote cast for
+     * it), releases all unchosen candidates and starts the arena transition.
+     */
+    private void resolveVote(List<Arena> candidates) {
+        // Close any still-open vote menus
+        for (UUID uuid : roster) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null && player.isOnline())
+                player.closeInventory();
+        }
+
+        Arena chosen = votes.resolve(random);
+
+        logger.log(Level.FINE,
+                "[TheShrouded] Arena vote resolved for match ''{0}'': ''{1}'' chosen.",
+                new Object[] {
+                        name, chosen.getName()
+                });
+
+        // Release every candidate that was not chosen, along with its
+        // preloaded chunks
+        for (Arena a : candidates) {
+            if (!a.getName().equals(chosen.getName())) {
+                releaseLease(a);
+                ArenaChunkPreload preload = preloads.remove(a.getName());
+                if (preload != null)
+                    preload.release();
+            }
+        }
+
+        // Announce result
+        broadcast(Component
+                .text("Arena selected: ", NamedTextColor.GREEN)
+                .append(Component.text(chosen.getName(), NamedTextColor.AQUA)));
+
+        votes.clear();
+        doArenaTransition(chosen);
+    }
+
+    // -------------------------------------------------------------------------
+    // Round
+    // -------------------------------------------------------------------------
+
+    /**
+     * Starts a per-second countdown for the active round. Sends action-bar
+     * reminders at 60 s, 30 s, 10 s and each of the final 5 seconds, then calls
+     * {@link #endMatch(Arena, MatchOutcome)} when time expires.
+     */
+    private void beginRoundTimer(Arena arena) {
+        activeArena = arena;
+        setPhase(Phase.IN_MATCH);
+        int durationSeconds = plugin.getConfig()
+                .getInt("game.match-duration-seconds", 300);
+
+        final int[] secondsRemaining = { durationSeconds };
+        roundTask = scheduleTimer("round", task -> {
+            if (secondsRemaining[0] <= 0) {
+                task.cancel();
+                roundTask = null;
+                endMatch(arena, MatchOutcome.TIME_EXPIRED);
+                return;
+            }
+
+            boolean announce = secondsRemaining[0] == 60
+                    || secondsRemaining[0] == 30 || secondsRemaining[0] == 10
+                    || secondsRemaining[0] <= 5;
+
+            if (announce) {
+                Component bar = Component.text(
+                        secondsRemaining[0] + "s remaining",
+                        secondsRemaining[0] <= 10 ? NamedTextColor.RED
+                                : NamedTextColor.YELLOW);
+                for (UUID uuid : roster) {
+                    Player player = Bukkit.getPlayer(uuid);
+                    if (player != null && player.isOnline())
+                        player.sendActionBar(bar);
+                }
+            }
+
+            secondsRemaining[0]--;
+        }, 20L, 20L);
+    }
+
+    /**
+     * Called when a player on the roster dies during the round.
+     * <ul>
+     * <li>If the dead player was the {@link PlayerClass#SHROUDED Shrouded},
+     * the match ends immediately and the mercenaries are rewarded.</li>
+     * <li>If the dead player was a non-Shrouded mercenary and no other
+     * alive mercenaries remain, the match is ended immediately via
+     * {@link #endMatch(Arena, MatchOutcome)}.</li>
+     * </ul>
+     * This method is a no-op when no round is in progress ({@code activeArena
+     * == null}).
+     *
+     * @param dead   UUID of the player who just died
+     * @param killer UUID of the player credited with the kill, or
+     *               {@code null}; only counted if they are on this roster
+     */
+    void onPlayerDied(UUID dead, UUID killer) {
+        if (activeArena == null)
+            return; // no active round
+
+        if (journal != null)
+            journal.death(dead, killer);
+        ProfileStore profiles = ((TheShrouded) plugin).getProfileStore();
+        profiles.recordDeath(dead);
+        if (killer != null && !killer.equals(dead) && roster.contains(killer))
+            profiles.recordKill(killer);
+
+        // Queue the dead player for lobby respawn regardless of role so that
+        // PlayerRespawnListener can redirect them when they click Respawn.
+        session.queueLobbyRespawn(dead);
+
+        PlayerClass deadClass = session.getChosenClass(dead);
+        MatchOutcome.Side deadSide = deadClass == null ? null
+                : deadClass.isShroudedRole() ? MatchOutcome.Side.SHROUDED
+                        : MatchOutcome.Side.MERCENARIES;
+
+        MatchOutcome outcome = MatchOutcome.afterDeath(deadSide,
+                () -> isOtherMercenaryAlive(dead));
+        if (outcome == MatchOutcome.SHROUDED_KILLED) {
+            // If the Shrouded was killed, mercenaries win immediately.
+            rewardMercenaries();
+            endMatch(activeArena, outcome);
+        } else if (outcome == MatchOutcome.ALL_MERCENARIES_KILLED) {
+            logger.log(Level.FINE,
+                    "[TheShrouded] All mercenaries eliminated in match ''{0}'' — ending match early.",
+                    name);
+            rewardShrouded();
+            endMatch(activeArena, outcome);
+        }
+    }
+
+    /** Whether any non-Shrouded player other than {@code dead} is still alive. */
+    private boolean isOtherMercenaryAlive(UUID dead) {
+        for (UUID uuid : roster) {
+            PlayerClass cls = session.getChosenClass(uuid);
+            if (cls == null || cls.isShroudedRole())
+                continue;
+            if (uuid.equals(dead))
+                continue; // skip the player who just died
+            Player p = Bukkit.getPlayer(uuid);
+            if (p != null && p.isOnline() && !p.isDead())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Rewards all surviving mercenaries at the end of a match in which the
+     * Shrouded was eliminated. Currently a placeholder — no rewards are given.
+     */
+    private void rewardMercenaries() {
+        // TODO: Implement mercenary win rewards (e.g. currency, XP, cosmetics).
+    }
+
+    /**
+     * Rewards the Shrouded at the end of a match in which they survived until the
+     * end. Currently a placeholder — no rewards are given.
+     */
+    private void rewardShrouded() {
+        // TODO: Implement Shrouded win rewards (e.g. currency, XP, cosmetics).
+    }
+
+    /**
+     * Ends the match: notifies the roster with role-appropriate win/lose
+     * titles (text loaded from {@code config.yml}), cancels the round timer if
+     * it is still running, and schedules the return to the lobby.
+     *
+     * @param arena  the arena the match was played in
+     * @param reason why the match ended
+     */
+    private void endMatch(Arena arena, MatchOutcome reason) {
+        logger.log(Level.FINE,
+                "[TheShrouded] Match ''{0}'' ended in arena ''{1}'' (reason: {2}).",
+                new Object[] {
+                        name, arena.getName(), reason
+                });
+
+        activeArena = null;
+        if (journal != null)
+            journal.ended(reason);
+        long roundMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - roundStartedNanos);
+        setPhase(Phase.POST_MATCH);
+
+        if (roundTask != null) {
+            roundTask.cancel();
+            roundTask = null;
+        }
+
+        if (voteTask != null) {
+            voteTask.cancel();
+            voteTask = null;
+        }
+
+        // Load per-outcome message strings from config.
+        org.bukkit.configuration.ConfigurationSection msgs = plugin.getConfig().getConfigurationSection("messages");
+
+        String winnerTitleText, winnerSubtitle, loserTitleText, loserSubtitle;
+        switch (reason) {
+            case SHROUDED_KILLED -> {
+                winnerTitleText = cfg(msgs, "shrouded-killed.winner-title", "Victory!");
+                winnerSubtitle = cfg(msgs, "shrouded-killed.winner-subtitle", "The Shrouded has been slain!");
+                loserTitleText = cfg(msgs, "shrouded-killed.loser-title", "Defeat!");
+                loserSubtitle = cfg(msgs, "shrouded-killed.loser-subtitle", "You were eliminated by the mercenaries.");
+            }
+            case ALL_MERCENARIES_KILLED -> {
+                winnerTitleText = cfg(msgs, "mercenaries-eliminated.winner-title", "Victory!");
+                winnerSubtitle = cfg(msgs, "mercenaries-eliminated.winner-subtitle", "All mercenaries have fallen!");
+                loserTitleText = cfg(msgs, "mercenaries-eliminated.loser-title", "Defeat!");
+                loserSubtitle = cfg(msgs, "mercenaries-eliminated.loser-subtitle", "Your entire team was wiped out.");
+            }
+            default -> { // TIME_EXPIRED
+                winnerTitleText = cfg(msgs, "time-expired.winner-title", "Victory!");
+                winnerSubtitle = cfg(msgs, "time-expired.winner-subtitle", "You survived the time limit!");
+                loserTitleText = cfg(msgs, "time-expired.loser-title", "Defeat!");
+                loserSubtitle = cfg(msgs, "time-expired.loser-subtitle",
+                        "You ran out of time to eliminate the mercenaries.");
+            }
+        }
+
+        Title.Times times = Title.Times.times(
+                Duration.ofMillis(300), Duration.ofSeconds(3), Duration.ofMillis(500));
+
+        recordProfiles(reason, roundMillis);
+
+        // Show titles and play the stinger immediately so players see them right away.
+        for (UUID uuid : roster) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player == null || !player.isOnline())
+                continue;
+
+            PlayerClass cls = session.getChosenClass(uuid);
+            boolean isShrouded = cls != null && cls.isShroudedRole();
+            // Shrouded wins only when ALL_MERCENARIES_KILLED; mercenaries win in all other
+            // cases (see MatchOutcome#winner).
+            boolean isWinner = (reason.winner() == MatchOutcome.Side.SHROUDED) == isShrouded;
+
+            Title title = isWinner
+                    ? Title.title(
+                            Component.text(winnerTitleText, NamedTextColor.GREEN),
+                            Component.text(winnerSubtitle, NamedTextColor.YELLOW),
+                            times)
+                    : Title.title(
+                            Component.text(loserTitleText, NamedTextColor.RED),
+                            Component.text(loserSubtitle, NamedTextColor.YELLOW),
+                            times);
+            player.showTitle(title);
+
+            if (player.isDead()) {
+                // Player is still on the death screen; queue them for lobby
+                // respawn and let PlayerRespawnListener handle the teleport.
+                session.queueLobbyRespawn(uuid);
+            } else {
+                player.playSound(player.getLocation(), Sound.ENTITY_WITHER_DEATH,
+                        0.5f, 1.0f);
+            }
+        }
+
+        // After the post-match delay, return alive players to the lobby and
+        // release the arena.
+        int postMatchDelay = plugin.getConfig()
+                .getInt("game.post-match-duration-seconds", 10);
+        postMatchTask = schedule("post-match", () -> {
+            postMatchTask = null;
+            TransitionPipeline pipeline = newPipeline("lobby return");
+            for (UUID uuid : roster) {
+                pipeline.then(() -> {
+                    Player player = rosterPlayer(uuid);
+                    if (player == null || player.isDead())
+                        return;
+                    restorePlayerToLobbyState(player, pipeline);
+                });
+            }
+            pipeline.start().future().thenRun(() -> finishPostMatch(arena));
+        }, postMatchDelay * 20L);
+    }
+
+    /**
+     * Queues a win or loss and the round's length for everyone on the
+     * roster, online or not. The writes happen later on the profile store's
+     * own thread.
+     */
+    private void recordProfiles(MatchOutcome reason, long roundMillis) {
+        ProfileStore profiles = ((TheShrouded) plugin).getProfileStore();
+        for (UUID uuid : roster) {
+            PlayerClass cls = session.getChosenClass(uuid);
+            if (cls == null)
+                continue;
+            boolean won = (reason.winner() == MatchOutcome.Side.SHROUDED) == cls.isShroudedRole();
+            profiles.recordMatch(uuid, cls, won, roundMillis);
+        }
+    }
+
+    /**
+     * Runs once every surviving player is back in the lobby: resets or
+     * discards the arena and hands the roster back to the lobby.
+     */
+    private void finishPostMatch(Arena arena) {
+        // Put back any blocks changed during the match. The arena is
+        // free to be claimed straight away; the next match to pick
+        // it waits on the restore before moving players in. An
+        // instance is simply thrown away.
+        if (activeInstance != null) {
+            arenaManager.getInstanceManager().discard(activeInstance);
+            activeInstance = null;
+        } else {
+            arenaManager.restoreArena(arena);
+        }
+        releaseLease(arena);
+        votes.clear();
+        candidateArenas = new ArrayList<>();
+        finish();
+    }
+
+    /**
+     * Sends a surviving player back to the lobby on an async teleport, then
+     * queues the reset of their inventory, effects and class on
+     * {@code pipeline} for once they have arrived.
+     */
+    private void restorePlayerToLobbyState(Player player, TransitionPipeline pipeline) {
+        // Close inventory FIRST so crafting-grid contents are flushed into the
+        // current world before the player is teleported away.
+        player.closeInventory();
+
+        UUID uuid = player.getUniqueId();
+        World lobbyWorld = Bukkit.getWorld(lobby.getWorld());
+        if (lobbyWorld == null) {
+            logger.log(Level.WARNING,
+                    "Lobby world ''{0}'' is not loaded while restoring player ''{1}''.",
+                    new Object[] {
+                            lobby.getWorld(), player.getName()
+                    });
+            pipeline.then(() -> resetToLobbyKit(uuid));
+            return;
+        }
+
+        player.setHealth(player.getAttribute(org.bukkit.attribute.Attribute.MAX_HEALTH).getValue());
+        player.setFoodLevel(20);
+        player.setSaturation(20f);
+        pipeline.after(player.teleportAsync(lobby.getSpawnLocation(lobbyWorld)),
+                () -> resetToLobbyKit(uuid));
+    }
+
+    private void resetToLobbyKit(UUID uuid) {
+        Player player = rosterPlayer(uuid);
+        if (player == null)
+            return;
+
+        player.getInventory().clear();
+        player.getInventory().setHelmet(null);
+        player.getInventory().setChestplate(null);
+        player.getInventory().setLeggings(null);
+        player.getInventory().setBoots(null);
+        player.getInventory().setItemInOffHand(null);
+
+        for (PotionEffect effect : player.getActivePotionEffects()) {
+            player.removePotionEffect(effect.getType());
+        }
+
+        // Stop the equipment spoofer in case this player was the Shrouded role.
+        // stopSpoofing() is a safe no-op if they were not being spoofed.
+        ((TheShrouded) plugin).getEquipmentSpoofer().stopSpoofing(player);
+
+        // Reset the class to null so the player is prompted to re-select for
+        // the next round, and so assignClasses() treats them as unassigned.
+        session.setClass(uuid, null);
+
+        player.getInventory().setItem(0, ShroudedItems.createClassSelector());
+
+        ResourcePackSendListener packSender = ((TheShrouded) plugin).getResourcePackSendListener();
+        if (packSender != null)
+            packSender.onMatchEnd(player);
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Marks the match as over and hands its roster back to the session.
+     * Safe to call more than once.
+     */
+    private void finish() {
+        if (finished)
+            return;
+        finished = true;
+        setPhase(null);
+        if (onFinished != null)
+            onFinished.accept(this);
+        session.matchFinished(this);
+    }
+
+    private void broadcast(Component message) {
+        for (UUID uuid : roster) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null && player.isOnline())
+                player.sendMessage(message);
+        }
+    }
+
+    /**
+     * Null-safe helper to read a string from the {@code messages} config section.
+     * Falls back to {@code def} when the section is absent or the key is unset.
+     */
+    private String cfg(org.bukkit.configuration.ConfigurationSection section,
+            String key, String def) {
+        return section != null ? section.getString(key, def) : def;
+    }
+
+    /**
+     * Creates a transition pipeline with the per-tick budget from
+     * {@code game.transition-budget-ms}.
+     */
+    private TransitionPipeline newPipeline(String pipelineName) {
+        double budgetMs = plugin.getConfig().getDouble("game.transition-budget-ms", 5.0);
+        return new TransitionPipeline(plugin, scheduler(), matchAnchor(), pipelineName,
+                (long) (budgetMs * 1_000_000));
+    }
+
+    private TaskScheduler scheduler() {
+        return ((TheShrouded) plugin).getTaskScheduler();
+    }
+
+    /**
+     * The location whose region runs this match's timers: the arena while
+     * the round is in progress, otherwise the lobby spawn. {@code null} if
+     * neither world is loaded, in which case timers run on the global
+     * scheduler.
+     */
+    private Location matchAnchor() {
+        if (activeArena != null) {
+            World world = activeInstance != null ? activeInstance.getWorld()
+                    : Bukkit.getWorld(activeArena.getWorld());
+            if (world != null)
+                return activeArena.getSpawnLocation(world);
+        }
+        return session.getLobbySpawnLocation();
+    }
+
+    /**
+     * Runs {@code task} once after {@code delayTicks}, in this match's
+     * region. {@code name} is the task's phase in {@code /shrouded.perf}.
+     */
+    private TaskHandle schedule(String name, Runnable task, long delayTicks) {
+        Location anchor = matchAnchor();
+        Runnable named = TaskScheduler.named("match " + name, task);
+        return anchor != null ? scheduler().runAt(anchor, named, delayTicks)
+                : scheduler().runGlobal(named, delayTicks);
+    }
+
+    /** Runs {@code task} repeatedly, in this match's region. */
+    private TaskHandle scheduleTimer(String name, Consumer<TaskHandle> task, long delayTicks,
+            long periodTicks) {
+        Location anchor = matchAnchor();
+        Consumer<TaskHandle> named = TaskScheduler.namedTimer("match " + name, task);
+        return anchor != null ? scheduler().runAtTimer(anchor, named, delayTicks, periodTicks)
+                : scheduler().runGlobalTimer(named, delayTicks, periodTicks);
+    }
+
+    /**
+     * Returns the online player for {@code uuid} if they are still on the
+     * roster, or {@code null}. Pipeline steps run ticks after they are
+     * queued, by which time the player may have left.
+     */
+    private Player rosterPlayer(UUID uuid) {
+        if (!roster.contains(uuid))
+            return null;
+        Player player = Bukkit.getPlayer(uuid);
+        return player != null && player.isOnline() ? player : null;
+    }
+
+    /**
+     * Starts preloading {@code arena}'s spawn chunks in {@code world},
+     * replacing any previous preload for the arena.
+     */
+    private ArenaChunkPreload startPreload(Arena arena, World world) {
+        int radius = plugin.getConfig().getInt("game.arena-preload-chunk-radius", 1);
+        ArenaChunkPreload preload = ArenaChunkPreload.start(plugin, arena, world, Math.max(radius, 0));
+        preloads.put(arena.getName(), preload);
+        return preload;
+    }
+
+    /** Returns {@code arena} to the allocator if this match holds a lease on it. */
+    private void releaseLease(Arena arena) {
+        ArenaAllocator.Lease lease = leases.remove(arena.getName());
+        if (lease != null) {
+            lease.release();
+            // A free arena may let the matchmaking queue open a new lobby.
+            ((TheShrouded) plugin).getLobbyManager().getMatchmakingQueue().requestMatch();
+        }
+    }
+
+    /** Releases the chunk tickets of every preload this match holds. */
+    private void releasePreloads() {
+        for (ArenaChunkPreload preload : preloads.values())
+            preload.release();
+        preloads.clear();
+        chunksAwaited = false;
+    }
+}
@@ -0,0 +1,281 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.lobby.LobbyManager.JoinSessionResult;
+import zyx.araxia.shrouded.metrics.PluginMetrics;
+
+/**
+ * One server-wide queue of players waiting for a match, packed into lobby
+ * sessions by a matcher rather than each player picking a lobby.
+ *
+ * <p>
+ * Players stay where they are while queued. Enqueue and dequeue are O(1): the
+ * queue is an insertion-ordered map keyed by player. Whenever something that
+ * affects matching changes — a player queues, a lobby loses a player, an
+ * arena is released — {@link #requestMatch()} schedules one matching pass for
+ * the next tick, so bursts of changes are matched together.
+ *
+ * <h3>Matching</h3>
+ * Each pass aims to maximise the number of matches that can start at once:
+ * <ol>
+ * <li>Every lobby already counting down reserves a free arena from its pool,
+ * since it will claim one when the countdown ends.</li>
+ * <li>Lobbies with some players but fewer than {@code game.lobby-min-players}
+ * are completed first, fullest first, provided an arena is free for them.</li>
+ * <li>Empty lobbies are then seeded with exactly the minimum, one per free
+ * arena.</li>
+ * <li>Anyone left over tops up lobbies that are counting down with enough
+ * players waiting, least-full first, up to {@link Lobby#getMaxPlayers()}.</li>
+ * </ol>
+ * Players that no startable lobby can take stay queued rather than being
+ * parked in a lobby that has no arena to play in.
+ *
+ * <p>
+ * Main thread only.
+ */
+public class MatchmakingQueue {
+
+    private final JavaPlugin plugin;
+    private final LobbyManager lobbyManager;
+
+    /** Queued players, oldest first, → {@link System#nanoTime()} they queued at. */
+    private final LinkedHashMap<UUID, Long> queue = new LinkedHashMap<>();
+
+    /** Set while a matching pass is scheduled but has not yet run. */
+    private boolean matchScheduled = false;
+
+    // Queue statistics since startup, for getStats()
+    private long matched = 0;
+    private long totalWaitNanos = 0;
+    private long maxWaitNanos = 0;
+
+    MatchmakingQueue(JavaPlugin plugin, LobbyManager lobbyManager) {
+        this.plugin = plugin;
+        this.lobbyManager = lobbyManager;
+    }
+
+    // -------------------------------------------------------------------------
+    // Public API
+    // -------------------------------------------------------------------------
+
+    /**
+     * Adds {@code player} to the back of the queue and schedules a matching
+     * pass.
+     *
+     * @return {@code false} if the player was already queued
+     */
+    public boolean enqueue(Player player) {
+        if (queue.putIfAbsent(player.getUniqueId(), System.nanoTime()) != null)
+            return false;
+        PluginMetrics.setMatchmakingQueueDepth(queue.size());
+        plugin.getLogger().log(Level.FINE,
+                "[TheShrouded] Player {0} ({1}) joined the matchmaking queue ({2} waiting).",
+                new Object[] { player.getName(), player.getUniqueId(), queue.size() });
+        requestMatch();
+        return true;
+    }
+
+    /**
+     * Removes {@code uuid} from the queue.
+     *
+     * @return {@code false} if the player was not queued
+     */
+    public boolean dequeue(UUID uuid) {
+        if (queue.remove(uuid) == null)
+            return false;
+        PluginMetrics.setMatchmakingQueueDepth(queue.size());
+        return true;
+    }
+
+    public boolean contains(UUID uuid) {
+        return queue.containsKey(uuid);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Schedules a matching pass for the next tick, unless one is already
+     * scheduled. Cheap enough to call on every change that could let a queued
+     * player into a lobby.
+     */
+    public void requestMatch() {
+        if (matchScheduled || queue.isEmpty())
+            return;
+        matchScheduled = true;
+        ((TheShrouded) plugin).getTaskScheduler().runGlobal(this::match, 1L);
+    }
+
+    /**
+     * One-line summary of queue activity since startup, e.g. for an admin
+     * command or log.
+     */
+    public String getStats() {
+        return String.format(
+                "queued=%d matched=%d avg-wait=%.1fs max-wait=%.1fs",
+                queue.size(), matched,
+                matched == 0 ? 0.0 : totalWaitNanos / (double) matched / 1e9,
+                maxWaitNanos / 1e9);
+    }
+
+    // -------------------------------------------------------------------------
+    // Matching
+    // -------------------------------------------------------------------------
+
+    private void match() {
+        matchScheduled = false;
+        if (queue.isEmpty())
+            return;
+
+        int minPlayers = Math.max(plugin.getConfig().getInt("game.lobby-min-players", 2), 2);
+        ArenaSlots slots = new ArenaSlots(lobbyManager.getArenaManager());
+
+        List<LobbySession> waiting = new ArrayList<>();
+        List<LobbySession> open = new ArrayList<>();
+        for (LobbySession session : lobbyManager.getSessions()) {
+            if (Bukkit.getWorld(session.getLobby().getWorld()) == null)
+                continue;
+            switch (session.getPhase()) {
+                case WAITING -> {
+                    waiting.add(session);
+                    open.add(session);
+                }
+                case COUNTDOWN -> {
+                    slots.reserve(session.getLobby());
+                    open.add(session);
+                }
+                default -> {
+                }
+            }
+        }
+
+        // Complete part-filled lobbies first: they need the fewest players
+        // to become startable.
+        waiting.sort(Comparator.comparingInt(LobbySession::getWaitingPlayerCount).reversed());
+        for (LobbySession session : waiting) {
+            int need = minPlayers - session.getWaitingPlayerCount();
+            if (session.getWaitingPlayerCount() == 0 || need <= 0 || queue.size() < need)
+                continue;
+            if (slots.reserve(session.getLobby()))
+                fill(session, need);
+        }
+
+        // Then open one new lobby per remaining free arena.
+        for (LobbySession session : waiting) {
+            if (queue.size() < minPlayers)
+                break;
+            if (session.getWaitingPlayerCount() == 0 && slots.reserve(session.getLobby()))
+                fill(session, minPlayers);
+        }
+
+        // Top up startable lobbies with whoever is left, least-full first.
+        PriorityQueue<LobbySession> topUp = new PriorityQueue<>(
+                Comparator.comparingInt(LobbySession::getWaitingPlayerCount));
+        for (LobbySession session : open) {
+            // Still WAITING with enough players means it has no arena to
+            // start in (e.g. none configured); don't park anyone there.
+            if (session.getPhase() != LobbySession.Phase.WAITING
+                    && session.getWaitingPlayerCount() >= minPlayers && !session.isFull())
+                topUp.add(session);
+        }
+        while (!queue.isEmpty() && !topUp.isEmpty()) {
+            LobbySession session = topUp.poll();
+            if (fill(session, 1) && !session.isFull())
+                topUp.add(session);
+        }
+    }
+
+    /**
+     * Moves up to {@code count} players from the head of the queue into
+     * {@code session}. Players who have gone offline or cannot join are
+     * dropped from the queue (and told why) without counting towards
+     * {@code count}.
+     *
+     * @return {@code true} if at least one player joined
+     */
+    private boolean fill(LobbySession session, int count) {
+        int joined = 0;
+        while (joined < count && !queue.isEmpty() && !session.isFull()) {
+            // A fresh iterator each time: joining a lobby may touch the queue.
+            Iterator<Map.Entry<UUID, Long>> it = queue.entrySet().iterator();
+            Map.Entry<UUID, Long> head = it.next();
+            it.remove();
+            Player player = Bukkit.getPlayer(head.getKey());
+            if (player == null || !player.isOnline())
+                continue;
+
+            JoinSessionResult result = lobbyManager.addPlayerToSession(player, session);
+            if (result != JoinSessionResult.SUCCESS) {
+                player.sendMessage(Component.text("Could not join lobby '"
+                        + session.getLobby().getName() + "' — you have left the queue.",
+                        NamedTextColor.RED));
+                plugin.getLogger().log(Level.FINE,
+                        "[TheShrouded] Dropped {0} ({1}) from the matchmaking queue: {2}",
+                        new Object[] { player.getName(), player.getUniqueId(), result });
+                continue;
+            }
+
+            long waited = System.nanoTime() - head.getValue();
+            matched++;
+            totalWaitNanos += waited;
+            maxWaitNanos = Math.max(maxWaitNanos, waited);
+            PluginMetrics.recordMatchmakingWait(waited);
+            player.sendMessage(Component.text("Match found! You joined lobby '"
+                    + session.getLobby().getName() + "' (" + session.getPlayerCount() + "/"
+                    + session.getLobby().getMaxPlayers() + ").", NamedTextColor.GREEN));
+            joined++;
+        }
+        PluginMetrics.setMatchmakingQueueDepth(queue.size());
+        return joined > 0;
+    }
+
+    /**
+     * Free arenas as seen by one matching pass. A lobby reserves one arena
+     * from its pool so two lobbies sharing a pool are not both counted as
+     * startable on the strength of the same arena.
+     */
+    private static final class ArenaSlots {
+        private final ArenaAllocator allocator;
+        private final Set<String> reserved = new HashSet<>();
+        private int instanceSlots;
+
+        ArenaSlots(ArenaManager arenaManager) {
+            this.allocator = arenaManager.getAllocator();
+            this.instanceSlots = arenaManager.getInstanceManager().getRemainingCapacity();
+        }
+
+        /** Reserves a free arena for {@code lobby}; {@code false} if none is left. */
+        boolean reserve(Lobby lobby) {
+            for (Arena arena : allocator.getFreeArenas(lobby.getValidArenas())) {
+                if (arena.isInstanced()) {
+                    if (instanceSlots > 0) {
+                        instanceSlots--;
+                        return true;
+                    }
+                } else if (reserved.add(arena.getName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
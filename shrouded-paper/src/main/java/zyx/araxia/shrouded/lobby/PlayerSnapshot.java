@@ -14,7 +14,6 @@ import org.bukkit.Registry;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
-import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 
@@ -32,8 +31,7 @@ import zyx.araxia.shrouded.TheShrouded;
  */
 public class PlayerSnapshot {
 
-    private static final Logger LOGGER =
-            JavaPlugin.getPlugin(TheShrouded.class).getLogger();
+    private static final Logger LOGGER = TheShrouded.pluginLogger();
 
     // -------------------------------------------------------------------------
     // Fields – serialised by Gson
@@ -194,6 +192,28 @@ public class PlayerSnapshot {
                 effectData);
     }
 
+    /**
+     * Builds a snapshot from already-encoded item data (Base64 of
+     * {@link ItemStack#serializeAsBytes()}, {@code null} for empty slots)
+     * and no potion effects. Used by the snapshot benchmarks, which have no
+     * player to capture.
+     */
+    public static PlayerSnapshot fromEncoded(
+            String worldName,
+            double x, double y, double z,
+            float yaw, float pitch,
+            String[] inventoryContents,
+            String helmetB64, String chestplateB64,
+            String leggingsB64, String bootsB64,
+            String mainHandB64, String offHandB64,
+            int xpLevel, float xpProgress) {
+        return new PlayerSnapshot(worldName, x, y, z, yaw, pitch,
+                inventoryContents.clone(),
+                helmetB64, chestplateB64, leggingsB64, bootsB64,
+                mainHandB64, offHandB64,
+                xpLevel, xpProgress, new ArrayList<>());
+    }
+
     // -------------------------------------------------------------------------
     // Restore
     // -------------------------------------------------------------------------
@@ -0,0 +1,497 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.scheduler.TaskHandle;
+import zyx.araxia.shrouded.scheduler.TaskScheduler;
+
+/**
+ * Arena leases shared by every server that mounts the same
+ * {@code arena-leases.shared-directory}, so two servers never play in the
+ * same physical arena at once. {@link Arena#isInUse()} only knows about this
+ * server.
+ *
+ * <h3>Storage</h3>
+ * Each arena has a {@code <arena>.lease} file holding the node id and lease
+ * token of its holder and when the lease expires, or nothing while the arena
+ * is free. Every read-modify-write happens under an exclusive
+ * {@link FileChannel#lock() file lock} on that file. A lease that has
+ * expired — its holder crashed or lost the volume — may be taken over.
+ *
+ * <p>
+ * The main thread never touches the files. {@link #acquire} takes the lock
+ * and writes the lease off the main thread and completes its future back on
+ * it; releasing and renewing run off the main thread too.
+ *
+ * <h3>Heartbeat</h3>
+ * Every {@code arena-leases.heartbeat-seconds}, off the main thread, held
+ * leases are renewed (pushing their expiry out to
+ * {@code arena-leases.ttl-seconds} from now) and every lease file is re-read
+ * into the cache, for volumes that do not report changes.
+ *
+ * <h3>Cache</h3>
+ * {@link #isHeldElsewhere} is called for every arena each time the allocator
+ * looks for free ones, so it answers from memory only. A watch on the
+ * directory re-reads an arena's file on its own thread whenever another
+ * server changes it, updates the cached entry and asks the allocator to
+ * serve its queue. Changes whose contents match what this node last wrote —
+ * its own heartbeats, acquires and releases — are ignored. An arena missing
+ * from the cache counts as free; {@link #acquire} checks the file itself
+ * under the lock.
+ *
+ * <p>
+ * Instanced arenas are cloned per server and never leased here.
+ */
+public class SharedArenaLeases {
+
+    private static final String EXTENSION = ".lease";
+
+    /** File in the data folder holding the generated node id. */
+    private static final String NODE_ID_FILENAME = "arena-lease-node-id";
+
+    /** Contents of a lease file. */
+    private record LeaseRecord(String node, String token, long expiresAt) {
+    }
+
+    private final JavaPlugin plugin;
+    private final Path directory;
+    private final String nodeId;
+    private final long ttlMillis;
+    private final long heartbeatMillis;
+    private final Runnable onChange;
+    private final Gson gson = new Gson();
+
+    /**
+     * Arena name → what its lease file said when last read, absent while
+     * free. Read on the main thread, written by the heartbeat, the watcher
+     * and lease changes made by this node.
+     */
+    private final Map<String, LeaseRecord> cache = new ConcurrentHashMap<>();
+
+    /** Arena name → token of the lease this server holds on it. */
+    private final Map<String, UUID> held = new ConcurrentHashMap<>();
+
+    /** Arena name → what this node last left in its lease file ({@code ""} for cleared). */
+    private final Map<String, String> written = new ConcurrentHashMap<>();
+
+    /**
+     * Arena name → guard held around that arena's file lock, since a JVM may
+     * not hold two locks on one file. Per arena, so a slow renewal of one
+     * lease never holds up acquiring another.
+     */
+    private final Map<String, ReentrantLock> guards = new ConcurrentHashMap<>();
+
+    private WatchService watchService = null;
+    private TaskHandle heartbeatTask = null;
+
+    /**
+     * @param onChange run on the main thread after another server changes a
+     *                 lease, e.g. to hand a freed arena to a waiting match
+     */
+    SharedArenaLeases(JavaPlugin plugin, Path directory, String nodeId, long ttlMillis,
+            long heartbeatMillis, Runnable onChange) {
+        this.plugin = plugin;
+        this.directory = directory;
+        this.nodeId = nodeId;
+        this.ttlMillis = ttlMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.onChange = onChange;
+    }
+
+    /**
+     * Creates the registry described by the {@code arena-leases} config
+     * section, or returns {@code null} if no shared directory is configured
+     * (or no node id could be found for this server).
+     */
+    static SharedArenaLeases fromConfig(JavaPlugin plugin, Runnable onChange) {
+        String dir = plugin.getConfig().getString("arena-leases.shared-directory", "");
+        if (dir == null || dir.isBlank())
+            return null;
+        String nodeId = plugin.getConfig().getString("arena-leases.node-id", "");
+        if (nodeId == null || nodeId.isBlank())
+            nodeId = generatedNodeId(plugin);
+        if (nodeId == null)
+            return null;
+        long ttl = Math.max(plugin.getConfig().getLong("arena-leases.ttl-seconds", 30), 2);
+        long heartbeat = Math.min(Math.max(plugin.getConfig().getLong("arena-leases.heartbeat-seconds", 10), 1),
+                ttl / 2);
+        return new SharedArenaLeases(plugin, Path.of(dir), nodeId, ttl * 1000, heartbeat * 1000, onChange);
+    }
+
+    /**
+     * Returns the node id generated for this server on its first start and
+     * kept in the data folder, so it is unique across hosts and survives
+     * restarts (letting {@link #releaseStale} find this node's leases).
+     *
+     * @return the id, or {@code null} if it could not be read or saved
+     */
+    private static String generatedNodeId(JavaPlugin plugin) {
+        Path file = plugin.getDataFolder().toPath().resolve(NODE_ID_FILENAME);
+        try {
+            if (Files.exists(file)) {
+                String saved = Files.readString(file, StandardCharsets.UTF_8).trim();
+                if (!saved.isEmpty())
+                    return saved;
+            }
+            String generated = "node-" + UUID.randomUUID();
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, generated, StandardCharsets.UTF_8);
+            return generated;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE,
+                    "[TheShrouded] Cannot read or save ''{0}'' ({1}) — set arena-leases.node-id. Shared arena leases are disabled.",
+                    new Object[] { file, e.getMessage() });
+            return null;
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Creates the directory, clears leases this node left behind when it last
+     * stopped, and starts the watcher and heartbeat.
+     */
+    void start() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE,
+                    "[TheShrouded] Cannot create shared arena lease directory ''{0}'': {1}",
+                    new Object[] { directory, e.getMessage() });
+            return;
+        }
+        releaseStale();
+
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            Thread watcher = new Thread(this::watch, "TheShrouded-arena-lease-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        } catch (IOException | UnsupportedOperationException e) {
+            plugin.getLogger().log(Level.WARNING,
+                    "[TheShrouded] Cannot watch ''{0}'' ({1}) — relying on cache expiry alone.",
+                    new Object[] { directory, e.getMessage() });
+        }
+
+        TaskScheduler scheduler = ((TheShrouded) plugin).getTaskScheduler();
+        scheduler.runAsync(this::refreshAll);
+        long period = Math.max(heartbeatMillis / 50, 1);
+        heartbeatTask = scheduler.runGlobalTimer(task -> scheduler.runAsync(() -> {
+            renewAll();
+            refreshAll();
+        }), period, period);
+
+        plugin.getLogger().log(Level.INFO,
+                "[TheShrouded] Sharing arena leases in ''{0}'' as node ''{1}''.",
+                new Object[] { directory, nodeId });
+    }
+
+    /** Stops the heartbeat and watcher and gives up every lease still held. */
+    void stop() {
+        if (heartbeatTask != null) {
+            heartbeatTask.cancel();
+            heartbeatTask = null;
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+            watchService = null;
+        }
+        for (Map.Entry<String, UUID> entry : Map.copyOf(held).entrySet()) {
+            held.remove(entry.getKey(), entry.getValue());
+            clear(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Leases
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns {@code true} if another server held an unexpired lease on
+     * {@code arenaName} when its file was last read. Never reads the file.
+     */
+    boolean isHeldElsewhere(String arenaName) {
+        LeaseRecord lease = cache.get(arenaName);
+        return lease != null && !nodeId.equals(lease.node()) && lease.expiresAt() > System.currentTimeMillis();
+    }
+
+    /**
+     * Takes the shared lease on {@code arenaName} under {@code token} off the
+     * main thread.
+     *
+     * @return a future completed on the main thread with {@code false} if
+     *         another server holds the lease or the file could not be
+     *         written; never completed if the plugin is disabled first
+     */
+    CompletableFuture<Boolean> acquire(String arenaName, UUID token) {
+        TaskScheduler scheduler = ((TheShrouded) plugin).getTaskScheduler();
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        scheduler.runAsync(() -> {
+            boolean acquired = tryAcquire(arenaName, token);
+            if (plugin.isEnabled())
+                scheduler.runGlobal(() -> result.complete(acquired), 0L);
+        });
+        return result;
+    }
+
+    private boolean tryAcquire(String arenaName, UUID token) {
+        long now = System.currentTimeMillis();
+        LeaseRecord mine = new LeaseRecord(nodeId, token.toString(), now + ttlMillis);
+        boolean[] acquired = { false };
+        withLock(arenaName, (channel, current) -> {
+            if (current != null && !nodeId.equals(current.node()) && current.expiresAt() > now) {
+                cache.put(arenaName, current);
+                return;
+            }
+            if (current != null && !nodeId.equals(current.node())) {
+                plugin.getLogger().log(Level.WARNING,
+                        "[TheShrouded] Taking over expired lease on arena ''{0}'' from node ''{1}''.",
+                        new Object[] { arenaName, current.node() });
+            }
+            write(arenaName, channel, mine);
+            channel.force(true);
+            held.put(arenaName, token);
+            cache.put(arenaName, mine);
+            acquired[0] = true;
+        });
+        return acquired[0];
+    }
+
+    /**
+     * Clears the shared lease on {@code arenaName} if it is still held under
+     * {@code token}. The file is cleared off the main thread.
+     */
+    void release(String arenaName, UUID token) {
+        if (!held.remove(arenaName, token))
+            return;
+        ((TheShrouded) plugin).getTaskScheduler().runAsync(() -> clear(arenaName, token));
+    }
+
+    private void clear(String arenaName, UUID token) {
+        withLock(arenaName, (channel, current) -> {
+            if (current != null && nodeId.equals(current.node())
+                    && token.toString().equals(current.token())) {
+                truncate(arenaName, channel);
+                channel.force(true);
+                current = null;
+            }
+            cache(arenaName, current);
+        });
+    }
+
+    /** Pushes out the expiry of every lease still held. Runs off the main thread. */
+    private void renewAll() {
+        for (Map.Entry<String, UUID> entry : held.entrySet()) {
+            String arenaName = entry.getKey();
+            String token = entry.getValue().toString();
+            withLock(arenaName, (channel, current) -> {
+                if (current == null || !nodeId.equals(current.node()) || !token.equals(current.token())) {
+                    plugin.getLogger().log(Level.WARNING,
+                            "[TheShrouded] Lost the shared lease on arena ''{0}'' — it expired before renewal.",
+                            arenaName);
+                    held.remove(arenaName, entry.getValue());
+                    return;
+                }
+                write(arenaName, channel, new LeaseRecord(nodeId, token, System.currentTimeMillis() + ttlMillis));
+                channel.force(true);
+            });
+        }
+    }
+
+    /**
+     * Re-reads every lease file into the cache, and asks the allocator to
+     * serve its queue if any changed. Runs off the main thread.
+     */
+    private void refreshAll() {
+        boolean changed = false;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String arenaName = name.substring(0, name.length() - EXTENSION.length());
+                String contents = readContents(arenaName);
+                if (contents == null)
+                    continue;
+                LeaseRecord lease = parse(contents);
+                if (!Objects.equals(cache.get(arenaName), lease)) {
+                    cache(arenaName, lease);
+                    changed = true;
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.FINE,
+                    "[TheShrouded] Could not scan shared arena leases: {0}", e.getMessage());
+        }
+        if (changed && plugin.isEnabled())
+            ((TheShrouded) plugin).getTaskScheduler().runGlobal(onChange, 1L);
+    }
+
+    private void cache(String arenaName, LeaseRecord lease) {
+        if (lease != null)
+            cache.put(arenaName, lease);
+        else
+            cache.remove(arenaName);
+    }
+
+    /** Clears every lease file this node id still holds, e.g. after a crash. */
+    private void releaseStale() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String arenaName = name.substring(0, name.length() - EXTENSION.length());
+                withLock(arenaName, (channel, current) -> {
+                    if (current != null && nodeId.equals(current.node())) {
+                        truncate(arenaName, channel);
+                        plugin.getLogger().log(Level.INFO,
+                                "[TheShrouded] Released stale shared lease on arena ''{0}''.", arenaName);
+                    }
+                });
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING,
+                    "[TheShrouded] Could not scan shared arena leases: {0}", e.getMessage());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // File access
+    // -------------------------------------------------------------------------
+
+    @FunctionalInterface
+    private interface LockedAction {
+        void run(FileChannel channel, LeaseRecord current) throws IOException;
+    }
+
+    /**
+     * Opens {@code arenaName}'s lease file, holds an exclusive lock on it
+     * while {@code action} runs with its current contents, then unlocks it.
+     * Waits for the lock as long as it takes; off the main thread only.
+     *
+     * @return {@code false} if the file could not be opened, locked or written
+     */
+    private boolean withLock(String arenaName, LockedAction action) {
+        ReentrantLock guard = guards.computeIfAbsent(arenaName, name -> new ReentrantLock());
+        guard.lock();
+        try (FileChannel channel = FileChannel.open(file(arenaName), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+                FileLock locked = channel.lock()) {
+            action.run(channel, parse(channel));
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING,
+                    "[TheShrouded] Shared lease file for arena ''{0}'' failed: {1}",
+                    new Object[] { arenaName, e.getMessage() });
+            return false;
+        } finally {
+            guard.unlock();
+        }
+    }
+
+    /** The lease file's contents, {@code ""} if it does not exist, {@code null} if unreadable. */
+    private String readContents(String arenaName) {
+        Path file = file(arenaName);
+        if (!Files.exists(file))
+            return "";
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private LeaseRecord parse(String json) {
+        try {
+            return json.isBlank() ? null : gson.fromJson(json, LeaseRecord.class);
+        } catch (JsonParseException e) {
+            // Caught mid-write; the next read will see the finished file.
+            return null;
+        }
+    }
+
+    private LeaseRecord parse(FileChannel channel) throws IOException {
+        if (channel.size() == 0)
+            return null;
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        channel.read(buffer, 0);
+        return parse(new String(buffer.array(), StandardCharsets.UTF_8));
+    }
+
+    /** Replaces the file's contents. Not synced: callers force it themselves. */
+    private void write(String arenaName, FileChannel channel, LeaseRecord lease) throws IOException {
+        String json = gson.toJson(lease);
+        written.put(arenaName, json);
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)), 0);
+    }
+
+    private void truncate(String arenaName, FileChannel channel) throws IOException {
+        written.put(arenaName, "");
+        channel.truncate(0);
+    }
+
+    private Path file(String arenaName) {
+        return directory.resolve(arenaName + EXTENSION);
+    }
+
+    /** Refreshes cached entries for lease files other servers change. Runs on its own thread. */
+    private void watch() {
+        WatchService service = watchService;
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (!(event.context() instanceof Path path))
+                        continue;
+                    String name = path.getFileName().toString();
+                    if (!name.endsWith(EXTENSION))
+                        continue;
+                    String arenaName = name.substring(0, name.length() - EXTENSION.length());
+                    String contents = readContents(arenaName);
+                    if (contents != null && contents.equals(written.get(arenaName)))
+                        continue;
+                    if (contents != null)
+                        cache(arenaName, parse(contents));
+                    changed = true;
+                }
+                key.reset();
+                if (changed && plugin.isEnabled())
+                    ((TheShrouded) plugin).getTaskScheduler().runGlobal(onChange, 1L);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped.
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.util.List;
+
+/**
+ * On-disk encoding of a {@link PlayerSnapshot}. {@link LobbyManager} writes
+ * player snapshots with {@link #CURRENT}; the snapshot benchmarks in
+ * {@code shrouded-bench} measure every format in {@link #ALL} side by side,
+ * so a candidate replacement is added there first.
+ */
+public interface SnapshotFormat {
+
+    /** The format snapshot files are written in. */
+    SnapshotFormat CURRENT = new JsonSnapshotFormat();
+
+    /** Every known format, {@link #CURRENT} first. */
+    List<SnapshotFormat> ALL = List.of(CURRENT);
+
+    /** Short name used in benchmark reports, e.g. {@code "json"}. */
+    String name();
+
+    byte[] encode(PlayerSnapshot snapshot);
+
+    /**
+     * Decodes a snapshot written by {@link #encode}.
+     *
+     * @throws RuntimeException if {@code data} is not a valid snapshot
+     */
+    PlayerSnapshot decode(byte[] data);
+}
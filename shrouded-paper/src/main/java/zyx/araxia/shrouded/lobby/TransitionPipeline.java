@@ -0,0 +1,116 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import org.bukkit.Location;
+import org.bukkit.plugin.Plugin;
+
+import zyx.araxia.shrouded.metrics.LogLinearHistogram;
+import zyx.araxia.shrouded.metrics.MetricsRegistry;
+import zyx.araxia.shrouded.scheduler.TaskHandle;
+import zyx.araxia.shrouded.scheduler.TaskScheduler;
+
+/**
+ * Spreads per-player work for a lobby ↔ arena transition over several ticks.
+ *
+ * <p>
+ * Steps are queued with {@link #then} (run as soon as the budget allows) or
+ * {@link #after} (run once an asynchronous stage such as
+ * {@code teleportAsync} completes). Each tick the pipeline runs queued steps
+ * until its time budget is spent — always at least one, so it cannot stall —
+ * and {@link #future()} completes once every queued step, including any
+ * queued by other steps, has run. Steps run in the region of the anchor
+ * location the pipeline was created with (on Paper, the main thread).
+ */
+public class TransitionPipeline {
+
+    private final Plugin plugin;
+    private final TaskScheduler scheduler;
+    private final Location anchor;
+    private final String name;
+    private final long budgetNanos;
+    /** Start-to-finish time of pipelines with this name. */
+    private final LogLinearHistogram duration;
+    private long startedNanos;
+
+    /** Steps ready to run. Filled from the main thread and from async completions. */
+    private final Queue<Runnable> ready = new ConcurrentLinkedQueue<>();
+
+    /** Steps queued or waiting on a stage and not yet run. Main thread only. */
+    private int outstanding = 0;
+
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    /**
+     * @param anchor      location whose region runs the steps, or
+     *                    {@code null} for the global scheduler
+     * @param name        used in log messages, e.g. {@code "arena entry"}
+     * @param budgetNanos time the pipeline may spend per tick
+     */
+    public TransitionPipeline(Plugin plugin, TaskScheduler scheduler, Location anchor,
+            String name, long budgetNanos) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.anchor = anchor;
+        this.name = name;
+        this.budgetNanos = budgetNanos;
+        this.duration = MetricsRegistry.histogram("transition_" + name.replace(' ', '_'));
+    }
+
+    /** Queues {@code step} to run on an upcoming tick. */
+    public void then(Runnable step) {
+        outstanding++;
+        ready.add(step);
+    }
+
+    /**
+     * Queues {@code step} to run on the first tick after {@code stage}
+     * completes, whether it succeeds or fails.
+     */
+    public void after(CompletableFuture<?> stage, Runnable step) {
+        outstanding++;
+        stage.whenComplete((result, error) -> ready.add(step));
+    }
+
+    /** Starts running queued steps, beginning on the current tick. */
+    public TransitionPipeline start() {
+        startedNanos = System.nanoTime();
+        Consumer<TaskHandle> tick = TaskScheduler.namedTimer("transition", this::tick);
+        if (anchor != null)
+            scheduler.runAtTimer(anchor, tick, 0L, 1L);
+        else
+            scheduler.runGlobalTimer(tick, 0L, 1L);
+        return this;
+    }
+
+    /** Completes on the main thread once every step has run. */
+    public CompletableFuture<Void> future() {
+        return future;
+    }
+
+    private void tick(TaskHandle task) {
+        long deadline = System.nanoTime() + budgetNanos;
+        Runnable step;
+        while ((step = ready.poll()) != null) {
+            outstanding--;
+            try {
+                step.run();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING,
+                        "[TheShrouded] Step of " + name + " transition failed.", e);
+            }
+            if (System.nanoTime() >= deadline)
+                break;
+        }
+
+        if (outstanding == 0) {
+            task.cancel();
+            duration.recordSince(startedNanos);
+            future.complete(null);
+        }
+    }
+}
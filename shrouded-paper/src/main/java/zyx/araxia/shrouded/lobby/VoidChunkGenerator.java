@@ -0,0 +1,44 @@
+package zyx.araxia.shrouded.lobby;
+
+import java.util.Random;
+
+import org.bukkit.generator.ChunkGenerator;
+import org.bukkit.generator.WorldInfo;
+
+/**
+ * Generates nothing. Used for arena instance worlds: every chunk the arena
+ * needs comes from the template's copied region files, and anything outside
+ * them should be empty air rather than freshly generated terrain.
+ */
+public class VoidChunkGenerator extends ChunkGenerator {
+
+    @Override
+    public boolean shouldGenerateNoise(WorldInfo worldInfo, Random random, int chunkX, int chunkZ) {
+        return false;
+    }
+
+    @Override
+    public boolean shouldGenerateSurface(WorldInfo worldInfo, Random random, int chunkX, int chunkZ) {
+        return false;
+    }
+
+    @Override
+    public boolean shouldGenerateCaves(WorldInfo worldInfo, Random random, int chunkX, int chunkZ) {
+        return false;
+    }
+
+    @Override
+    public boolean shouldGenerateDecorations(WorldInfo worldInfo, Random random, int chunkX, int chunkZ) {
+        return false;
+    }
+
+    @Override
+    public boolean shouldGenerateMobs(WorldInfo worldInfo, Random random, int chunkX, int chunkZ) {
+        return false;
+    }
+
+    @Override
+    public boolean shouldGenerateStructures(WorldInfo worldInfo, Random random, int chunkX, int chunkZ) {
+        return false;
+    }
+}
@@ -0,0 +1,113 @@
+package zyx.araxia.shrouded.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * How long one event handler or scheduled task took, minute by minute, for
+ * the last {@value #SLOTS} minutes.
+ *
+ * <p>
+ * Each minute has a call count, total and maximum duration, and a histogram
+ * of durations in power-of-two nanosecond buckets. {@link #record} only
+ * touches atomics and never allocates. The first record of a new minute
+ * clears the slot that minute reuses; on Folia a record racing with that
+ * clear on another region thread can be lost, which is fine for a profile.
+ */
+public final class CostHistogram {
+
+    /** One more than the longest window, so it never overlaps the current minute. */
+    static final int SLOTS = 16;
+    /** Bucket {@code i} holds durations in {@code [2^i, 2^(i+1))} ns; the last catches the rest. */
+    private static final int BUCKETS = 40;
+
+    private final String name;
+    private final AtomicLongArray minutes = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray counts = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray totals = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray maxes = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray buckets = new AtomicLongArray(SLOTS * BUCKETS);
+
+    /** Totals for one consumer over one window. */
+    public record Summary(String name, long count, long totalNanos, long maxNanos, long p99Nanos) {
+    }
+
+    CostHistogram(String name) {
+        this.name = name;
+        for (int i = 0; i < SLOTS; i++)
+            minutes.set(i, Long.MIN_VALUE);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** Records one call that took {@code elapsedNanos}. */
+    public void record(long elapsedNanos) {
+        long minute = TickCosts.currentMinute();
+        int slot = (int) Math.floorMod(minute, SLOTS);
+        long stamp = minutes.get(slot);
+        if (stamp != minute && minutes.compareAndSet(slot, stamp, minute))
+            clear(slot);
+
+        counts.incrementAndGet(slot);
+        totals.addAndGet(slot, elapsedNanos);
+        long max;
+        while (elapsedNanos > (max = maxes.get(slot)) && !maxes.compareAndSet(slot, max, elapsedNanos)) {
+        }
+        buckets.incrementAndGet(slot * BUCKETS + bucket(elapsedNanos));
+    }
+
+    /**
+     * Sums the current minute and the {@code windowMinutes} before it. The
+     * 99th percentile is the upper bound of its bucket, so it may read up
+     * to twice the true value.
+     */
+    public Summary summarize(long currentMinute, int windowMinutes) {
+        long count = 0, total = 0, max = 0;
+        long[] merged = new long[BUCKETS];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            long minute = minutes.get(slot);
+            if (minute > currentMinute || minute < currentMinute - windowMinutes)
+                continue;
+            count += counts.get(slot);
+            total += totals.get(slot);
+            max = Math.max(max, maxes.get(slot));
+            for (int b = 0; b < BUCKETS; b++)
+                merged[b] += buckets.get(slot * BUCKETS + b);
+        }
+
+        long p99 = 0;
+        long threshold = (long) Math.ceil(count * 0.99);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS && count > 0; b++) {
+            seen += merged[b];
+            if (seen >= threshold) {
+                p99 = Math.min(max, 1L << (b + 1));
+                break;
+            }
+        }
+        return new Summary(name, count, total, max, p99);
+    }
+
+    /** Forgets every recorded call. */
+    void reset() {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            minutes.set(slot, Long.MIN_VALUE);
+            clear(slot);
+        }
+    }
+
+    private void clear(int slot) {
+        counts.set(slot, 0);
+        totals.set(slot, 0);
+        maxes.set(slot, 0);
+        for (int b = 0; b < BUCKETS; b++)
+            buckets.set(slot * BUCKETS + b, 0);
+    }
+
+    private static int bucket(long nanos) {
+        if (nanos <= 1)
+            return 0;
+        return Math.min(63 - Long.numberOfLeadingZeros(nanos), BUCKETS - 1);
+    }
+}
@@ -0,0 +1,288 @@
+package zyx.araxia.shrouded.metrics;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.lobby.LobbySession;
+import zyx.araxia.shrouded.lobby.MatchInstance;
+
+/**
+ * Java Flight Recorder events for the match lifecycle and the plugin's
+ * I/O, so a single recording lines plugin activity up with GC pauses and
+ * long ticks. They appear under the {@code TheShrouded} category of any
+ * recording, e.g. one started with {@code jcmd <pid> JFR.start}.
+ *
+ * <p>
+ * Every helper checks {@link Event#isEnabled()} before filling anything in.
+ * With no recording running that check is all it costs: the event object
+ * never escapes, so the JIT removes its allocation.
+ *
+ * <p>
+ * Static for the same reason as {@link PluginMetrics}; call these next to
+ * the matching {@link PluginMetrics} update.
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {
+    }
+
+    // -------------------------------------------------------------------------
+    // Event types
+    // -------------------------------------------------------------------------
+
+    @Name("zyx.araxia.shrouded.SessionPhase")
+    @Label("Session Phase")
+    @Category({ "TheShrouded", "Match" })
+    @Description("A lobby session or match moved to a new phase.")
+    @StackTrace(false)
+    public static final class SessionPhase extends Event {
+        @Label("Lobby")
+        String lobby;
+        @Label("Match")
+        String match;
+        @Label("Arena")
+        String arena;
+        @Label("From")
+        String from;
+        @Label("To")
+        String to;
+        @Label("Time in Previous Phase")
+        @Timespan
+        long previousPhaseDuration;
+    }
+
+    @Name("zyx.araxia.shrouded.ArenaClaim")
+    @Label("Arena Claimed")
+    @Category({ "TheShrouded", "Arena" })
+    @StackTrace(false)
+    public static final class ArenaClaim extends Event {
+        @Label("Arena")
+        String arena;
+        @Label("Lobby")
+        String lobby;
+    }
+
+    @Name("zyx.araxia.shrouded.ArenaRelease")
+    @Label("Arena Released")
+    @Category({ "TheShrouded", "Arena" })
+    @StackTrace(false)
+    public static final class ArenaRelease extends Event {
+        @Label("Arena")
+        String arena;
+        @Label("Lobby")
+        String lobby;
+    }
+
+    @Name("zyx.araxia.shrouded.SnapshotIo")
+    @Label("Player Snapshot I/O")
+    @Category({ "TheShrouded", "I/O" })
+    @Description("Reading or writing a player's saved state.")
+    public static final class SnapshotIo extends Event {
+        @Label("Operation")
+        String operation;
+        @Label("Player")
+        String player;
+        @Label("Lobby")
+        String lobby;
+        @Label("Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("zyx.araxia.shrouded.AbilityCast")
+    @Label("Ability Cast")
+    @Category({ "TheShrouded", "Match" })
+    @StackTrace(false)
+    public static final class AbilityCast extends Event {
+        @Label("Ability")
+        String ability;
+        @Label("Player")
+        String player;
+        @Label("Lobby")
+        String lobby;
+        @Label("Arena")
+        String arena;
+    }
+
+    @Name("zyx.araxia.shrouded.ProjectileFlight")
+    @Label("Projectile Flight")
+    @Category({ "TheShrouded", "Match" })
+    @Description("A physics projectile, from launch until it exploded or was removed.")
+    @StackTrace(false)
+    public static final class ProjectileFlight extends Event {
+        @Label("Projectile")
+        String projectile;
+        @Label("Owner")
+        String owner;
+        @Label("Lobby")
+        String lobby;
+        @Label("Arena")
+        String arena;
+    }
+
+    @Name("zyx.araxia.shrouded.PackDownload")
+    @Label("Resource Pack Download")
+    @Category({ "TheShrouded", "I/O" })
+    @StackTrace(false)
+    public static final class PackDownload extends Event {
+        @Label("Kind")
+        String kind;
+        @Label("Pack")
+        String pack;
+        @Label("Size")
+        @DataAmount
+        long bytes;
+    }
+
+    // -------------------------------------------------------------------------
+    // Emitters
+    // -------------------------------------------------------------------------
+
+    /**
+     * Records a phase change. {@code match} and {@code arena} are
+     * {@code null} for a lobby session's own phases.
+     */
+    public static void sessionPhase(String lobby, String match, String arena, LobbySession.Phase from,
+            LobbySession.Phase to, long previousPhaseNanos) {
+        SessionPhase event = new SessionPhase();
+        if (from == to || !event.isEnabled())
+            return;
+        event.lobby = lobby;
+        event.match = match;
+        event.arena = arena;
+        event.from = from != null ? from.name() : null;
+        event.to = to != null ? to.name() : null;
+        event.previousPhaseDuration = from != null ? previousPhaseNanos : 0L;
+        event.commit();
+    }
+
+    public static void arenaClaimed(String arena, String lobby) {
+        ArenaClaim event = new ArenaClaim();
+        if (!event.isEnabled())
+            return;
+        event.arena = arena;
+        event.lobby = lobby;
+        event.commit();
+    }
+
+    public static void arenaReleased(String arena, String lobby) {
+        ArenaRelease event = new ArenaRelease();
+        if (!event.isEnabled())
+            return;
+        event.arena = arena;
+        event.lobby = lobby;
+        event.commit();
+    }
+
+    /** Starts timing a snapshot read or write; finish it with {@link #snapshotIo}. */
+    public static SnapshotIo beginSnapshotIo() {
+        SnapshotIo event = new SnapshotIo();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits {@code event}.
+     *
+     * @param operation {@code "save"} or {@code "load"}, as in
+     *                  {@link PluginMetrics#recordSnapshotIo}
+     * @param lobby     the lobby the player is joining, or {@code null} if
+     *                  not known
+     */
+    public static void snapshotIo(SnapshotIo event, String operation, Player player, String lobby,
+            long bytes) {
+        event.end();
+        if (!event.shouldCommit())
+            return;
+        event.operation = operation;
+        event.player = player.getName();
+        event.lobby = lobby;
+        event.bytes = bytes;
+        event.commit();
+    }
+
+    public static void abilityCast(String ability, Player player) {
+        AbilityCast event = new AbilityCast();
+        if (!event.isEnabled())
+            return;
+        event.ability = ability;
+        event.player = player.getName();
+        LobbySession session = sessionOf(player);
+        if (session != null) {
+            event.lobby = session.getLobby().getName();
+            event.arena = arenaOf(session, player);
+        }
+        event.commit();
+    }
+
+    /**
+     * Starts timing a projectile's flight, or returns {@code null} if no
+     * recording wants it. Pass the result to {@link #projectileRemoved}.
+     */
+    public static ProjectileFlight projectileLaunched(String projectile, Player owner) {
+        ProjectileFlight event = new ProjectileFlight();
+        if (!event.isEnabled())
+            return null;
+        event.begin();
+        event.projectile = projectile;
+        event.owner = owner.getName();
+        LobbySession session = sessionOf(owner);
+        if (session != null) {
+            event.lobby = session.getLobby().getName();
+            event.arena = arenaOf(session, owner);
+        }
+        return event;
+    }
+
+    /** Commits a flight from {@link #projectileLaunched}; {@code null} is ignored. */
+    public static void projectileRemoved(ProjectileFlight event) {
+        if (event != null)
+            event.commit();
+    }
+
+    /** Starts timing a pack download; finish it with {@link #packDownload}. */
+    public static PackDownload beginPackDownload() {
+        PackDownload event = new PackDownload();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param kind {@code "base"} or {@code "overlay"}, as in
+     *             {@link PluginMetrics#recordPackDownload}
+     * @param pack the overlay's name, or {@code null} for the base pack
+     */
+    public static void packDownload(PackDownload event, String kind, String pack, long bytes) {
+        event.end();
+        if (!event.shouldCommit())
+            return;
+        event.kind = kind;
+        event.pack = pack;
+        event.bytes = bytes;
+        event.commit();
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /** Only called while a recording is running, so the lookup costs nothing otherwise. */
+    private static LobbySession sessionOf(Player player) {
+        return JavaPlugin.getPlugin(TheShrouded.class).getLobbyManager()
+                .getSessionForPlayer(player.getUniqueId());
+    }
+
+    private static String arenaOf(LobbySession session, Player player) {
+        MatchInstance match = session.getMatch(player.getUniqueId());
+        return match != null && match.getActiveArena() != null ? match.getActiveArena().getName() : null;
+    }
+}
@@ -0,0 +1,113 @@
+package zyx.araxia.shrouded.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket histogram of non-negative {@code long} values, usually
+ * nanoseconds. Each power of two is split into {@value #SUB_BUCKETS}
+ * linear buckets. A quantile read back from it is within about 6% of the
+ * true value across the whole {@code long} range, and all the counters
+ * fit in under 4 KB.
+ *
+ * <p>
+ * {@link #record} is a handful of atomic adds: no lock, no allocation.
+ * Readers see each counter's latest value but not one consistent instant
+ * across all of them, which is fine for a metrics dump.
+ */
+public final class LogLinearHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    /** Values below {@link #SUB_BUCKETS} get a bucket each, then 8 per power of two up to 2^63. */
+    static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    LogLinearHistogram(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** Records one value. Negative values are recorded as zero. */
+    public void record(long value) {
+        long v = Math.max(value, 0L);
+        counts.incrementAndGet(bucket(v));
+        count.incrementAndGet();
+        sum.addAndGet(v);
+        long current;
+        while (v > (current = max.get()) && !max.compareAndSet(current, v)) {
+        }
+    }
+
+    /** Records {@code System.nanoTime() - startNanos}. */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long sum() {
+        return sum.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    /** Copies the bucket counts, for {@link #quantile(long[], double)} and interval deltas. */
+    public long[] bucketCounts() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            copy[i] = counts.get(i);
+        return copy;
+    }
+
+    /**
+     * The value at quantile {@code q} (0..1) of the given bucket counts,
+     * reported as the midpoint of its bucket. Returns 0 if they are empty.
+     */
+    public static long quantile(long[] bucketCounts, double q) {
+        long total = 0;
+        for (long c : bucketCounts)
+            total += c;
+        if (total == 0)
+            return 0L;
+        long rank = Math.max(1L, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank)
+                return lowerBound(i) + (lowerBound(i + 1) - lowerBound(i)) / 2;
+        }
+        return lowerBound(bucketCounts.length - 1);
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /** Smallest value that falls in bucket {@code index}. */
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+        if (index >= BUCKETS)
+            return Long.MAX_VALUE;
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+        long sub = (index - SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return sub << (exponent - SUB_BITS);
+    }
+}
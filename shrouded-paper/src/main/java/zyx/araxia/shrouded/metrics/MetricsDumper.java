@@ -0,0 +1,180 @@
+package zyx.araxia.shrouded.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * Appends the contents of {@link MetricsRegistry} to
+ * {@code metrics/metrics.jsonl} in the plugin folder on a fixed interval,
+ * one JSON object per line. Each line holds counter totals and the change
+ * since the previous line, gauge values, and each histogram's count and
+ * quantiles over the interval. Once the file passes its size limit it is
+ * rotated to {@code metrics.jsonl.1}, {@code .2} and so on, and the oldest
+ * is deleted.
+ *
+ * <p>
+ * Runs on its own daemon thread so the interval holds even when the server
+ * is lagging.
+ */
+public class MetricsDumper {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+    private static final String[] QUANTILE_KEYS = { "p50_ms", "p90_ms", "p99_ms", "p999_ms" };
+
+    private final Path file;
+    private final long intervalMillis;
+    private final long maxFileBytes;
+    private final int keepFiles;
+    private final Logger logger;
+    private final Gson gson = new Gson();
+
+    /** State at the previous dump, to report per-interval changes. Dump thread only. */
+    private final Map<String, Long> lastCounters = new HashMap<>();
+    private final Map<String, long[]> lastBuckets = new HashMap<>();
+    private long lastDumpNanos = System.nanoTime();
+
+    private Thread thread;
+
+    /**
+     * @param keepFiles rotated files to keep besides the current one
+     */
+    public MetricsDumper(Path directory, long intervalSeconds, long maxFileBytes, int keepFiles,
+            Logger logger) {
+        this.file = directory.resolve("metrics.jsonl");
+        this.intervalMillis = TimeUnit.SECONDS.toMillis(Math.max(1, intervalSeconds));
+        this.maxFileBytes = Math.max(1024, maxFileBytes);
+        this.keepFiles = Math.max(0, keepFiles);
+        this.logger = logger;
+    }
+
+    public void start() {
+        thread = new Thread(this::run, "TheShrouded-metrics-dump");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stops the thread and writes one last line covering the time since the previous one. */
+    public void stop() {
+        if (thread == null)
+            return;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+        dump();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            dump();
+        }
+    }
+
+    private synchronized void dump() {
+        try {
+            String line = gson.toJson(snapshot()) + "\n";
+            Files.createDirectories(file.getParent());
+            if (Files.exists(file) && Files.size(file) + line.length() > maxFileBytes)
+                rotate();
+            Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "[TheShrouded] Could not write metrics dump: {0}", e.getMessage());
+        }
+    }
+
+    private JsonObject snapshot() {
+        long now = System.nanoTime();
+        JsonObject root = new JsonObject();
+        root.addProperty("time", Instant.now().toString());
+        root.addProperty("interval_seconds", Math.round((now - lastDumpNanos) / 1e9));
+        lastDumpNanos = now;
+
+        JsonObject counters = new JsonObject();
+        for (Map.Entry<String, MetricsRegistry.Counter> e : MetricsRegistry.counters().entrySet()) {
+            long total = e.getValue().get();
+            Long previous = lastCounters.put(e.getKey(), total);
+            JsonObject counter = new JsonObject();
+            counter.addProperty("total", total);
+            counter.addProperty("delta", total - (previous != null ? previous : 0L));
+            counters.add(e.getKey(), counter);
+        }
+        root.add("counters", counters);
+
+        JsonObject gauges = new JsonObject();
+        for (Map.Entry<String, MetricsRegistry.Gauge> e : MetricsRegistry.gauges().entrySet())
+            gauges.addProperty(e.getKey(), e.getValue().get());
+        root.add("gauges", gauges);
+
+        JsonObject histograms = new JsonObject();
+        for (Map.Entry<String, LogLinearHistogram> e : MetricsRegistry.histograms().entrySet()) {
+            long[] buckets = e.getValue().bucketCounts();
+            long[] previous = lastBuckets.put(e.getKey(), buckets);
+            long[] interval = buckets.clone();
+            long count = 0;
+            for (int i = 0; i < interval.length; i++) {
+                if (previous != null)
+                    interval[i] -= previous[i];
+                count += interval[i];
+            }
+
+            JsonObject histogram = new JsonObject();
+            histogram.addProperty("count", count);
+            histogram.addProperty("total_count", e.getValue().count());
+            if (count > 0) {
+                for (int q = 0; q < QUANTILES.length; q++) {
+                    histogram.addProperty(QUANTILE_KEYS[q],
+                            millis(LogLinearHistogram.quantile(interval, QUANTILES[q])));
+                }
+                histogram.addProperty("max_ms", millis(LogLinearHistogram.quantile(interval, 1.0)));
+            }
+            histograms.add(e.getKey(), histogram);
+        }
+        root.add("histograms", histograms);
+        return root;
+    }
+
+    /** Shifts {@code metrics.jsonl.N} to {@code .N+1}, dropping the oldest, then the current file to {@code .1}. */
+    private void rotate() throws IOException {
+        if (keepFiles == 0) {
+            Files.delete(file);
+            return;
+        }
+        Files.deleteIfExists(rotated(keepFiles));
+        for (int i = keepFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i)))
+                Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / NANOS_PER_MILLI * 1000.0) / 1000.0;
+    }
+}
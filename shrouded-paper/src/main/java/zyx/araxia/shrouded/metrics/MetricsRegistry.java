@@ -0,0 +1,116 @@
+package zyx.araxia.shrouded.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Named counters, gauges and {@link LogLinearHistogram}s, written to disk
+ * every minute by {@link MetricsDumper} and served on {@code /metrics} by
+ * {@link PluginMetrics#render()}.
+ *
+ * <p>
+ * Look a metric up once and keep it in a {@code static final} field; after
+ * that, updating it is a few atomic operations with no lock or allocation.
+ * All members are static: callers spread across listeners and projectiles
+ * would otherwise need a plugin lookup on every update.
+ */
+public final class MetricsRegistry {
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Gauge> GAUGES = new ConcurrentHashMap<>();
+    private static final Map<String, LogLinearHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    /** A count that only goes up. */
+    public static final class Counter {
+        private final AtomicLong value = new AtomicLong();
+
+        public void increment() {
+            value.incrementAndGet();
+        }
+
+        public void add(long delta) {
+            value.addAndGet(delta);
+        }
+
+        public long get() {
+            return value.get();
+        }
+    }
+
+    /** A value that goes up and down. */
+    public static final class Gauge {
+        private final AtomicLong value = new AtomicLong();
+
+        public void set(long v) {
+            value.set(v);
+        }
+
+        public void add(long delta) {
+            value.addAndGet(delta);
+        }
+
+        public long get() {
+            return value.get();
+        }
+    }
+
+    private MetricsRegistry() {
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, k -> new Counter());
+    }
+
+    public static Gauge gauge(String name) {
+        return GAUGES.computeIfAbsent(name, k -> new Gauge());
+    }
+
+    /** Returns the histogram {@code name}. Record durations in nanoseconds. */
+    public static LogLinearHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, LogLinearHistogram::new);
+    }
+
+    /** {@link #counter(String)} for one value of a label, e.g. one ability. */
+    public static Counter counter(String name, String label, String value) {
+        return counter(labelled(name, label, value));
+    }
+
+    public static Gauge gauge(String name, String label, String value) {
+        return gauge(labelled(name, label, value));
+    }
+
+    public static LogLinearHistogram histogram(String name, String label, String value) {
+        return histogram(labelled(name, label, value));
+    }
+
+    /**
+     * The key of a labelled metric, {@code name{label="value"}}, as it
+     * appears in the dump and on {@code /metrics}.
+     */
+    static String labelled(String name, String label, String value) {
+        return name + '{' + label + "=\"" + escape(value) + "\"}";
+    }
+
+    /** Escapes a label value per the exposition format (backslash, quote, newline). */
+    static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    // -------------------------------------------------------------------------
+    // Reads (for MetricsDumper and PluginMetrics)
+    // -------------------------------------------------------------------------
+
+    static Map<String, Counter> counters() {
+        return new TreeMap<>(COUNTERS);
+    }
+
+    static Map<String, Gauge> gauges() {
+        return new TreeMap<>(GAUGES);
+    }
+
+    static Map<String, LogLinearHistogram> histograms() {
+        return new TreeMap<>(HISTOGRAMS);
+    }
+}
@@ -0,0 +1,98 @@
+package zyx.araxia.shrouded.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves {@code /metrics} (Prometheus text format, from {@link PluginMetrics})
+ * and {@code /health}.
+ *
+ * <p>
+ * The handlers can be mounted on the resource pack server's existing
+ * {@link HttpServer} (see {@code ResourcePackServer#addContext}) or, when the
+ * pack server is disabled or a separate port is configured, on a server of
+ * their own via {@link #start(int)}. Either way they run on the HTTP server's
+ * thread and read only atomics, so a scrape never waits on the main thread.
+ *
+ * <h3>Health</h3>
+ * {@code /health} returns {@code 200 ok} while the main-thread heartbeat is
+ * fresh and {@code 503} once it is older than the configured threshold —
+ * i.e. when the server is frozen and no longer ticking.
+ */
+public class MetricsServer {
+
+    private final double maxHeartbeatAgeSeconds;
+    private final Logger logger;
+
+    private HttpServer httpServer;
+
+    public MetricsServer(double maxHeartbeatAgeSeconds, Logger logger) {
+        this.maxHeartbeatAgeSeconds = maxHeartbeatAgeSeconds;
+        this.logger = logger;
+    }
+
+    /** Starts a dedicated HTTP server for the endpoints on {@code port}. */
+    public void start(int port) {
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+            httpServer.createContext("/metrics", this::handleMetrics);
+            httpServer.createContext("/health", this::handleHealth);
+            httpServer.setExecutor(null); // uses the default executor
+            httpServer.start();
+            logger.log(Level.INFO, "[TheShrouded] Metrics server started on port {0}.", port);
+        } catch (IOException e) {
+            httpServer = null;
+            logger.log(Level.SEVERE, "[TheShrouded] Failed to start metrics server.", e);
+        }
+    }
+
+    /** Stops the dedicated server, if {@link #start(int)} created one. */
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+            logger.log(Level.INFO, "[TheShrouded] Metrics server stopped.");
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Handlers
+    // -------------------------------------------------------------------------
+
+    public void handleMetrics(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", PluginMetrics.render());
+    }
+
+    public void handleHealth(HttpExchange exchange) throws IOException {
+        double age = PluginMetrics.secondsSinceHeartbeat();
+        if (age <= maxHeartbeatAgeSeconds) {
+            respond(exchange, 200, "text/plain; charset=utf-8", "ok\n");
+        } else {
+            respond(exchange, 503, "text/plain; charset=utf-8",
+                    String.format("main thread stalled for %.1fs%n", age));
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.getResponseHeaders().add("Cache-Control", "no-store");
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
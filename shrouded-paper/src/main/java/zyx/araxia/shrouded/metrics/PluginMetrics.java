@@ -0,0 +1,285 @@
+package zyx.araxia.shrouded.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import zyx.araxia.shrouded.lobby.LobbySession;
+
+/**
+ * Process-wide counters and gauges describing what the plugin is doing, and
+ * the Prometheus view of {@link MetricsRegistry}.
+ *
+ * <p>
+ * Game code updates these on the main thread as things happen (a session
+ * changes phase, an arena is claimed, a bomb is thrown). Every value lives in
+ * {@link MetricsRegistry}, so {@code /metrics} and the {@link MetricsDumper}
+ * file show the same numbers, and {@link #render()} only reads atomics: a
+ * scrape from the HTTP server thread never has to touch Bukkit state or wait
+ * for a tick.
+ *
+ * <p>
+ * All members are static: the counters are cheap enough to update even when
+ * the metrics endpoint is disabled, and callers spread across listeners and
+ * projectiles would otherwise need a plugin lookup on every update.
+ */
+public final class PluginMetrics {
+
+    private static final String PREFIX = "shrouded_";
+
+    /** Quantiles rendered for each histogram, as {@code quantile} label values. */
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    /** Sessions per phase. Keys are fixed at class load; only the values change. */
+    private static final Map<LobbySession.Phase, MetricsRegistry.Gauge> SESSIONS_BY_PHASE = new EnumMap<>(
+            LobbySession.Phase.class);
+    private static final MetricsRegistry.Gauge ARENAS_IN_USE = MetricsRegistry.gauge("arenas_in_use");
+    private static final MetricsRegistry.Gauge ARENA_QUEUE = MetricsRegistry.gauge("arena_queue_length");
+    private static final LogLinearHistogram ARENA_WAIT = MetricsRegistry.histogram("arena_wait");
+    private static final MetricsRegistry.Gauge MATCHMAKING_QUEUE = MetricsRegistry.gauge("matchmaking_queue_depth");
+    private static final LogLinearHistogram MATCHMAKING_WAIT = MetricsRegistry.histogram("matchmaking_wait");
+    private static final MetricsRegistry.Gauge ACTIVE_PROJECTILES = MetricsRegistry.gauge("projectiles_active");
+    /** Ability → its counter, so a cast does not build the labelled key each time. */
+    private static final Map<String, MetricsRegistry.Counter> ABILITY_CASTS = new ConcurrentHashMap<>();
+    private static final LogLinearHistogram SNAPSHOT_SAVE = MetricsRegistry.histogram("snapshot_io", "operation",
+            "save");
+    private static final LogLinearHistogram SNAPSHOT_LOAD = MetricsRegistry.histogram("snapshot_io", "operation",
+            "load");
+
+    /** Family name (without prefix or suffix) → {@code # HELP} text. Families not listed get none. */
+    private static final Map<String, String> HELP = Map.ofEntries(
+            Map.entry("sessions", "Lobby sessions and their matches by phase."),
+            Map.entry("lobby_players", "Players currently in each lobby session."),
+            Map.entry("arenas_in_use", "Arenas currently claimed by a lobby."),
+            Map.entry("arena_queue_length", "Lobbies waiting for a free arena."),
+            Map.entry("arena_wait", "Time lobbies spent queued for an arena."),
+            Map.entry("matchmaking_queue_depth", "Players waiting in the matchmaking queue."),
+            Map.entry("matchmaking_wait", "Time players spent in the matchmaking queue before joining a lobby."),
+            Map.entry("projectiles_active", "Physics projectiles currently in flight."),
+            Map.entry("ability_casts", "Ability uses since startup."),
+            Map.entry("pack_downloads", "Resource pack downloads served."),
+            Map.entry("snapshot_io", "Player snapshot file read/write latency."),
+            Map.entry("lobby_joins", "Players who joined a lobby since startup."),
+            Map.entry("join_latency", "Time from a join request to the player being in the lobby."),
+            Map.entry("vote_to_round", "Time from the end of voting to the round starting."),
+            Map.entry("match_length", "Length of finished matches."),
+            Map.entry("matches_played", "Matches finished since startup."),
+            Map.entry("matches_running", "Matches currently running."),
+            Map.entry("load_quality_level", "Effect quality level set by the load governor (0 is full)."),
+            Map.entry("journal_segments", "Match journal segment files created."),
+            Map.entry("journal_write_failures", "Match journal segments abandoned after a write error."),
+            Map.entry("journal_dropped", "Match journal events dropped because the writer fell behind."),
+            Map.entry("profile_flush", "Time taken to write dirty player profiles."),
+            Map.entry("profile_updates", "Player profile changes since startup."),
+            Map.entry("profile_flush_failures", "Player profile writes that failed."));
+
+    /** {@link System#nanoTime()} of the most recent main-thread heartbeat. */
+    private static volatile long lastHeartbeatNanos = System.nanoTime();
+
+    static {
+        for (LobbySession.Phase phase : LobbySession.Phase.values()) {
+            SESSIONS_BY_PHASE.put(phase,
+                    MetricsRegistry.gauge("sessions", "phase", phase.name().toLowerCase()));
+        }
+    }
+
+    private PluginMetrics() {
+    }
+
+    // -------------------------------------------------------------------------
+    // Updates (called from game code)
+    // -------------------------------------------------------------------------
+
+    /**
+     * Moves one session or match from {@code from} to {@code to}. Pass
+     * {@code null} as {@code from} when it is created, and as {@code to} when
+     * a match is over.
+     */
+    public static void sessionPhaseChanged(LobbySession.Phase from, LobbySession.Phase to) {
+        if (from == to)
+            return;
+        if (from != null)
+            SESSIONS_BY_PHASE.get(from).add(-1);
+        if (to != null)
+            SESSIONS_BY_PHASE.get(to).add(1);
+    }
+
+    /** Sets the current player count shown for {@code lobbyName}. */
+    public static void setLobbyPlayers(String lobbyName, int players) {
+        MetricsRegistry.gauge("lobby_players", "lobby", lobbyName).set(players);
+    }
+
+    public static void arenaClaimed() {
+        ARENAS_IN_USE.add(1);
+    }
+
+    public static void arenaReleased() {
+        ARENAS_IN_USE.add(-1);
+    }
+
+    /** Sets the number of lobbies queued for a free arena. */
+    public static void setArenaQueueLength(int waiting) {
+        ARENA_QUEUE.set(waiting);
+    }
+
+    /** Records how long a lobby waited in the arena queue before being granted one. */
+    public static void recordArenaWait(long elapsedNanos) {
+        ARENA_WAIT.record(elapsedNanos);
+    }
+
+    /** Sets the number of players waiting in the matchmaking queue. */
+    public static void setMatchmakingQueueDepth(int waiting) {
+        MATCHMAKING_QUEUE.set(waiting);
+    }
+
+    /** Records how long a player waited in the matchmaking queue before joining a lobby. */
+    public static void recordMatchmakingWait(long elapsedNanos) {
+        MATCHMAKING_WAIT.record(elapsedNanos);
+    }
+
+    public static void projectileSpawned() {
+        ACTIVE_PROJECTILES.add(1);
+    }
+
+    public static void projectileRemoved() {
+        ACTIVE_PROJECTILES.add(-1);
+    }
+
+    /** Counts one successful use of {@code ability} (e.g. {@code "survivor_bomb"}). */
+    public static void recordAbilityCast(String ability) {
+        ABILITY_CASTS.computeIfAbsent(ability, k -> MetricsRegistry.counter("ability_casts", "ability", k))
+                .increment();
+    }
+
+    /** Counts one served download of a pack of the given kind ({@code "base"} or {@code "overlay"}). */
+    public static void recordPackDownload(String kind) {
+        MetricsRegistry.counter("pack_downloads", "kind", kind).increment();
+    }
+
+    /**
+     * Records one player snapshot file operation.
+     *
+     * @param operation    {@code "save"} or {@code "load"}
+     * @param elapsedNanos how long the read or write took
+     */
+    public static void recordSnapshotIo(String operation, long elapsedNanos) {
+        (operation.equals("save") ? SNAPSHOT_SAVE : SNAPSHOT_LOAD).record(elapsedNanos);
+    }
+
+    /** Called once per second from a main-thread task; see {@link #secondsSinceHeartbeat()}. */
+    public static void heartbeat() {
+        lastHeartbeatNanos = System.nanoTime();
+    }
+
+    // -------------------------------------------------------------------------
+    // Reads (safe from any thread)
+    // -------------------------------------------------------------------------
+
+    /**
+     * Seconds since the main thread last ran {@link #heartbeat()}. A value
+     * well above one means the server is stalled.
+     */
+    public static double secondsSinceHeartbeat() {
+        return (System.nanoTime() - lastHeartbeatNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Renders every {@link MetricsRegistry} metric in the Prometheus text
+     * exposition format: counters with a {@code _total} suffix, gauges as
+     * they are, and histograms as {@code _seconds} summaries.
+     */
+    public static String render() {
+        StringBuilder out = new StringBuilder(4096);
+
+        String family = null;
+        for (Map.Entry<String, MetricsRegistry.Counter> e : MetricsRegistry.counters().entrySet()) {
+            String name = family(e.getKey()) + "_total";
+            family = header(out, family, name, "counter", e.getKey());
+            sample(out, name, labels(e.getKey()), e.getValue().get());
+        }
+
+        family = null;
+        for (Map.Entry<String, MetricsRegistry.Gauge> e : MetricsRegistry.gauges().entrySet()) {
+            String name = family(e.getKey());
+            family = header(out, family, name, "gauge", e.getKey());
+            sample(out, name, labels(e.getKey()), e.getValue().get());
+        }
+
+        family = null;
+        for (Map.Entry<String, LogLinearHistogram> e : MetricsRegistry.histograms().entrySet()) {
+            String name = family(e.getKey()) + "_seconds";
+            String labels = labels(e.getKey());
+            LogLinearHistogram histogram = e.getValue();
+            family = header(out, family, name, "summary", e.getKey());
+            long[] buckets = histogram.bucketCounts();
+            for (double q : QUANTILES) {
+                sample(out, name, join(labels, "quantile=\"" + q + "\""),
+                        seconds(LogLinearHistogram.quantile(buckets, q)));
+            }
+            sample(out, name + "_sum", labels, seconds(histogram.sum()));
+            sample(out, name + "_count", labels, histogram.count());
+        }
+
+        header(out, null, "main_thread_heartbeat_age_seconds", "gauge", null);
+        sample(out, "main_thread_heartbeat_age_seconds", "", secondsSinceHeartbeat());
+
+        return out.toString();
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /** {@code "ability_casts"} for {@code ability_casts{ability="survivor_bomb"}}. */
+    private static String family(String key) {
+        int brace = key.indexOf('{');
+        return brace < 0 ? key : key.substring(0, brace);
+    }
+
+    /** {@code ability="survivor_bomb"} for {@code ability_casts{ability="survivor_bomb"}}, or {@code ""}. */
+    private static String labels(String key) {
+        int brace = key.indexOf('{');
+        return brace < 0 ? "" : key.substring(brace + 1, key.length() - 1);
+    }
+
+    private static String join(String labels, String label) {
+        return labels.isEmpty() ? label : labels + ',' + label;
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Writes the {@code # HELP} and {@code # TYPE} lines for {@code name}
+     * unless it is the family already being written. Registry keys arrive
+     * sorted, so every labelled sample of a family follows its header.
+     *
+     * @return {@code name}, to pass back as {@code current} for the next key
+     */
+    private static String header(StringBuilder out, String current, String name, String type, String key) {
+        if (name.equals(current))
+            return current;
+        String help = key != null ? HELP.get(family(key))
+                : "Seconds since the main thread last ran the heartbeat task.";
+        if (help != null)
+            out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+        return name;
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(PREFIX).append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+}
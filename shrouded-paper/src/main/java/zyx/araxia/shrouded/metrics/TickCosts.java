@@ -0,0 +1,135 @@
+package zyx.araxia.shrouded.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time spent in each of the plugin's event handlers and scheduled tasks,
+ * for {@code /shrouded.perf}.
+ *
+ * <p>
+ * Handlers are timed by {@link TimedListeners} and tasks by
+ * {@code TimedTaskScheduler}. Both look up their {@link CostHistogram} once,
+ * when they are registered or scheduled, so recording a call is two
+ * {@link System#nanoTime()} reads and a few atomic adds.
+ *
+ * <p>
+ * Static for the same reason as {@link PluginMetrics}.
+ */
+public final class TickCosts {
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+    private static final long NANOS_PER_TICK = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private static final Map<String, CostHistogram> CONSUMERS = new ConcurrentHashMap<>();
+
+    /** {@link System#nanoTime()} of startup or the last {@link #reset()}. */
+    private static volatile long sinceNanos = System.nanoTime();
+
+    /** The windows {@code /shrouded.perf} can show. */
+    public enum Window {
+        ONE_MINUTE(1, "1m"),
+        FIVE_MINUTES(5, "5m"),
+        FIFTEEN_MINUTES(15, "15m");
+
+        private final int minutes;
+        private final String label;
+
+        Window(int minutes, String label) {
+            this.minutes = minutes;
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        /** Returns the window labelled {@code label} (e.g. {@code "5m"}), or {@code null}. */
+        public static Window fromLabel(String label) {
+            for (Window window : values()) {
+                if (window.label.equalsIgnoreCase(label))
+                    return window;
+            }
+            return null;
+        }
+    }
+
+    private TickCosts() {
+    }
+
+    /** Returns the histogram for {@code name}, creating it on first use. */
+    public static CostHistogram histogram(String name) {
+        return CONSUMERS.computeIfAbsent(name, CostHistogram::new);
+    }
+
+    /** The minute {@link CostHistogram#record} files calls under. */
+    static long currentMinute() {
+        return Math.floorDiv(System.nanoTime(), NANOS_PER_MINUTE);
+    }
+
+    /** Returns the {@code limit} consumers with the most total time in {@code window}. */
+    public static List<CostHistogram.Summary> top(Window window, int limit) {
+        long minute = currentMinute();
+        List<CostHistogram.Summary> summaries = new ArrayList<>();
+        for (CostHistogram histogram : CONSUMERS.values()) {
+            CostHistogram.Summary summary = histogram.summarize(minute, window.minutes);
+            if (summary.count() > 0)
+                summaries.add(summary);
+        }
+        summaries.sort(Comparator.comparingLong(CostHistogram.Summary::totalNanos).reversed());
+        return summaries.size() > limit ? summaries.subList(0, limit) : summaries;
+    }
+
+    /**
+     * Server ticks {@code window} covers: its whole minutes plus the current
+     * one so far, or less if the data was reset in the meantime.
+     */
+    public static double ticksIn(Window window) {
+        long now = System.nanoTime();
+        long windowStart = (currentMinute() - window.minutes) * NANOS_PER_MINUTE;
+        long start = Math.max(windowStart, sinceNanos);
+        return Math.max(now - start, NANOS_PER_TICK) / (double) NANOS_PER_TICK;
+    }
+
+    /** Forgets everything recorded so far. */
+    public static void reset() {
+        for (CostHistogram histogram : CONSUMERS.values())
+            histogram.reset();
+        sinceNanos = System.nanoTime();
+    }
+
+    /** Writes every consumer's numbers for every window to {@code file}, replacing it. */
+    public static void dump(Path file) throws IOException {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("# TheShrouded tick costs, ").append(Instant.now()).append('\n');
+        for (Window window : Window.values()) {
+            double ticks = ticksIn(window);
+            out.append('\n').append("# window ").append(window.label)
+                    .append(String.format(" (%.0f ticks)", ticks)).append('\n');
+            out.append("name\tcalls\ttotal_ms\tms_per_tick\tp99_ms\tmax_ms\n");
+            for (CostHistogram.Summary s : top(window, Integer.MAX_VALUE)) {
+                out.append(s.name()).append('\t')
+                        .append(s.count()).append('\t')
+                        .append(millis(s.totalNanos())).append('\t')
+                        .append(String.format("%.4f", s.totalNanos() / ticks / 1_000_000.0)).append('\t')
+                        .append(millis(s.p99Nanos())).append('\t')
+                        .append(millis(s.maxNanos())).append('\n');
+            }
+        }
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, out, StandardCharsets.UTF_8);
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,83 @@
+package zyx.araxia.shrouded.metrics;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.logging.Level;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Registers a listener's {@link EventHandler} methods the way
+ * {@code PluginManager.registerEvents} does, but with each call timed into
+ * {@link TickCosts} under {@code ListenerClass.method}.
+ */
+public final class TimedListeners {
+
+    private static final MethodType EXECUTOR_TYPE = MethodType.methodType(void.class, Object.class,
+            Object.class);
+
+    private TimedListeners() {
+    }
+
+    public static void register(Listener listener, Plugin plugin) {
+        Set<Method> methods = new LinkedHashSet<>();
+        for (Method method : listener.getClass().getMethods())
+            methods.add(method);
+        for (Method method : listener.getClass().getDeclaredMethods())
+            methods.add(method);
+
+        for (Method method : methods) {
+            EventHandler handler = method.getAnnotation(EventHandler.class);
+            if (handler == null || method.isBridge() || method.isSynthetic())
+                continue;
+            Class<?>[] params = method.getParameterTypes();
+            if (params.length != 1 || !Event.class.isAssignableFrom(params[0])) {
+                plugin.getLogger().log(Level.SEVERE,
+                        "[TheShrouded] {0}.{1} is not a valid event handler and was not registered.",
+                        new Object[] {
+                                listener.getClass().getSimpleName(), method.getName()
+                        });
+                continue;
+            }
+            Class<? extends Event> eventClass = params[0].asSubclass(Event.class);
+
+            MethodHandle handle;
+            try {
+                method.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(method).asType(EXECUTOR_TYPE);
+            } catch (IllegalAccessException | RuntimeException e) {
+                plugin.getLogger().log(Level.SEVERE, "[TheShrouded] Could not register "
+                        + listener.getClass().getSimpleName() + "." + method.getName() + ".", e);
+                continue;
+            }
+
+            CostHistogram costs = TickCosts.histogram(
+                    listener.getClass().getSimpleName() + "." + method.getName());
+            EventExecutor executor = (target, event) -> {
+                // Executors are shared by subclasses of the event; skip the
+                // ones this handler does not take.
+                if (!eventClass.isInstance(event))
+                    return;
+                long start = System.nanoTime();
+                try {
+                    handle.invokeExact((Object) target, (Object) event);
+                } catch (Throwable t) {
+                    throw new EventException(t);
+                } finally {
+                    costs.record(System.nanoTime() - start);
+                }
+            };
+            plugin.getServer().getPluginManager().registerEvent(eventClass, listener, handler.priority(),
+                    executor, plugin, handler.ignoreCancelled());
+        }
+    }
+}
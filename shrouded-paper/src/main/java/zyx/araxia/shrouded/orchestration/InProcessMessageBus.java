@@ -0,0 +1,53 @@
+package zyx.araxia.shrouded.orchestration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link MessageBus} within one JVM: {@link #publish} calls every subscriber
+ * of the channel directly, on the publishing thread. Enough for a single
+ * server that is both lobby and match node, and shared by
+ * {@link LoopbackMessageBus} for local delivery.
+ */
+public class InProcessMessageBus implements MessageBus {
+
+    private final Logger logger;
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+
+    public InProcessMessageBus(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        List<Consumer<String>> subscribers = handlers.get(channel);
+        if (subscribers == null)
+            return;
+        for (Consumer<String> handler : subscribers) {
+            try {
+                handler.accept(message);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING,
+                        "[TheShrouded] Handler for message bus channel '" + channel + "' failed.", e);
+            }
+        }
+    }
+
+    @Override
+    public Subscription subscribe(String channel, Consumer<String> handler) {
+        List<Consumer<String>> subscribers =
+                handlers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>());
+        subscribers.add(handler);
+        return () -> subscribers.remove(handler);
+    }
+
+    @Override
+    public void close() {
+        handlers.clear();
+    }
+}
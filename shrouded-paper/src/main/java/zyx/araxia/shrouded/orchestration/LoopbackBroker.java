@@ -0,0 +1,138 @@
+package zyx.araxia.shrouded.orchestration;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Relay for {@link LoopbackMessageBus}: listens on a loopback port and
+ * copies every line a connected bus sends to every connected bus, the
+ * sender included. One server on the machine hosts it
+ * ({@code orchestration.loopback.host-broker}); the rest only connect.
+ *
+ * <p>
+ * Any local process can open a loopback port, so a client must send
+ * {@code orchestration.loopback.secret} as its first line before it is
+ * relayed anything or its lines are relayed. Other connections are closed.
+ *
+ * <p>
+ * Meant for running a lobby and several match servers side by side while
+ * testing. It keeps nothing: a bus that is disconnected misses whatever is
+ * published until it reconnects.
+ */
+public class LoopbackBroker {
+
+    /** How long a new connection has to send the secret. */
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+
+    private final int port;
+    private final byte[] secret;
+    private final Logger logger;
+
+    /** Connected client → writer for its socket. Writes are synchronised on the writer. */
+    private final Map<Socket, Writer> clients = new ConcurrentHashMap<>();
+
+    private ServerSocket serverSocket;
+    private volatile boolean running = false;
+
+    public LoopbackBroker(int port, String secret, Logger logger) {
+        this.port = port;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.logger = logger;
+    }
+
+    /** Binds the port and starts accepting connections on a daemon thread. */
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        running = true;
+        Thread acceptor = new Thread(this::acceptLoop, "TheShrouded-bus-broker");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.log(Level.INFO, "[TheShrouded] Loopback message broker listening on port {0}.", port);
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            if (serverSocket != null)
+                serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        for (Socket socket : clients.keySet())
+            closeQuietly(socket);
+        clients.clear();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread reader = new Thread(() -> relay(socket),
+                        "TheShrouded-bus-broker-" + socket.getPort());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (running)
+                    logger.log(Level.WARNING, "[TheShrouded] Loopback broker accept failed: {0}",
+                            e.getMessage());
+            }
+        }
+    }
+
+    private void relay(Socket socket) {
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            String line = in.readLine();
+            if (line == null || !MessageDigest.isEqual(secret, line.getBytes(StandardCharsets.UTF_8))) {
+                logger.log(Level.WARNING,
+                        "[TheShrouded] Loopback broker rejected a connection from port {0}: wrong secret.",
+                        socket.getPort());
+                return;
+            }
+            socket.setSoTimeout(0);
+            clients.put(socket, new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)));
+
+            while ((line = in.readLine()) != null) {
+                for (Map.Entry<Socket, Writer> client : clients.entrySet()) {
+                    Writer out = client.getValue();
+                    try {
+                        synchronized (out) {
+                            out.write(line);
+                            out.write('\n');
+                            out.flush();
+                        }
+                    } catch (IOException e) {
+                        clients.remove(client.getKey());
+                        closeQuietly(client.getKey());
+                    }
+                }
+            }
+        } catch (IOException ignored) {
+            // Client went away.
+        } finally {
+            clients.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
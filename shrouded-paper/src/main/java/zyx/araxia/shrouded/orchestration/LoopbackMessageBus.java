@@ -0,0 +1,134 @@
+package zyx.araxia.shrouded.orchestration;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link MessageBus} between servers on one machine, through a
+ * {@link LoopbackBroker} on a loopback port. Each message travels as one
+ * line, {@code channel + '\t' + message}, so messages must not contain raw
+ * newlines (compact JSON never does). The first line sent on each
+ * connection is the broker's shared secret.
+ *
+ * <p>
+ * The connection is made, and remade after a failure, by a daemon thread
+ * that also reads incoming lines and hands them to local subscribers.
+ * Messages published while disconnected are dropped.
+ */
+public class LoopbackMessageBus implements MessageBus {
+
+    private static final long RECONNECT_DELAY_MILLIS = 2000;
+
+    private final int port;
+    private final String secret;
+    private final Logger logger;
+    private final InProcessMessageBus local;
+
+    private volatile Writer out = null;
+    private volatile Socket socket = null;
+    private volatile boolean closed = false;
+
+    public LoopbackMessageBus(int port, String secret, Logger logger) {
+        this.port = port;
+        this.secret = secret;
+        this.logger = logger;
+        this.local = new InProcessMessageBus(logger);
+        Thread reader = new Thread(this::connectLoop, "TheShrouded-bus-client");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        Writer writer = out;
+        if (writer == null) {
+            logger.log(Level.FINE,
+                    "[TheShrouded] Message bus not connected — dropped message on ''{0}''.", channel);
+            return;
+        }
+        try {
+            synchronized (writer) {
+                writer.write(channel);
+                writer.write('\t');
+                writer.write(message);
+                writer.write('\n');
+                writer.flush();
+            }
+        } catch (IOException e) {
+            logger.log(Level.FINE, "[TheShrouded] Message bus write failed: {0}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Subscription subscribe(String channel, Consumer<String> handler) {
+        return local.subscribe(channel, handler);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        out = null;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {
+            }
+        }
+        local.close();
+    }
+
+    private void connectLoop() {
+        boolean warned = false;
+        while (!closed) {
+            try (Socket s = new Socket(InetAddress.getLoopbackAddress(), port);
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8))) {
+                socket = s;
+                Writer writer = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8));
+                writer.write(secret);
+                writer.write('\n');
+                writer.flush();
+                out = writer;
+                warned = false;
+                logger.log(Level.INFO, "[TheShrouded] Connected to loopback message broker on port {0}.", port);
+
+                String line;
+                while ((line = in.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    if (tab > 0)
+                        local.publish(line.substring(0, tab), line.substring(tab + 1));
+                }
+            } catch (IOException e) {
+                if (!closed && !warned) {
+                    logger.log(Level.WARNING,
+                            "[TheShrouded] Loopback message broker on port {0} unavailable ({1}) — retrying.",
+                            new Object[] { port, e.getMessage() });
+                    warned = true;
+                }
+            } finally {
+                out = null;
+                socket = null;
+            }
+
+            if (!closed) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
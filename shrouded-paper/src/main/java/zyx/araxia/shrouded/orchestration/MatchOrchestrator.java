@@ -0,0 +1,637 @@
+package zyx.araxia.shrouded.orchestration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.game.PlayerClass;
+import zyx.araxia.shrouded.lobby.Arena;
+import zyx.araxia.shrouded.lobby.ArenaAllocator;
+import zyx.araxia.shrouded.lobby.ArenaManager;
+import zyx.araxia.shrouded.lobby.Lobby;
+import zyx.araxia.shrouded.lobby.LobbyManager;
+import zyx.araxia.shrouded.lobby.LobbyManager.JoinSessionResult;
+import zyx.araxia.shrouded.lobby.LobbySession;
+import zyx.araxia.shrouded.lobby.MatchInstance;
+import zyx.araxia.shrouded.orchestration.OrchestrationMessages.MatchCancel;
+import zyx.araxia.shrouded.orchestration.OrchestrationMessages.MatchReply;
+import zyx.araxia.shrouded.orchestration.OrchestrationMessages.MatchRequest;
+import zyx.araxia.shrouded.orchestration.OrchestrationMessages.NodeAdvert;
+import zyx.araxia.shrouded.orchestration.OrchestrationMessages.PlayerTransfer;
+import zyx.araxia.shrouded.scheduler.TaskHandle;
+import zyx.araxia.shrouded.scheduler.TaskScheduler;
+
+/**
+ * Runs matches formed on dedicated lobby servers on dedicated match servers,
+ * behind a BungeeCord-compatible proxy (BungeeCord or Velocity), talking
+ * over a {@link MessageBus}.
+ *
+ * <h3>Lobby nodes</h3>
+ * When a {@link MatchInstance} starts, {@link #offer} picks the live match
+ * node with the lowest load from the {@link NodeAdvert adverts} it has heard
+ * and sends it a {@link MatchRequest}. Once the node accepts, each player's
+ * chosen class is published as a {@link PlayerTransfer} and the player is
+ * sent to the node through the proxy. If no node has room, it declines, or it does not answer within
+ * {@code orchestration.request-timeout-seconds}, the match runs locally as
+ * usual.
+ *
+ * <h3>Match nodes</h3>
+ * Every {@code orchestration.advertise-interval-seconds} a match node
+ * advertises how many more matches its arenas can take. On a request it
+ * leases an arena straight away, so the slot it accepts cannot be taken in
+ * the meantime, and holds it for the players. Players in the request's
+ * roster join the {@code orchestration.match-lobby} session as they connect,
+ * whether or not their transfer has been delivered; once all have arrived
+ * (or after {@code orchestration.transfer-timeout-seconds}) the match starts
+ * in the leased arena. When it ends they are sent back to the lobby server
+ * they came from.
+ *
+ * <h3>Snapshots</h3>
+ * A player's {@code PlayerSnapshot} never leaves the lobby node: the world
+ * it was taken in only exists there. The file stays on disk while they are
+ * away and is restored, then deleted, when they log back in. The match node
+ * snapshots them on arrival like any local join and restores that before
+ * sending them back. Main thread only, apart from the bus callbacks, which
+ * hop to it.
+ */
+public class MatchOrchestrator implements Listener {
+
+    /** Which half of the handoff this server runs. */
+    public enum Role {
+        LOBBY, MATCH;
+
+        /** Parses {@code orchestration.role}; anything but {@code "match"} is a lobby node. */
+        public static Role fromConfig(String value) {
+            return "match".equalsIgnoreCase(value) ? MATCH : LOBBY;
+        }
+    }
+
+    /** Plugin messaging channel understood by BungeeCord and Velocity. */
+    private static final String PROXY_CHANNEL = "BungeeCord";
+
+    private final JavaPlugin plugin;
+    private final MessageBus bus;
+    private final Role role;
+    private final String nodeId;
+    private final String serverName;
+    private final Gson gson = new Gson();
+    private final NodeRegistry nodes;
+    private final List<MessageBus.Subscription> subscriptions = new ArrayList<>();
+
+    private TaskHandle advertTask = null;
+    private int nextMatchNumber = 1;
+
+    /** Lobby node: match id → match waiting for a node's reply. */
+    private final Map<String, OutgoingMatch> outgoing = new HashMap<>();
+
+    /** Match node: match id → accepted match waiting for its players. */
+    private final Map<String, IncomingMatch> incoming = new HashMap<>();
+
+    /** Match node: player → their transfer, until they have arrived. */
+    private final Map<UUID, PlayerTransfer> transfers = new HashMap<>();
+
+    /** Match node: player → when their transfer was received, for expiry. */
+    private final Map<UUID, Long> transferTimes = new HashMap<>();
+
+    public MatchOrchestrator(JavaPlugin plugin, MessageBus bus, Role role, String nodeId,
+            String serverName) {
+        this.plugin = plugin;
+        this.bus = bus;
+        this.role = role;
+        this.nodeId = nodeId;
+        this.serverName = serverName;
+        this.nodes = new NodeRegistry(advertIntervalSeconds() * 3_000L);
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /** Subscribes to the bus and, on a match node, starts advertising. */
+    public void start() {
+        plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, PROXY_CHANNEL);
+
+        if (role == Role.LOBBY) {
+            listen(OrchestrationMessages.ADVERT_CHANNEL, NodeAdvert.class, nodes::update);
+            listen(OrchestrationMessages.REPLY_CHANNEL, MatchReply.class, this::onReply);
+        } else {
+            listen(OrchestrationMessages.REQUEST_CHANNEL, MatchRequest.class, this::onRequest);
+            listen(OrchestrationMessages.TRANSFER_CHANNEL, PlayerTransfer.class, this::onTransfer);
+            listen(OrchestrationMessages.CANCEL_CHANNEL, MatchCancel.class, this::onCancel);
+            long period = advertIntervalSeconds() * 20L;
+            advertTask = scheduler().runGlobalTimer(task -> advertise(), 20L, period);
+        }
+
+        plugin.getLogger().log(Level.INFO,
+                "[TheShrouded] Orchestration started as {0} node ''{1}'' (proxy server ''{2}'').",
+                new Object[] { role.name().toLowerCase(), nodeId, serverName });
+    }
+
+    /** Stops advertising, gives back held arenas and closes the bus. */
+    public void stop() {
+        if (advertTask != null) {
+            advertTask.cancel();
+            advertTask = null;
+        }
+        for (MessageBus.Subscription subscription : subscriptions)
+            subscription.unsubscribe();
+        subscriptions.clear();
+        for (OutgoingMatch pending : outgoing.values())
+            pending.timeout.cancel();
+        outgoing.clear();
+        for (IncomingMatch pending : incoming.values()) {
+            pending.timeout.cancel();
+            pending.lease.release();
+        }
+        incoming.clear();
+        bus.close();
+        plugin.getServer().getMessenger().unregisterOutgoingPluginChannel(plugin, PROXY_CHANNEL);
+    }
+
+    /** One-line summary for an admin command or log. */
+    public String getStats() {
+        return role == Role.LOBBY
+                ? String.format("lobby node '%s': known-nodes=%d awaiting-reply=%d",
+                        nodeId, nodes.size(), outgoing.size())
+                : String.format("match node '%s': awaiting-players=%d in-transit=%d",
+                        nodeId, incoming.size(), transfers.size());
+    }
+
+    // -------------------------------------------------------------------------
+    // Lobby node
+    // -------------------------------------------------------------------------
+
+    /**
+     * Offers {@code match} to the least-loaded match node. Returns
+     * {@code false} if this is not a lobby node or no node has room, in which
+     * case the caller starts the match locally. Otherwise the orchestrator
+     * later either hands the roster off and calls
+     * {@link MatchInstance#handedOff()}, or falls back to
+     * {@link MatchInstance#startHere()}.
+     */
+    public boolean offer(MatchInstance match) {
+        if (role != Role.LOBBY)
+            return false;
+        NodeAdvert node = nodes.pickLeastLoaded(nodeId);
+        if (node == null)
+            return false;
+
+        String matchId = nodeId + ":" + match.getName() + ":" + nextMatchNumber++;
+        List<String> players = match.getRoster().stream().map(UUID::toString).toList();
+        long timeoutTicks = plugin.getConfig().getLong("orchestration.request-timeout-seconds", 5) * 20L;
+        OutgoingMatch pending = new OutgoingMatch(match, node,
+                scheduler().runGlobal(() -> onRequestTimedOut(matchId), timeoutTicks));
+        outgoing.put(matchId, pending);
+
+        publish(OrchestrationMessages.REQUEST_CHANNEL, new MatchRequest(matchId, nodeId, node.nodeId(),
+                serverName, match.getSession().getLobby().getValidArenas(), players));
+        plugin.getLogger().log(Level.FINE,
+                "[TheShrouded] Offered match ''{0}'' ({1} players) to node ''{2}''.",
+                new Object[] { matchId, players.size(), node.nodeId() });
+        return true;
+    }
+
+    private void onReply(MatchReply reply) {
+        if (!nodeId.equals(reply.toNode()))
+            return;
+        OutgoingMatch pending = outgoing.remove(reply.matchId());
+        if (pending == null) {
+            // Answered after we gave up and started locally: free the arena.
+            if (reply.accepted())
+                publish(OrchestrationMessages.CANCEL_CHANNEL, new MatchCancel(reply.matchId(), reply.fromNode()));
+            return;
+        }
+        pending.timeout.cancel();
+
+        if (!reply.accepted()) {
+            plugin.getLogger().log(Level.FINE,
+                    "[TheShrouded] Node ''{0}'' declined match ''{1}'' — starting it locally.",
+                    new Object[] { reply.fromNode(), reply.matchId() });
+            pending.match.startHere();
+            return;
+        }
+        handOff(reply, pending);
+    }
+
+    private void onRequestTimedOut(String matchId) {
+        OutgoingMatch pending = outgoing.remove(matchId);
+        if (pending == null)
+            return;
+        plugin.getLogger().log(Level.WARNING,
+                "[TheShrouded] Node ''{0}'' did not answer for match ''{1}'' — starting it locally.",
+                new Object[] { pending.node.nodeId(), matchId });
+        pending.match.startHere();
+    }
+
+    /**
+     * Publishes each remaining player's class and sends them to the
+     * accepting node, then retires the local match. Players without a
+     * snapshot to come back to stay behind in the lobby.
+     */
+    private void handOff(MatchReply reply, OutgoingMatch pending) {
+        MatchInstance match = pending.match;
+        LobbySession session = match.getSession();
+        LobbyManager lobbyManager = ((TheShrouded) plugin).getLobbyManager();
+
+        int transferred = 0;
+        for (UUID uuid : List.copyOf(match.getRoster())) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player == null || !player.isOnline())
+                continue;
+            PlayerClass playerClass = session.getChosenClass(uuid);
+            if (!lobbyManager.handOffPlayer(player))
+                continue;
+
+            publish(OrchestrationMessages.TRANSFER_CHANNEL, new PlayerTransfer(reply.matchId(), reply.fromNode(),
+                    uuid.toString(), playerClass != null ? playerClass.name() : null, serverName));
+            player.sendMessage(Component.text("Sending you to the match server...", NamedTextColor.GREEN));
+            connect(player, pending.node.serverName());
+            transferred++;
+        }
+
+        if (transferred == 0)
+            publish(OrchestrationMessages.CANCEL_CHANNEL, new MatchCancel(reply.matchId(), reply.fromNode()));
+
+        plugin.getLogger().log(Level.INFO,
+                "[TheShrouded] Handed match ''{0}'' off to node ''{1}'' (arena ''{2}'', {3} players).",
+                new Object[] { reply.matchId(), reply.fromNode(), reply.arena(), transferred });
+        match.handedOff();
+    }
+
+    // -------------------------------------------------------------------------
+    // Match node
+    // -------------------------------------------------------------------------
+
+    private void advertise() {
+        LobbySession session = matchSession();
+        int free = session != null ? freeSlots(session.getLobby()) : 0;
+        int active = (session != null ? session.getMatches().size() : 0) + incoming.size();
+        publish(OrchestrationMessages.ADVERT_CHANNEL, new NodeAdvert(nodeId, serverName, free, active,
+                Bukkit.getOnlinePlayers().size(), System.currentTimeMillis()));
+
+        // Forget transfers for players who never turned up.
+        long expiry = System.currentTimeMillis() - transferTimeoutSeconds() * 4_000L;
+        transferTimes.entrySet().removeIf(entry -> {
+            if (entry.getValue() >= expiry)
+                return false;
+            transfers.remove(entry.getKey());
+            return true;
+        });
+    }
+
+    private void onRequest(MatchRequest request) {
+        if (!nodeId.equals(request.toNode()))
+            return;
+
+        LobbySession session = matchSession();
+        if (session == null) {
+            onLeased(request, null);
+            return;
+        }
+        lease(request, session.getLobby(), lease -> onLeased(request, lease));
+    }
+
+    /** Answers {@code request} once an arena has been leased for it, or not ({@code null}). */
+    private void onLeased(MatchRequest request, ArenaAllocator.Lease lease) {
+        if (lease == null) {
+            plugin.getLogger().log(Level.FINE,
+                    "[TheShrouded] Declined match ''{0}'' from node ''{1}'' — no free arena.",
+                    new Object[] { request.matchId(), request.fromNode() });
+            publish(OrchestrationMessages.REPLY_CHANNEL,
+                    new MatchReply(request.matchId(), nodeId, request.fromNode(), false, null));
+            return;
+        }
+
+        IncomingMatch pending = new IncomingMatch(request, lease);
+        pending.timeout = scheduler().runGlobal(() -> onTransferTimedOut(pending),
+                transferTimeoutSeconds() * 20L);
+        incoming.put(request.matchId(), pending);
+        publish(OrchestrationMessages.REPLY_CHANNEL,
+                new MatchReply(request.matchId(), nodeId, request.fromNode(), true, lease.getArena().getName()));
+        plugin.getLogger().log(Level.INFO,
+                "[TheShrouded] Accepted match ''{0}'' from node ''{1}'' in arena ''{2}''.",
+                new Object[] { request.matchId(), request.fromNode(), lease.getArena().getName() });
+
+        // Let lobby nodes see the slot is gone without waiting a full interval.
+        advertise();
+    }
+
+    private void onTransfer(PlayerTransfer transfer) {
+        if (!nodeId.equals(transfer.toNode()))
+            return;
+        // Only players on the roster of a match this node accepted.
+        IncomingMatch pending = incoming.get(transfer.matchId());
+        if (pending == null || pending.request.players() == null
+                || !pending.request.players().contains(transfer.player())) {
+            plugin.getLogger().log(Level.WARNING,
+                    "[TheShrouded] Ignored transfer of {0} for unknown match ''{1}''.",
+                    new Object[] { transfer.player(), transfer.matchId() });
+            return;
+        }
+        UUID uuid = UUID.fromString(transfer.player());
+
+        // Already let in from the request's roster: just apply their class.
+        if (pending.arrived.contains(uuid)) {
+            PlayerClass playerClass = parseClass(transfer.playerClass());
+            LobbySession session = matchSession();
+            if (playerClass != null && session != null)
+                session.setClass(uuid, playerClass);
+            return;
+        }
+
+        transfers.put(uuid, transfer);
+        transferTimes.put(uuid, System.currentTimeMillis());
+
+        // The player may have connected before their transfer was delivered.
+        Player player = Bukkit.getPlayer(uuid);
+        if (player != null && player.isOnline())
+            arrive(player);
+    }
+
+    private void onCancel(MatchCancel cancel) {
+        if (!nodeId.equals(cancel.toNode()))
+            return;
+        IncomingMatch pending = incoming.remove(cancel.matchId());
+        if (pending == null)
+            return;
+        pending.timeout.cancel();
+        pending.lease.release();
+        plugin.getLogger().log(Level.FINE, "[TheShrouded] Match ''{0}'' was called off.", cancel.matchId());
+        for (UUID uuid : pending.arrived)
+            sendHome(uuid, pending.request.returnServer());
+    }
+
+    /**
+     * Adopts transferred players as they connect. Runs before
+     * {@code PlayerJoinListener} so the snapshot written here is not taken for
+     * an orphan.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        if (role == Role.MATCH && (transfers.containsKey(uuid) || expectedIn(uuid) != null))
+            arrive(event.getPlayer());
+    }
+
+    /**
+     * Puts an arriving player into the match lobby and starts their match
+     * once the whole roster is here. A player whose match has already
+     * started or been called off is sent straight back.
+     */
+    private void arrive(Player player) {
+        UUID uuid = player.getUniqueId();
+        PlayerTransfer transfer = transfers.remove(uuid);
+        transferTimes.remove(uuid);
+        IncomingMatch pending = transfer != null ? incoming.get(transfer.matchId()) : expectedIn(uuid);
+        if (transfer == null && pending == null)
+            return;
+        String returnServer = transfer != null ? transfer.returnServer() : pending.request.returnServer();
+
+        LobbySession session = matchSession();
+        JoinSessionResult result = session == null ? JoinSessionResult.UNKNOWN_ERROR
+                : ((TheShrouded) plugin).getLobbyManager().adoptTransferredPlayer(player, session,
+                        transfer != null ? parseClass(transfer.playerClass()) : null);
+        if (result != JoinSessionResult.SUCCESS) {
+            plugin.getLogger().log(Level.WARNING,
+                    "[TheShrouded] Could not adopt transferred player {0} ({1}): {2} — sending them back.",
+                    new Object[] { player.getName(), uuid, result });
+            player.sendMessage(Component.text("Could not join the match — sending you back.", NamedTextColor.RED));
+            connect(player, returnServer);
+            return;
+        }
+
+        if (pending == null) {
+            player.sendMessage(Component.text("Your match has already started — sending you back.",
+                    NamedTextColor.YELLOW));
+            sendHome(uuid, returnServer);
+            return;
+        }
+        pending.arrived.add(uuid);
+        if (pending.arrived.size() >= pending.request.players().size())
+            begin(pending);
+    }
+
+    private void onTransferTimedOut(IncomingMatch pending) {
+        if (incoming.get(pending.request.matchId()) != pending)
+            return;
+        if (pending.arrived.size() >= 2) {
+            plugin.getLogger().log(Level.FINE,
+                    "[TheShrouded] Starting match ''{0}'' with {1} of {2} players.",
+                    new Object[] { pending.request.matchId(), pending.arrived.size(),
+                            pending.request.players().size() });
+            begin(pending);
+            return;
+        }
+
+        incoming.remove(pending.request.matchId());
+        pending.lease.release();
+        plugin.getLogger().log(Level.WARNING,
+                "[TheShrouded] Too few players arrived for match ''{0}'' — calling it off.",
+                pending.request.matchId());
+        for (UUID uuid : pending.arrived) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null)
+                player.sendMessage(Component.text("Not enough players arrived — sending you back.",
+                        NamedTextColor.RED));
+            sendHome(uuid, pending.request.returnServer());
+        }
+    }
+
+    /** Starts an accepted match in its leased arena with whoever has arrived. */
+    private void begin(IncomingMatch pending) {
+        incoming.remove(pending.request.matchId());
+        pending.timeout.cancel();
+
+        String returnServer = pending.request.returnServer();
+        matchSession().startMatch(pending.arrived, pending.lease, match -> {
+            for (UUID uuid : List.copyOf(match.getRoster()))
+                sendHome(uuid, returnServer);
+        });
+    }
+
+    /**
+     * The accepted match whose roster includes {@code uuid} and who has not
+     * yet arrived for it, or {@code null}.
+     */
+    private IncomingMatch expectedIn(UUID uuid) {
+        String player = uuid.toString();
+        for (IncomingMatch pending : incoming.values()) {
+            if (!pending.arrived.contains(uuid) && pending.request.players() != null
+                    && pending.request.players().contains(player))
+                return pending;
+        }
+        return null;
+    }
+
+    /**
+     * Restores the snapshot {@code uuid} was given on arrival and sends them
+     * to {@code server}, where their own snapshot is waiting.
+     */
+    private void sendHome(UUID uuid, String server) {
+        Player player = Bukkit.getPlayer(uuid);
+        if (player == null || !player.isOnline())
+            return;
+        ((TheShrouded) plugin).getLobbyManager().removePlayerFromSession(player);
+        connect(player, server);
+    }
+
+    /**
+     * Leases one arena for {@code request}, from the lobby node's own pool
+     * where this node has any of those arenas, otherwise from
+     * {@code lobby}'s, and passes it to {@code onLeased} ({@code null} if
+     * none is free).
+     */
+    private void lease(MatchRequest request, Lobby lobby, Consumer<ArenaAllocator.Lease> onLeased) {
+        ArenaAllocator allocator = ((TheShrouded) plugin).getArenaManager().getAllocator();
+        List<String> shared = request.arenas() == null ? List.of()
+                : request.arenas().stream().filter(lobby.getValidArenas()::contains).toList();
+        allocator.acquire(request.matchId(), shared, 1, granted -> {
+            if (!granted.isEmpty()) {
+                onLeased.accept(granted.get(0));
+                return;
+            }
+            allocator.acquire(request.matchId(), lobby.getValidArenas(), 1,
+                    fallback -> onLeased.accept(fallback.isEmpty() ? null : fallback.get(0)));
+        });
+    }
+
+    /**
+     * Matches {@code lobby}'s arenas could host right now: one per free
+     * shared arena, plus the remaining instance capacity if any arena in the
+     * pool is instanced.
+     */
+    private int freeSlots(Lobby lobby) {
+        ArenaManager arenaManager = ((TheShrouded) plugin).getArenaManager();
+        int shared = 0;
+        boolean instanced = false;
+        for (Arena arena : arenaManager.getAllocator().getFreeArenas(lobby.getValidArenas())) {
+            if (arena.isInstanced())
+                instanced = true;
+            else
+                shared++;
+        }
+        return shared + (instanced ? arenaManager.getInstanceManager().getRemainingCapacity() : 0);
+    }
+
+    /**
+     * The session transferred players join, or {@code null} if misconfigured.
+     * Its own countdown is switched off: its matches start from {@link #begin}.
+     */
+    private LobbySession matchSession() {
+        String lobbyName = plugin.getConfig().getString("orchestration.match-lobby", "");
+        LobbySession session = ((TheShrouded) plugin).getLobbyManager().getSession(lobbyName);
+        if (session == null) {
+            plugin.getLogger().log(Level.WARNING,
+                    "[TheShrouded] orchestration.match-lobby ''{0}'' is not a registered lobby.", lobbyName);
+            return null;
+        }
+        session.setAutoStart(false);
+        return session;
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Subscribes to {@code channel}, decoding each message as {@code type}
+     * and handling it on the main thread.
+     */
+    private <T> void listen(String channel, Class<T> type, Consumer<T> handler) {
+        subscriptions.add(bus.subscribe(channel, json -> {
+            T message;
+            try {
+                message = gson.fromJson(json, type);
+            } catch (JsonParseException e) {
+                plugin.getLogger().log(Level.WARNING,
+                        "[TheShrouded] Ignored malformed message on ''{0}'': {1}",
+                        new Object[] { channel, e.getMessage() });
+                return;
+            }
+            if (message != null && plugin.isEnabled())
+                scheduler().runGlobal(() -> handler.accept(message), 1L);
+        }));
+    }
+
+    private void publish(String channel, Object message) {
+        bus.publish(channel, gson.toJson(message));
+    }
+
+    /** Asks the proxy to move {@code player} to {@code server}. */
+    private void connect(Player player, String server) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF("Connect");
+            out.writeUTF(server);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen writing to memory
+        }
+        player.sendPluginMessage(plugin, PROXY_CHANNEL, bytes.toByteArray());
+    }
+
+    private static PlayerClass parseClass(String name) {
+        if (name == null)
+            return null;
+        try {
+            return PlayerClass.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private long advertIntervalSeconds() {
+        return Math.max(plugin.getConfig().getLong("orchestration.advertise-interval-seconds", 5), 1);
+    }
+
+    private long transferTimeoutSeconds() {
+        return plugin.getConfig().getLong("orchestration.transfer-timeout-seconds", 30);
+    }
+
+    private TaskScheduler scheduler() {
+        return ((TheShrouded) plugin).getTaskScheduler();
+    }
+
+    /** A local match offered to another node, waiting for its reply. */
+    private record OutgoingMatch(MatchInstance match, NodeAdvert node, TaskHandle timeout) {
+    }
+
+    /** A match accepted from a lobby node, holding its arena until its players arrive. */
+    private static final class IncomingMatch {
+        final MatchRequest request;
+        final ArenaAllocator.Lease lease;
+        final Set<UUID> arrived = new LinkedHashSet<>();
+        TaskHandle timeout;
+
+        IncomingMatch(MatchRequest request, ArenaAllocator.Lease lease) {
+            this.request = request;
+            this.lease = lease;
+        }
+    }
+}
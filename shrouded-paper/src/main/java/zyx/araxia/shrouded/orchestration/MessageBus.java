@@ -0,0 +1,38 @@
+package zyx.araxia.shrouded.orchestration;
+
+import java.util.function.Consumer;
+
+/**
+ * Publish/subscribe transport between the servers of a network. Messages are
+ * strings (the orchestrator sends JSON) published on a named channel and
+ * delivered to every subscriber of that channel on every connected server,
+ * including the publisher's own.
+ *
+ * <p>
+ * Two implementations ship with the plugin: {@link InProcessMessageBus} for
+ * a single JVM and {@link LoopbackMessageBus} for several servers on one
+ * machine. A broker such as Redis pub/sub fits the same interface.
+ *
+ * <p>
+ * Handlers may be called on any thread, and must hop to the server thread
+ * themselves before touching game state.
+ */
+public interface MessageBus {
+
+    /** Sends {@code message} to every subscriber of {@code channel}. */
+    void publish(String channel, String message);
+
+    /**
+     * Calls {@code handler} with every message published on {@code channel}
+     * from now on.
+     */
+    Subscription subscribe(String channel, Consumer<String> handler);
+
+    /** Drops every subscription and releases any connection. */
+    void close();
+
+    /** A registered handler; see {@link #subscribe}. */
+    interface Subscription {
+        void unsubscribe();
+    }
+}
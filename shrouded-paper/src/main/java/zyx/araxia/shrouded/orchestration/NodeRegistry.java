@@ -0,0 +1,75 @@
+package zyx.araxia.shrouded.orchestration;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import zyx.araxia.shrouded.orchestration.OrchestrationMessages.NodeAdvert;
+
+/**
+ * The latest {@link NodeAdvert} from each match node, and the choice of
+ * where the next match goes. Main thread only.
+ */
+class NodeRegistry {
+
+    private final long expiryMillis;
+
+    /** Node id → its latest advert. */
+    private final Map<String, NodeAdvert> adverts = new HashMap<>();
+
+    /**
+     * Node id → slots claimed by requests sent since its latest advert, so a
+     * burst of matches is spread out instead of all picking the same node.
+     */
+    private final Map<String, Integer> claimed = new HashMap<>();
+
+    /** @param expiryMillis how long a node counts as alive after its last advert */
+    NodeRegistry(long expiryMillis) {
+        this.expiryMillis = expiryMillis;
+    }
+
+    void update(NodeAdvert advert) {
+        adverts.put(advert.nodeId(), advert);
+        claimed.remove(advert.nodeId());
+    }
+
+    NodeAdvert get(String nodeId) {
+        return adverts.get(nodeId);
+    }
+
+    int size() {
+        return adverts.size();
+    }
+
+    /**
+     * Picks the live node with a free slot whose load — the fraction of its
+     * slots in use — is lowest, preferring more free slots and then the
+     * lower node id on a tie, and claims one of its slots. Returns
+     * {@code null} if no node can take a match.
+     */
+    NodeAdvert pickLeastLoaded(String excludeNodeId) {
+        long now = System.currentTimeMillis();
+        adverts.values().removeIf(advert -> now - advert.sentAtMillis() > expiryMillis);
+
+        NodeAdvert best = adverts.values().stream()
+                .filter(advert -> !advert.nodeId().equals(excludeNodeId))
+                .filter(advert -> free(advert) > 0)
+                .min(Comparator.comparingDouble(this::load)
+                        .thenComparing(Comparator.comparingInt(this::free).reversed())
+                        .thenComparing(NodeAdvert::nodeId))
+                .orElse(null);
+        if (best != null)
+            claimed.merge(best.nodeId(), 1, Integer::sum);
+        return best;
+    }
+
+    private int free(NodeAdvert advert) {
+        return advert.freeSlots() - claimed.getOrDefault(advert.nodeId(), 0);
+    }
+
+    private double load(NodeAdvert advert) {
+        int busy = advert.activeMatches() + claimed.getOrDefault(advert.nodeId(), 0);
+        int total = busy + free(advert);
+        return total == 0 ? 1.0 : busy / (double) total;
+    }
+}
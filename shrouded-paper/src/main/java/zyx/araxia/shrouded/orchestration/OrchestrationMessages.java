@@ -0,0 +1,66 @@
+package zyx.araxia.shrouded.orchestration;
+
+import java.util.List;
+
+/**
+ * Messages exchanged by {@link MatchOrchestrator}s over the
+ * {@link MessageBus}, one channel per type. Each is serialised as compact
+ * JSON with Gson. Messages meant for one node carry its id in {@code toNode};
+ * every other node ignores them.
+ */
+public final class OrchestrationMessages {
+
+    public static final String ADVERT_CHANNEL = "shrouded:node-advert";
+    public static final String REQUEST_CHANNEL = "shrouded:match-request";
+    public static final String REPLY_CHANNEL = "shrouded:match-reply";
+    public static final String TRANSFER_CHANNEL = "shrouded:player-transfer";
+    public static final String CANCEL_CHANNEL = "shrouded:match-cancel";
+
+    private OrchestrationMessages() {
+    }
+
+    /**
+     * Sent periodically by every match node.
+     *
+     * @param serverName    the node's server name on the proxy, used to send
+     *                      players there
+     * @param freeSlots     matches the node could start right now
+     * @param activeMatches matches running or waiting for their players
+     */
+    public record NodeAdvert(String nodeId, String serverName, int freeSlots,
+            int activeMatches, int players, long sentAtMillis) {
+    }
+
+    /**
+     * A lobby node asking a match node to host a match formed from its lobby.
+     *
+     * @param returnServer proxy server to send the players back to afterwards
+     * @param arenas       the lobby's arena pool, preferred if the match node
+     *                     has any of them
+     * @param players      the roster's UUIDs
+     */
+    public record MatchRequest(String matchId, String fromNode, String toNode,
+            String returnServer, List<String> arenas, List<String> players) {
+    }
+
+    /** The match node's answer: {@code arena} is the one leased for the match. */
+    public record MatchReply(String matchId, String fromNode, String toNode,
+            boolean accepted, String arena) {
+    }
+
+    /**
+     * One player on their way to the match node, published just before they
+     * are sent there. Only carries their class: a player in the request's
+     * roster is let in even if this never arrives.
+     *
+     * @param playerClass  the class they picked in the lobby, or {@code null}
+     * @param returnServer proxy server to send them back to afterwards
+     */
+    public record PlayerTransfer(String matchId, String toNode, String player,
+            String playerClass, String returnServer) {
+    }
+
+    /** The lobby node calling off an accepted match, e.g. because everyone left. */
+    public record MatchCancel(String matchId, String toNode) {
+    }
+}
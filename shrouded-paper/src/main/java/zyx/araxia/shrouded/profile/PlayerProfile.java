@@ -0,0 +1,86 @@
+package zyx.araxia.shrouded.profile;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Lifetime stats for one online player, cached by {@link ProfileStore}.
+ * Starts at zero when the player joins and has the stored totals added once
+ * they have been read, so stats recorded in between are not lost.
+ *
+ * <p>
+ * Read from any thread; the getters return copies.
+ */
+public class PlayerProfile {
+
+    private final UUID uuid;
+
+    private int wins;
+    private int losses;
+    private int kills;
+    private int deaths;
+    private final Map<String, Long> classMillis = new HashMap<>();
+    private final Map<String, Long> abilityUses = new HashMap<>();
+    private boolean loaded = false;
+
+    PlayerProfile(UUID uuid) {
+        this.uuid = uuid;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public synchronized int getWins() {
+        return wins;
+    }
+
+    public synchronized int getLosses() {
+        return losses;
+    }
+
+    public synchronized int getKills() {
+        return kills;
+    }
+
+    public synchronized int getDeaths() {
+        return deaths;
+    }
+
+    /** Class name (e.g. {@code "survivor"}) → milliseconds played in rounds. */
+    public synchronized Map<String, Long> getClassMillis() {
+        return Collections.unmodifiableMap(new HashMap<>(classMillis));
+    }
+
+    /** Ability name (e.g. {@code "survivor_bomb"}) → times cast. */
+    public synchronized Map<String, Long> getAbilityUses() {
+        return Collections.unmodifiableMap(new HashMap<>(abilityUses));
+    }
+
+    /**
+     * Whether the stored totals have been added yet. Until then the profile
+     * only holds what was recorded since the player joined.
+     */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    synchronized void apply(ProfileDelta delta) {
+        wins += delta.wins;
+        losses += delta.losses;
+        kills += delta.kills;
+        deaths += delta.deaths;
+        if (delta.classMillis != null)
+            delta.classMillis.forEach((k, v) -> classMillis.merge(k, v, Long::sum));
+        if (delta.abilityUses != null)
+            delta.abilityUses.forEach((k, v) -> abilityUses.merge(k, v, Long::sum));
+    }
+
+    /** Adds the totals read from disk. */
+    synchronized void loaded(ProfileDelta stored) {
+        apply(stored);
+        loaded = true;
+    }
+}
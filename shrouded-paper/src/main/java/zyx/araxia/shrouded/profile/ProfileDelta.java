@@ -0,0 +1,77 @@
+package zyx.araxia.shrouded.profile;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Changes to one player's profile that have not been written yet. Queued by
+ * {@link ProfileStore} for each recorded stat, then merged per player on the
+ * writer thread so a batch holds one row update per player and key however
+ * many events produced it.
+ */
+final class ProfileDelta {
+
+    int wins;
+    int losses;
+    int kills;
+    int deaths;
+
+    /** Class name → milliseconds played; {@code null} until needed. */
+    Map<String, Long> classMillis;
+
+    /** Ability name → casts; {@code null} until needed. */
+    Map<String, Long> abilityUses;
+
+    static ProfileDelta match(String playerClass, boolean won, long playedMillis) {
+        ProfileDelta delta = new ProfileDelta();
+        if (won)
+            delta.wins = 1;
+        else
+            delta.losses = 1;
+        if (playedMillis > 0) {
+            delta.classMillis = new HashMap<>(2);
+            delta.classMillis.put(playerClass, playedMillis);
+        }
+        return delta;
+    }
+
+    static ProfileDelta kill() {
+        ProfileDelta delta = new ProfileDelta();
+        delta.kills = 1;
+        return delta;
+    }
+
+    static ProfileDelta death() {
+        ProfileDelta delta = new ProfileDelta();
+        delta.deaths = 1;
+        return delta;
+    }
+
+    static ProfileDelta ability(String ability) {
+        ProfileDelta delta = new ProfileDelta();
+        delta.abilityUses = new HashMap<>(2);
+        delta.abilityUses.put(ability, 1L);
+        return delta;
+    }
+
+    /** Adds {@code other} into this delta and returns it. */
+    ProfileDelta plus(ProfileDelta other) {
+        wins += other.wins;
+        losses += other.losses;
+        kills += other.kills;
+        deaths += other.deaths;
+        classMillis = merge(classMillis, other.classMillis);
+        abilityUses = merge(abilityUses, other.abilityUses);
+        return this;
+    }
+
+    private static Map<String, Long> merge(Map<String, Long> into, Map<String, Long> from) {
+        if (from == null)
+            return into;
+        if (into == null)
+            into = new HashMap<>();
+        for (Map.Entry<String, Long> e : from.entrySet())
+            into.merge(e.getKey(), e.getValue(), Long::sum);
+        return into;
+    }
+}
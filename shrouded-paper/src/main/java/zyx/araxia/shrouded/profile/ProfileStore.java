@@ -0,0 +1,378 @@
+package zyx.araxia.shrouded.profile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import zyx.araxia.shrouded.game.PlayerClass;
+import zyx.araxia.shrouded.metrics.LogLinearHistogram;
+import zyx.araxia.shrouded.metrics.MetricsRegistry;
+
+/**
+ * Keeps each player's wins, losses, kills, deaths, time played per class and
+ * ability casts in an SQLite database in the plugin folder
+ * ({@code profiles.file}), using the driver bundled with the server.
+ *
+ * <p>
+ * Recording a stat never touches the disk. It is added to the player's
+ * cached {@link PlayerProfile} if they are online and queued for a single
+ * writer thread, which merges everything queued for the same player and
+ * writes the lot in one transaction once {@code profiles.flush-interval-ms}
+ * has passed since the first unwritten change, or sooner if
+ * {@code profiles.max-batch-players} players are waiting. Rows are only ever
+ * incremented, so nothing has to be read back before a write.
+ *
+ * <p>
+ * Profiles are read on the same thread, after anything queued before them
+ * has been written, so a player who rejoins straight away sees their last
+ * match. If the database cannot be opened the store stays running in memory
+ * only and logs why.
+ */
+public class ProfileStore {
+
+    private static final LogLinearHistogram FLUSH = MetricsRegistry.histogram("profile_flush");
+    private static final MetricsRegistry.Counter UPDATES = MetricsRegistry.counter("profile_updates");
+    private static final MetricsRegistry.Counter FLUSH_FAILURES = MetricsRegistry.counter("profile_flush_failures");
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS profiles ("
+                    + "uuid TEXT PRIMARY KEY, "
+                    + "wins INTEGER NOT NULL DEFAULT 0, "
+                    + "losses INTEGER NOT NULL DEFAULT 0, "
+                    + "kills INTEGER NOT NULL DEFAULT 0, "
+                    + "deaths INTEGER NOT NULL DEFAULT 0)",
+            "CREATE TABLE IF NOT EXISTS class_time ("
+                    + "uuid TEXT NOT NULL, "
+                    + "class TEXT NOT NULL, "
+                    + "millis INTEGER NOT NULL, "
+                    + "PRIMARY KEY (uuid, class)) WITHOUT ROWID",
+            "CREATE TABLE IF NOT EXISTS ability_uses ("
+                    + "uuid TEXT NOT NULL, "
+                    + "ability TEXT NOT NULL, "
+                    + "uses INTEGER NOT NULL, "
+                    + "PRIMARY KEY (uuid, ability)) WITHOUT ROWID",
+    };
+
+    private static final String UPSERT_PROFILE = "INSERT INTO profiles (uuid, wins, losses, kills, deaths) "
+            + "VALUES (?, ?, ?, ?, ?) ON CONFLICT (uuid) DO UPDATE SET "
+            + "wins = wins + excluded.wins, losses = losses + excluded.losses, "
+            + "kills = kills + excluded.kills, deaths = deaths + excluded.deaths";
+    private static final String UPSERT_CLASS_TIME = "INSERT INTO class_time (uuid, class, millis) "
+            + "VALUES (?, ?, ?) ON CONFLICT (uuid, class) DO UPDATE SET millis = millis + excluded.millis";
+    private static final String UPSERT_ABILITY = "INSERT INTO ability_uses (uuid, ability, uses) "
+            + "VALUES (?, ?, ?) ON CONFLICT (uuid, ability) DO UPDATE SET uses = uses + excluded.uses";
+
+    /** Work for the writer thread, handled in the order it was queued. */
+    private sealed interface Op permits Update, Load, Stop {
+    }
+
+    private record Update(UUID uuid, ProfileDelta delta) implements Op {
+    }
+
+    private record Load(PlayerProfile profile) implements Op {
+    }
+
+    private record Stop() implements Op {
+    }
+
+    private final Path file;
+    private final long flushIntervalNanos;
+    private final int maxBatchPlayers;
+    private final Logger logger;
+
+    private final Map<UUID, PlayerProfile> online = new ConcurrentHashMap<>();
+    private final BlockingQueue<Op> queue = new LinkedBlockingQueue<>();
+
+    /** Writer thread only; {@code null} when running in memory only. */
+    private Connection connection;
+
+    private volatile Thread thread;
+
+    public ProfileStore(Path directory, ConfigurationSection config, Logger logger) {
+        this.file = directory.resolve(config != null ? config.getString("file", "profiles.db") : "profiles.db");
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(
+                Math.max(50L, config != null ? config.getLong("flush-interval-ms", 5000L) : 5000L));
+        this.maxBatchPlayers = Math.max(1, config != null ? config.getInt("max-batch-players", 256) : 256);
+        this.logger = logger;
+    }
+
+    public void start() {
+        thread = new Thread(this::run, "TheShrouded-profiles");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Writes everything still queued and closes the database. Blocks for up
+     * to ten seconds; only called from {@code onDisable}.
+     */
+    public void stop() {
+        if (thread == null)
+            return;
+        queue.add(new Stop());
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            logger.log(Level.WARNING,
+                    "[TheShrouded] Profile writer did not finish within 10 seconds; recent stats may be lost.");
+        }
+        thread = null;
+    }
+
+    // -------------------------------------------------------------------------
+    // Online cache
+    // -------------------------------------------------------------------------
+
+    /**
+     * Caches a profile for {@code uuid} and queues the stored totals to be
+     * read into it. Called when the player joins.
+     */
+    public void load(UUID uuid) {
+        PlayerProfile profile = new PlayerProfile(uuid);
+        if (online.putIfAbsent(uuid, profile) == null && thread != null)
+            queue.add(new Load(profile));
+    }
+
+    /** Drops {@code uuid}'s cached profile. Called when the player quits. */
+    public void evict(UUID uuid) {
+        online.remove(uuid);
+    }
+
+    /** Returns {@code uuid}'s cached profile, or {@code null} if they are not online. */
+    public PlayerProfile get(UUID uuid) {
+        return online.get(uuid);
+    }
+
+    // -------------------------------------------------------------------------
+    // Recording
+    // -------------------------------------------------------------------------
+
+    /**
+     * Records a finished match for {@code uuid}: a win or a loss, and the
+     * time spent in the round as {@code playerClass}.
+     */
+    public void recordMatch(UUID uuid, PlayerClass playerClass, boolean won, long playedMillis) {
+        record(uuid, ProfileDelta.match(playerClass.name().toLowerCase(Locale.ROOT), won, playedMillis));
+    }
+
+    public void recordKill(UUID uuid) {
+        record(uuid, ProfileDelta.kill());
+    }
+
+    public void recordDeath(UUID uuid) {
+        record(uuid, ProfileDelta.death());
+    }
+
+    /** Records one cast of {@code ability}, named as in {@code PluginMetrics.recordAbilityCast}. */
+    public void recordAbility(UUID uuid, String ability) {
+        record(uuid, ProfileDelta.ability(ability));
+    }
+
+    private void record(UUID uuid, ProfileDelta delta) {
+        // Apply before queueing: once queued, the writer may merge other
+        // deltas into this one.
+        PlayerProfile profile = online.get(uuid);
+        if (profile != null)
+            profile.apply(delta);
+        UPDATES.increment();
+        if (thread != null)
+            queue.add(new Update(uuid, delta));
+    }
+
+    // -------------------------------------------------------------------------
+    // Writer thread
+    // -------------------------------------------------------------------------
+
+    private void run() {
+        open();
+        Map<UUID, ProfileDelta> pending = new LinkedHashMap<>();
+        long flushAt = 0L;
+        try {
+            while (true) {
+                Op op = pending.isEmpty()
+                        ? queue.take()
+                        : queue.poll(flushAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (op == null) {
+                    flush(pending);
+                    // Only still pending if the write failed; retry later.
+                    flushAt = System.nanoTime() + flushIntervalNanos;
+                } else if (op instanceof Update update) {
+                    if (pending.isEmpty())
+                        flushAt = System.nanoTime() + flushIntervalNanos;
+                    pending.merge(update.uuid(), update.delta(), ProfileDelta::plus);
+                    if (pending.size() >= maxBatchPlayers)
+                        flush(pending);
+                } else if (op instanceof Load load) {
+                    flush(pending);
+                    read(load.profile());
+                } else {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush(pending);
+        if (!pending.isEmpty()) {
+            logger.log(Level.WARNING, "[TheShrouded] Dropped unwritten stats for {0} player(s).", pending.size());
+        }
+        close();
+    }
+
+    private void open() {
+        try {
+            // Registers the driver the server ships with.
+            Class.forName("org.sqlite.JDBC");
+            Files.createDirectories(file.getParent());
+            connection = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                for (String ddl : SCHEMA)
+                    statement.execute(ddl);
+            }
+            connection.setAutoCommit(false);
+        } catch (Exception e) {
+            logger.log(Level.WARNING,
+                    "[TheShrouded] Could not open profile database ''{0}''; stats will not be saved: {1}",
+                    new Object[] { file, e.toString() });
+            close();
+        }
+    }
+
+    private void close() {
+        if (connection == null)
+            return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "[TheShrouded] Could not close profile database: {0}", e.getMessage());
+        }
+        connection = null;
+    }
+
+    /**
+     * Writes {@code pending} in one transaction and clears it. On failure the
+     * changes stay pending and are retried with the next batch; they cannot
+     * grow past one entry per player.
+     */
+    private void flush(Map<UUID, ProfileDelta> pending) {
+        if (pending.isEmpty())
+            return;
+        if (connection == null) {
+            pending.clear();
+            return;
+        }
+
+        long start = System.nanoTime();
+        try (PreparedStatement profiles = connection.prepareStatement(UPSERT_PROFILE);
+                PreparedStatement classTime = connection.prepareStatement(UPSERT_CLASS_TIME);
+                PreparedStatement abilities = connection.prepareStatement(UPSERT_ABILITY)) {
+            for (Map.Entry<UUID, ProfileDelta> e : pending.entrySet()) {
+                String uuid = e.getKey().toString();
+                ProfileDelta delta = e.getValue();
+                if (delta.wins != 0 || delta.losses != 0 || delta.kills != 0 || delta.deaths != 0) {
+                    profiles.setString(1, uuid);
+                    profiles.setInt(2, delta.wins);
+                    profiles.setInt(3, delta.losses);
+                    profiles.setInt(4, delta.kills);
+                    profiles.setInt(5, delta.deaths);
+                    profiles.addBatch();
+                }
+                addCounts(classTime, uuid, delta.classMillis);
+                addCounts(abilities, uuid, delta.abilityUses);
+            }
+            profiles.executeBatch();
+            classTime.executeBatch();
+            abilities.executeBatch();
+            connection.commit();
+            pending.clear();
+            FLUSH.recordSince(start);
+        } catch (SQLException e) {
+            FLUSH_FAILURES.increment();
+            try {
+                connection.rollback();
+            } catch (SQLException ignored) {
+                // The failure above is the one worth reporting.
+            }
+            logger.log(Level.WARNING, "[TheShrouded] Could not write stats for {0} player(s); will retry: {1}",
+                    new Object[] { pending.size(), e.getMessage() });
+        }
+    }
+
+    private static void addCounts(PreparedStatement statement, String uuid, Map<String, Long> counts)
+            throws SQLException {
+        if (counts == null)
+            return;
+        for (Map.Entry<String, Long> e : counts.entrySet()) {
+            statement.setString(1, uuid);
+            statement.setString(2, e.getKey());
+            statement.setLong(3, e.getValue());
+            statement.addBatch();
+        }
+    }
+
+    /** Reads {@code profile}'s stored totals into it, unless the player has left since. */
+    private void read(PlayerProfile profile) {
+        String uuid = profile.getUuid().toString();
+        ProfileDelta stored = new ProfileDelta();
+        if (connection != null) {
+            try {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT wins, losses, kills, deaths FROM profiles WHERE uuid = ?")) {
+                    statement.setString(1, uuid);
+                    try (ResultSet rows = statement.executeQuery()) {
+                        if (rows.next()) {
+                            stored.wins = rows.getInt(1);
+                            stored.losses = rows.getInt(2);
+                            stored.kills = rows.getInt(3);
+                            stored.deaths = rows.getInt(4);
+                        }
+                    }
+                }
+                stored.classMillis = readCounts("SELECT class, millis FROM class_time WHERE uuid = ?", uuid);
+                stored.abilityUses = readCounts("SELECT ability, uses FROM ability_uses WHERE uuid = ?", uuid);
+                connection.commit();
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "[TheShrouded] Could not read profile for ''{0}'': {1}",
+                        new Object[] { uuid, e.getMessage() });
+                return;
+            }
+        }
+        if (online.get(profile.getUuid()) == profile)
+            profile.loaded(stored);
+    }
+
+    private Map<String, Long> readCounts(String sql, String uuid) throws SQLException {
+        Map<String, Long> counts = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, uuid);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next())
+                    counts.put(rows.getString(1), rows.getLong(2));
+            }
+        }
+        return counts;
+    }
+}
@@ -1,6 +1,5 @@
 package zyx.araxia.shrouded.projectile;
 
-import java.util.Collection;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -11,15 +10,12 @@ import org.bukkit.Particle;
 import org.bukkit.Sound;
 import org.bukkit.World;
 import org.bukkit.entity.Display.Billboard;
-import org.bukkit.entity.Entity;
 import org.bukkit.entity.ItemDisplay;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.RayTraceResult;
 import org.bukkit.util.Transformation;
 import org.bukkit.util.Vector;
@@ -27,6 +23,11 @@ import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
 import zyx.araxia.shrouded.TheShrouded;
+import zyx.araxia.shrouded.load.LoadGovernor;
+import zyx.araxia.shrouded.metrics.FlightEvents;
+import zyx.araxia.shrouded.metrics.PluginMetrics;
+import zyx.araxia.shrouded.scheduler.TaskHandle;
+import zyx.araxia.shrouded.scheduler.TaskScheduler;
 
 /**
  * Physics-driven projectile for the Shrouded class's Levitation Bomb.
@@ -37,7 +38,7 @@ import zyx.araxia.shrouded.TheShrouded;
  * thrower) receives a {@link PotionEffectType#LEVITATION} effect for the
  * configured duration.
  */
-public class LeviBombProjectile extends BukkitRunnable {
+public class LeviBombProjectile implements Runnable {
 
     // -------------------------------------------------------------------------
     // Physics constants
@@ -48,8 +49,7 @@ public class LeviBombProjectile extends BukkitRunnable {
     private final double hitboxRadius;
     private final int maxLifetimeTicks;
 
-    private static final Logger LOGGER =
-            JavaPlugin.getPlugin(TheShrouded.class).getLogger();
+    private static final Logger LOGGER = TheShrouded.pluginLogger();
 
     // -------------------------------------------------------------------------
     // Instance state
@@ -62,6 +62,14 @@ public class LeviBombProjectile extends BukkitRunnable {
     private final Vector velocity;
     private final ItemDisplay display;
     private int ticksLived = 0;
+    /** Ticks since the last physics run; see {@link LoadGovernor.Quality#projectileSteps()}. */
+    private int idleTicks = 0;
+    /** Whether this bomb is still counted in {@link PluginMetrics}' in-flight gauge. */
+    private boolean inFlight = true;
+    /** {@code null} unless a flight recording wants this bomb's flight. */
+    private final FlightEvents.ProjectileFlight flight;
+    /** The physics loop, once {@link #launch launched}. */
+    private TaskHandle task;
 
     // -------------------------------------------------------------------------
     // Constructor
@@ -111,12 +119,23 @@ public class LeviBombProjectile extends BukkitRunnable {
                     new Vector3f(0.3f, 0.3f, 0.3f),
                     new Quaternionf()));
         });
+        PluginMetrics.projectileSpawned();
+        flight = FlightEvents.projectileLaunched("levi_bomb", owner);
     }
 
     // -------------------------------------------------------------------------
-    // BukkitRunnable
+    // Physics loop
     // -------------------------------------------------------------------------
 
+    /**
+     * Starts the physics loop, ticking on the display entity's scheduler so
+     * it follows the bomb between regions on Folia.
+     */
+    public void launch(TaskScheduler scheduler) {
+        task = scheduler.runForTimer(display, TaskScheduler.namedTimer("projectile levi bomb", t -> run()),
+                this::cancel, 0L, 1L);
+    }
+
     @Override
     public void run() {
         if (display.isDead() || !display.isValid()) {
@@ -124,46 +143,76 @@ public class LeviBombProjectile extends BukkitRunnable {
             return;
         }
 
-        if (++ticksLived > maxLifetimeTicks) {
-            explode(position.clone());
+        // Under load the governor halves the physics rate: this runs on one
+        // tick in every projectileSteps() and takes that many steps.
+        int steps = LoadGovernor.quality().projectileSteps();
+        if (++idleTicks < steps)
             return;
-        }
+        idleTicks = 0;
 
         World world = position.getWorld();
 
-        // --- Physics step ---
-        velocity.multiply(drag);
-        velocity.setY(velocity.getY() - gravity);
-        double speed = velocity.length();
-        if (speed > maxSpeed) {
-            velocity.multiply(maxSpeed / speed);
+        // --- Plan the run's path, so one entity lookup covers every step ---
+        Vector[] path = new Vector[steps];
+        Vector planned = velocity.clone();
+        Vector point = position.toVector();
+        for (int step = 0; step < steps; step++) {
+            ProjectilePhysics.applyDragAndGravity(planned, drag, gravity, maxSpeed);
+            path[step] = point.add(planned).clone();
         }
+        SweptCollision entities = new SweptCollision(world, position.toVector(), path, steps, hitboxRadius,
+                e -> e instanceof LivingEntity
+                        && !e.getUniqueId().equals(owner.getUniqueId())
+                        && e != display);
 
-        // --- Block collision ---
-        RayTraceResult blockHit = world.rayTraceBlocks(
-                position,
-                velocity.clone().normalize(),
-                velocity.length() + hitboxRadius,
-                FluidCollisionMode.NEVER,
-                true);
-        if (blockHit != null) {
-            explode(blockHit.getHitPosition().toLocation(world));
-            return;
-        }
+        for (int step = 0; step < steps; step++) {
+            if (++ticksLived > maxLifetimeTicks) {
+                explode(position.clone());
+                return;
+            }
+
+            // --- Physics step ---
+            ProjectilePhysics.applyDragAndGravity(velocity, drag, gravity, maxSpeed);
+
+            // --- Block collision (ray trace current → next) ---
+            // Extend the ray by hitboxRadius so the shell of the sphere hits first.
+            RayTraceResult blockHit = world.rayTraceBlocks(
+                    position,
+                    velocity.clone().normalize(),
+                    velocity.length() + hitboxRadius,
+                    FluidCollisionMode.NEVER,
+                    true);
+            if (blockHit != null) {
+                explode(blockHit.getHitPosition().toLocation(world));
+                return;
+            }
 
-        // --- Move ---
-        position.add(velocity);
+            // --- Move ---
+            Vector from = position.toVector();
+            position.add(velocity);
+
+            // --- Entity collision, swept along this step ---
+            if (entities.hits(from, position.toVector())) {
+                display.teleport(position);
+                explode(position.clone());
+                return;
+            }
+        }
         display.teleport(position);
+    }
 
-        // --- Entity collision ---
-        Collection<Entity> hit = world.getNearbyEntities(
-                position,
-                hitboxRadius, hitboxRadius, hitboxRadius,
-                e -> e instanceof LivingEntity
-                        && !e.getUniqueId().equals(owner.getUniqueId())
-                        && e != display);
-        if (!hit.isEmpty()) {
-            explode(position.clone());
+    /**
+     * Stops the physics loop and drops this bomb from the in-flight
+     * projectile gauge, exactly once.
+     */
+    public void cancel() {
+        if (inFlight) {
+            inFlight = false;
+            PluginMetrics.projectileRemoved();
+            FlightEvents.projectileRemoved(flight);
+        }
+        if (task != null) {
+            task.cancel();
         }
     }
 
@@ -175,7 +224,7 @@ public class LeviBombProjectile extends BukkitRunnable {
         World world = loc.getWorld();
 
         // Visual + audio — portal particles suit the End-themed Chorus Flower
-        world.spawnParticle(Particle.PORTAL, loc, 80, 0.5, 0.5, 0.5, 0.2);
+        world.spawnParticle(Particle.PORTAL, loc, LoadGovernor.quality().particles(80), 0.5, 0.5, 0.5, 0.2);
         world.playSound(loc, Sound.ENTITY_ENDERMAN_TELEPORT, 3f, 0.8f);
 
         // Levitation I for the configured duration, ambient so no particles spam
@@ -205,8 +254,6 @@ public class LeviBombProjectile extends BukkitRunnable {
         if (!display.isDead()) {
             display.remove();
         }
-        if (!isCancelled()) {
-            cancel();
-        }
+        cancel();
     }
 }
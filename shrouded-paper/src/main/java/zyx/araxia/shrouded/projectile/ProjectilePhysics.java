@@ -0,0 +1,48 @@
+package zyx.araxia.shrouded.projectile;
+
+import org.bukkit.util.BoundingBox;
+import org.bukkit.util.Vector;
+
+/**
+ * The per-tick velocity update shared by the plugin's thrown projectiles.
+ * Kept free of world access so it can be benchmarked without a server.
+ */
+public final class ProjectilePhysics {
+
+    private ProjectilePhysics() {
+    }
+
+    /**
+     * Applies one tick of drag and gravity to {@code velocity} in place, then
+     * clamps it to {@code maxSpeed}.
+     *
+     * @param drag     fraction of velocity retained each tick
+     * @param gravity  downward acceleration per tick (blocks/tick²)
+     * @param maxSpeed terminal velocity (blocks/tick)
+     */
+    public static void applyDragAndGravity(Vector velocity, double drag,
+            double gravity, double maxSpeed) {
+        velocity.multiply(drag);
+        velocity.setY(velocity.getY() - gravity);
+        double speed = velocity.length();
+        if (speed > maxSpeed) {
+            velocity.multiply(maxSpeed / speed);
+        }
+    }
+
+    /**
+     * Whether {@code box}, grown by {@code radius} on every side, touches the
+     * segment from {@code from} to {@code to}. When the two are equal this is
+     * the plain overlap test of a hitbox of {@code radius} at that point.
+     */
+    public static boolean sweptHit(BoundingBox box, double radius, Vector from, Vector to) {
+        BoundingBox grown = box.clone().expand(radius);
+        if (grown.contains(to))
+            return true;
+        Vector direction = to.clone().subtract(from);
+        double length = direction.length();
+        if (length == 0.0)
+            return false;
+        return grown.rayTrace(from, direction.multiply(1.0 / length), length) != null;
+    }
+}
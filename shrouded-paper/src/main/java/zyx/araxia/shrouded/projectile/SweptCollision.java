@@ -0,0 +1,58 @@
+package zyx.araxia.shrouded.projectile;
+
+import java.util.Collection;
+import java.util.function.Predicate;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.util.BoundingBox;
+import org.bukkit.util.Vector;
+
+/**
+ * Entity collision for a projectile that advances one or more physics
+ * steps in a single run.
+ *
+ * <p>
+ * The projectile plans its path for the run first, ignoring collisions,
+ * and one entity lookup covers all of it. It then tests each step with
+ * {@link #hits} as it takes it, before tracing the next step's blocks, so
+ * an entity on an earlier step is hit before a wall on a later one.
+ */
+final class SweptCollision {
+
+    private final Collection<Entity> nearby;
+    private final double radius;
+    private final boolean sweep;
+
+    /**
+     * Looks up the entities matching {@code filter} within {@code radius}
+     * of the path from {@code start} through the first {@code count} of
+     * {@code points}.
+     */
+    SweptCollision(World world, Vector start, Vector[] points, int count, double radius,
+            Predicate<Entity> filter) {
+        BoundingBox area = BoundingBox.of(points[0], points[0]);
+        for (int i = 1; i < count; i++)
+            area.union(points[i]);
+        if (count > 1)
+            area.union(start);
+        this.nearby = world.getNearbyEntities(area.expand(radius), filter);
+        this.radius = radius;
+        this.sweep = count > 1;
+    }
+
+    /**
+     * Whether the step from {@code from} to {@code to} touches one of the
+     * entities found. With one step per run this is the usual per-tick
+     * test: any entity whose box lies within {@code radius} of {@code to}.
+     * With several, the whole segment is tested, so a projectile stepped
+     * twice in one tick still hits anything it passed between positions.
+     */
+    boolean hits(Vector from, Vector to) {
+        for (Entity entity : nearby) {
+            if (ProjectilePhysics.sweptHit(entity.getBoundingBox(), radius, sweep ? from : to, to))
+                return true;
+        }
+        return false;
+    }
+}
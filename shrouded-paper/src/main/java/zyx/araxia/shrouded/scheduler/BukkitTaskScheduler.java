@@ -0,0 +1,106 @@
+package zyx.araxia.shrouded.scheduler;
+
+import java.util.function.Consumer;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * {@link TaskScheduler} for Paper and Spigot: every location and entity
+ * belongs to the main thread, so all methods map onto the Bukkit scheduler.
+ */
+public class BukkitTaskScheduler implements TaskScheduler {
+
+    private final JavaPlugin plugin;
+
+    public BukkitTaskScheduler(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public TaskHandle runGlobal(Runnable task, long delayTicks) {
+        return wrap(plugin.getServer().getScheduler().runTaskLater(plugin, task, delayTicks));
+    }
+
+    @Override
+    public TaskHandle runGlobalTimer(Consumer<TaskHandle> task, long delayTicks, long periodTicks) {
+        TimerTask timer = new TimerTask(task);
+        timer.runTaskTimer(plugin, delayTicks, periodTicks);
+        return timer;
+    }
+
+    @Override
+    public TaskHandle runAt(Location location, Runnable task, long delayTicks) {
+        return runGlobal(task, delayTicks);
+    }
+
+    @Override
+    public TaskHandle runAtTimer(Location location, Consumer<TaskHandle> task, long delayTicks,
+            long periodTicks) {
+        return runGlobalTimer(task, delayTicks, periodTicks);
+    }
+
+    @Override
+    public TaskHandle runFor(Entity entity, Runnable task, long delayTicks) {
+        return runGlobal(() -> {
+            if (entity.isValid())
+                task.run();
+        }, delayTicks);
+    }
+
+    @Override
+    public TaskHandle runForTimer(Entity entity, Consumer<TaskHandle> task, Runnable retired,
+            long delayTicks, long periodTicks) {
+        return runGlobalTimer(handle -> {
+            if (!entity.isValid()) {
+                handle.cancel();
+                if (retired != null)
+                    retired.run();
+                return;
+            }
+            task.accept(handle);
+        }, delayTicks, periodTicks);
+    }
+
+    @Override
+    public TaskHandle runAsync(Runnable task) {
+        return wrap(plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task));
+    }
+
+    private static TaskHandle wrap(BukkitTask task) {
+        return new TaskHandle() {
+            @Override
+            public void cancel() {
+                task.cancel();
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return task.isCancelled();
+            }
+        };
+    }
+
+    /** A repeating task that hands itself to its body so it can cancel itself. */
+    private static final class TimerTask extends BukkitRunnable implements TaskHandle {
+        private final Consumer<TaskHandle> body;
+
+        TimerTask(Consumer<TaskHandle> body) {
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            body.accept(this);
+        }
+
+        @Override
+        public synchronized void cancel() {
+            if (!isCancelled())
+                super.cancel();
+        }
+    }
+}
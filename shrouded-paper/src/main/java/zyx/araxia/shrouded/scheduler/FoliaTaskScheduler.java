@@ -0,0 +1,130 @@
+package zyx.araxia.shrouded.scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+
+/**
+ * {@link TaskScheduler} for Folia, backed by the global region, region,
+ * entity and async schedulers. Folia rejects initial delays below one tick,
+ * so delays of zero are raised to one.
+ */
+public class FoliaTaskScheduler implements TaskScheduler {
+
+    private final JavaPlugin plugin;
+
+    public FoliaTaskScheduler(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public TaskHandle runGlobal(Runnable task, long delayTicks) {
+        return wrap(plugin.getServer().getGlobalRegionScheduler()
+                .runDelayed(plugin, t -> task.run(), atLeastOne(delayTicks)));
+    }
+
+    @Override
+    public TaskHandle runGlobalTimer(Consumer<TaskHandle> task, long delayTicks, long periodTicks) {
+        return timer(handle -> plugin.getServer().getGlobalRegionScheduler()
+                .runAtFixedRate(plugin, t -> task.accept(handle), atLeastOne(delayTicks), periodTicks));
+    }
+
+    @Override
+    public TaskHandle runAt(Location location, Runnable task, long delayTicks) {
+        return wrap(plugin.getServer().getRegionScheduler()
+                .runDelayed(plugin, location, t -> task.run(), atLeastOne(delayTicks)));
+    }
+
+    @Override
+    public TaskHandle runAtTimer(Location location, Consumer<TaskHandle> task, long delayTicks,
+            long periodTicks) {
+        return timer(handle -> plugin.getServer().getRegionScheduler()
+                .runAtFixedRate(plugin, location, t -> task.accept(handle), atLeastOne(delayTicks),
+                        periodTicks));
+    }
+
+    @Override
+    public TaskHandle runFor(Entity entity, Runnable task, long delayTicks) {
+        return wrap(entity.getScheduler()
+                .runDelayed(plugin, t -> task.run(), null, atLeastOne(delayTicks)));
+    }
+
+    @Override
+    public TaskHandle runForTimer(Entity entity, Consumer<TaskHandle> task, Runnable retired,
+            long delayTicks, long periodTicks) {
+        TaskHandle handle = timer(h -> entity.getScheduler()
+                .runAtFixedRate(plugin, t -> task.accept(h), retired, atLeastOne(delayTicks),
+                        periodTicks));
+        // Folia returns no task, and never calls retired, if the entity is
+        // already gone.
+        if (handle.isCancelled() && retired != null)
+            retired.run();
+        return handle;
+    }
+
+    @Override
+    public TaskHandle runAsync(Runnable task) {
+        return wrap(plugin.getServer().getAsyncScheduler()
+                .runDelayed(plugin, t -> task.run(), 0L, TimeUnit.MILLISECONDS));
+    }
+
+    private static long atLeastOne(long delayTicks) {
+        return Math.max(delayTicks, 1L);
+    }
+
+    /**
+     * Wraps a Folia task. {@code task} is {@code null} when the entity it was
+     * scheduled on has already been removed; the handle then reports itself
+     * cancelled.
+     */
+    private static TaskHandle wrap(ScheduledTask task) {
+        return new TaskHandle() {
+            @Override
+            public void cancel() {
+                if (task != null)
+                    task.cancel();
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return task == null || task.isCancelled();
+            }
+        };
+    }
+
+    /**
+     * Schedules a repeating task whose body needs its own handle before the
+     * Folia task exists.
+     */
+    private static TaskHandle timer(Function<TaskHandle, ScheduledTask> schedule) {
+        DeferredHandle handle = new DeferredHandle();
+        handle.task = schedule.apply(handle);
+        if (handle.cancelled && handle.task != null)
+            handle.task.cancel();
+        return handle;
+    }
+
+    private static final class DeferredHandle implements TaskHandle {
+        private volatile ScheduledTask task;
+        private volatile boolean cancelled = false;
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            ScheduledTask current = task;
+            if (current != null)
+                current.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled || task == null || task.isCancelled();
+        }
+    }
+}
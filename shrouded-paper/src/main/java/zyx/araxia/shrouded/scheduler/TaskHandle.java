@@ -0,0 +1,17 @@
+package zyx.araxia.shrouded.scheduler;
+
+import zyx.araxia.shrouded.core.Cancellable;
+
+/**
+ * A task scheduled through a {@link TaskScheduler}, independent of which
+ * backend scheduled it. Also serves as the core module's
+ * {@link Cancellable}, so core game logic can run on any backend.
+ */
+public interface TaskHandle extends Cancellable {
+
+    /** Stops the task from running again. Safe to call more than once. */
+    @Override
+    void cancel();
+
+    boolean isCancelled();
+}
@@ -0,0 +1,92 @@
+package zyx.araxia.shrouded.scheduler;
+
+import java.util.function.Consumer;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Schedules plugin work on the thread that owns the state it touches.
+ *
+ * <p>
+ * On Paper every method below runs on the single main thread, exactly as a
+ * {@code BukkitRunnable} would. On Folia the server ticks each region of
+ * loaded chunks on its own thread, so work must say what it touches:
+ * <ul>
+ * <li>{@link #runAt} / {@link #runAtTimer} — blocks and entities around a
+ * location, e.g. an arena's session timers or a particle cloud;</li>
+ * <li>{@link #runFor} / {@link #runForTimer} — one entity, e.g. a player or
+ * a projectile's display entity, wherever it moves;</li>
+ * <li>{@link #runGlobal} / {@link #runGlobalTimer} — server-wide state with no
+ * location (world loading, the lobby/arena registries).</li>
+ * </ul>
+ *
+ * <p>
+ * Delays and periods are in ticks. Timer tasks receive their own
+ * {@link TaskHandle} so they can cancel themselves. *
+ * <p>
+ * The plugin does not declare {@code folia-supported} yet: match transitions
+ * still touch arena players from the lobby's region, arena grants run on the
+ * global region, and the arena change journals and chunk preloads are
+ * shared between regions without locking.
+ */
+public interface TaskScheduler {
+
+    /**
+     * Returns the backend for the running server: {@link FoliaTaskScheduler}
+     * on Folia, {@link BukkitTaskScheduler} everywhere else.
+     */
+    static TaskScheduler create(JavaPlugin plugin) {
+        return isFolia() ? new FoliaTaskScheduler(plugin) : new BukkitTaskScheduler(plugin);
+    }
+
+    /** Returns {@code true} if the server is running Folia's regionised scheduler. */
+    static boolean isFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gives {@code task} a name in {@code /shrouded.perf}. Unnamed tasks are
+     * listed under the class that scheduled them.
+     */
+    static Runnable named(String name, Runnable task) {
+        return new TimedTaskScheduler.NamedTask(name, task);
+    }
+
+    /** {@link #named} for timer tasks. */
+    static Consumer<TaskHandle> namedTimer(String name, Consumer<TaskHandle> task) {
+        return new TimedTaskScheduler.NamedTimer(name, task);
+    }
+
+    TaskHandle runGlobal(Runnable task, long delayTicks);
+
+    TaskHandle runGlobalTimer(Consumer<TaskHandle> task, long delayTicks, long periodTicks);
+
+    TaskHandle runAt(Location location, Runnable task, long delayTicks);
+
+    TaskHandle runAtTimer(Location location, Consumer<TaskHandle> task, long delayTicks,
+            long periodTicks);
+
+    /**
+     * Runs {@code task} on {@code entity}'s scheduler. If the entity is removed
+     * before the task runs, the task is dropped.
+     */
+    TaskHandle runFor(Entity entity, Runnable task, long delayTicks);
+
+    /**
+     * Runs {@code task} repeatedly on {@code entity}'s scheduler until it is
+     * cancelled or the entity is removed, in which case {@code retired} (if
+     * not {@code null}) runs once instead.
+     */
+    TaskHandle runForTimer(Entity entity, Consumer<TaskHandle> task, Runnable retired,
+            long delayTicks, long periodTicks);
+
+    /** Runs {@code task} off the server threads. */
+    TaskHandle runAsync(Runnable task);
+}
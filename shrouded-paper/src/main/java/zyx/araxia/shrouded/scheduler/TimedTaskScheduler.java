@@ -0,0 +1,117 @@
+package zyx.araxia.shrouded.scheduler;
+
+import java.util.function.Consumer;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+
+import zyx.araxia.shrouded.metrics.CostHistogram;
+import zyx.araxia.shrouded.metrics.TickCosts;
+
+/**
+ * Wraps another {@link TaskScheduler} so every run of every task on a server
+ * thread is timed into {@link TickCosts}. Tasks named with
+ * {@link TaskScheduler#named} or {@link TaskScheduler#namedTimer} are filed
+ * under that name; the rest under the class that scheduled them, e.g.
+ * {@code task LobbyManager}. Async tasks don't cost tick time and are not
+ * timed.
+ */
+public class TimedTaskScheduler implements TaskScheduler {
+
+    /** {@code task <outer class>} for a lambda or anonymous class. */
+    private static final ClassValue<String> CLASS_NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            String name = type.getName();
+            int lambda = name.indexOf("$$Lambda");
+            if (lambda >= 0)
+                name = name.substring(0, lambda);
+            name = name.substring(name.lastIndexOf('.') + 1);
+            int inner = name.indexOf('$');
+            return "task " + (inner >= 0 ? name.substring(0, inner) : name);
+        }
+    };
+
+    private final TaskScheduler backend;
+
+    public TimedTaskScheduler(TaskScheduler backend) {
+        this.backend = backend;
+    }
+
+    @Override
+    public TaskHandle runGlobal(Runnable task, long delayTicks) {
+        return backend.runGlobal(timed(task), delayTicks);
+    }
+
+    @Override
+    public TaskHandle runGlobalTimer(Consumer<TaskHandle> task, long delayTicks, long periodTicks) {
+        return backend.runGlobalTimer(timed(task), delayTicks, periodTicks);
+    }
+
+    @Override
+    public TaskHandle runAt(Location location, Runnable task, long delayTicks) {
+        return backend.runAt(location, timed(task), delayTicks);
+    }
+
+    @Override
+    public TaskHandle runAtTimer(Location location, Consumer<TaskHandle> task, long delayTicks,
+            long periodTicks) {
+        return backend.runAtTimer(location, timed(task), delayTicks, periodTicks);
+    }
+
+    @Override
+    public TaskHandle runFor(Entity entity, Runnable task, long delayTicks) {
+        return backend.runFor(entity, timed(task), delayTicks);
+    }
+
+    @Override
+    public TaskHandle runForTimer(Entity entity, Consumer<TaskHandle> task, Runnable retired,
+            long delayTicks, long periodTicks) {
+        return backend.runForTimer(entity, timed(task), retired, delayTicks, periodTicks);
+    }
+
+    @Override
+    public TaskHandle runAsync(Runnable task) {
+        return backend.runAsync(task);
+    }
+
+    private static Runnable timed(Runnable task) {
+        CostHistogram costs = TickCosts.histogram(
+                task instanceof NamedTask named ? named.name() : CLASS_NAMES.get(task.getClass()));
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                costs.record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    private static Consumer<TaskHandle> timed(Consumer<TaskHandle> task) {
+        CostHistogram costs = TickCosts.histogram(
+                task instanceof NamedTimer named ? named.name() : CLASS_NAMES.get(task.getClass()));
+        return handle -> {
+            long start = System.nanoTime();
+            try {
+                task.accept(handle);
+            } finally {
+                costs.record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    record NamedTask(String name, Runnable task) implements Runnable {
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
+    record NamedTimer(String name, Consumer<TaskHandle> task) implements Consumer<TaskHandle> {
+        @Override
+        public void accept(TaskHandle handle) {
+            task.accept(handle);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package zyx.araxia.shrouded.sim;
+
+/** Stand-in for the plugin's {@code PlayerClass}, which needs Bukkit. */
+enum SimClass {
+    SHROUDED,
+    SURVIVOR
+}
@@ -0,0 +1,135 @@
+package zyx.araxia.shrouded.sim;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import zyx.araxia.shrouded.core.LobbyCountdown;
+import zyx.araxia.shrouded.core.LobbyRoster;
+
+/**
+ * A lobby full of fake players, run the way {@code LobbySession} runs a real
+ * one: the same {@link LobbyCountdown} and {@link LobbyRoster}, with
+ * players who join at random times, pick a class half of the time and
+ * leave once the lobby has played its rounds.
+ */
+final class SimLobby {
+
+    private final String name;
+    private final VirtualScheduler scheduler;
+    private final SimSettings settings;
+    private final SimReport report;
+    private final Random random;
+    private final LobbyCountdown countdown;
+
+    // null value = player joined but hasn't picked a class yet
+    private final Map<UUID, SimClass> players = new HashMap<>();
+    private final LobbyRoster<SimMatch> members = new LobbyRoster<>();
+
+    private int roundsStarted = 0;
+    private int nextMatchNumber = 1;
+
+    SimLobby(String name, VirtualScheduler scheduler, SimSettings settings,
+            SimReport report, Random random) {
+        this.name = name;
+        this.scheduler = scheduler;
+        this.settings = settings;
+        this.report = report;
+        this.random = random;
+        this.countdown = new LobbyCountdown(scheduler.forPhase(SimPhase.COUNTDOWN),
+                new CountdownHost(), scheduler.clock());
+    }
+
+    /** Schedules every fake player's arrival within the join spread. */
+    void open() {
+        long spreadTicks = Math.max(settings.joinSpreadSeconds() * 20L, 1L);
+        for (int i = 0; i < settings.playersPerLobby(); i++) {
+            UUID uuid = new UUID(name.hashCode(), i);
+            scheduler.schedule(SimPhase.JOIN, () -> join(uuid),
+                    1 + (long) (random.nextDouble() * spreadTicks));
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    SimClass getChosenClass(UUID uuid) {
+        return players.get(uuid);
+    }
+
+    void setClass(UUID uuid, SimClass playerClass) {
+        if (players.containsKey(uuid))
+            players.put(uuid, playerClass);
+    }
+
+    private void join(UUID uuid) {
+        players.put(uuid, random.nextBoolean() ? SimClass.SURVIVOR : null);
+        members.join(uuid, scheduler.clock().instant());
+        startCountdown();
+    }
+
+    private void startCountdown() {
+        countdown.startIfReady(settings.countdownSeconds() * 20L);
+    }
+
+    private void formMatches() {
+        List<SimMatch> formed = members.form(settings.maxPlayersPerMatch(), LobbyCountdown.MIN_PLAYERS,
+                roster -> new SimMatch(this, name + "#" + nextMatchNumber++, roster,
+                        scheduler, settings, report, random));
+        if (formed.isEmpty())
+            return;
+
+        if (++roundsStarted >= settings.roundsPerLobby())
+            countdown.setAutoStart(false);
+
+        for (SimMatch match : formed) {
+            report.matchFormed();
+            match.start();
+        }
+    }
+
+    /**
+     * The roster of {@code match} rejoins the lobby with no class, as after a
+     * real match. Once the last round is over, everyone leaves.
+     */
+    void matchFinished(SimMatch match) {
+        if (!members.finish(match))
+            return;
+        for (UUID uuid : match.getRoster())
+            setClass(uuid, null);
+
+        if (roundsStarted < settings.roundsPerLobby()) {
+            startCountdown();
+        } else if (members.matches().isEmpty()) {
+            players.clear();
+            members.clear();
+            countdown.cancelIfTooFew();
+        }
+    }
+
+    private final class CountdownHost implements LobbyCountdown.Host {
+
+        @Override
+        public int waitingPlayers() {
+            return members.waitingCount();
+        }
+
+        @Override
+        public Instant latestJoin() {
+            return members.latestJoin();
+        }
+
+        @Override
+        public void stateChanged(LobbyCountdown.State from, LobbyCountdown.State to) {
+        }
+
+        @Override
+        public void countdownFinished() {
+            formMatches();
+        }
+    }
+}
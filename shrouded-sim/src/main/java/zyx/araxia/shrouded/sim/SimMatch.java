@@ -0,0 +1,198 @@
+package zyx.araxia.shrouded.sim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import zyx.araxia.shrouded.core.Cancellable;
+import zyx.araxia.shrouded.core.Cooldowns;
+import zyx.araxia.shrouded.core.MatchOutcome;
+import zyx.araxia.shrouded.core.RoleAssigner;
+import zyx.araxia.shrouded.core.VoteTally;
+
+/**
+ * One simulated match, following {@code MatchInstance}: an arena vote,
+ * role assignment, a per-second round timer, ability casts on
+ * {@link Cooldowns}, deaths checked with {@link MatchOutcome}, then the
+ * post-match delay before the roster goes back to the lobby.
+ */
+final class SimMatch {
+
+    /** Cast attempts per player come every 1–5 seconds. */
+    private static final int MIN_CAST_INTERVAL_TICKS = 20;
+    private static final int MAX_CAST_INTERVAL_TICKS = 100;
+
+    private final SimLobby lobby;
+    private final String name;
+    private final List<UUID> roster;
+    private final VirtualScheduler scheduler;
+    private final SimSettings settings;
+    private final SimReport report;
+    private final Random random;
+
+    private final VoteTally<String> votes = new VoteTally<>();
+    private final Cooldowns<UUID> cooldowns;
+    private final Set<UUID> alive = new LinkedHashSet<>();
+
+    /** Outstanding per-player tasks (votes, casts, deaths), cancelled when a stage ends. */
+    private final Map<UUID, Cancellable> playerTasks = new HashMap<>();
+    private final Map<UUID, Cancellable> deathTasks = new HashMap<>();
+
+    private Cancellable voteTask;
+    private Cancellable roundTask;
+    private boolean over;
+
+    SimMatch(SimLobby lobby, String name, List<UUID> roster, VirtualScheduler scheduler,
+            SimSettings settings, SimReport report, Random random) {
+        this.lobby = lobby;
+        this.name = name;
+        this.roster = List.copyOf(roster);
+        this.scheduler = scheduler;
+        this.settings = settings;
+        this.report = report;
+        this.random = random;
+        this.cooldowns = new Cooldowns<>(scheduler::currentMillis);
+    }
+
+    List<UUID> getRoster() {
+        return roster;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    void start() {
+        List<String> candidates = new ArrayList<>();
+        for (int i = 1; i <= Math.max(settings.voteCandidates(), 1); i++)
+            candidates.add("arena-" + i);
+        if (candidates.size() == 1) {
+            scheduler.schedule(SimPhase.ROUND, this::beginRound, 1L);
+            return;
+        }
+
+        votes.open(candidates);
+        long timeoutTicks = settings.voteTimeoutSeconds() * 20L;
+        for (UUID uuid : roster) {
+            // Some players are too slow and are cut off by the timeout.
+            long delay = 1 + (long) (random.nextDouble() * timeoutTicks * 1.2);
+            playerTasks.put(uuid, scheduler.schedule(SimPhase.VOTE, () -> vote(uuid, candidates), delay));
+        }
+        voteTask = scheduler.schedule(SimPhase.VOTE, this::resolveVote, timeoutTicks);
+    }
+
+    private void vote(UUID uuid, List<String> candidates) {
+        playerTasks.remove(uuid);
+        votes.record(uuid, candidates.get(random.nextInt(candidates.size())));
+        if (votes.isComplete(roster.size())) {
+            voteTask.cancel();
+            resolveVote();
+        }
+    }
+
+    private void resolveVote() {
+        cancelAll(playerTasks);
+        votes.resolve(random);
+        votes.clear();
+        // The arena transition takes a tick or more in the plugin.
+        scheduler.schedule(SimPhase.ROUND, this::beginRound, 1L);
+    }
+
+    private void beginRound() {
+        RoleAssigner<SimClass> roles = new RoleAssigner<>(List.of(SimClass.SURVIVOR), random);
+        roles.fillMissing(roster, lobby::getChosenClass).forEach(lobby::setClass);
+        lobby.setClass(roles.pickHidden(roster), SimClass.SHROUDED);
+
+        alive.addAll(roster);
+        long roundTicks = settings.matchDurationSeconds() * 20L;
+        for (UUID uuid : roster) {
+            // About half the players die before the timer runs out.
+            long deathTick = 1 + (long) (random.nextDouble() * roundTicks * 2);
+            if (deathTick < roundTicks)
+                deathTasks.put(uuid, scheduler.schedule(SimPhase.DEATH, () -> onPlayerDied(uuid), deathTick));
+            scheduleCast(uuid);
+        }
+
+        int[] secondsRemaining = { settings.matchDurationSeconds() };
+        roundTask = scheduler.schedule(SimPhase.ROUND, new Runnable() {
+            @Override
+            public void run() {
+                if (secondsRemaining[0]-- <= 0) {
+                    roundTask = null;
+                    endMatch(MatchOutcome.TIME_EXPIRED);
+                    return;
+                }
+                roundTask = scheduler.schedule(SimPhase.ROUND, this, 20L);
+            }
+        }, 20L);
+    }
+
+    private void scheduleCast(UUID uuid) {
+        long delay = MIN_CAST_INTERVAL_TICKS
+                + random.nextInt(MAX_CAST_INTERVAL_TICKS - MIN_CAST_INTERVAL_TICKS + 1);
+        playerTasks.put(uuid, scheduler.schedule(SimPhase.ROUND, () -> cast(uuid), delay));
+    }
+
+    private void cast(UUID uuid) {
+        if (over || !alive.contains(uuid))
+            return;
+        if (cooldowns.isReady(uuid)) {
+            cooldowns.start(uuid, (long) (settings.abilityCooldownSeconds() * 1000));
+            report.abilityCast();
+        }
+        scheduleCast(uuid);
+    }
+
+    private void onPlayerDied(UUID dead) {
+        deathTasks.remove(dead);
+        if (over || !alive.remove(dead))
+            return;
+        Cancellable cast = playerTasks.remove(dead);
+        if (cast != null)
+            cast.cancel();
+
+        MatchOutcome.Side side = side(lobby.getChosenClass(dead));
+        MatchOutcome outcome = MatchOutcome.afterDeath(side, () -> {
+            for (UUID uuid : alive) {
+                if (side(lobby.getChosenClass(uuid)) == MatchOutcome.Side.MERCENARIES)
+                    return true;
+            }
+            return false;
+        });
+        if (outcome != null)
+            endMatch(outcome);
+    }
+
+    private static MatchOutcome.Side side(SimClass playerClass) {
+        if (playerClass == null)
+            return null;
+        return playerClass == SimClass.SHROUDED ? MatchOutcome.Side.SHROUDED : MatchOutcome.Side.MERCENARIES;
+    }
+
+    private void endMatch(MatchOutcome outcome) {
+        over = true;
+        if (roundTask != null) {
+            roundTask.cancel();
+            roundTask = null;
+        }
+        cancelAll(playerTasks);
+        cancelAll(deathTasks);
+        alive.clear();
+        report.matchEnded(outcome);
+
+        scheduler.schedule(SimPhase.POST_MATCH, () -> lobby.matchFinished(this),
+                settings.postMatchSeconds() * 20L);
+    }
+
+    private static void cancelAll(Map<UUID, Cancellable> tasks) {
+        for (Cancellable task : tasks.values())
+            task.cancel();
+        tasks.clear();
+    }
+}
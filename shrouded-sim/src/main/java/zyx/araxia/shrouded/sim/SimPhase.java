@@ -0,0 +1,17 @@
+package zyx.araxia.shrouded.sim;
+
+/** What a scheduled simulator task is doing, for the per-phase report. */
+enum SimPhase {
+    /** Fake players arriving at (or leaving) a lobby. */
+    JOIN,
+    /** The lobby countdown, and forming matches when it runs out. */
+    COUNTDOWN,
+    /** Casting votes and resolving the arena vote. */
+    VOTE,
+    /** Role assignment, the per-second round timer and ability casts. */
+    ROUND,
+    /** A player dying and the win check that follows. */
+    DEATH,
+    /** The post-match delay and handing the roster back to the lobby. */
+    POST_MATCH
+}
@@ -0,0 +1,99 @@
+package zyx.araxia.shrouded.sim;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+
+import zyx.araxia.shrouded.core.MatchOutcome;
+
+/** Counters gathered over one simulator run, printed at the end. */
+final class SimReport {
+
+    private static final long TICK_BUDGET_NANOS = 50_000_000L;
+
+    private static final class PhaseTotals {
+        long tasks;
+        long cpuNanos;
+        long allocatedBytes;
+    }
+
+    private final Map<SimPhase, PhaseTotals> phases = new EnumMap<>(SimPhase.class);
+    private final Map<MatchOutcome, Long> outcomes = new EnumMap<>(MatchOutcome.class);
+
+    private long ticks;
+    private long tickCpuNanos;
+    private long peakTickCpuNanos;
+    private long ticksOverBudget;
+    private int peakScheduledTasks;
+    private long matchesFormed;
+    private long abilityCasts;
+
+    SimReport() {
+        for (SimPhase phase : SimPhase.values())
+            phases.put(phase, new PhaseTotals());
+    }
+
+    void taskRan(SimPhase phase, long cpuNanos, long allocatedBytes) {
+        PhaseTotals totals = phases.get(phase);
+        totals.tasks++;
+        totals.cpuNanos += cpuNanos;
+        totals.allocatedBytes += allocatedBytes;
+    }
+
+    void tickFinished(long cpuNanos) {
+        ticks++;
+        tickCpuNanos += cpuNanos;
+        peakTickCpuNanos = Math.max(peakTickCpuNanos, cpuNanos);
+        if (cpuNanos > TICK_BUDGET_NANOS)
+            ticksOverBudget++;
+    }
+
+    void scheduledTasks(int pending) {
+        peakScheduledTasks = Math.max(peakScheduledTasks, pending);
+    }
+
+    void matchFormed() {
+        matchesFormed++;
+    }
+
+    void matchEnded(MatchOutcome outcome) {
+        outcomes.merge(outcome, 1L, Long::sum);
+    }
+
+    void abilityCast() {
+        abilityCasts++;
+    }
+
+    void print(PrintStream out, SimSettings settings, long wallNanos) {
+        out.printf("Simulated %d lobbies x %d players x %d rounds: %d ticks (%.1f min game time) in %.2f s wall%n",
+                settings.lobbies(), settings.playersPerLobby(), settings.roundsPerLobby(),
+                ticks, ticks * VirtualScheduler.MILLIS_PER_TICK / 60_000.0, wallNanos / 1e9);
+        out.printf("Matches formed: %d, ended: %s, ability casts: %d%n",
+                matchesFormed, outcomes, abilityCasts);
+        out.println();
+
+        out.printf("%-11s %12s %12s %14s %14s%n",
+                "phase", "tasks", "cpu ms", "alloc MB", "alloc MB/cpu s");
+        long totalCpu = 0L;
+        long totalAlloc = 0L;
+        for (Map.Entry<SimPhase, PhaseTotals> entry : phases.entrySet()) {
+            PhaseTotals t = entry.getValue();
+            totalCpu += t.cpuNanos;
+            totalAlloc += t.allocatedBytes;
+            printRow(out, entry.getKey().name(), t.tasks, t.cpuNanos, t.allocatedBytes);
+        }
+        printRow(out, "total", -1, totalCpu, totalAlloc);
+        out.println();
+
+        out.printf("Game-logic ms per tick: mean %.4f, peak %.3f; ticks over the 50 ms budget: %d%n",
+                ticks == 0 ? 0.0 : tickCpuNanos / 1e6 / ticks, peakTickCpuNanos / 1e6, ticksOverBudget);
+        out.printf("Peak scheduled tasks: %d%n", peakScheduledTasks);
+    }
+
+    private static void printRow(PrintStream out, String name, long tasks, long cpuNanos, long allocatedBytes) {
+        double allocMb = allocatedBytes / (1024.0 * 1024.0);
+        double rate = cpuNanos == 0 ? 0.0 : allocMb / (cpuNanos / 1e9);
+        out.printf("%-11s %12s %12.1f %14.1f %14.1f%n",
+                name, tasks < 0 ? "" : Long.toString(tasks), cpuNanos / 1e6, allocMb, rate);
+    }
+}
@@ -0,0 +1,37 @@
+package zyx.araxia.shrouded.sim;
+
+/**
+ * Simulator parameters, read from {@code -Dsim.*} system properties so they
+ * can be passed straight through Maven. Defaults follow the plugin's
+ * {@code config.yml}.
+ */
+record SimSettings(
+        int lobbies,
+        int playersPerLobby,
+        int roundsPerLobby,
+        int maxPlayersPerMatch,
+        int countdownSeconds,
+        int voteCandidates,
+        int voteTimeoutSeconds,
+        int matchDurationSeconds,
+        int postMatchSeconds,
+        int joinSpreadSeconds,
+        double abilityCooldownSeconds,
+        long seed) {
+
+    static SimSettings fromSystemProperties() {
+        return new SimSettings(
+                Integer.getInteger("sim.lobbies", 1000),
+                Integer.getInteger("sim.players-per-lobby", 12),
+                Integer.getInteger("sim.rounds", 3),
+                Integer.getInteger("sim.match-max-players", 8),
+                Integer.getInteger("sim.countdown-seconds", 30),
+                Integer.getInteger("sim.vote-candidates", 3),
+                Integer.getInteger("sim.vote-timeout-seconds", 15),
+                Integer.getInteger("sim.match-duration-seconds", 300),
+                Integer.getInteger("sim.post-match-seconds", 10),
+                Integer.getInteger("sim.join-spread-seconds", 60),
+                Double.parseDouble(System.getProperty("sim.ability-cooldown-seconds", "10")),
+                Long.getLong("sim.seed", 1L));
+    }
+}
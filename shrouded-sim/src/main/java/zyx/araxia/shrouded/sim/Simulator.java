@@ -0,0 +1,54 @@
+package zyx.araxia.shrouded.sim;
+
+import java.util.Random;
+
+/**
+ * Headless capacity simulator. Runs {@code sim.lobbies} lobbies of fake
+ * players through join, countdown, vote, round, deaths and post-match on
+ * the shrouded-core game logic, with no Minecraft server, and prints the CPU
+ * time and allocations each phase cost, the game-logic milliseconds per
+ * tick and the peak number of scheduled tasks.
+ *
+ * <p>
+ * Run with {@code mvn -B verify -Psimulate -Dsim.lobbies=2000}; see
+ * {@link SimSettings} for the other {@code sim.*} properties. The first
+ * {@code sim.warmup-runs} runs (default 1) are thrown away so the JIT has
+ * warmed up before measuring.
+ */
+public final class Simulator {
+
+    /** Give up after a simulated day, in case a lobby never settles. */
+    private static final long MAX_TICKS = 24L * 60 * 60 * 20;
+
+    private Simulator() {
+    }
+
+    public static void main(String[] args) {
+        SimSettings settings = SimSettings.fromSystemProperties();
+        int warmupRuns = Integer.getInteger("sim.warmup-runs", 1);
+        for (int i = 0; i < warmupRuns; i++)
+            run(settings);
+
+        long start = System.nanoTime();
+        SimReport report = run(settings);
+        report.print(System.out, settings, System.nanoTime() - start);
+    }
+
+    private static SimReport run(SimSettings settings) {
+        SimReport report = new SimReport();
+        VirtualScheduler scheduler = new VirtualScheduler(report);
+        Random random = new Random(settings.seed());
+
+        for (int i = 0; i < settings.lobbies(); i++)
+            new SimLobby("lobby-" + i, scheduler, settings, report, random).open();
+
+        while (!scheduler.isIdle()) {
+            if (scheduler.currentTick() >= MAX_TICKS) {
+                System.err.println("[TheShrouded] Simulation still busy after a simulated day — stopping early.");
+                break;
+            }
+            scheduler.tick();
+        }
+        return report;
+    }
+}
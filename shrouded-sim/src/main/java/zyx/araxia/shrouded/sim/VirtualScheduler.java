@@ -0,0 +1,151 @@
+package zyx.araxia.shrouded.sim;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.PriorityQueue;
+
+import zyx.araxia.shrouded.core.Cancellable;
+import zyx.araxia.shrouded.core.GameScheduler;
+
+/**
+ * A {@link GameScheduler} on a virtual clock: time only moves when
+ * {@link #tick()} is called, one 50 ms game tick at a time, so a simulated
+ * hour runs as fast as the game logic allows. Every task is tagged with a
+ * {@link SimPhase} and its CPU time and allocations are charged to that
+ * phase in the {@link SimReport}.
+ */
+final class VirtualScheduler {
+
+    static final long MILLIS_PER_TICK = 50L;
+
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private final SimReport report;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final com.sun.management.ThreadMXBean allocations;
+    private final Clock clock = new VirtualClock();
+
+    private long currentTick = 0L;
+    private long sequence = 0L;
+    private int pending = 0;
+
+    VirtualScheduler(SimReport report) {
+        this.report = report;
+        this.allocations = threads instanceof com.sun.management.ThreadMXBean sun
+                && sun.isThreadAllocatedMemorySupported() ? sun : null;
+        if (allocations != null)
+            allocations.setThreadAllocatedMemoryEnabled(true);
+        if (threads.isCurrentThreadCpuTimeSupported())
+            threads.setThreadCpuTimeEnabled(true);
+    }
+
+    /** A {@link GameScheduler} whose tasks are charged to {@code phase}. */
+    GameScheduler forPhase(SimPhase phase) {
+        return (task, delayTicks) -> schedule(phase, task, delayTicks);
+    }
+
+    Cancellable schedule(SimPhase phase, Runnable task, long delayTicks) {
+        Task scheduled = new Task(currentTick + Math.max(delayTicks, 1L), sequence++, phase, task);
+        queue.add(scheduled);
+        pending++;
+        report.scheduledTasks(pending);
+        return scheduled;
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    long currentMillis() {
+        return currentTick * MILLIS_PER_TICK;
+    }
+
+    /** The virtual wall clock, for core classes that take a {@link Clock}. */
+    Clock clock() {
+        return clock;
+    }
+
+    boolean isIdle() {
+        return pending == 0;
+    }
+
+    /** Advances one tick and runs every task due on it, in scheduling order. */
+    void tick() {
+        currentTick++;
+        long tickCpu = 0L;
+        while (!queue.isEmpty() && queue.peek().dueTick <= currentTick) {
+            Task task = queue.poll();
+            if (task.cancelled)
+                continue;
+            task.cancelled = true;
+            pending--;
+
+            long cpuBefore = cpuNanos();
+            long allocBefore = allocatedBytes();
+            task.body.run();
+            long cpu = cpuNanos() - cpuBefore;
+            report.taskRan(task.phase, cpu, allocatedBytes() - allocBefore);
+            tickCpu += cpu;
+        }
+        report.tickFinished(tickCpu);
+    }
+
+    private long cpuNanos() {
+        return threads.getCurrentThreadCpuTime();
+    }
+
+    private long allocatedBytes() {
+        return allocations != null ? allocations.getCurrentThreadAllocatedBytes() : 0L;
+    }
+
+    private final class Task implements Cancellable, Comparable<Task> {
+
+        private final long dueTick;
+        private final long order;
+        private final SimPhase phase;
+        private final Runnable body;
+        private boolean cancelled;
+
+        private Task(long dueTick, long order, SimPhase phase, Runnable body) {
+            this.dueTick = dueTick;
+            this.order = order;
+            this.phase = phase;
+            this.body = body;
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                pending--;
+            }
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byTick = Long.compare(dueTick, other.dueTick);
+            return byTick != 0 ? byTick : Long.compare(order, other.order);
+        }
+    }
+
+    private final class VirtualClock extends Clock {
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(currentMillis());
+        }
+    }
+}